@@ -2,10 +2,12 @@ package com.simon;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 //TIP To <b>Run</b> code, press <shortcut actionId="Run"/> or
 // click the <icon src="AllIcons.Actions.Execute"/> icon in the gutter.
 @SpringBootApplication
+@EnableScheduling
 public class AndreaApplication {
     public static void main(String[] args) {
         SpringApplication.run(AndreaApplication.class, args);
@@ -0,0 +1,36 @@
+package com.simon.controller;
+
+import com.simon.system.AssetStore;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/assets")
+@RequiredArgsConstructor
+public class AdminAssetController {
+    private final AssetStore assetStore;
+
+    /** Raw request body upload; the response carries the content-addressed id to reference from products. */
+    @PostMapping
+    public ResponseEntity<?> upload(@RequestParam String type, HttpServletRequest request) throws IOException {
+        try {
+            AssetStore.Asset asset = assetStore.store(request.getInputStream(), type);
+            return ResponseEntity.status(HttpStatus.CREATED).body(Map.of(
+                    "id", asset.id(),
+                    "url", "/api/assets/" + asset.id(),
+                    "contentType", asset.contentType(),
+                    "size", asset.size()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
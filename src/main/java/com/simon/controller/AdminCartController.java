@@ -0,0 +1,30 @@
+package com.simon.controller;
+
+import com.simon.service.CartService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/carts")
+@RequiredArgsConstructor
+public class AdminCartController {
+    private final CartService cartService;
+
+    @GetMapping
+    public ResponseEntity<?> list(@RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "10") int size) {
+        var p = cartService.snapshotPage(PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), 100)));
+        return ResponseEntity.ok(Map.of(
+                "items", p.getContent(),
+                "total", p.getTotalElements(),
+                "page", page,
+                "size", size
+        ));
+    }
+}
@@ -1,20 +1,41 @@
 package com.simon.controller;
 
+import com.simon.dto.AdminUserRequests;
+import com.simon.dto.SessionResponses;
+import com.simon.model.User;
 import com.simon.repository.UserRepository;
+import com.simon.service.TokenService;
+import com.simon.service.UserModerationService;
+import com.simon.service.UserSearchIndex;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/admin/users")
 @RequiredArgsConstructor
 public class AdminController {
     private final UserRepository userRepository;
+    private final TokenService tokenService;
+    private final UserSearchIndex userSearchIndex;
+    private final UserModerationService userModerationService;
 
     @GetMapping
     public ResponseEntity<?> list(@RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "10") int size) {
@@ -22,11 +43,72 @@ public class AdminController {
         return ResponseEntity.ok(p);
     }
 
+    /** Users whose username or email starts with {@code q}, answered from {@link UserSearchIndex}. */
+    @GetMapping("/search")
+    public ResponseEntity<?> search(@RequestParam String q, @RequestParam(defaultValue = "20") int limit) {
+        if (q.isBlank()) return ResponseEntity.badRequest().body("Query must not be blank");
+        List<Long> ids = userSearchIndex.search(q, Math.min(Math.max(limit, 1), 100));
+        if (ids.isEmpty()) return ResponseEntity.ok(List.of());
+        Map<Long, User> byId = new HashMap<>();
+        for (User u : userRepository.findAllById(ids)) byId.put(u.getId(), u);
+        List<User> users = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            User u = byId.get(id);
+            if (u != null) users.add(u);
+        }
+        return ResponseEntity.ok(users);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<?> get(@PathVariable Long id) {
         return userRepository.findById(id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
+
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> update(@PathVariable Long id, @RequestBody AdminUserRequests.Update req,
+                                    Authentication auth) {
+        if (auth == null || auth.getName() == null) return ResponseEntity.status(401).body("Unauthorized");
+        var change = new UserModerationService.Change(req.getRole(), req.getIsActive(), false);
+        var outcome = userModerationService.applyOne(id, change, Long.parseLong(auth.getName()));
+        return switch (outcome) {
+            case NOT_FOUND, DELETED -> ResponseEntity.notFound().build();
+            case SKIPPED_SELF -> ResponseEntity.status(HttpStatus.CONFLICT).body("Cannot change your own account");
+            case FAILED -> ResponseEntity.internalServerError().build();
+            case UPDATED, UNCHANGED -> userRepository.findById(id)
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        };
+    }
+
+    /** Soft delete: the account is deactivated and signed out everywhere, its row is kept. */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> delete(@PathVariable Long id, Authentication auth) {
+        if (auth == null || auth.getName() == null) return ResponseEntity.status(401).body("Unauthorized");
+        var change = new UserModerationService.Change(null, false, true);
+        return switch (userModerationService.applyOne(id, change, Long.parseLong(auth.getName()))) {
+            case NOT_FOUND, DELETED -> ResponseEntity.notFound().build();
+            case SKIPPED_SELF -> ResponseEntity.status(HttpStatus.CONFLICT).body("Cannot delete your own account");
+            case FAILED -> ResponseEntity.internalServerError().build();
+            case UPDATED, UNCHANGED -> ResponseEntity.noContent().build();
+        };
+    }
+
+    @PostMapping("/bulk")
+    public ResponseEntity<?> bulk(@Validated @RequestBody AdminUserRequests.Bulk req, Authentication auth) {
+        if (auth == null || auth.getName() == null) return ResponseEntity.status(401).body("Unauthorized");
+        try {
+            return ResponseEntity.ok(userModerationService.apply(req, Long.parseLong(auth.getName())));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/{id}/sessions/revoke-all")
+    public ResponseEntity<?> revokeAllSessions(@PathVariable Long id) {
+        if (!userRepository.existsById(id)) return ResponseEntity.notFound().build();
+        return ResponseEntity.ok(new SessionResponses.Revoked(tokenService.revokeAllSessions(id)));
+    }
 }
 
@@ -0,0 +1,66 @@
+package com.simon.controller;
+
+import com.simon.service.ActiveUsers;
+import com.simon.service.CatalogReadModel;
+import com.simon.service.ChangeFeed;
+import com.simon.service.ProductAutocomplete;
+import com.simon.system.AuthWarmup;
+import com.simon.system.EndpointQueryStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/admin/metrics")
+@RequiredArgsConstructor
+public class AdminMetricsController {
+    private final EndpointQueryStats endpointQueryStats;
+    private final ObjectProvider<AuthWarmup> authWarmup;
+    private final ChangeFeed changeFeed;
+    private final CatalogReadModel catalogReadModel;
+    private final ActiveUsers activeUsers;
+    private final ProductAutocomplete productAutocomplete;
+
+    @GetMapping("/queries")
+    public ResponseEntity<?> queries() {
+        return ResponseEntity.ok(endpointQueryStats.snapshot());
+    }
+
+    @DeleteMapping("/queries")
+    public ResponseEntity<?> resetQueries() {
+        endpointQueryStats.reset();
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/events")
+    public ResponseEntity<?> events() {
+        return ResponseEntity.ok(changeFeed.stats());
+    }
+
+    @GetMapping("/catalog")
+    public ResponseEntity<?> catalog() {
+        return ResponseEntity.ok(catalogReadModel.report());
+    }
+
+    @GetMapping("/autocomplete")
+    public ResponseEntity<?> autocomplete() {
+        return ResponseEntity.ok(productAutocomplete.stats());
+    }
+
+    @GetMapping("/active-users")
+    public ResponseEntity<?> activeUsers(@RequestParam(defaultValue = "30") int days) {
+        return ResponseEntity.ok(activeUsers.view(days));
+    }
+
+    @GetMapping("/warmup")
+    public ResponseEntity<?> warmup() {
+        AuthWarmup warmup = authWarmup.getIfAvailable();
+        if (warmup == null) return ResponseEntity.notFound().build();
+        return ResponseEntity.ok(warmup.report());
+    }
+}
@@ -0,0 +1,45 @@
+package com.simon.controller;
+
+import com.simon.dto.OrderRequests;
+import com.simon.service.OrderService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/admin/orders")
+@RequiredArgsConstructor
+public class AdminOrderController {
+    private final OrderService orderService;
+
+    @GetMapping
+    public ResponseEntity<?> list(@RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(orderService.listAll(page, size));
+    }
+
+    @PatchMapping("/{id}/status")
+    public ResponseEntity<?> updateStatus(@PathVariable Long id, @Validated @RequestBody OrderRequests.UpdateStatus req) {
+        if (!orderService.transition(id, req.getStatus())) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Status change not allowed");
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<?> stats(@RequestParam(defaultValue = "30") int days) {
+        return ResponseEntity.ok(orderService.stats(days));
+    }
+
+    @GetMapping("/pipeline")
+    public ResponseEntity<?> pipeline() {
+        return ResponseEntity.ok(orderService.pipelineStats());
+    }
+}
@@ -0,0 +1,37 @@
+package com.simon.controller;
+
+import com.simon.service.PaymentCallbackService;
+import com.simon.service.PaymentCallbackSimulator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/payments")
+@RequiredArgsConstructor
+public class AdminPaymentController {
+    private final PaymentCallbackService paymentCallbackService;
+    private final ObjectProvider<PaymentCallbackSimulator> simulator;
+
+    @GetMapping("/callbacks/stats")
+    public ResponseEntity<?> stats() {
+        return ResponseEntity.ok(paymentCallbackService.stats());
+    }
+
+    @PostMapping("/callbacks/simulate")
+    public ResponseEntity<?> simulate(@RequestParam List<Long> orderIds,
+                                      @RequestParam(defaultValue = "5") int deliveries,
+                                      @RequestParam(defaultValue = "8") int threads) {
+        PaymentCallbackSimulator sim = simulator.getIfAvailable();
+        if (sim == null) return ResponseEntity.notFound().build();
+        if (deliveries < 1 || threads < 1) return ResponseEntity.badRequest().body("deliveries and threads must be positive");
+        return ResponseEntity.ok(sim.storm(orderIds, deliveries, threads));
+    }
+}
@@ -0,0 +1,101 @@
+package com.simon.controller;
+
+import com.simon.dto.ProductRequests;
+import com.simon.model.Product;
+import com.simon.service.ProductImportParser;
+import com.simon.service.ProductImportService;
+import com.simon.service.ProductService;
+import com.simon.service.RatingAggregates;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.net.URI;
+
+@RestController
+@RequestMapping("/api/admin/products")
+@RequiredArgsConstructor
+public class AdminProductController {
+    private final ProductService productService;
+    private final RatingAggregates ratingAggregates;
+    private final ProductImportService productImportService;
+
+    @PostMapping
+    public ResponseEntity<?> create(@Validated @RequestBody ProductRequests.Create req) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(productService.create(req));
+    }
+
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> update(@PathVariable Long id, @Validated @RequestBody ProductRequests.Update req) {
+        Product product = productService.update(id, req);
+        if (product == null) return ResponseEntity.notFound().build();
+        return ResponseEntity.ok(product);
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> delete(@PathVariable Long id) {
+        if (!productService.delete(id)) return ResponseEntity.notFound().build();
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/{id}/stock")
+    public ResponseEntity<?> restock(@PathVariable Long id, @RequestBody ProductRequests.Restock req) {
+        if (!productService.restock(id, req.getDelta())) {
+            return ResponseEntity.badRequest().body("Unknown product or insufficient stock");
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/ratings/verify")
+    public ResponseEntity<?> verifyRatings() {
+        return ResponseEntity.ok(ratingAggregates.verify());
+    }
+
+    /**
+     * Queues a catalog import from the raw request body. The format comes from {@code format}, or
+     * else from the content type ({@code application/x-ndjson} means NDJSON, anything else CSV).
+     */
+    @PostMapping("/import")
+    public ResponseEntity<?> importCatalog(@RequestParam(required = false) String format,
+                                           HttpServletRequest request) throws IOException {
+        ProductImportParser.Format f;
+        if (format != null) {
+            try {
+                f = ProductImportParser.Format.valueOf(format.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body("format must be csv or ndjson");
+            }
+        } else {
+            String contentType = request.getContentType();
+            f = contentType != null && contentType.startsWith("application/x-ndjson")
+                    ? ProductImportParser.Format.NDJSON
+                    : ProductImportParser.Format.CSV;
+        }
+        ProductImportService.Status status = productImportService.submit(request.getInputStream(), f);
+        return ResponseEntity.accepted().location(URI.create("/api/admin/products/import/" + status.id())).body(status);
+    }
+
+    @GetMapping("/import")
+    public ResponseEntity<?> importJobs() {
+        return ResponseEntity.ok(productImportService.recent());
+    }
+
+    @GetMapping("/import/{jobId}")
+    public ResponseEntity<?> importStatus(@PathVariable String jobId) {
+        ProductImportService.Status status = productImportService.status(jobId);
+        if (status == null) return ResponseEntity.notFound().build();
+        return ResponseEntity.ok(status);
+    }
+}
@@ -0,0 +1,127 @@
+package com.simon.controller;
+
+import com.simon.system.AssetStore;
+import com.simon.system.CatalogCacheFilter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Serves stored assets without buffering them. When the connector supports it, the file is handed
+ * to Tomcat's sendfile through request attributes and no body byte passes through the JVM heap.
+ * Otherwise it is streamed with {@link AssetStore#transfer}. Single byte ranges are honoured.
+ * Ids are content hashes, so responses are cacheable forever.
+ */
+@RestController
+@RequestMapping("/api/assets")
+@RequiredArgsConstructor
+public class AssetController {
+    static final String CACHE_CONTROL = "public, max-age=31536000, immutable";
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final AssetStore assetStore;
+
+    @Value("${app.assets.sendfile-min-bytes:49152}")
+    private long sendfileMinBytes = 48 * 1024;
+
+    /** Inclusive byte range; {@link #parse} returns {@code null} when the whole file should be sent. */
+    record ByteRange(long start, long end) {
+        static final ByteRange UNSATISFIABLE = new ByteRange(-1, -1);
+
+        long length() {
+            return end - start + 1;
+        }
+
+        static ByteRange parse(String header, long size) {
+            if (header == null || !header.startsWith("bytes=")) return null;
+            String spec = header.substring(6).trim();
+            // multiple ranges are allowed to be answered with the full representation
+            if (spec.contains(",")) return null;
+            int dash = spec.indexOf('-');
+            if (dash < 0) return null;
+            try {
+                String first = spec.substring(0, dash).trim();
+                String last = spec.substring(dash + 1).trim();
+                if (first.isEmpty()) {
+                    if (last.isEmpty()) return null;
+                    long suffix = Long.parseLong(last);
+                    if (suffix <= 0 || size == 0) return UNSATISFIABLE;
+                    return new ByteRange(Math.max(0, size - suffix), size - 1);
+                }
+                long start = Long.parseLong(first);
+                long end = last.isEmpty() ? size - 1 : Math.min(Long.parseLong(last), size - 1);
+                if (start >= size) return UNSATISFIABLE;
+                if (end < start) return null;
+                return new ByteRange(start, end);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+
+    @GetMapping("/{id}")
+    public void serve(@PathVariable String id, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        AssetStore.Asset asset = assetStore.find(id);
+        if (asset == null) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        response.setHeader(HttpHeaders.ETAG, asset.etag());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        if (CatalogCacheFilter.matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), asset.etag())) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        ByteRange range = ifRange == null || ifRange.equals(asset.etag())
+                ? ByteRange.parse(request.getHeader(HttpHeaders.RANGE), asset.size())
+                : null;
+        if (range == ByteRange.UNSATISFIABLE) {
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + asset.size());
+            return;
+        }
+        long start = 0;
+        long length = asset.size();
+        if (range != null) {
+            start = range.start();
+            length = range.length();
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE,
+                    "bytes " + range.start() + "-" + range.end() + "/" + asset.size());
+        } else {
+            response.setStatus(HttpServletResponse.SC_OK);
+        }
+        response.setContentType(asset.contentType());
+        response.setContentLengthLong(length);
+        if ("HEAD".equals(request.getMethod()) || length == 0) return;
+
+        if (length >= sendfileMinBytes && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, asset.path().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + length);
+            return;
+        }
+        try (FileChannel file = FileChannel.open(asset.path(), StandardOpenOption.READ)) {
+            AssetStore.transfer(file, start, length, Channels.newChannel(response.getOutputStream()));
+        }
+    }
+}
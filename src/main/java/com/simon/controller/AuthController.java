@@ -4,6 +4,7 @@ import com.simon.dto.AuthRequests;
 import com.simon.dto.AuthResponses;
 import com.simon.model.RefreshToken;
 import com.simon.model.User;
+import com.simon.service.PasswordResetService;
 import com.simon.service.TokenService;
 import com.simon.service.UserService;
 import jakarta.servlet.http.HttpServletRequest;
@@ -24,6 +25,7 @@ import org.springframework.web.bind.annotation.RestController;
 public class AuthController {
     private final UserService userService;
     private final TokenService tokenService;
+    private final PasswordResetService passwordResetService;
 
     @PostMapping("/register")
     public ResponseEntity<?> register(@Validated @RequestBody AuthRequests.RegisterRequest req) {
@@ -40,6 +42,9 @@ public class AuthController {
         if (u == null || !userService.checkPassword(u, req.getPassword())) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid credentials");
         }
+        if (!Boolean.TRUE.equals(u.getIsActive()) || u.getDeletedAt() != null) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Account disabled");
+        }
         String access = tokenService.generateAccessToken(u);
         RefreshToken rt = tokenService.createRefreshToken(u);
         ResponseCookie cookie = ResponseCookie.from("refreshToken", rt.getReplacedByToken())
@@ -70,6 +75,8 @@ public class AuthController {
         if (rt.getRevoked()) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Revoked refresh token");
         if (rt.getExpiresAt().isBefore(java.time.LocalDateTime.now()))
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Expired");
+        if (!Boolean.TRUE.equals(rt.getUser().getIsActive()) || rt.getUser().getDeletedAt() != null)
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Account disabled");
         String access = tokenService.generateAccessToken(rt.getUser());
         return ResponseEntity.ok(new AuthResponses(access, tokenService.getAccessExpiresIn(), "Bearer"));
     }
@@ -88,6 +95,10 @@ public class AuthController {
             var opt = tokenService.findByTokenHash(token);
             opt.ifPresent(tokenService::revoke);
         }
+        String auth = request.getHeader("Authorization");
+        if (auth != null && auth.startsWith("Bearer ")) {
+            tokenService.revokeAccessToken(auth.substring(7));
+        }
         ResponseCookie cookie = ResponseCookie.from("refreshToken", "")
                 .httpOnly(true)
                 .secure(false)
@@ -101,11 +112,15 @@ public class AuthController {
 
     @PostMapping("/password-reset/request")
     public ResponseEntity<?> requestPasswordReset(@Validated @RequestBody AuthRequests.PasswordResetRequest req) {
+        passwordResetService.requestReset(req.getEmail());
         return ResponseEntity.ok().body(java.util.Map.of("message", "If the email exists, a reset link has been sent."));
     }
 
     @PostMapping("/password-reset/confirm")
     public ResponseEntity<?> confirmPasswordReset(@Validated @RequestBody AuthRequests.PasswordResetConfirm req) {
+        if (!passwordResetService.confirmReset(req.getToken(), req.getNewPassword())) {
+            return ResponseEntity.badRequest().body(java.util.Map.of("message", "Invalid or expired token"));
+        }
         return ResponseEntity.ok().body(java.util.Map.of("message", "Password updated"));
     }
 }
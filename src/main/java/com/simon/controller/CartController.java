@@ -0,0 +1,67 @@
+package com.simon.controller;
+
+import com.simon.dto.CartRequests;
+import com.simon.dto.CartResponses;
+import com.simon.service.CartService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/cart")
+@RequiredArgsConstructor
+public class CartController {
+    private final CartService cartService;
+
+    @GetMapping
+    public ResponseEntity<?> get(Authentication auth) {
+        if (auth == null || auth.getName() == null) return ResponseEntity.status(401).body("Unauthorized");
+        Long userId = Long.parseLong(auth.getName());
+        return view(userId, cartService.getItems(userId));
+    }
+
+    @PostMapping("/items")
+    public ResponseEntity<?> add(Authentication auth, @Validated @RequestBody CartRequests.AddItem req) {
+        if (auth == null || auth.getName() == null) return ResponseEntity.status(401).body("Unauthorized");
+        Long userId = Long.parseLong(auth.getName());
+        return view(userId, cartService.addItem(userId, req.getProductId(), req.getQuantity()));
+    }
+
+    @PatchMapping("/items/{productId}")
+    public ResponseEntity<?> update(Authentication auth, @PathVariable Long productId,
+                                    @Validated @RequestBody CartRequests.UpdateQuantity req) {
+        if (auth == null || auth.getName() == null) return ResponseEntity.status(401).body("Unauthorized");
+        Long userId = Long.parseLong(auth.getName());
+        return view(userId, cartService.updateQuantity(userId, productId, req.getQuantity()));
+    }
+
+    @DeleteMapping("/items/{productId}")
+    public ResponseEntity<?> remove(Authentication auth, @PathVariable Long productId) {
+        if (auth == null || auth.getName() == null) return ResponseEntity.status(401).body("Unauthorized");
+        Long userId = Long.parseLong(auth.getName());
+        return view(userId, cartService.removeItem(userId, productId));
+    }
+
+    @DeleteMapping
+    public ResponseEntity<?> clear(Authentication auth) {
+        if (auth == null || auth.getName() == null) return ResponseEntity.status(401).body("Unauthorized");
+        cartService.clear(Long.parseLong(auth.getName()));
+        return ResponseEntity.noContent().build();
+    }
+
+    private ResponseEntity<?> view(Long userId, Map<Long, Integer> items) {
+        if (items == null) return ResponseEntity.notFound().build();
+        return ResponseEntity.ok(CartResponses.CartView.of(userId, items));
+    }
+}
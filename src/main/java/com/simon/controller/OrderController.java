@@ -0,0 +1,61 @@
+package com.simon.controller;
+
+import com.simon.dto.OrderRequests;
+import com.simon.dto.OrderResponses;
+import com.simon.model.Order;
+import com.simon.model.OrderStatus;
+import com.simon.service.OrderService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/orders")
+@RequiredArgsConstructor
+public class OrderController {
+    private final OrderService orderService;
+
+    @PostMapping
+    public ResponseEntity<?> place(Authentication auth, @Validated @RequestBody OrderRequests.PlaceOrder req) {
+        if (auth == null || auth.getName() == null) return ResponseEntity.status(401).body("Unauthorized");
+        Order order = orderService.place(Long.parseLong(auth.getName()), req.getPaymentMethod());
+        if (order == null) return ResponseEntity.badRequest().body("Cart is empty");
+        if (order.getStatus() == OrderStatus.FAILED) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Too many orders in progress, please retry");
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(new OrderResponses.Placed(order.getId(), order.getStatus()));
+    }
+
+    @GetMapping
+    public ResponseEntity<?> history(Authentication auth, @RequestParam(defaultValue = "0") int page,
+                                     @RequestParam(defaultValue = "10") int size) {
+        if (auth == null || auth.getName() == null) return ResponseEntity.status(401).body("Unauthorized");
+        return ResponseEntity.ok(orderService.history(Long.parseLong(auth.getName()), page, size));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> get(Authentication auth, @PathVariable Long id) {
+        if (auth == null || auth.getName() == null) return ResponseEntity.status(401).body("Unauthorized");
+        Order order = orderService.findForUser(Long.parseLong(auth.getName()), id);
+        if (order == null) return ResponseEntity.notFound().build();
+        return ResponseEntity.ok(new OrderResponses.Detail(order, orderService.lines(id)));
+    }
+
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<?> cancel(Authentication auth, @PathVariable Long id) {
+        if (auth == null || auth.getName() == null) return ResponseEntity.status(401).body("Unauthorized");
+        if (!orderService.cancel(Long.parseLong(auth.getName()), id)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Order cannot be cancelled");
+        }
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,57 @@
+package com.simon.controller;
+
+import com.simon.dto.PaymentRequests;
+import com.simon.model.PaymentMethod;
+import com.simon.service.PaymentCallbackService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import tools.jackson.databind.ObjectMapper;
+
+import java.util.Map;
+
+/**
+ * Asynchronous payment notifications from WeChat Pay / Alipay style gateways. The body is signed
+ * with HMAC-SHA256 in {@code X-Signature}; the answer only says whether the callback was taken.
+ */
+@RestController
+@RequestMapping("/api/payments/callbacks")
+@RequiredArgsConstructor
+public class PaymentCallbackController {
+    private static final Map<String, String> ACK = Map.of("code", "SUCCESS");
+
+    private final PaymentCallbackService paymentCallbackService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @PostMapping("/{method}")
+    public ResponseEntity<?> callback(@PathVariable String method,
+                                      @RequestHeader(value = "X-Signature", required = false) String signature,
+                                      @RequestBody String body) {
+        if (!paymentCallbackService.verify(body, signature)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("code", "INVALID_SIGNATURE"));
+        }
+        PaymentCallbackService.Callback callback;
+        try {
+            PaymentRequests.Callback req = objectMapper.readValue(body, PaymentRequests.Callback.class);
+            if (req.getTransactionId() == null || req.getTransactionId().isBlank() || req.getTransactionId().length() > 64
+                    || req.getOrderId() == null || req.getOutcome() == null) {
+                return ResponseEntity.badRequest().body(Map.of("code", "INVALID_REQUEST"));
+            }
+            callback = new PaymentCallbackService.Callback(req.getTransactionId(), req.getOrderId(),
+                    PaymentMethod.valueOf(method.toUpperCase().replace('-', '_')), req.getOutcome(), req.getAmount(),
+                    System.currentTimeMillis());
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("code", "INVALID_REQUEST"));
+        }
+        if (paymentCallbackService.accept(callback) == PaymentCallbackService.Ack.REJECTED) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("code", "BUSY"));
+        }
+        return ResponseEntity.ok(ACK);
+    }
+}
@@ -0,0 +1,58 @@
+package com.simon.controller;
+
+import com.simon.dto.ProductRequests;
+import com.simon.service.ProductAutocomplete;
+import com.simon.service.ProductService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+
+@RestController
+@RequestMapping("/api/products")
+@RequiredArgsConstructor
+public class ProductController {
+    private final ProductService productService;
+    private final ProductAutocomplete productAutocomplete;
+
+    @Value("${app.autocomplete.max-age-seconds:60}")
+    private long suggestMaxAgeSeconds = 60;
+
+    @GetMapping
+    public ResponseEntity<?> list(@RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(productService.list(page, size));
+    }
+
+    /** Called on every keystroke; answered from memory and cacheable by the browser for a short while. */
+    @GetMapping("/suggest")
+    public ResponseEntity<?> suggest(@RequestParam(defaultValue = "") String q, @RequestParam(defaultValue = "8") int limit) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofSeconds(suggestMaxAgeSeconds)).cachePublic())
+                .body(productAutocomplete.complete(q, limit));
+    }
+
+    @PostMapping("/suggest/searches")
+    public ResponseEntity<?> search(Authentication auth, @Validated @RequestBody ProductRequests.Search req) {
+        if (auth == null || auth.getName() == null) return ResponseEntity.status(401).body("Unauthorized");
+        productAutocomplete.recordSearch(Long.parseLong(auth.getName()), req.getQuery());
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> get(@PathVariable Long id) {
+        var view = productService.get(id);
+        if (view == null) return ResponseEntity.notFound().build();
+        return ResponseEntity.ok(view);
+    }
+}
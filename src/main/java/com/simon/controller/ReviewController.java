@@ -0,0 +1,68 @@
+package com.simon.controller;
+
+import com.simon.dto.ReviewRequests;
+import com.simon.model.Review;
+import com.simon.repository.ProductRepository;
+import com.simon.service.ReviewService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/products/{productId}/reviews")
+@RequiredArgsConstructor
+public class ReviewController {
+    private final ReviewService reviewService;
+    private final ProductRepository productRepository;
+
+    @GetMapping
+    public ResponseEntity<?> list(@PathVariable Long productId, @RequestParam(defaultValue = "0") int page,
+                                  @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(reviewService.list(productId, page, size));
+    }
+
+    @PostMapping
+    public ResponseEntity<?> create(Authentication auth, @PathVariable Long productId,
+                                    @Validated @RequestBody ReviewRequests.Write req) {
+        if (auth == null || auth.getName() == null) return ResponseEntity.status(401).body("Unauthorized");
+        Long userId = Long.parseLong(auth.getName());
+        if (!productRepository.existsById(productId)) return ResponseEntity.notFound().build();
+        if (!reviewService.hasPurchased(userId, productId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Only buyers can review this product");
+        }
+        if (reviewService.findMine(userId, productId) != null) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Already reviewed");
+        }
+        Review review = reviewService.create(userId, productId, req.getRating(), req.getComment());
+        return ResponseEntity.status(HttpStatus.CREATED).body(review);
+    }
+
+    @PatchMapping("/mine")
+    public ResponseEntity<?> update(Authentication auth, @PathVariable Long productId,
+                                    @Validated @RequestBody ReviewRequests.Write req) {
+        if (auth == null || auth.getName() == null) return ResponseEntity.status(401).body("Unauthorized");
+        Review review = reviewService.findMine(Long.parseLong(auth.getName()), productId);
+        if (review == null) return ResponseEntity.notFound().build();
+        return ResponseEntity.ok(reviewService.update(review, req.getRating(), req.getComment()));
+    }
+
+    @DeleteMapping("/mine")
+    public ResponseEntity<?> delete(Authentication auth, @PathVariable Long productId) {
+        if (auth == null || auth.getName() == null) return ResponseEntity.status(401).body("Unauthorized");
+        Review review = reviewService.findMine(Long.parseLong(auth.getName()), productId);
+        if (review == null) return ResponseEntity.notFound().build();
+        reviewService.delete(review);
+        return ResponseEntity.noContent().build();
+    }
+}
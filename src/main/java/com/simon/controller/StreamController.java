@@ -0,0 +1,96 @@
+package com.simon.controller;
+
+import com.simon.model.Order;
+import com.simon.service.ChangeFeed;
+import com.simon.service.OrderService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Server-Sent Events for pages that would otherwise poll. Product channels (stock and price) are
+ * public; an order channel is only open to the order's owner. Clients should load the current state
+ * over REST once the stream is open and again whenever a {@code resync} event arrives. Error answers
+ * carry no body, since the handler must declare {@link SseEmitter} as its body type.
+ */
+@RestController
+@RequestMapping("/api/stream")
+@RequiredArgsConstructor
+public class StreamController {
+    private final ChangeFeed changeFeed;
+    private final OrderService orderService;
+
+    @Value("${app.events.stream-timeout-ms:3600000}")
+    private long streamTimeoutMillis = 3_600_000;
+
+    @Value("${app.events.max-products:100}")
+    private int maxProducts = 100;
+
+    @GetMapping(value = "/products", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> products(@RequestParam List<Long> ids) {
+        LinkedHashSet<Long> distinct = new LinkedHashSet<>(ids);
+        if (distinct.isEmpty() || distinct.size() > maxProducts) return ResponseEntity.badRequest().build();
+        SseEmitter emitter = new SseEmitter(streamTimeoutMillis);
+        ChangeFeed.Subscription subscription = changeFeed.subscribe(
+                distinct.stream().map(ChangeFeed::productChannel).toList(), sink(emitter));
+        if (subscription == null) return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        return ResponseEntity.ok(bind(emitter, subscription));
+    }
+
+    @GetMapping(value = "/orders/{id}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> order(Authentication auth, @PathVariable Long id) {
+        if (auth == null || auth.getName() == null) return ResponseEntity.status(401).build();
+        SseEmitter emitter = new SseEmitter(streamTimeoutMillis);
+        // subscribe before reading the order, so a change in between is delivered rather than lost
+        ChangeFeed.Subscription subscription = changeFeed.subscribe(List.of(ChangeFeed.orderChannel(id)), sink(emitter));
+        if (subscription == null) return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        Order order = orderService.findForUser(Long.parseLong(auth.getName()), id);
+        if (order == null) {
+            subscription.close();
+            return ResponseEntity.notFound().build();
+        }
+        subscription.offer(new ChangeFeed.Change(ChangeFeed.orderChannel(id), ChangeFeed.ORDER_STATUS,
+                new ChangeFeed.OrderState(id, order.getStatus())));
+        return ResponseEntity.ok(bind(emitter, subscription));
+    }
+
+    private static SseEmitter bind(SseEmitter emitter, ChangeFeed.Subscription subscription) {
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(_ -> subscription.close());
+        return emitter;
+    }
+
+    private static ChangeFeed.Sink sink(SseEmitter emitter) {
+        return new ChangeFeed.Sink() {
+            @Override
+            public void send(String event, Object data) throws IOException {
+                emitter.send(SseEmitter.event().name(event).data(data, MediaType.APPLICATION_JSON));
+            }
+
+            @Override
+            public void heartbeat() throws IOException {
+                // keeps proxies from closing the idle connection and surfaces dead clients
+                emitter.send(SseEmitter.event().comment("keep-alive"));
+            }
+
+            @Override
+            public void close() {
+                emitter.complete();
+            }
+        };
+    }
+}
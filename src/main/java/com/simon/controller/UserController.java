@@ -1,11 +1,18 @@
 package com.simon.controller;
 
+import com.simon.dto.SessionResponses;
+import com.simon.dto.UserResponses;
 import com.simon.repository.UserRepository;
+import com.simon.security.JwtAuthentication;
+import com.simon.security.JwtPrincipal;
+import com.simon.service.TokenService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -13,6 +20,7 @@ import org.springframework.web.bind.annotation.RestController;
 @RequiredArgsConstructor
 public class UserController {
     private final UserRepository userRepository;
+    private final TokenService tokenService;
 
     @GetMapping("/me")
     public ResponseEntity<?> me(Authentication auth) {
@@ -22,5 +30,28 @@ public class UserController {
         if (u == null) return ResponseEntity.notFound().build();
         return ResponseEntity.ok(u);
     }
+
+    /** Id, username and role straight from the access token, without touching the database. */
+    @GetMapping("/me/identity")
+    public ResponseEntity<?> identity(Authentication auth) {
+        JwtPrincipal principal = JwtAuthentication.principal(auth);
+        if (principal == null) return ResponseEntity.status(401).body("Unauthorized");
+        return ResponseEntity.ok(UserResponses.Identity.of(principal));
+    }
+
+    @GetMapping("/me/sessions")
+    public ResponseEntity<?> sessions(Authentication auth, @RequestParam(defaultValue = "0") int page,
+                                      @RequestParam(defaultValue = "20") int size) {
+        if (auth == null || auth.getName() == null) return ResponseEntity.status(401).body("Unauthorized");
+        Long id = Long.parseLong(auth.getName());
+        return ResponseEntity.ok(tokenService.activeSessions(id, page, size).map(SessionResponses.Session::of));
+    }
+
+    @PostMapping("/me/sessions/revoke-all")
+    public ResponseEntity<?> revokeAllSessions(Authentication auth) {
+        if (auth == null || auth.getName() == null) return ResponseEntity.status(401).body("Unauthorized");
+        Long id = Long.parseLong(auth.getName());
+        return ResponseEntity.ok(new SessionResponses.Revoked(tokenService.revokeAllSessions(id)));
+    }
 }
 
@@ -0,0 +1,53 @@
+package com.simon.dto;
+
+import com.simon.model.Role;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class AdminUserRequests {
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Accessors(chain = true)
+    public static class Update {
+        private Role role;
+        private Boolean isActive;
+    }
+
+    /** Targets either {@code ids} or every live user matching {@code filter}. */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Accessors(chain = true)
+    public static class Bulk {
+        @Size(max = 10000)
+        private List<Long> ids;
+
+        @Valid
+        private Filter filter;
+
+        private Role role;
+        private Boolean isActive;
+        private boolean delete;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Accessors(chain = true)
+    public static class Filter {
+        @Size(max = 100)
+        private String prefix;
+
+        private Role role;
+        private LocalDateTime createdFrom;
+        private LocalDateTime createdTo;
+    }
+}
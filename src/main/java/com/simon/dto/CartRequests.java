@@ -0,0 +1,34 @@
+package com.simon.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+
+public class CartRequests {
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Accessors(chain = true)
+    public static class AddItem {
+        @NotNull
+        private Long productId;
+
+        @Min(1)
+        @Max(999)
+        private int quantity = 1;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Accessors(chain = true)
+    public static class UpdateQuantity {
+        @Min(1)
+        @Max(999)
+        private int quantity;
+    }
+}
@@ -0,0 +1,41 @@
+package com.simon.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class CartResponses {
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Accessors(chain = true)
+    public static class CartView {
+        private Long userId;
+        private List<Line> items = new ArrayList<>();
+        private int totalQuantity;
+
+        public static CartView of(Long userId, Map<Long, Integer> items) {
+            CartView view = new CartView().setUserId(userId);
+            int total = 0;
+            for (var e : items.entrySet()) {
+                view.items.add(new Line(e.getKey(), e.getValue()));
+                total += e.getValue();
+            }
+            return view.setTotalQuantity(total);
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Accessors(chain = true)
+    public static class Line {
+        private Long productId;
+        private int quantity;
+    }
+}
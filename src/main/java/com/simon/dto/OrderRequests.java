@@ -0,0 +1,29 @@
+package com.simon.dto;
+
+import com.simon.model.OrderStatus;
+import com.simon.model.PaymentMethod;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+
+public class OrderRequests {
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Accessors(chain = true)
+    public static class PlaceOrder {
+        @NotNull
+        private PaymentMethod paymentMethod;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Accessors(chain = true)
+    public static class UpdateStatus {
+        @NotNull
+        private OrderStatus status;
+    }
+}
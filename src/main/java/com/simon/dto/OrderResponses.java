@@ -0,0 +1,33 @@
+package com.simon.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.simon.model.Order;
+import com.simon.model.OrderLine;
+import com.simon.model.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+
+import java.util.List;
+
+public class OrderResponses {
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Accessors(chain = true)
+    public static class Placed {
+        @JsonFormat(shape = JsonFormat.Shape.STRING)
+        private Long orderId;
+        private OrderStatus status;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Accessors(chain = true)
+    public static class Detail {
+        private Order order;
+        private List<OrderLine> lines;
+    }
+}
@@ -0,0 +1,22 @@
+package com.simon.dto;
+
+import com.simon.model.PaymentOutcome;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+
+import java.math.BigDecimal;
+
+public class PaymentRequests {
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Accessors(chain = true)
+    public static class Callback {
+        private String transactionId;
+        private Long orderId;
+        private PaymentOutcome outcome;
+        private BigDecimal amount;
+    }
+}
@@ -0,0 +1,94 @@
+package com.simon.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+
+import java.math.BigDecimal;
+
+public class ProductRequests {
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Accessors(chain = true)
+    public static class Create {
+        @Size(max = 64)
+        private String sku;
+
+        @NotBlank
+        @Size(max = 200)
+        private String name;
+
+        @Size(max = 2000)
+        private String description;
+
+        @Size(max = 100)
+        private String category;
+
+        @NotNull
+        @DecimalMin("0.00")
+        private BigDecimal price;
+
+        @Min(0)
+        private int stock;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Accessors(chain = true)
+    public static class Update {
+        @Size(min = 1, max = 200)
+        private String name;
+
+        @Size(max = 2000)
+        private String description;
+
+        @Size(max = 100)
+        private String category;
+
+        @DecimalMin("0.00")
+        private BigDecimal price;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Accessors(chain = true)
+    public static class Restock {
+        private int delta;
+    }
+
+    /** A search the client ran, reported so frequent ones become completions. */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Accessors(chain = true)
+    public static class Search {
+        @NotBlank
+        @Size(max = 200)
+        private String query;
+    }
+
+    /** One row of a catalog feed, from a CSV record or an NDJSON line. */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Accessors(chain = true)
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class ImportRow {
+        private String sku;
+        private String name;
+        private String description;
+        private String category;
+        private BigDecimal price;
+        private Integer stock;
+    }
+}
@@ -0,0 +1,45 @@
+package com.simon.dto;
+
+import com.simon.model.Product;
+import com.simon.service.RatingAggregates;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+
+import java.math.BigDecimal;
+
+public class ProductResponses {
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Accessors(chain = true)
+    public static class ProductView {
+        private Long id;
+        private String name;
+        private String description;
+        private String category;
+        private BigDecimal price;
+        private boolean available;
+        private Rating rating;
+
+        public static ProductView of(Product p, RatingAggregates.Summary rating) {
+            return new ProductView(p.getId(), p.getName(), p.getDescription(), p.getCategory(), p.getPrice(),
+                    p.getStock() != null && p.getStock() > 0, Rating.of(rating));
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Accessors(chain = true)
+    public static class Rating {
+        private double average;
+        private long count;
+        private long[] histogram;
+
+        public static Rating of(RatingAggregates.Summary s) {
+            return new Rating(s.average(), s.count(), s.histogram().clone());
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.simon.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+
+public class ReviewRequests {
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Accessors(chain = true)
+    public static class Write {
+        @Min(1)
+        @Max(5)
+        private int rating;
+
+        @Size(max = 2000)
+        private String comment;
+    }
+}
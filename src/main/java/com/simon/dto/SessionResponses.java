@@ -0,0 +1,33 @@
+package com.simon.dto;
+
+import com.simon.model.RefreshToken;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+
+import java.time.LocalDateTime;
+
+public class SessionResponses {
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Accessors(chain = true)
+    public static class Session {
+        private Long id;
+        private LocalDateTime issuedAt;
+        private LocalDateTime expiresAt;
+
+        public static Session of(RefreshToken t) {
+            return new Session(t.getId(), t.getIssuedAt(), t.getExpiresAt());
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Accessors(chain = true)
+    public static class Revoked {
+        private int revoked;
+    }
+}
@@ -0,0 +1,24 @@
+package com.simon.dto;
+
+import com.simon.model.Role;
+import com.simon.security.JwtPrincipal;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+
+public class UserResponses {
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Accessors(chain = true)
+    public static class Identity {
+        private Long id;
+        private String username;
+        private Role role;
+
+        public static Identity of(JwtPrincipal p) {
+            return new Identity(p.id(), p.username(), p.role());
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.simon.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.simon.system.SnowflakeId;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+
+import java.math.BigDecimal;
+
+@Entity
+@Table(name = "OrderLines", indexes = @Index(name = "idx_order_lines_order", columnList = "order_id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Accessors(chain = true)
+public class OrderLine {
+    @Id
+    @SnowflakeId
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    private Long id;
+
+    @Column(name = "order_id", nullable = false)
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    private Long orderId;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(nullable = false, length = 200)
+    private String productName;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal unitPrice;
+
+    @Column(nullable = false)
+    private Integer quantity;
+}
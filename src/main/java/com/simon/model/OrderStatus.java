@@ -0,0 +1,26 @@
+package com.simon.model;
+
+public enum OrderStatus {
+    PROCESSING,
+    AWAITING_PAYMENT,
+    PAID,
+    SHIPPED,
+    DELIVERED,
+    CANCELLED,
+    FAILED;
+
+    /** Statuses whose orders count towards revenue. */
+    public boolean isPaid() {
+        return this == PAID || this == SHIPPED || this == DELIVERED;
+    }
+
+    public boolean canTransitionTo(OrderStatus next) {
+        return switch (this) {
+            case PROCESSING -> next == AWAITING_PAYMENT || next == FAILED;
+            case AWAITING_PAYMENT -> next == PAID || next == CANCELLED;
+            case PAID -> next == SHIPPED || next == CANCELLED;
+            case SHIPPED -> next == DELIVERED;
+            case DELIVERED, CANCELLED, FAILED -> false;
+        };
+    }
+}
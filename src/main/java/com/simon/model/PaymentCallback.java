@@ -0,0 +1,53 @@
+package com.simon.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One processed gateway notification. The unique gateway transaction id is the durable half of
+ * the callback idempotency store.
+ */
+@Entity
+@Table(name = "PaymentCallbacks",
+        uniqueConstraints = @UniqueConstraint(name = "uk_payment_callbacks_txn", columnNames = "gateway_txn_id"),
+        indexes = @Index(name = "idx_payment_callbacks_order", columnList = "order_id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Accessors(chain = true)
+public class PaymentCallback {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "gateway_txn_id", nullable = false, length = 64)
+    private String gatewayTxnId;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private PaymentMethod paymentMethod;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private PaymentOutcome outcome;
+
+    @Column(precision = 12, scale = 2)
+    private BigDecimal amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private PaymentCallbackResult result;
+
+    private LocalDateTime receivedAt;
+
+    private LocalDateTime processedAt;
+}
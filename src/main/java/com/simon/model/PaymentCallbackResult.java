@@ -0,0 +1,12 @@
+package com.simon.model;
+
+/** What processing a gateway callback did to its order. */
+public enum PaymentCallbackResult {
+    APPLIED,
+    ALREADY_PAID,
+    PAYMENT_FAILED,
+    ORDER_NOT_FOUND,
+    METHOD_MISMATCH,
+    AMOUNT_MISMATCH,
+    NOT_AWAITING_PAYMENT
+}
@@ -0,0 +1,6 @@
+package com.simon.model;
+
+public enum PaymentMethod {
+    WECHAT_PAY,
+    ALIPAY
+}
@@ -0,0 +1,6 @@
+package com.simon.model;
+
+public enum PaymentOutcome {
+    SUCCESS,
+    FAILED
+}
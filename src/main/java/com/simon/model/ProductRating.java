@@ -0,0 +1,65 @@
+package com.simon.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+
+import java.time.LocalDateTime;
+
+/**
+ * Denormalized rating aggregate for one product, kept in step with {@link Review} writes so that
+ * listings never need {@code AVG(rating)}.
+ */
+@Entity
+@Table(name = "ProductRatings", indexes = @Index(name = "idx_product_ratings_updated", columnList = "updated_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Accessors(chain = true)
+public class ProductRating {
+    @Id
+    private Long productId;
+
+    private long ratingCount;
+    private long ratingSum;
+    private long stars1;
+    private long stars2;
+    private long stars3;
+    private long stars4;
+    private long stars5;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    public long[] histogram() {
+        return new long[]{stars1, stars2, stars3, stars4, stars5};
+    }
+
+    public ProductRating setHistogram(long[] h) {
+        return setStars1(h[0]).setStars2(h[1]).setStars3(h[2]).setStars4(h[3]).setStars5(h[4]);
+    }
+
+    /** Takes one review of {@code removed} stars out and puts one of {@code added} stars in; 0 means none. */
+    public ProductRating apply(int removed, int added) {
+        long[] h = histogram();
+        if (removed > 0) {
+            ratingCount--;
+            ratingSum -= removed;
+            h[removed - 1]--;
+        }
+        if (added > 0) {
+            ratingCount++;
+            ratingSum += added;
+            h[added - 1]++;
+        }
+        return setHistogram(h);
+    }
+}
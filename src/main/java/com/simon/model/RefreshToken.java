@@ -7,7 +7,7 @@ import lombok.experimental.Accessors;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "RefreshTokens")
+@Table(name = "RefreshTokens", indexes = @Index(name = "idx_refresh_tokens_user_revoked", columnList = "user_id, revoked"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -38,4 +38,7 @@ public class User {
     private LocalDateTime updatedAt = LocalDateTime.now();
 
     private LocalDateTime lastLogin;
+
+    /** Set by a soft delete; the row is kept for orders and reviews but the account can no longer sign in. */
+    private LocalDateTime deletedAt;
 }
@@ -0,0 +1,28 @@
+package com.simon.repository;
+
+import com.simon.model.CartItem;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface CartItemRepository extends JpaRepository<CartItem, Long> {
+    List<CartItem> findAllByUserId(Long userId);
+
+    List<CartItem> findAllByUserIdIn(Collection<Long> userIds);
+
+    @Query(value = "select distinct c.userId from CartItem c order by c.userId",
+            countQuery = "select count(distinct c.userId) from CartItem c")
+    Page<Long> findUserIds(Pageable pageable);
+
+    @Modifying
+    @Query("delete from CartItem c where c.userId in :userIds")
+    int deleteAllByUserIdIn(@Param("userIds") Collection<Long> userIds);
+}
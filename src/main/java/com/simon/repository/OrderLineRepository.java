@@ -0,0 +1,23 @@
+package com.simon.repository;
+
+import com.simon.model.OrderLine;
+import com.simon.model.OrderStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OrderLineRepository extends JpaRepository<OrderLine, Long> {
+    List<OrderLine> findAllByOrderId(Long orderId);
+
+    /** Rows of product id and units sold, over orders placed since {@code since} that reached one of {@code statuses}. */
+    @Query("select l.productId, sum(l.quantity) from OrderLine l, Order o where o.id = l.orderId "
+            + "and o.status in :statuses and o.createdAt >= :since group by l.productId")
+    List<Object[]> unitsSoldSince(@Param("statuses") Collection<OrderStatus> statuses,
+                                  @Param("since") LocalDateTime since);
+}
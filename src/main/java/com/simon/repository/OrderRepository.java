@@ -0,0 +1,53 @@
+package com.simon.repository;
+
+import com.simon.model.Order;
+import com.simon.model.OrderStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OrderRepository extends JpaRepository<Order, Long> {
+    Page<Order> findAllByUserId(Long userId, Pageable pageable);
+
+    @Query("select count(l) from OrderLine l, Order o where l.orderId = o.id and o.userId = :userId "
+            + "and l.productId = :productId and o.status in :statuses")
+    long countPurchases(@Param("userId") Long userId, @Param("productId") Long productId,
+                        @Param("statuses") Collection<OrderStatus> statuses);
+
+    boolean existsByUpdatedAtGreaterThanEqual(LocalDateTime since);
+
+    @Query("select o.status, count(o) from Order o group by o.status")
+    List<Object[]> countByStatus();
+
+    @Query("select o.paymentMethod, count(o), sum(o.totalAmount) from Order o "
+            + "where o.status in :statuses group by o.paymentMethod")
+    List<Object[]> revenueByPaymentMethod(@Param("statuses") Collection<OrderStatus> statuses);
+
+    @Query("select o.createdAt, o.status, o.totalAmount from Order o where o.createdAt >= :since")
+    List<Object[]> findDailyFactsSince(@Param("since") LocalDateTime since);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select o from Order o where o.id in :ids order by o.id")
+    List<Order> findAllForUpdate(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("update Order o set o.status = :to, o.updatedAt = :now where o.id in :ids and o.status = :from")
+    int transitionAll(@Param("ids") Collection<Long> ids, @Param("from") OrderStatus from,
+                      @Param("to") OrderStatus to, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("update Order o set o.status = :to, o.updatedAt = :now where o.id = :id and o.status = :from")
+    int transition(@Param("id") Long id, @Param("from") OrderStatus from, @Param("to") OrderStatus to,
+                   @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,31 @@
+package com.simon.repository;
+
+import com.simon.model.OutboxMessage;
+import com.simon.model.OutboxStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxMessageRepository extends JpaRepository<OutboxMessage, Long> {
+    /** Due rows, locked {@code FOR UPDATE SKIP LOCKED} so concurrent dispatchers claim disjoint sets. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select m from OutboxMessage m where m.status = :status and m.nextAttemptAt <= :now order by m.id")
+    List<OutboxMessage> findDueForUpdate(@Param("status") OutboxStatus status, @Param("now") LocalDateTime now,
+                                         Pageable pageable);
+
+    @Modifying
+    @Query("delete from OutboxMessage m where m.status = :status and m.updatedAt < :before")
+    int purge(@Param("status") OutboxStatus status, @Param("before") LocalDateTime before);
+}
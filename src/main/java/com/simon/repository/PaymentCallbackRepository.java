@@ -0,0 +1,16 @@
+package com.simon.repository;
+
+import com.simon.model.PaymentCallback;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PaymentCallbackRepository extends JpaRepository<PaymentCallback, Long> {
+    @Query("select c.gatewayTxnId from PaymentCallback c where c.gatewayTxnId in :txnIds")
+    List<String> findExistingTxnIds(@Param("txnIds") Collection<String> txnIds);
+}
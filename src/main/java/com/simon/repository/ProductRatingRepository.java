@@ -0,0 +1,36 @@
+package com.simon.repository;
+
+import com.simon.model.ProductRating;
+import jakarta.persistence.LockModeType;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ProductRatingRepository extends JpaRepository<ProductRating, Long> {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from ProductRating r where r.productId = :productId")
+    Optional<ProductRating> findForUpdate(@Param("productId") Long productId);
+
+    /**
+     * Inserts an empty aggregate in its own transaction, so a concurrent first review that wins the
+     * race only costs the loser a duplicate-key error here instead of rolling back its review.
+     */
+    @Modifying
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    @Query(value = "insert into product_ratings (product_id, rating_count, rating_sum, stars1, stars2, stars3, stars4, "
+            + "stars5, updated_at) values (:productId, 0, 0, 0, 0, 0, 0, 0, current_timestamp)", nativeQuery = true)
+    int insertEmpty(@Param("productId") Long productId);
+
+    /** Aggregates written at or after {@code since}, plus rows from before write times were recorded. */
+    @Query("select r from ProductRating r where r.updatedAt is null or r.updatedAt >= :since")
+    List<ProductRating> findChangedSince(@Param("since") LocalDateTime since);
+}
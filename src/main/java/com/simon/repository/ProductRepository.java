@@ -0,0 +1,51 @@
+package com.simon.repository;
+
+import com.simon.model.Product;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@Repository
+public interface ProductRepository extends JpaRepository<Product, Long> {
+    @Query("select p.stock from Product p where p.id = :id")
+    Optional<Integer> findStockById(@Param("id") Long id);
+
+    @Modifying
+    @Query("update Product p set p.stock = p.stock + :delta, p.updatedAt = :now where p.id = :id")
+    int adjustStock(@Param("id") Long id, @Param("delta") int delta, @Param("now") LocalDateTime now);
+
+    // leaves stock alone: it is owned by InventoryService and written back as relative deltas
+    @Modifying(clearAutomatically = true)
+    @Query("update Product p set p.name = :name, p.description = :description, p.category = :category, " +
+            "p.price = :price, p.updatedAt = :now where p.id = :id")
+    int updateDetails(@Param("id") Long id, @Param("name") String name, @Param("description") String description,
+                      @Param("category") String category, @Param("price") BigDecimal price,
+                      @Param("now") LocalDateTime now);
+
+    /** Id, sku, name, description, category and price of the products with the given skus. */
+    @Query("select p.id, p.sku, p.name, p.description, p.category, p.price from Product p where p.sku in :skus")
+    List<Object[]> findImportStateBySkus(@Param("skus") Collection<String> skus);
+
+    /** Id, sku, name, category, price and stock of every product, streamed; call inside a transaction. */
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("select p.id, p.sku, p.name, p.category, p.price, p.stock from Product p")
+    Stream<Object[]> streamCatalog();
+
+    /** The {@link #streamCatalog()} columns of products written at or after {@code since}. */
+    @Query("select p.id, p.sku, p.name, p.category, p.price, p.stock from Product p where p.updatedAt >= :since")
+    List<Object[]> findCatalogChangedSince(@Param("since") LocalDateTime since);
+
+    @Query("select p.id from Product p")
+    List<Long> findAllIds();
+}
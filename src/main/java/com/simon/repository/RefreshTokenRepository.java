@@ -2,15 +2,35 @@ package com.simon.repository;
 
 import com.simon.model.RefreshToken;
 import com.simon.model.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Optional;
 import java.util.List;
 
 @Repository
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+    // refresh and logout read the user right after the lookup; fetch it in the same query
+    @EntityGraph(attributePaths = "user")
     Optional<RefreshToken> findByTokenHash(String tokenHash);
     List<RefreshToken> findAllByUserAndRevokedFalse(User user);
+
+    Page<RefreshToken> findAllByUserIdAndRevokedFalseAndExpiresAtAfter(Long userId, LocalDateTime now, Pageable pageable);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update RefreshToken t set t.revoked = true where t.user.id = :userId and t.revoked = false")
+    int revokeAllByUserId(@Param("userId") Long userId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update RefreshToken t set t.revoked = true where t.user.id in :userIds and t.revoked = false")
+    int revokeAllByUserIdIn(@Param("userIds") Collection<Long> userIds);
 }
 
@@ -0,0 +1,30 @@
+package com.simon.repository;
+
+import com.simon.model.Review;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@Repository
+public interface ReviewRepository extends JpaRepository<Review, Long> {
+    Optional<Review> findByProductIdAndUserId(Long productId, Long userId);
+
+    Page<Review> findAllByProductId(Long productId, Pageable pageable);
+
+    /** Every rating ordered by product, streamed with a large fetch size; call inside a transaction. */
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("select r.productId, r.rating from Review r order by r.productId")
+    Stream<Object[]> streamRatingsByProduct();
+
+    @Query("select r.rating, count(r) from Review r where r.productId = :productId group by r.rating")
+    List<Object[]> countByRating(@Param("productId") Long productId);
+}
@@ -0,0 +1,12 @@
+package com.simon.repository;
+
+import com.simon.model.StatsCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface StatsCheckpointRepository extends JpaRepository<StatsCheckpoint, String> {
+    List<StatsCheckpoint> findAllByNameStartingWith(String prefix);
+}
@@ -1,10 +1,21 @@
 package com.simon.repository;
 
+import com.simon.model.Role;
 import com.simon.model.User;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -12,5 +23,31 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
+
+    /** Id, username and email of every live user, streamed with a large fetch size; call inside a transaction. */
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("select u.id, u.username, u.email from User u where u.deletedAt is null")
+    Stream<Object[]> streamSearchTerms();
+
+    @Query("select u.id from User u where u.deletedAt is null and u.role in :roles "
+            + "and u.createdAt >= :from and u.createdAt < :to order by u.id")
+    List<Long> findIdsByFilter(@Param("roles") Collection<Role> roles, @Param("from") LocalDateTime from,
+                               @Param("to") LocalDateTime to, Pageable pageable);
+
+    @Query("select u.id from User u where u.id in :ids and u.deletedAt is null and u.role in :roles "
+            + "and u.createdAt >= :from and u.createdAt < :to order by u.id")
+    List<Long> findIdsByFilterAmong(@Param("ids") Collection<Long> ids, @Param("roles") Collection<Role> roles,
+                                    @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /** Id, role, isActive and deletedAt of each listed user. */
+    @Query("select u.id, u.role, u.isActive, u.deletedAt from User u where u.id in :ids")
+    List<Object[]> findModerationState(@Param("ids") Collection<Long> ids);
+
+    /** Null arguments leave the column as it is. */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update User u set u.role = coalesce(:role, u.role), u.isActive = coalesce(:active, u.isActive), "
+            + "u.deletedAt = coalesce(:deletedAt, u.deletedAt), u.updatedAt = :now where u.id in :ids")
+    int moderateAll(@Param("ids") Collection<Long> ids, @Param("role") Role role, @Param("active") Boolean active,
+                    @Param("deletedAt") LocalDateTime deletedAt, @Param("now") LocalDateTime now);
 }
 
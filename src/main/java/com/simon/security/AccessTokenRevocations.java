@@ -0,0 +1,107 @@
+package com.simon.security;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Revoked access tokens, kept only until the tokens would have expired anyway.
+ * <p>
+ * Single tokens are grouped into buckets by their {@code exp}, so a check is a lookup of the bucket
+ * the token's own expiry falls in followed by one set lookup, and {@link #prune()} drops whole
+ * buckets once their last token is past expiry. "Log out everywhere" records one cutoff per
+ * subject instead of enumerating tokens. Cutoffs are in milliseconds and compared against the
+ * token's {@link JwtUtil#ISSUED_AT_MILLIS} claim, so a token issued right after a revoke-all (a
+ * login following a password reset) is not caught by it. Memory is bounded by the revocations issued within one
+ * access-token lifetime.
+ */
+@Component
+@RequiredArgsConstructor
+public class AccessTokenRevocations {
+    private final RevocationChannel revocationChannel;
+
+    @Value("${app.jwt.revocation-bucket-seconds:60}")
+    private long bucketSeconds = 60;
+
+    @Value("${app.jwt.access-exp:900}")
+    private long accessTokenSeconds = 900;
+
+    private final ConcurrentSkipListMap<Long, Set<String>> buckets = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<String, Long> subjectCutoffs = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void subscribe() {
+        revocationChannel.subscribe(this::apply);
+    }
+
+    /** Revokes the token on every node. Tokens already past expiry are ignored. */
+    public void revoke(String tokenId, long expiresAtEpochSecond) {
+        if (tokenId == null || expiresAtEpochSecond <= nowSeconds()) return;
+        RevocationChannel.Revocation r = RevocationChannel.Revocation.token(tokenId, expiresAtEpochSecond);
+        apply(r);
+        revocationChannel.publish(r);
+    }
+
+    /** Revokes, on every node, all tokens of the subject issued before now. */
+    public void revokeSubject(String subject) {
+        RevocationChannel.Revocation r = RevocationChannel.Revocation.subject(subject, nowMillis());
+        apply(r);
+        revocationChannel.publish(r);
+    }
+
+    public boolean isRevoked(String tokenId, long expiresAtEpochSecond) {
+        if (tokenId == null) return false;
+        Set<String> bucket = buckets.get(bucket(expiresAtEpochSecond));
+        return bucket != null && bucket.contains(tokenId);
+    }
+
+    public boolean isRevoked(String tokenId, String subject, long issuedAtEpochMilli, long expiresAtEpochSecond) {
+        if (!subjectCutoffs.isEmpty()) {
+            Long cutoff = subjectCutoffs.get(subject);
+            if (cutoff != null && issuedAtEpochMilli < cutoff) return true;
+        }
+        return isRevoked(tokenId, expiresAtEpochSecond);
+    }
+
+    public int size() {
+        return buckets.values().stream().mapToInt(Set::size).sum() + subjectCutoffs.size();
+    }
+
+    public int bucketCount() {
+        return buckets.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.revocation-prune-ms:60000}")
+    public void prune() {
+        long now = nowSeconds();
+        // a bucket holds tokens expiring before (index + 1) * bucketSeconds
+        buckets.headMap(bucket(now), false).clear();
+        subjectCutoffs.values().removeIf(cutoff -> cutoff / 1000 + accessTokenSeconds < now);
+    }
+
+    void apply(RevocationChannel.Revocation r) {
+        if (r.tokenId() != null) {
+            buckets.computeIfAbsent(bucket(r.epochTime()), _ -> ConcurrentHashMap.newKeySet()).add(r.tokenId());
+        } else if (r.subject() != null) {
+            subjectCutoffs.merge(r.subject(), r.epochTime(), Math::max);
+        }
+    }
+
+    private long bucket(long epochSecond) {
+        return epochSecond / bucketSeconds;
+    }
+
+    long nowSeconds() {
+        return nowMillis() / 1000;
+    }
+
+    long nowMillis() {
+        return System.currentTimeMillis();
+    }
+}
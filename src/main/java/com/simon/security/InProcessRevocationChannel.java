@@ -0,0 +1,33 @@
+package com.simon.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/** Delivers revocations to subscribers in this JVM only; enough for a single node and for tests. */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "app.jwt.revocation-channel", havingValue = "in-process", matchIfMissing = true)
+public class InProcessRevocationChannel implements RevocationChannel {
+    private final List<Consumer<Revocation>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(Revocation revocation) {
+        for (Consumer<Revocation> listener : listeners) {
+            try {
+                listener.accept(revocation);
+            } catch (RuntimeException e) {
+                log.warn("Revocation listener failed", e);
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<Revocation> listener) {
+        listeners.add(listener);
+    }
+}
@@ -0,0 +1,88 @@
+package com.simon.security;
+
+import com.simon.model.Role;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, already-authenticated token built by {@link JwtFilter}. Authority lists are created
+ * once per {@link Role} and shared by every request.
+ */
+public final class JwtAuthentication implements Authentication {
+    private static final Map<Role, List<GrantedAuthority>> AUTHORITIES = new EnumMap<>(Role.class);
+
+    static {
+        for (Role r : Role.values()) AUTHORITIES.put(r, List.of(new SimpleGrantedAuthority("ROLE_" + r.name())));
+    }
+
+    private final JwtPrincipal principal;
+
+    public JwtAuthentication(JwtPrincipal principal) {
+        this.principal = principal;
+    }
+
+    public static List<GrantedAuthority> authorities(Role role) {
+        return AUTHORITIES.get(role);
+    }
+
+    /** @return the token principal of {@code auth}, or {@code null} if it was not authenticated by a JWT */
+    public static JwtPrincipal principal(Authentication auth) {
+        return auth != null && auth.getPrincipal() instanceof JwtPrincipal p ? p : null;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return AUTHORITIES.get(principal.role());
+    }
+
+    @Override
+    public Object getCredentials() {
+        return null;
+    }
+
+    @Override
+    public Object getDetails() {
+        return null;
+    }
+
+    @Override
+    public JwtPrincipal getPrincipal() {
+        return principal;
+    }
+
+    @Override
+    public boolean isAuthenticated() {
+        return true;
+    }
+
+    @Override
+    public void setAuthenticated(boolean authenticated) {
+        if (!authenticated) throw new IllegalArgumentException("JwtAuthentication is immutable");
+    }
+
+    @Override
+    public String getName() {
+        return principal.getName();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof JwtAuthentication other && principal.equals(other.principal);
+    }
+
+    @Override
+    public int hashCode() {
+        return principal.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "JwtAuthentication[" + principal + "]";
+    }
+}
@@ -4,41 +4,55 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import com.simon.model.Role;
+import com.simon.service.ActiveUsers;
+import com.simon.system.Trace;
 import lombok.RequiredArgsConstructor;
 import org.jspecify.annotations.NonNull;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.List;
 
 @Component
 @RequiredArgsConstructor
 public class JwtFilter extends OncePerRequestFilter {
     private final JwtUtil jwtUtil;
+    private final AccessTokenRevocations accessTokenRevocations;
+    private final ActiveUsers activeUsers;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     @NonNull HttpServletResponse response,
                                     @NonNull FilterChain filterChain) throws ServletException, IOException {
-        String auth = request.getHeader("Authorization");
-        if (auth != null && auth.startsWith("Bearer ")) {
-            String token = auth.substring(7);
-            try {
-                var claims = jwtUtil.parse(token).getBody();
-                String subject = claims.getSubject();
-                String role = claims.get("role", String.class);
-                var authn = new UsernamePasswordAuthenticationToken(subject, null,
-                        List.of(new SimpleGrantedAuthority("ROLE_" + role)));
-                SecurityContextHolder.getContext().setAuthentication(authn);
-            } catch (Exception e) {
-                // ignore invalid token
-            }
+        JwtAuthentication authn = authenticate(request.getHeader("Authorization"));
+        if (authn != null) {
+            SecurityContextHolder.getContext().setAuthentication(authn);
+            activeUsers.record(authn.getPrincipal().id());
         }
         filterChain.doFilter(request, response);
     }
+
+    /** @return the authentication carried by a {@code Bearer} header, or {@code null} if absent, invalid or revoked */
+    public JwtAuthentication authenticate(String authorizationHeader) {
+        if (authorizationHeader == null || !authorizationHeader.startsWith("Bearer ")) return null;
+        String token = authorizationHeader.substring(7);
+        try (var _ = Trace.span("jwt")) {
+            var claims = jwtUtil.parse(token).getBody();
+            if (accessTokenRevocations.isRevoked(claims.getId(), claims.getSubject(),
+                    JwtUtil.issuedAtMillis(claims),
+                    claims.getExpiration().toInstant().getEpochSecond())) {
+                return null;
+            }
+            String subject = claims.getSubject();
+            Role role = Role.valueOf(claims.get("role", String.class));
+            return new JwtAuthentication(new JwtPrincipal(Long.parseLong(subject), subject,
+                    claims.get("username", String.class), role));
+        } catch (Exception e) {
+            // ignore invalid token
+            return null;
+        }
+    }
 }
 
@@ -0,0 +1,15 @@
+package com.simon.security;
+
+import com.simon.model.Role;
+import org.springframework.security.core.AuthenticatedPrincipal;
+
+/**
+ * Identity carried by a verified access token. {@link #getName()} is the token subject, the user id
+ * as a string, so existing {@code Long.parseLong(auth.getName())} callers are unaffected.
+ */
+public record JwtPrincipal(Long id, String subject, String username, Role role) implements AuthenticatedPrincipal {
+    @Override
+    public String getName() {
+        return subject;
+    }
+}
@@ -12,6 +12,9 @@ import java.security.Key;
 
 @Component
 public class JwtUtil {
+    /** Issue time in epoch milliseconds; the standard {@code iat} only has second precision. */
+    public static final String ISSUED_AT_MILLIS = "iat_ms";
+
     @Value("${app.jwt.secret}")
     private String jwtSecret;
 
@@ -19,4 +22,10 @@ public class JwtUtil {
         Key key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
         return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
     }
+
+    /** {@link #ISSUED_AT_MILLIS}, or the start of the {@code iat} second for tokens issued without it. */
+    public static long issuedAtMillis(Claims claims) {
+        Long millis = claims.get(ISSUED_AT_MILLIS, Long.class);
+        return millis != null ? millis : claims.getIssuedAt().getTime();
+    }
 }
@@ -0,0 +1,29 @@
+package com.simon.security;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries access-token revocations between nodes. Every node subscribes its
+ * {@link AccessTokenRevocations} at startup; a publish must reach all subscribers, including the
+ * publisher itself (applying a revocation twice is harmless).
+ */
+public interface RevocationChannel {
+    /**
+     * Either a single token ({@code tokenId} set, {@code epochTime} is its expiry in epoch seconds) or
+     * every token of a subject ({@code subject} set, tokens issued before {@code epochTime} in epoch
+     * milliseconds are revoked).
+     */
+    record Revocation(String tokenId, String subject, long epochTime) {
+        public static Revocation token(String tokenId, long expiresAtEpochSecond) {
+            return new Revocation(tokenId, null, expiresAtEpochSecond);
+        }
+
+        public static Revocation subject(String subject, long issuedBeforeEpochMilli) {
+            return new Revocation(null, subject, issuedBeforeEpochMilli);
+        }
+    }
+
+    void publish(Revocation revocation);
+
+    void subscribe(Consumer<Revocation> listener);
+}
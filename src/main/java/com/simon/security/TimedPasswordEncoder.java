@@ -0,0 +1,32 @@
+package com.simon.security;
+
+import com.simon.system.Trace;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/** Records hashing and verification time as the {@code password} span of the current request. */
+public class TimedPasswordEncoder implements PasswordEncoder {
+    private final PasswordEncoder delegate;
+
+    public TimedPasswordEncoder(PasswordEncoder delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        try (var _ = Trace.span("password")) {
+            return delegate.encode(rawPassword);
+        }
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        try (var _ = Trace.span("password")) {
+            return delegate.matches(rawPassword, encodedPassword);
+        }
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
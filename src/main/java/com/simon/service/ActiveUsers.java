@@ -0,0 +1,232 @@
+package com.simon.service;
+
+import com.simon.model.StatsCheckpoint;
+import com.simon.repository.StatsCheckpointRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Approximate daily, weekly and monthly active users. {@link com.simon.security.JwtFilter} records
+ * the user id of every authenticated request into that day's {@link HyperLogLog} sketch. That costs
+ * a hash and, at most, one register update. Weekly and monthly figures are estimated by merging the
+ * daily sketches of the window, so a user active on many days is still counted once.
+ * <p>
+ * Each node checkpoints the days that changed to its own {@code StatsCheckpoints} row
+ * ({@code active-users:<date>:<app.ids.node-id>}) every {@code app.active-users.checkpoint-interval-ms}
+ * and at shutdown, so nodes never overwrite each other's users. After each checkpoint, and at
+ * startup, the other nodes' rows in the retention window are read back and cached, and reads merge
+ * them with this node's sketches. A node that saw no traffic on a day still reports the other
+ * nodes' users for it, at most one checkpoint interval behind. Since a merge is a register-wise max,
+ * overlapping users count once. Days older than {@code app.active-users.retention-days} are dropped,
+ * in memory and in the table.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ActiveUsers {
+    static final String CHECKPOINT_PREFIX = "active-users:";
+
+    private final StatsCheckpointRepository statsCheckpointRepository;
+
+    @Value("${app.active-users.retention-days:45}")
+    private int retentionDays = 45;
+
+    @Value("${app.ids.node-id:0}")
+    private int nodeId;
+
+    private Clock clock = Clock.systemDefaultZone();
+    private final ConcurrentHashMap<LocalDate, Day> days = new ConcurrentHashMap<>();
+    private volatile Day today;
+    /** The other nodes' sketches per day, as of the last checkpoint. */
+    private volatile Map<LocalDate, HyperLogLog> otherNodes = Map.of();
+
+    public record Count(LocalDate day, long users) {
+    }
+
+    public record Summary(long dau, long wau, long mau, List<Count> daily) {
+    }
+
+    private static final class Day {
+        final LocalDate date;
+        final long endMillis;
+        final HyperLogLog sketch;
+        volatile boolean dirty;
+
+        Day(LocalDate date, Clock clock, HyperLogLog sketch) {
+            this.date = date;
+            this.endMillis = date.plusDays(1).atStartOfDay(clock.getZone()).toInstant().toEpochMilli();
+            this.sketch = sketch;
+        }
+    }
+
+    /** Hot path: called once per authenticated request. */
+    public void record(long userId) {
+        Day day = today;
+        if (day == null || clock.millis() >= day.endMillis) day = rollOver();
+        day.sketch.add(userId);
+        // checked first so a busy day does not write the shared flag on every request
+        if (!day.dirty) day.dirty = true;
+    }
+
+    /**
+     * @param days number of most recent days to list individually, today included
+     */
+    public Summary summary(int days) {
+        LocalDate now = LocalDate.now(clock);
+        List<Count> daily = new ArrayList<>();
+        for (int i = Math.clamp(days, 1, retentionDays) - 1; i >= 0; i--) {
+            LocalDate date = now.minusDays(i);
+            HyperLogLog union = new HyperLogLog();
+            mergeDay(union, date, otherNodes);
+            daily.add(new Count(date, union.estimate()));
+        }
+        return new Summary(distinct(now, 1), distinct(now, 7), distinct(now, 30), daily);
+    }
+
+    /** Estimated distinct users over the {@code window} days ending with {@code last}, all nodes included. */
+    public long distinct(LocalDate last, int window) {
+        Map<LocalDate, HyperLogLog> others = otherNodes;
+        HyperLogLog union = new HyperLogLog();
+        for (int i = 0; i < window; i++) mergeDay(union, last.minusDays(i), others);
+        return union.estimate();
+    }
+
+    @PostConstruct
+    public void init() {
+        readStored(true);
+        log.info("Active-user sketches restored for {} days", days.size());
+    }
+
+    @Scheduled(fixedDelayString = "${app.active-users.checkpoint-interval-ms:60000}")
+    public void checkpoint() {
+        prune();
+        writeChanged();
+        readStored(false);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writeChanged();
+    }
+
+    /** Admin view of {@link #summary(int)} keyed by ISO date. */
+    public Map<String, Object> view(int days) {
+        Summary summary = summary(days);
+        Map<String, Long> daily = new LinkedHashMap<>();
+        for (Count c : summary.daily()) daily.put(c.day().toString(), c.users());
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("dau", summary.dau());
+        view.put("wau", summary.wau());
+        view.put("mau", summary.mau());
+        view.put("relativeError", 1.04 / Math.sqrt(HyperLogLog.REGISTERS));
+        view.put("byDay", daily);
+        return view;
+    }
+
+    private void writeChanged() {
+        LocalDateTime takenAt = LocalDateTime.now(clock);
+        List<StatsCheckpoint> changed = new ArrayList<>();
+        for (Day day : days.values()) {
+            if (!day.dirty) continue;
+            // cleared before encoding: a request recorded meanwhile marks the day again
+            day.dirty = false;
+            changed.add(new StatsCheckpoint(checkpointPrefix(day.date) + nodeId,
+                    Base64.getEncoder().encodeToString(day.sketch.toBytes()), takenAt));
+        }
+        if (!changed.isEmpty()) statsCheckpointRepository.saveAll(changed);
+    }
+
+    /**
+     * Caches the other nodes' rows in the retention window and deletes the rows past it. With
+     * {@code restoreOwn}, this node's rows (and rows from before per-node keys) are merged into memory.
+     */
+    private void readStored(boolean restoreOwn) {
+        LocalDate cutoff = LocalDate.now(clock).minusDays(retentionDays - 1L);
+        String own = String.valueOf(nodeId);
+        Map<LocalDate, HyperLogLog> others = new HashMap<>();
+        List<String> expired = new ArrayList<>();
+        for (StatsCheckpoint checkpoint : statsCheckpointRepository.findAllByNameStartingWith(CHECKPOINT_PREFIX)) {
+            try {
+                LocalDate date = dateOf(checkpoint);
+                if (date.isBefore(cutoff)) {
+                    expired.add(checkpoint.getName());
+                    continue;
+                }
+                String node = nodeOf(checkpoint);
+                if (node == null || node.equals(own)) {
+                    if (restoreOwn) {
+                        days.merge(date, new Day(date, clock, decode(checkpoint)), (mine, restored) -> {
+                            mine.sketch.merge(restored.sketch);
+                            return mine;
+                        });
+                    }
+                    continue;
+                }
+                others.computeIfAbsent(date, _ -> new HyperLogLog()).merge(decode(checkpoint));
+            } catch (RuntimeException e) {
+                log.warn("Ignoring unreadable active-user checkpoint {}", checkpoint.getName(), e);
+            }
+        }
+        otherNodes = others;
+        if (!expired.isEmpty()) statsCheckpointRepository.deleteAllById(expired);
+    }
+
+    private void mergeDay(HyperLogLog union, LocalDate date, Map<LocalDate, HyperLogLog> others) {
+        Day day = days.get(date);
+        if (day != null) union.merge(day.sketch);
+        HyperLogLog other = others.get(date);
+        if (other != null) union.merge(other);
+    }
+
+    private synchronized Day rollOver() {
+        Day day = today;
+        if (day != null && clock.millis() < day.endMillis) return day;
+        LocalDate date = LocalDate.now(clock);
+        day = days.computeIfAbsent(date, d -> new Day(d, clock, new HyperLogLog()));
+        today = day;
+        return day;
+    }
+
+    private void prune() {
+        LocalDate cutoff = LocalDate.now(clock).minusDays(retentionDays - 1L);
+        days.keySet().removeIf(d -> d.isBefore(cutoff));
+    }
+
+    private static String checkpointPrefix(LocalDate date) {
+        return CHECKPOINT_PREFIX + date + ":";
+    }
+
+    /** Rows are {@code active-users:<date>:<node>}; rows written before per-node keys lack the node. */
+    private static LocalDate dateOf(StatsCheckpoint checkpoint) {
+        String rest = checkpoint.getName().substring(CHECKPOINT_PREFIX.length());
+        int colon = rest.indexOf(':');
+        return LocalDate.parse(colon < 0 ? rest : rest.substring(0, colon));
+    }
+
+    /** The node id in the row name, or {@code null} for a row from before per-node keys. */
+    private static String nodeOf(StatsCheckpoint checkpoint) {
+        String rest = checkpoint.getName().substring(CHECKPOINT_PREFIX.length());
+        int colon = rest.indexOf(':');
+        return colon < 0 ? null : rest.substring(colon + 1);
+    }
+
+    private static HyperLogLog decode(StatsCheckpoint checkpoint) {
+        return HyperLogLog.fromBytes(Base64.getDecoder().decode(checkpoint.getPayload()));
+    }
+}
@@ -0,0 +1,80 @@
+package com.simon.service;
+
+import com.simon.model.CartItem;
+import com.simon.repository.CartItemRepository;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes coalesced cart snapshots for a batch of users in a single transaction.
+ * Each user's rows are replaced wholesale, so however many edits happened since the
+ * last flush, the cost is one delete plus one JDBC-batched insert per remaining line.
+ */
+@Component
+@RequiredArgsConstructor
+public class CartPersistence {
+    private static final String INSERT_ITEM =
+            "insert into cart_items (user_id, product_id, quantity, updated_at) values (?, ?, ?, ?)";
+
+    private final CartItemRepository cartItemRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.cart.jdbc-batch-size:500}")
+    private int jdbcBatchSize = 500;
+
+    public Map<Long, Integer> load(Long userId) {
+        Map<Long, Integer> items = new LinkedHashMap<>();
+        for (CartItem item : cartItemRepository.findAllByUserId(userId)) {
+            items.put(item.getProductId(), item.getQuantity());
+        }
+        return items;
+    }
+
+    /** Users with at least one persisted cart line, ordered by id. */
+    public Page<Long> userIds(Pageable pageable) {
+        return cartItemRepository.findUserIds(pageable);
+    }
+
+    public Map<Long, Map<Long, Integer>> loadAll(Collection<Long> userIds) {
+        Map<Long, Map<Long, Integer>> carts = new LinkedHashMap<>();
+        if (userIds.isEmpty()) return carts;
+        for (CartItem item : cartItemRepository.findAllByUserIdIn(userIds)) {
+            carts.computeIfAbsent(item.getUserId(), _ -> new LinkedHashMap<>())
+                    .put(item.getProductId(), item.getQuantity());
+        }
+        return carts;
+    }
+
+    @Transactional
+    public void persist(Map<Long, Map<Long, Integer>> carts) {
+        if (carts.isEmpty()) return;
+        cartItemRepository.deleteAllByUserIdIn(carts.keySet());
+        LocalDateTime now = LocalDateTime.now();
+        List<CartItem> rows = new ArrayList<>();
+        carts.forEach((userId, items) -> items.forEach((productId, quantity) ->
+                rows.add(new CartItem()
+                        .setUserId(userId)
+                        .setProductId(productId)
+                        .setQuantity(quantity)
+                        .setUpdatedAt(now))));
+        // CartItem ids are IDENTITY, which Hibernate never batches, so insert through JDBC
+        jdbcTemplate.batchUpdate(INSERT_ITEM, rows, jdbcBatchSize, (ps, row) -> {
+            ps.setLong(1, row.getUserId());
+            ps.setLong(2, row.getProductId());
+            ps.setInt(3, row.getQuantity());
+            ps.setObject(4, row.getUpdatedAt());
+        });
+    }
+}
@@ -0,0 +1,307 @@
+package com.simon.service;
+
+import com.simon.dto.CartResponses;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * Live carts for registered users, kept in memory and persisted write-behind.
+ * <p>
+ * Mutations for a user are serialized on one of {@link #STRIPES} locks chosen by user id, and
+ * publish a new immutable {@link CartState}; readers (including the admin listing) just read the
+ * volatile state and never take a lock. Dirty carts are flushed in coalesced batches by
+ * {@link #flush()}, and only clean carts are ever evicted, so the database is always current for
+ * any cart that is not resident.
+ * <p>
+ * A cold cart is read from the database before its stripe lock is taken, so a slow read only holds
+ * up its own user. Each stripe counts its evictions; a read that raced an eviction on its stripe
+ * may predate the evicted cart's last flush, and is thrown away and repeated.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class CartService {
+    static final int STRIPES = 64;
+    /** Same bound as the quantity on {@code CartRequests}; repeated adds are clamped to it. */
+    static final int MAX_QUANTITY = 999;
+
+    private final CartPersistence cartPersistence;
+
+    @Value("${app.cart.idle-ttl-seconds:1800}")
+    private long idleTtlSeconds = 1800;
+
+    @Value("${app.cart.max-resident:100000}")
+    private int maxResident = 100_000;
+
+    @Value("${app.cart.flush-batch-size:500}")
+    private int flushBatchSize = 500;
+
+    private final ConcurrentHashMap<Long, LiveCart> carts = new ConcurrentHashMap<>();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock[] stripes = newStripes();
+    private final AtomicLongArray evictions = new AtomicLongArray(STRIPES);
+    private final AtomicBoolean overflowSweep = new AtomicBoolean();
+
+    public Map<Long, Integer> getItems(Long userId) {
+        return resident(userId).state.items();
+    }
+
+    public Map<Long, Integer> addItem(Long userId, Long productId, int quantity) {
+        return mutate(userId, items -> {
+            items.merge(productId, Math.min(quantity, MAX_QUANTITY),
+                    (current, added) -> (int) Math.min((long) current + added, MAX_QUANTITY));
+            return true;
+        });
+    }
+
+    /** @return the updated items, or {@code null} if the product is not in the cart */
+    public Map<Long, Integer> updateQuantity(Long userId, Long productId, int quantity) {
+        return mutate(userId, items -> items.replace(productId, quantity) != null);
+    }
+
+    /** @return the updated items, or {@code null} if the product is not in the cart */
+    public Map<Long, Integer> removeItem(Long userId, Long productId) {
+        return mutate(userId, items -> items.remove(productId) != null);
+    }
+
+    /**
+     * Takes the quantities that went into an order out of the live cart. Lines added or topped up
+     * after the order's snapshot was taken keep the difference.
+     *
+     * @return the updated items, or {@code null} if none of the ordered products are still in the cart
+     */
+    public Map<Long, Integer> removeOrdered(Long userId, Map<Long, Integer> ordered) {
+        return mutate(userId, items -> {
+            boolean changed = false;
+            for (var line : ordered.entrySet()) {
+                if (!items.containsKey(line.getKey())) continue;
+                items.computeIfPresent(line.getKey(), (_, q) -> q > line.getValue() ? q - line.getValue() : null);
+                changed = true;
+            }
+            return changed;
+        });
+    }
+
+    public Map<Long, Integer> clear(Long userId) {
+        return mutate(userId, items -> {
+            items.clear();
+            return true;
+        });
+    }
+
+    /**
+     * One page of carts, paged by user id at the database so the cost is bounded by the page size.
+     * Resident carts are shown from their published state; a cart that only exists in memory
+     * appears once the next {@link #flush()} has written it. No lock on the live store is taken.
+     */
+    public Page<CartResponses.CartView> snapshotPage(Pageable pageable) {
+        Page<Long> userIds = cartPersistence.userIds(pageable);
+        Map<Long, Map<Long, Integer>> persisted = cartPersistence.loadAll(userIds.getContent());
+        List<CartResponses.CartView> views = new ArrayList<>(userIds.getNumberOfElements());
+        for (Long userId : userIds) {
+            LiveCart cart = carts.get(userId);
+            Map<Long, Integer> items = cart != null ? cart.state.items() : persisted.getOrDefault(userId, Map.of());
+            views.add(CartResponses.CartView.of(userId, items));
+        }
+        return new PageImpl<>(views, pageable, userIds.getTotalElements());
+    }
+
+    public int residentCount() {
+        return carts.size();
+    }
+
+    public int dirtyCount() {
+        return dirty.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.cart.flush-interval-ms:2000}")
+    public synchronized void flush() {
+        while (!dirty.isEmpty()) {
+            Map<Long, CartState> batch = drainDirty();
+            if (batch.isEmpty()) return;
+            Map<Long, Map<Long, Integer>> payload = new HashMap<>();
+            batch.forEach((userId, state) -> payload.put(userId, state.items()));
+            try {
+                cartPersistence.persist(payload);
+            } catch (RuntimeException e) {
+                log.warn("Cart flush of {} carts failed, will retry", batch.size(), e);
+                dirty.addAll(batch.keySet());
+                return;
+            }
+            batch.forEach((userId, state) -> {
+                LiveCart cart = carts.get(userId);
+                if (cart != null) cart.markPersisted(state.version());
+            });
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.cart.evict-interval-ms:60000}")
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleTtlSeconds * 1000;
+        flush();
+        carts.forEach((userId, cart) -> {
+            if (cart.lastAccess < cutoff) tryEvict(userId);
+        });
+        evictOverflow();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private LiveCart resident(Long userId) {
+        LiveCart cart = carts.get(userId);
+        if (cart == null) {
+            cart = load(userId);
+            if (carts.size() > maxResident) evictOverflow();
+        }
+        cart.lastAccess = System.currentTimeMillis();
+        return cart;
+    }
+
+    private Map<Long, Integer> mutate(Long userId, Predicate<Map<Long, Integer>> change) {
+        ReentrantLock lock = stripes[stripeIndex(userId)];
+        while (true) {
+            if (!carts.containsKey(userId)) load(userId);
+            lock.lock();
+            try {
+                LiveCart cart = carts.get(userId);
+                // evicted between the load and the lock: load it again
+                if (cart == null) continue;
+                cart.lastAccess = System.currentTimeMillis();
+                CartState current = cart.state;
+                Map<Long, Integer> next = new LinkedHashMap<>(current.items());
+                if (!change.test(next)) return null;
+                cart.state = new CartState(Collections.unmodifiableMap(next), current.version() + 1);
+                dirty.add(userId);
+                return cart.state.items();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /** Makes the cart resident, reading it from the database with no lock held. */
+    private LiveCart load(Long userId) {
+        int stripe = stripeIndex(userId);
+        while (true) {
+            long epoch = evictions.get(stripe);
+            Map<Long, Integer> loaded = cartPersistence.load(userId);
+            ReentrantLock lock = stripes[stripe];
+            lock.lock();
+            try {
+                LiveCart cart = carts.get(userId);
+                if (cart != null) return cart;
+                if (evictions.get(stripe) == epoch) {
+                    cart = new LiveCart(Collections.unmodifiableMap(loaded));
+                    carts.put(userId, cart);
+                    return cart;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private Map<Long, CartState> drainDirty() {
+        Map<Long, CartState> batch = new HashMap<>();
+        Iterator<Long> it = dirty.iterator();
+        while (it.hasNext() && batch.size() < flushBatchSize) {
+            Long userId = it.next();
+            it.remove();
+            LiveCart cart = carts.get(userId);
+            if (cart != null) batch.put(userId, cart.state);
+        }
+        return batch;
+    }
+
+    /**
+     * Evicts the least recently used clean carts until the store is a tenth below its bound, so the
+     * sort is amortized over many loads. Dirty carts are skipped and picked up after the next flush.
+     */
+    private void evictOverflow() {
+        if (!overflowSweep.compareAndSet(false, true)) return;
+        try {
+            int excess = carts.size() - maxResident;
+            if (excess <= 0) return;
+            carts.entrySet().stream()
+                    .sorted(Comparator.comparingLong(e -> e.getValue().lastAccess))
+                    .limit(excess + maxResident / 10)
+                    .map(Map.Entry::getKey)
+                    .toList()
+                    .forEach(this::tryEvict);
+        } finally {
+            overflowSweep.set(false);
+        }
+    }
+
+    private void tryEvict(Long userId) {
+        int stripe = stripeIndex(userId);
+        ReentrantLock lock = stripes[stripe];
+        lock.lock();
+        try {
+            LiveCart cart = carts.get(userId);
+            if (cart != null && !cart.isDirty()) {
+                carts.remove(userId);
+                evictions.incrementAndGet(stripe);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    static int stripeIndex(Long userId) {
+        long h = userId * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 58) & (STRIPES - 1);
+    }
+
+    private static ReentrantLock[] newStripes() {
+        ReentrantLock[] locks = new ReentrantLock[STRIPES];
+        for (int i = 0; i < STRIPES; i++) locks[i] = new ReentrantLock();
+        return locks;
+    }
+
+    private record CartState(Map<Long, Integer> items, long version) {
+    }
+
+    private static final class LiveCart {
+        volatile CartState state;
+        volatile long persistedVersion;
+        volatile long lastAccess = System.currentTimeMillis();
+
+        LiveCart(Map<Long, Integer> items) {
+            this.state = new CartState(items, 0);
+        }
+
+        boolean isDirty() {
+            return state.version() != persistedVersion;
+        }
+
+        void markPersisted(long version) {
+            if (version > persistedVersion) persistedVersion = version;
+        }
+    }
+}
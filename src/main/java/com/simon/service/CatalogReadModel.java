@@ -0,0 +1,230 @@
+package com.simon.service;
+
+import com.simon.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+/**
+ * In-memory read model of the catalog: each product's listing fields and stock as last written to
+ * the database, with the rating aggregates kept next to it in {@link RatingAggregates}.
+ * <p>
+ * Every {@code app.catalog.snapshot.interval-ms}, and on shutdown, the model is written to
+ * {@code app.catalog.snapshot.path} (see {@link CatalogSnapshot}). At startup the snapshot is mapped
+ * and decoded. Only products and aggregates written since it was taken are read back from the
+ * database. A missing or damaged snapshot falls back to streaming the whole catalog. The same
+ * replay by {@code updated_at} keeps the model current every {@code app.catalog.refresh-ms}. Each
+ * replay reaches back {@code app.catalog.replay-margin-ms} further, which covers transactions that
+ * commit after stamping their rows, clock differences between nodes, and replica lag.
+ * <p>
+ * Derived structures register a {@link Listener} to follow individual changes instead of
+ * re-reading the whole model.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class CatalogReadModel implements SmartInitializingSingleton {
+    private final ProductRepository productRepository;
+    private final RatingAggregates ratingAggregates;
+
+    @Value("${app.catalog.snapshot.path:data/catalog.snapshot}")
+    private String snapshotPath = "data/catalog.snapshot";
+
+    @Value("${app.catalog.replay-margin-ms:5000}")
+    private long replayMarginMillis = 5_000;
+
+    private final ConcurrentHashMap<Long, Item> items = new ConcurrentHashMap<>();
+    // every product change stamped before this instant is in items
+    private volatile LocalDateTime watermark;
+    private volatile LoadReport report = LoadReport.PENDING;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    public record Item(Long id, String sku, String name, String category, BigDecimal price, int stock) {
+        /** From a row of {@link ProductRepository#streamCatalog()}. */
+        public static Item of(Object[] row) {
+            return new Item(((Number) row[0]).longValue(), (String) row[1], (String) row[2], (String) row[3],
+                    (BigDecimal) row[4], ((Number) row[5]).intValue());
+        }
+    }
+
+    public enum Source {PENDING, SNAPSHOT, REBUILD}
+
+    /** Called on the thread that changed the model; implementations must be quick and must not throw. */
+    public interface Listener {
+        /**
+         * @param before the item as it was, or {@code null} for a new product
+         * @param after  the item as it is now, or {@code null} for a deleted product
+         */
+        void changed(Item before, Item after);
+
+        /** The whole model was replaced, as at startup. */
+        void reloaded();
+    }
+
+    public record LoadReport(Source source, long durationMillis, int products, int ratings, int replayed,
+                             long snapshotAgeMillis) {
+        static final LoadReport PENDING = new LoadReport(Source.PENDING, 0, 0, 0, 0, 0);
+    }
+
+    /**
+     * Loads the model once every singleton exists, which is before the web server starts accepting
+     * requests, so no listing (and no entry in {@code CatalogCacheFilter}) is served from an empty
+     * model. Called through the proxy, so the transaction applies.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void afterSingletonsInstantiated() {
+        load();
+    }
+
+    @Transactional(readOnly = true)
+    public void load() {
+        long start = System.nanoTime();
+        LocalDateTime started = LocalDateTime.now();
+        CatalogSnapshot.Contents snapshot = readSnapshot();
+        if (snapshot != null) {
+            items.clear();
+            for (Item item : snapshot.items()) items.put(item.id(), item);
+            LocalDateTime since = toLocal(snapshot.takenAtMillis()).minus(Duration.ofMillis(replayMarginMillis));
+            int replayed = replay(since) + ratingAggregates.restore(snapshot.ratings(), since);
+            dropDeleted();
+            watermark = started;
+            report = new LoadReport(Source.SNAPSHOT, (System.nanoTime() - start) / 1_000_000, items.size(),
+                    snapshot.ratings().size(), replayed, System.currentTimeMillis() - snapshot.takenAtMillis());
+        } else {
+            items.clear();
+            try (Stream<Object[]> rows = productRepository.streamCatalog()) {
+                rows.forEach(row -> {
+                    Item item = Item.of(row);
+                    items.put(item.id(), item);
+                });
+            }
+            ratingAggregates.load();
+            watermark = started;
+            report = new LoadReport(Source.REBUILD, (System.nanoTime() - start) / 1_000_000, items.size(),
+                    ratingAggregates.snapshot().size(), 0, 0);
+        }
+        log.info("Catalog read model loaded: {}", report);
+        for (Listener listener : listeners) listener.reloaded();
+    }
+
+    @Scheduled(fixedDelayString = "${app.catalog.refresh-ms:5000}")
+    @Transactional(readOnly = true)
+    public void refresh() {
+        if (watermark == null) return;
+        LocalDateTime started = LocalDateTime.now();
+        replay(watermark.minus(Duration.ofMillis(replayMarginMillis)));
+        // deletes leave nothing to replay; a count mismatch is the cheap hint that one happened
+        if (productRepository.count() != items.size()) dropDeleted();
+        watermark = started;
+    }
+
+    @Scheduled(fixedDelayString = "${app.catalog.snapshot.interval-ms:300000}",
+            initialDelayString = "${app.catalog.snapshot.interval-ms:300000}")
+    public void scheduledSnapshot() {
+        writeSnapshot();
+    }
+
+    @PreDestroy
+    public void writeSnapshot() {
+        LocalDateTime upTo = watermark;
+        if (upTo == null) return;
+        long start = System.nanoTime();
+        var contents = new CatalogSnapshot.Contents(upTo.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(),
+                List.copyOf(items.values()), ratingAggregates.snapshot());
+        try {
+            CatalogSnapshot.write(Path.of(snapshotPath), contents);
+            log.info("Catalog snapshot of {} products written in {} ms", contents.items().size(),
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not write catalog snapshot to {}", snapshotPath, e);
+        }
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /** Drops a deleted product without waiting for the next refresh. */
+    public void remove(Long productId) {
+        Item removed = items.remove(productId);
+        if (removed != null) notifyChanged(removed, null);
+    }
+
+    public Item get(Long productId) {
+        return items.get(productId);
+    }
+
+    public Collection<Item> items() {
+        return items.values();
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    public LoadReport report() {
+        return report;
+    }
+
+    private CatalogSnapshot.Contents readSnapshot() {
+        Path path = Path.of(snapshotPath);
+        if (!Files.exists(path)) return null;
+        try {
+            return CatalogSnapshot.read(path);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.warn("Ignoring catalog snapshot {}: {}", path, e.getMessage());
+            return null;
+        }
+    }
+
+    private int replay(LocalDateTime since) {
+        List<Object[]> rows = productRepository.findCatalogChangedSince(since);
+        for (Object[] row : rows) {
+            Item item = Item.of(row);
+            Item before = items.put(item.id(), item);
+            // the replay margin reads most rows twice; only real changes are passed on
+            if (!item.equals(before)) notifyChanged(before, item);
+        }
+        return rows.size();
+    }
+
+    private void dropDeleted() {
+        Set<Long> live = new HashSet<>(productRepository.findAllIds());
+        for (Item item : items.values()) {
+            if (!live.contains(item.id()) && items.remove(item.id(), item)) notifyChanged(item, null);
+        }
+    }
+
+    private void notifyChanged(Item before, Item after) {
+        for (Listener listener : listeners) listener.changed(before, after);
+    }
+
+    private static LocalDateTime toLocal(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,166 @@
+package com.simon.service;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary file format of {@link CatalogReadModel} snapshots. All numbers are big-endian:
+ * <pre>
+ * header   int magic "ACAT", int version, long takenAtMillis, int products, int ratings,
+ *          long bodyBytes, long crc32 of the body
+ * product  long id, long price in cents, int stock, then sku, name and category, each as an int
+ *          byte length (-1 for null) followed by UTF-8
+ * rating   long productId, long count, long sum, five longs of histogram
+ * </pre>
+ * Files are written to a temp file, forced to disk and moved into place, so a reader sees either
+ * the previous snapshot or the new one. Reading maps the file and checks the checksum before
+ * decoding. A file that fails any check is rejected as a whole.
+ */
+public final class CatalogSnapshot {
+    static final int MAGIC = 0x41434154;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 40;
+
+    private CatalogSnapshot() {
+    }
+
+    /** @param takenAtMillis every change before this instant is in the contents */
+    public record Contents(long takenAtMillis, List<CatalogReadModel.Item> items,
+                           Map<Long, RatingAggregates.Summary> ratings) {
+    }
+
+    public static void write(Path path, Contents contents) throws IOException {
+        Path dir = path.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, path.getFileName().toString(), ".part");
+        try {
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                ch.position(HEADER_BYTES);
+                CRC32 crc = new CRC32();
+                // not closed: that would close the channel before the header is written
+                DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                        new BufferedOutputStream(Channels.newOutputStream(ch), 64 * 1024), crc));
+                for (CatalogReadModel.Item item : contents.items()) {
+                    out.writeLong(item.id());
+                    out.writeLong(item.price().movePointRight(2).longValueExact());
+                    out.writeInt(item.stock());
+                    writeString(out, item.sku());
+                    writeString(out, item.name());
+                    writeString(out, item.category());
+                }
+                for (var e : contents.ratings().entrySet()) {
+                    RatingAggregates.Summary s = e.getValue();
+                    out.writeLong(e.getKey());
+                    out.writeLong(s.count());
+                    out.writeLong(s.sum());
+                    for (long h : s.histogram()) out.writeLong(h);
+                }
+                out.flush();
+                long bodyBytes = ch.position() - HEADER_BYTES;
+
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                        .putInt(MAGIC)
+                        .putInt(VERSION)
+                        .putLong(contents.takenAtMillis())
+                        .putInt(contents.items().size())
+                        .putInt(contents.ratings().size())
+                        .putLong(bodyBytes)
+                        .putLong(crc.getValue())
+                        .flip();
+                while (header.hasRemaining()) ch.write(header, header.position());
+                ch.force(true);
+            }
+            try {
+                Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /** @throws IOException if the file is missing, truncated, corrupt or of another version */
+    public static Contents read(Path path) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) throw new IOException("Bad snapshot size " + size);
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buf.getInt() != MAGIC) throw new IOException("Not a catalog snapshot");
+            int version = buf.getInt();
+            if (version != VERSION) throw new IOException("Snapshot version " + version + ", expected " + VERSION);
+            long takenAtMillis = buf.getLong();
+            int products = buf.getInt();
+            int ratings = buf.getInt();
+            long bodyBytes = buf.getLong();
+            long checksum = buf.getLong();
+            if (HEADER_BYTES + bodyBytes != size || products < 0 || ratings < 0) {
+                throw new IOException("Snapshot header does not match its size");
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buf.slice(HEADER_BYTES, (int) bodyBytes));
+            if (crc.getValue() != checksum) throw new IOException("Snapshot checksum mismatch");
+
+            try {
+                List<CatalogReadModel.Item> items = new ArrayList<>(products);
+                for (int i = 0; i < products; i++) {
+                    long id = buf.getLong();
+                    BigDecimal price = BigDecimal.valueOf(buf.getLong(), 2);
+                    int stock = buf.getInt();
+                    items.add(new CatalogReadModel.Item(id, readString(buf), readString(buf), readString(buf), price, stock));
+                }
+                Map<Long, RatingAggregates.Summary> summaries = HashMap.newHashMap(ratings);
+                for (int i = 0; i < ratings; i++) {
+                    long productId = buf.getLong();
+                    long count = buf.getLong();
+                    long sum = buf.getLong();
+                    long[] histogram = new long[5];
+                    for (int h = 0; h < 5; h++) histogram[h] = buf.getLong();
+                    summaries.put(productId, new RatingAggregates.Summary(count, sum, histogram));
+                }
+                if (buf.hasRemaining()) throw new IOException("Snapshot has trailing bytes");
+                return new Contents(takenAtMillis, items, summaries);
+            } catch (BufferUnderflowException | IllegalArgumentException e) {
+                throw new IOException("Snapshot body does not match its header", e);
+            }
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buf) {
+        int length = buf.getInt();
+        if (length < 0) return null;
+        if (length > buf.remaining()) throw new BufferUnderflowException();
+        String s = StandardCharsets.UTF_8.decode(buf.slice(buf.position(), length)).toString();
+        buf.position(buf.position() + length);
+        return s;
+    }
+}
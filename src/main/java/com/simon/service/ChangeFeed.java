@@ -0,0 +1,281 @@
+package com.simon.service;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.simon.model.OrderStatus;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntSupplier;
+
+/**
+ * In-process bus that pushes stock, price and order-status changes to open event streams.
+ * <p>
+ * Publishers only record the latest change per key ({@code event} on {@code channel}). A change that
+ * nobody subscribes to is dropped right away. Every {@code app.events.coalesce-ms} the changes
+ * collected so far are fanned out, so a product whose stock moves a hundred times in that window
+ * costs each subscriber one event.
+ * <p>
+ * Each {@link Subscription} has a bounded buffer that coalesces the same way and one virtual thread
+ * that writes it to the connection. A subscriber that falls more than
+ * {@code app.events.buffer-size} keys behind loses its buffer and gets a single {@code resync}
+ * event. It should then reload its state over REST. Idle connections cost a parked virtual thread
+ * each and no platform thread.
+ */
+@Service
+@Slf4j
+public class ChangeFeed {
+    public static final String STOCK = "stock";
+    public static final String PRICE = "price";
+    public static final String ORDER_STATUS = "order-status";
+    public static final String RESYNC = "resync";
+
+    @Value("${app.events.buffer-size:256}")
+    private int bufferSize = 256;
+
+    @Value("${app.events.heartbeat-ms:25000}")
+    private long heartbeatMillis = 25_000;
+
+    @Value("${app.events.max-connections:50000}")
+    private int maxConnections = 50_000;
+
+    private final Map<String, Set<Subscription>> subscribers = new ConcurrentHashMap<>();
+    private final Map<String, Change> dirty = new ConcurrentHashMap<>();
+    private final ThreadFactory writers = Thread.ofVirtual().name("sse-", 0).factory();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final LongAdder published = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder resyncs = new LongAdder();
+
+    public record Change(String channel, String event, Object data) {
+        String key() {
+            return event + "@" + channel;
+        }
+    }
+
+    public record StockLevel(Long productId, int available) {
+    }
+
+    public record Price(Long productId, BigDecimal price) {
+    }
+
+    public record OrderState(@JsonFormat(shape = JsonFormat.Shape.STRING) Long orderId, OrderStatus status) {
+    }
+
+    private record LiveStock(Long productId, IntSupplier available) {
+    }
+
+    public record Stats(int connections, int channels, long published, long delivered, long resyncs) {
+    }
+
+    /** Where a subscription writes; implementations may block, they run on the subscription's own thread. */
+    public interface Sink {
+        void send(String event, Object data) throws IOException;
+
+        void heartbeat() throws IOException;
+
+        /** Called once when the subscription ends, whoever ends it. */
+        void close();
+    }
+
+    public static String productChannel(Long productId) {
+        return "product:" + productId;
+    }
+
+    public static String orderChannel(Long orderId) {
+        return "order:" + orderId;
+    }
+
+    public void stock(Long productId, int available) {
+        publish(new Change(productChannel(productId), STOCK, new StockLevel(productId, available)));
+    }
+
+    /**
+     * Publishes a stock change whose figure is read from {@code available} when the change is fanned
+     * out, so concurrent updates to one counter can never leave an older value as the last one sent.
+     */
+    public void stock(Long productId, IntSupplier available) {
+        publish(new Change(productChannel(productId), STOCK, new LiveStock(productId, available)));
+    }
+
+    public void price(Long productId, BigDecimal price) {
+        publish(new Change(productChannel(productId), PRICE, new Price(productId, price)));
+    }
+
+    public void orderStatus(Long orderId, OrderStatus status) {
+        publish(new Change(orderChannel(orderId), ORDER_STATUS, new OrderState(orderId, status)));
+    }
+
+    public void publish(Change change) {
+        // the common case on a busy node: nobody is watching this product
+        if (!subscribers.containsKey(change.channel())) return;
+        published.increment();
+        dirty.put(change.key(), change);
+    }
+
+    /**
+     * Opens a subscription and starts its writer.
+     *
+     * @return the subscription, or {@code null} if {@code app.events.max-connections} are open
+     */
+    public Subscription subscribe(List<String> channels, Sink sink) {
+        if (connections.incrementAndGet() > maxConnections) {
+            connections.decrementAndGet();
+            return null;
+        }
+        Subscription s = new Subscription(List.copyOf(channels), sink);
+        for (String channel : s.channels) {
+            // add inside compute so a concurrent remove cannot drop the set we are adding to
+            subscribers.compute(channel, (_, set) -> {
+                Set<Subscription> target = set != null ? set : ConcurrentHashMap.newKeySet();
+                target.add(s);
+                return target;
+            });
+        }
+        writers.newThread(s::run).start();
+        return s;
+    }
+
+    @Scheduled(fixedDelayString = "${app.events.coalesce-ms:100}")
+    public void flush() {
+        for (String key : dirty.keySet()) {
+            Change change = dirty.remove(key);
+            if (change == null) continue;
+            Set<Subscription> targets = subscribers.get(change.channel());
+            if (targets == null) continue;
+            if (change.data() instanceof LiveStock live) {
+                change = new Change(change.channel(), change.event(),
+                        new StockLevel(live.productId(), live.available().getAsInt()));
+            }
+            for (Subscription s : targets) s.offer(change);
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(connections.get(), subscribers.size(), published.sum(), delivered.sum(), resyncs.sum());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        Set<Subscription> all = ConcurrentHashMap.newKeySet();
+        subscribers.values().forEach(all::addAll);
+        all.forEach(Subscription::close);
+    }
+
+    private void remove(Subscription s) {
+        for (String channel : s.channels) {
+            subscribers.computeIfPresent(channel, (_, set) -> {
+                set.remove(s);
+                return set.isEmpty() ? null : set;
+            });
+        }
+        connections.decrementAndGet();
+    }
+
+    /** One open stream: a coalescing buffer drained by its own writer thread. */
+    public final class Subscription {
+        private final List<String> channels;
+        private final Sink sink;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition changed = lock.newCondition();
+        private final LinkedHashMap<String, Change> pending = new LinkedHashMap<>();
+        private boolean resync;
+        private boolean open = true;
+
+        private Subscription(List<String> channels, Sink sink) {
+            this.channels = channels;
+            this.sink = sink;
+        }
+
+        public List<String> channels() {
+            return channels;
+        }
+
+        public void offer(Change change) {
+            lock.lock();
+            try {
+                if (!open) return;
+                if (pending.size() >= bufferSize && !pending.containsKey(change.key())) {
+                    // too far behind to catch up event by event; the client reloads instead
+                    pending.clear();
+                    if (!resync) resyncs.increment();
+                    resync = true;
+                }
+                pending.put(change.key(), change);
+                changed.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /** Ends the subscription; safe to call more than once and from any thread. */
+        public void close() {
+            if (!markClosed()) return;
+            remove(this);
+            sink.close();
+        }
+
+        private boolean markClosed() {
+            lock.lock();
+            try {
+                if (!open) return false;
+                open = false;
+                pending.clear();
+                changed.signal();
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void run() {
+            try {
+                while (true) {
+                    List<Change> batch;
+                    boolean reload;
+                    lock.lock();
+                    try {
+                        if (open && pending.isEmpty() && !resync) {
+                            changed.await(heartbeatMillis, TimeUnit.MILLISECONDS);
+                        }
+                        if (!open) return;
+                        reload = resync;
+                        resync = false;
+                        batch = new ArrayList<>(pending.values());
+                        pending.clear();
+                    } finally {
+                        lock.unlock();
+                    }
+                    if (reload) sink.send(RESYNC, Map.of("channels", channels));
+                    if (batch.isEmpty() && !reload) sink.heartbeat();
+                    for (Change change : batch) {
+                        sink.send(change.event(), change.data());
+                        delivered.increment();
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                // the client went away or the container timed the stream out
+                log.debug("Event stream on {} ended: {}", channels, e.toString());
+                close();
+            } catch (InterruptedException e) {
+                close();
+            }
+        }
+    }
+}
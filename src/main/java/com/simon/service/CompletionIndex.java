@@ -0,0 +1,298 @@
+package com.simon.service;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Immutable prefix index answering "best {@code k} completions of this prefix" with one walk down a
+ * radix trie. Each node stores its top completions, worked out once when the index is built.
+ * <p>
+ * Every text is indexed under its normalized form (lower case, whitespace runs collapsed to one
+ * space) and under each suffix that starts a word, up to {@link #MAX_WORDS} of them. So "run"
+ * finds "Trail Running Shoes". Keys are cut at {@link #MAX_KEY_CHARS}. The trie is flattened into a
+ * handful of arrays: edge labels in one {@code char[]}, children stored next to each other and
+ * sorted by their first character, and every node's top-k as a slice of one {@code int[]} of entry
+ * ranks. A lookup allocates only the small list view it returns.
+ */
+public final class CompletionIndex {
+    public static final int MAX_KEY_CHARS = 48;
+    public static final int MAX_WORDS = 6;
+
+    /** What the index is built from; {@code productId} is {@code null} for a popular search query. */
+    public record Entry(String text, Long productId, long score) {
+    }
+
+    public record Suggestion(String text, Long productId) {
+    }
+
+    private static final Comparator<Entry> RANK = Comparator.comparingLong(Entry::score).reversed()
+            .thenComparing(Entry::text);
+
+    public static final CompletionIndex EMPTY = build(List.of(), 1);
+
+    // by rank: index 0 is the best entry overall, so a node's top-k are its k smallest ranks
+    private final Suggestion[] suggestions;
+    private final char[] labels;
+    private final int[] labelStart;
+    private final int[] labelEnd;
+    private final int[] firstChild;
+    private final int[] childCount;
+    // node n's completions are top[topStart[n] .. topStart[n + 1])
+    private final int[] topStart;
+    private final int[] top;
+    private final int keys;
+
+    private CompletionIndex(Suggestion[] suggestions, Builder b) {
+        this.suggestions = suggestions;
+        this.labels = b.labels.toString().toCharArray();
+        this.labelStart = b.labelStart.toArray();
+        this.labelEnd = b.labelEnd.toArray();
+        this.firstChild = b.firstChild.toArray();
+        this.childCount = b.childCount.toArray();
+        this.topStart = new int[b.tops.size() + 1];
+        Ints flat = new Ints();
+        for (int n = 0; n < b.tops.size(); n++) {
+            topStart[n] = flat.size;
+            for (int rank : b.tops.get(n)) flat.add(rank);
+        }
+        topStart[b.tops.size()] = flat.size;
+        this.top = flat.toArray();
+        this.keys = b.keys.length;
+    }
+
+    /**
+     * @param topK how many completions to keep per prefix; lookups can ask for at most this many
+     */
+    public static CompletionIndex build(Collection<Entry> entries, int topK) {
+        Entry[] ranked = entries.stream().filter(e -> e.text() != null).sorted(RANK).toArray(Entry[]::new);
+        Suggestion[] suggestions = new Suggestion[ranked.length];
+        List<Key> keys = new ArrayList<>();
+        for (int rank = 0; rank < ranked.length; rank++) {
+            suggestions[rank] = new Suggestion(ranked[rank].text(), ranked[rank].productId());
+            for (String key : keys(ranked[rank].text())) keys.add(new Key(key, rank));
+        }
+        Key[] sorted = keys.toArray(Key[]::new);
+        Arrays.sort(sorted, Comparator.comparing(Key::text).thenComparingInt(Key::rank));
+        Builder b = new Builder(sorted, Math.max(topK, 1));
+        b.fill(b.newNode(), 0, sorted.length, 0);
+        return new CompletionIndex(suggestions, b);
+    }
+
+    /** Up to {@code limit} completions of {@code prefix}, best first; empty if nothing matches. */
+    public List<Suggestion> complete(CharSequence prefix, int limit) {
+        int node = 0;
+        int pos = labelStart[0];
+        int matched = 0;
+        boolean space = true;
+        for (int i = 0; i < prefix.length() && matched < MAX_KEY_CHARS; i++) {
+            char c = prefix.charAt(i);
+            if (Character.isWhitespace(c)) {
+                if (space) continue;
+                c = ' ';
+                space = true;
+            } else {
+                c = Character.toLowerCase(c);
+                space = false;
+            }
+            if (pos < labelEnd[node]) {
+                if (labels[pos] != c) return List.of();
+                pos++;
+            } else {
+                node = child(node, c);
+                if (node < 0) return List.of();
+                pos = labelStart[node] + 1;
+            }
+            matched++;
+        }
+        int from = topStart[node];
+        int size = Math.min(Math.max(limit, 0), topStart[node + 1] - from);
+        return size == 0 ? List.of() : new Completions(from, size);
+    }
+
+    public int entries() {
+        return suggestions.length;
+    }
+
+    public int keys() {
+        return keys;
+    }
+
+    public int nodes() {
+        return labelStart.length;
+    }
+
+    /**
+     * The normal form used for matching: lower case, no leading whitespace, inner runs as one space,
+     * at most {@code maxChars} long.
+     */
+    static String normalize(CharSequence text, int maxChars) {
+        StringBuilder sb = new StringBuilder(Math.min(text.length(), maxChars));
+        boolean space = true;
+        for (int i = 0; i < text.length() && sb.length() < maxChars; i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                if (space) continue;
+                sb.append(' ');
+                space = true;
+            } else {
+                sb.append(Character.toLowerCase(c));
+                space = false;
+            }
+        }
+        return sb.toString();
+    }
+
+    /** The keys {@code text} is indexed under: its normal form and the suffixes starting at later words. */
+    static List<String> keys(String text) {
+        String normal = normalize(text, 4 * MAX_KEY_CHARS);
+        List<String> keys = new ArrayList<>();
+        int start = 0;
+        while (start < normal.length() && keys.size() < MAX_WORDS) {
+            String key = normal.substring(start, Math.min(start + MAX_KEY_CHARS, normal.length())).stripTrailing();
+            if (!key.isEmpty()) keys.add(key);
+            int space = normal.indexOf(' ', start);
+            if (space < 0) break;
+            start = space + 1;
+        }
+        return keys;
+    }
+
+    private int child(int node, char c) {
+        int lo = firstChild[node];
+        int hi = lo + childCount[node] - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            char first = labels[labelStart[mid]];
+            if (first < c) lo = mid + 1;
+            else if (first > c) hi = mid - 1;
+            else return mid;
+        }
+        return -1;
+    }
+
+    private record Key(String text, int rank) {
+    }
+
+    /** Read-only view of one node's completions; the only allocation of a lookup. */
+    private final class Completions extends AbstractList<Suggestion> implements RandomAccess {
+        private final int from;
+        private final int size;
+
+        Completions(int from, int size) {
+            this.from = from;
+            this.size = size;
+        }
+
+        @Override
+        public Suggestion get(int index) {
+            if (index < 0 || index >= size) throw new IndexOutOfBoundsException(index);
+            return suggestions[top[from + index]];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /** Lays the trie out node by node, giving each node's children consecutive ids. */
+    private static final class Builder {
+        final Key[] keys;
+        final int topK;
+        final StringBuilder labels = new StringBuilder();
+        final Ints labelStart = new Ints();
+        final Ints labelEnd = new Ints();
+        final Ints firstChild = new Ints();
+        final Ints childCount = new Ints();
+        final List<int[]> tops = new ArrayList<>();
+
+        Builder(Key[] keys, int topK) {
+            this.keys = keys;
+            this.topK = topK;
+        }
+
+        int newNode() {
+            labelStart.add(0);
+            labelEnd.add(0);
+            firstChild.add(0);
+            childCount.add(0);
+            tops.add(null);
+            return tops.size() - 1;
+        }
+
+        /** Fills {@code node} from {@code keys[lo, hi)}, whose first {@code depth} chars its ancestors matched. */
+        int[] fill(int node, int lo, int hi, int depth) {
+            if (lo == hi) {
+                tops.set(node, new int[0]);
+                return tops.get(node);
+            }
+            // sorted keys: the common prefix of the first and last is that of the whole range
+            String first = keys[lo].text();
+            String last = keys[hi - 1].text();
+            int end = depth;
+            int max = Math.min(first.length(), last.length());
+            while (end < max && first.charAt(end) == last.charAt(end)) end++;
+            labelStart.set(node, labels.length());
+            labels.append(first, depth, end);
+            labelEnd.set(node, labels.length());
+
+            Ints candidates = new Ints();
+            int i = lo;
+            // keys ending here come first, best rank first; more than topK of them can never show
+            for (int t = 0; i < hi && keys[i].text().length() == end; i++, t++) {
+                if (t < topK) candidates.add(keys[i].rank());
+            }
+
+            int children = 0;
+            for (int j = i; j < hi; children++) j = rangeEnd(j, hi, end);
+            int child = tops.size();
+            for (int c = 0; c < children; c++) newNode();
+            firstChild.set(node, child);
+            childCount.set(node, children);
+            while (i < hi) {
+                int next = rangeEnd(i, hi, end);
+                for (int rank : fill(child++, i, next, end)) candidates.add(rank);
+                i = next;
+            }
+            int[] best = candidates.toArray();
+            Arrays.sort(best);
+            int n = 0;
+            for (int j = 0; j < best.length && n < topK; j++) {
+                if (n == 0 || best[n - 1] != best[j]) best[n++] = best[j];
+            }
+            tops.set(node, Arrays.copyOf(best, n));
+            return tops.get(node);
+        }
+
+        /** End of the run of keys starting at {@code from} that share the char at {@code depth}. */
+        private int rangeEnd(int from, int hi, int depth) {
+            char c = keys[from].text().charAt(depth);
+            int j = from + 1;
+            while (j < hi && keys[j].text().charAt(depth) == c) j++;
+            return j;
+        }
+    }
+
+    private static final class Ints {
+        int[] values = new int[16];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        void set(int index, int value) {
+            values[index] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
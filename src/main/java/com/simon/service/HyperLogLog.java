@@ -0,0 +1,115 @@
+package com.simon.service;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe HyperLogLog distinct counter over 64-bit hashes. With {@link #PRECISION} 14 there are
+ * 16384 registers, for a standard error of about 0.8%. Registers are 6 bits and packed ten to a
+ * long, about 13 KB per sketch.
+ * <p>
+ * {@link #add(long)} reads one word and only writes, by compare-and-set, when the register grows.
+ * Once a sketch has seen a few thousand values almost every add is a read. Sketches merge by taking
+ * the larger register, so a union of days is estimated as accurately as a single day.
+ */
+public final class HyperLogLog {
+    public static final int PRECISION = 14;
+    static final int REGISTERS = 1 << PRECISION;
+    private static final int BITS = 6;
+    private static final int PER_WORD = 64 / BITS;
+    private static final int WORDS = (REGISTERS + PER_WORD - 1) / PER_WORD;
+    private static final long MASK = (1L << BITS) - 1;
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+
+    private final AtomicLongArray words = new AtomicLongArray(WORDS);
+
+    /** Adds a user id, or any other long, hashed so that sequential ids spread over all registers. */
+    public void add(long value) {
+        addHash(mix(value));
+    }
+
+    public void addHash(long hash) {
+        int index = (int) (hash >>> (64 - PRECISION));
+        // position of the first 1 bit in the remaining 50 bits; the guard bit caps it at 51
+        int rank = Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1;
+        int word = index / PER_WORD;
+        int shift = (index % PER_WORD) * BITS;
+        long current = words.get(word);
+        while (((current >>> shift) & MASK) < rank) {
+            long updated = (current & ~(MASK << shift)) | ((long) rank << shift);
+            long witness = words.compareAndExchange(word, current, updated);
+            if (witness == current) return;
+            current = witness;
+        }
+    }
+
+    /** Folds {@code other} into this sketch. */
+    public void merge(HyperLogLog other) {
+        for (int w = 0; w < WORDS; w++) {
+            long theirs = other.words.get(w);
+            if (theirs == 0) continue;
+            long current = words.get(w);
+            while (true) {
+                long merged = 0;
+                for (int shift = 0; shift < PER_WORD * BITS; shift += BITS) {
+                    merged |= Math.max((current >>> shift) & MASK, (theirs >>> shift) & MASK) << shift;
+                }
+                if (merged == current) break;
+                long witness = words.compareAndExchange(w, current, merged);
+                if (witness == current) break;
+                current = witness;
+            }
+        }
+    }
+
+    public long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        for (int index = 0; index < REGISTERS; index++) {
+            int rank = register(index);
+            sum += Double.longBitsToDouble((1023L - rank) << 52); // 2^-rank
+            if (rank == 0) zeros++;
+        }
+        double estimate = ALPHA * REGISTERS * REGISTERS / sum;
+        if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+            // small cardinalities: linear counting over the empty registers is more accurate
+            estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    public boolean isEmpty() {
+        for (int w = 0; w < WORDS; w++) {
+            if (words.get(w) != 0) return false;
+        }
+        return true;
+    }
+
+    public byte[] toBytes() {
+        ByteBuffer buf = ByteBuffer.allocate(1 + WORDS * Long.BYTES).put((byte) PRECISION);
+        for (int w = 0; w < WORDS; w++) buf.putLong(words.get(w));
+        return buf.array();
+    }
+
+    /** @throws IllegalArgumentException if {@code bytes} was not written by {@link #toBytes()} */
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        if (bytes.length != 1 + WORDS * Long.BYTES || bytes[0] != PRECISION) {
+            throw new IllegalArgumentException("Not a HyperLogLog sketch of precision " + PRECISION);
+        }
+        HyperLogLog sketch = new HyperLogLog();
+        ByteBuffer buf = ByteBuffer.wrap(bytes, 1, WORDS * Long.BYTES);
+        for (int w = 0; w < WORDS; w++) sketch.words.set(w, buf.getLong());
+        return sketch;
+    }
+
+    int register(int index) {
+        return (int) ((words.get(index / PER_WORD) >>> ((index % PER_WORD) * BITS)) & MASK);
+    }
+
+    /** The SplitMix64 finalizer: a bijection, so distinct ids never collide before indexing. */
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,32 @@
+package com.simon.service;
+
+import com.simon.repository.ProductRepository;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Database side of {@link InventoryService}: the initial stock read and the batched
+ * application of net stock deltas, one relative update per product in a single transaction.
+ */
+@Component
+@RequiredArgsConstructor
+public class InventoryPersistence {
+    private final ProductRepository productRepository;
+
+    public Optional<Integer> loadStock(Long productId) {
+        return productRepository.findStockById(productId);
+    }
+
+    @Transactional
+    public void applyDeltas(Map<Long, Integer> deltas) {
+        LocalDateTime now = LocalDateTime.now();
+        deltas.forEach((productId, delta) -> {
+            if (delta != 0) productRepository.adjustStock(productId, delta, now);
+        });
+    }
+}
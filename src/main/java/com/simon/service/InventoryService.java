@@ -0,0 +1,147 @@
+package com.simon.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stock reservations served from in-memory counters instead of row-locking the product.
+ * <p>
+ * Each product's counter is loaded once from the database and from then on holds
+ * {@code stock - committed-but-unreconciled - reserved}. A reservation is a CAS decrement that
+ * refuses to go below zero, so the node can never hand out more than it loaded. Reservations
+ * expire after a TTL (abandoned carts) or are released explicitly (order cancel); committed ones
+ * become net deltas that {@link #reconcile()} writes back in batches. The counters assume this
+ * node is the only writer of {@code Products.stock}; other stock changes must go through
+ * {@link #restock(Long, int)}.
+ * <p>
+ * Every change to a counter is published to {@link ChangeFeed}, which reads the counter itself when
+ * it fans the change out, so subscribers always end on the current availability.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class InventoryService {
+    private final InventoryPersistence inventoryPersistence;
+    private final ChangeFeed changeFeed;
+
+    @Value("${app.inventory.reservation-ttl-seconds:900}")
+    private long reservationTtlSeconds = 900;
+
+    private final ConcurrentHashMap<Long, AtomicInteger> available = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Reservation> reservations = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, LongAdder> pendingDeltas = new ConcurrentHashMap<>();
+    private final AtomicLong reservationIds = new AtomicLong();
+
+    public record Reservation(long id, Long productId, int quantity, long expiresAtMillis) {
+    }
+
+    /** @return the reservation, or {@code null} if the product is unknown or has too little stock */
+    public Reservation reserve(Long productId, int quantity) {
+        return reserve(productId, quantity, reservationTtlSeconds * 1000);
+    }
+
+    public Reservation reserve(Long productId, int quantity, long ttlMillis) {
+        if (quantity <= 0) throw new IllegalArgumentException("quantity must be positive");
+        AtomicInteger counter = counter(productId);
+        if (counter == null) return null;
+        int current;
+        do {
+            current = counter.get();
+            if (current < quantity) return null;
+        } while (!counter.compareAndSet(current, current - quantity));
+        changeFeed.stock(productId, counter::get);
+        Reservation r = new Reservation(reservationIds.incrementAndGet(), productId, quantity,
+                System.currentTimeMillis() + ttlMillis);
+        reservations.put(r.id(), r);
+        return r;
+    }
+
+    /** Returns the reserved quantity to the pool. Safe to call more than once. */
+    public boolean release(long reservationId) {
+        Reservation r = reservations.remove(reservationId);
+        if (r == null) return false;
+        AtomicInteger counter = available.get(r.productId());
+        counter.addAndGet(r.quantity());
+        changeFeed.stock(r.productId(), counter::get);
+        return true;
+    }
+
+    /** Turns the reservation into a sale, to be written to the database on the next reconcile. */
+    public boolean commit(long reservationId) {
+        Reservation r = reservations.remove(reservationId);
+        if (r == null) return false;
+        pendingDeltas.computeIfAbsent(r.productId(), _ -> new LongAdder()).add(-r.quantity());
+        return true;
+    }
+
+    /** Adds (or with a negative delta, withdraws) stock outside of the reservation flow. */
+    public boolean restock(Long productId, int delta) {
+        AtomicInteger counter = counter(productId);
+        if (counter == null) return false;
+        int current;
+        do {
+            current = counter.get();
+            if (current + delta < 0) return false;
+        } while (!counter.compareAndSet(current, current + delta));
+        changeFeed.stock(productId, counter::get);
+        pendingDeltas.computeIfAbsent(productId, _ -> new LongAdder()).add(delta);
+        return true;
+    }
+
+    /** @return the quantity still available to reserve, or {@code -1} if the product is unknown */
+    public int available(Long productId) {
+        AtomicInteger counter = counter(productId);
+        return counter == null ? -1 : counter.get();
+    }
+
+    public int activeReservations() {
+        return reservations.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.inventory.expiry-sweep-ms:5000}")
+    public void releaseExpired() {
+        long now = System.currentTimeMillis();
+        for (Reservation r : reservations.values()) {
+            if (r.expiresAtMillis() <= now) release(r.id());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.inventory.reconcile-interval-ms:1000}")
+    public synchronized void reconcile() {
+        Map<Long, Integer> batch = new HashMap<>();
+        pendingDeltas.forEach((productId, delta) -> {
+            long d = delta.sumThenReset();
+            if (d != 0) batch.put(productId, (int) d);
+        });
+        if (batch.isEmpty()) return;
+        try {
+            inventoryPersistence.applyDeltas(batch);
+        } catch (RuntimeException e) {
+            log.warn("Stock reconciliation of {} products failed, will retry", batch.size(), e);
+            batch.forEach((productId, d) -> pendingDeltas.get(productId).add(d));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        reconcile();
+    }
+
+    private AtomicInteger counter(Long productId) {
+        AtomicInteger counter = available.get(productId);
+        if (counter != null) return counter;
+        return available.computeIfAbsent(productId,
+                id -> inventoryPersistence.loadStock(id).map(AtomicInteger::new).orElse(null));
+    }
+}
@@ -0,0 +1,14 @@
+package com.simon.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+@Component
+@Slf4j
+public class LoggingPaymentInitiator implements PaymentInitiator {
+    @Override
+    public void initiate(OrderPipeline.Placement placement) {
+        log.info("Payment initiated: orderId={}, method={}, amount={}",
+                placement.getOrderId(), placement.getPaymentMethod(), placement.getTotal());
+    }
+}
@@ -0,0 +1,11 @@
+package com.simon.service;
+
+import com.simon.model.OutboxMessage;
+
+/**
+ * Delivers one outbox message. Implementations throw on failure; {@link OutboxDispatcher} takes
+ * care of retries.
+ */
+public interface MailTransport {
+    void send(OutboxMessage message);
+}
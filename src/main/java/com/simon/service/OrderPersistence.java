@@ -0,0 +1,154 @@
+package com.simon.service;
+
+import com.simon.model.Order;
+import com.simon.model.OrderLine;
+import com.simon.model.OrderStatus;
+import com.simon.model.OutboxMessage;
+import com.simon.model.PaymentMethod;
+import com.simon.model.User;
+import com.simon.repository.OrderRepository;
+import com.simon.repository.UserRepository;
+import com.simon.system.AfterCommit;
+import com.simon.system.SnowflakeIds;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Order writes. Lines and header updates for a whole pipeline batch go out as JDBC batches in one
+ * transaction, with line ids taken from {@link SnowflakeIds} rather than the database. The
+ * confirmation emails are queued in the outbox within the same transaction.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderPersistence {
+    private static final String INSERT_LINE =
+            "insert into order_lines (id, order_id, product_id, product_name, unit_price, quantity) values (?, ?, ?, ?, ?, ?)";
+    private static final String CONFIRM_ORDER =
+            "update orders set total_amount = ?, status = ?, updated_at = ? where id = ? and status = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final OrderRepository orderRepository;
+    private final UserRepository userRepository;
+    private final OutboxService outboxService;
+    private final OrderStats orderStats;
+    private final ChangeFeed changeFeed;
+    private final SnowflakeIds snowflakeIds;
+
+    @Value("${app.orders.jdbc-batch-size:200}")
+    private int jdbcBatchSize = 200;
+
+    @Transactional
+    public Order create(Long userId, PaymentMethod paymentMethod) {
+        LocalDateTime now = LocalDateTime.now();
+        Order order = orderRepository.save(new Order()
+                .setUserId(userId)
+                .setPaymentMethod(paymentMethod)
+                .setStatus(OrderStatus.PROCESSING)
+                .setCreatedAt(now)
+                .setUpdatedAt(now));
+        orderStats.recordCreated(now.toLocalDate());
+        return order;
+    }
+
+    /**
+     * @return the ids of the orders moved to {@link OrderStatus#AWAITING_PAYMENT}; an order that
+     * already left {@link OrderStatus#PROCESSING} is not among them and gets no confirmation
+     */
+    @Transactional
+    public Set<Long> persistPlaced(List<OrderPipeline.Placement> placements) {
+        List<OrderLine> lines = new ArrayList<>();
+        for (OrderPipeline.Placement p : placements) lines.addAll(p.getLines());
+        for (OrderLine line : lines) line.setId(snowflakeIds.next());
+        jdbcTemplate.batchUpdate(INSERT_LINE, lines, jdbcBatchSize, (ps, line) -> {
+            ps.setLong(1, line.getId());
+            ps.setLong(2, line.getOrderId());
+            ps.setLong(3, line.getProductId());
+            ps.setString(4, line.getProductName());
+            ps.setBigDecimal(5, line.getUnitPrice());
+            ps.setInt(6, line.getQuantity());
+        });
+        LocalDateTime now = LocalDateTime.now();
+        int[][] confirmed = jdbcTemplate.batchUpdate(CONFIRM_ORDER, placements, jdbcBatchSize, (ps, p) -> {
+            ps.setBigDecimal(1, p.getTotal());
+            ps.setString(2, OrderStatus.AWAITING_PAYMENT.name());
+            ps.setObject(3, now);
+            ps.setLong(4, p.getOrderId());
+            ps.setString(5, OrderStatus.PROCESSING.name());
+        });
+        Set<Long> awaiting = new HashSet<>();
+        List<OrderPipeline.Placement> placed = new ArrayList<>(placements.size());
+        int i = 0;
+        for (int[] chunk : confirmed) {
+            for (int rows : chunk) {
+                OrderPipeline.Placement p = placements.get(i++);
+                if (rows == 0) continue;
+                orderStats.recordTransition(OrderStatus.PROCESSING, OrderStatus.AWAITING_PAYMENT, null, null, null);
+                awaiting.add(p.getOrderId());
+                placed.add(p);
+            }
+        }
+        AfterCommit.run(() -> awaiting.forEach(id -> changeFeed.orderStatus(id, OrderStatus.AWAITING_PAYMENT)));
+        if (!placed.isEmpty()) outboxService.enqueueAll(confirmations(placed));
+        return awaiting;
+    }
+
+    private List<OutboxMessage> confirmations(List<OrderPipeline.Placement> placements) {
+        Set<Long> userIds = new HashSet<>();
+        for (OrderPipeline.Placement p : placements) userIds.add(p.getUserId());
+        Map<Long, User> users = new HashMap<>();
+        for (User u : userRepository.findAllById(userIds)) users.put(u.getId(), u);
+
+        List<OutboxMessage> messages = new ArrayList<>(placements.size());
+        for (OrderPipeline.Placement p : placements) {
+            User user = users.get(p.getUserId());
+            if (user == null) continue;
+            StringBuilder body = new StringBuilder()
+                    .append("Hi ").append(user.getUsername()).append(",\n\n")
+                    .append("We have received your order #").append(p.getOrderId()).append(":\n");
+            for (OrderLine line : p.getLines()) {
+                body.append("  ").append(line.getQuantity()).append(" x ").append(line.getProductName())
+                        .append(" @ ").append(line.getUnitPrice()).append('\n');
+            }
+            body.append("\nTotal: ").append(p.getTotal()).append("\nPayment: ").append(p.getPaymentMethod());
+            messages.add(outboxService.message(OutboxService.ORDER_CONFIRMATION, user.getEmail(),
+                    "Your Andrea order #" + p.getOrderId(), body.toString()));
+        }
+        return messages;
+    }
+
+    /**
+     * Compare-and-set on the status column; {@code false} if the order was no longer in {@code from}.
+     * Only for changes that do not move the order into or out of a paid status, since the revenue
+     * aggregates need the order itself; use {@link #transition(Order, OrderStatus)} for those.
+     */
+    @Transactional
+    public boolean transition(Long orderId, OrderStatus from, OrderStatus to) {
+        if (from.isPaid() != to.isPaid()) throw new IllegalArgumentException(from + " -> " + to + " needs the order");
+        if (orderRepository.transition(orderId, from, to, LocalDateTime.now()) != 1) return false;
+        orderStats.recordTransition(from, to, null, null, null);
+        AfterCommit.run(() -> changeFeed.orderStatus(orderId, to));
+        return true;
+    }
+
+    /** Compare-and-set from the order's current status to {@code to}. */
+    @Transactional
+    public boolean transition(Order order, OrderStatus to) {
+        OrderStatus from = order.getStatus();
+        if (orderRepository.transition(order.getId(), from, to, LocalDateTime.now()) != 1) return false;
+        orderStats.recordTransition(from, to, order.getCreatedAt().toLocalDate(), order.getPaymentMethod(),
+                order.getTotalAmount());
+        AfterCommit.run(() -> changeFeed.orderStatus(order.getId(), to));
+        return true;
+    }
+}
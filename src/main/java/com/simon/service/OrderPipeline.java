@@ -0,0 +1,251 @@
+package com.simon.service;
+
+import com.simon.model.OrderLine;
+import com.simon.model.OrderStatus;
+import com.simon.model.PaymentMethod;
+import com.simon.model.Product;
+import com.simon.repository.ProductRepository;
+import com.simon.system.PipelineStage;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.Accessors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Background half of order placement. The request thread only inserts the order header in
+ * {@link OrderStatus#PROCESSING} and submits it here; the rest runs as four bounded stages:
+ * <ol>
+ *     <li>pricing: one {@code findAllById} per batch to snapshot names and prices</li>
+ *     <li>reservation: stock held through {@link InventoryService}</li>
+ *     <li>persistence: order lines, header updates and confirmation emails (via the outbox) in one
+ *     transaction, then reservations committed</li>
+ *     <li>side effects: payment initiation</li>
+ * </ol>
+ * A failure before persistence, a database error included, releases any held stock and moves the
+ * order to {@link OrderStatus#FAILED}. If a persistence batch fails, its placements are retried one
+ * by one so only the offending order fails. An order that already left
+ * {@link OrderStatus#PROCESSING} meanwhile (an admin failing it, say) gets its stock released and
+ * none of the placement's effects.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class OrderPipeline {
+    private final ProductRepository productRepository;
+    private final InventoryService inventoryService;
+    private final OrderPersistence orderPersistence;
+    private final CartService cartService;
+    private final PaymentInitiator paymentInitiator;
+
+    @Value("${app.orders.pipeline.queue-capacity:1000}")
+    private int queueCapacity = 1000;
+
+    @Value("${app.orders.pipeline.batch-size:100}")
+    private int batchSize = 100;
+
+    @Value("${app.orders.pipeline.submit-timeout-ms:100}")
+    private long submitTimeoutMillis = 100;
+
+    @Value("${app.orders.pipeline.handoff-timeout-ms:30000}")
+    private long handoffTimeoutMillis = 30_000;
+
+    private final List<PipelineStage<Placement>> stages = new ArrayList<>();
+    private PipelineStage<Placement> pricing;
+    private PipelineStage<Placement> reservation;
+    private PipelineStage<Placement> persistence;
+    private PipelineStage<Placement> sideEffects;
+
+    @Data
+    @NoArgsConstructor
+    @Accessors(chain = true)
+    public static class Placement {
+        private Long orderId;
+        private Long userId;
+        private PaymentMethod paymentMethod;
+        private Map<Long, Integer> items;
+        private List<OrderLine> lines = List.of();
+        private List<Long> reservations = List.of();
+        private BigDecimal total = BigDecimal.ZERO;
+    }
+
+    @PostConstruct
+    public void start() {
+        pricing = stage("order-pricing", 2, this::price);
+        reservation = stage("order-reservation", 2, this::reserve);
+        persistence = stage("order-persistence", 1, this::persist);
+        sideEffects = stage("order-side-effects", 2, this::runSideEffects);
+        stages.forEach(PipelineStage::start);
+    }
+
+    @PreDestroy
+    public void stop() {
+        stages.forEach(s -> s.stop(5_000));
+    }
+
+    /** @return {@code false} if the pipeline is saturated and the placement was not accepted */
+    public boolean submit(Placement placement) {
+        return pricing.offer(placement, submitTimeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (PipelineStage<Placement> s : stages) stats.put(s.getName(), s.stats());
+        return stats;
+    }
+
+    void price(List<Placement> batch) {
+        Set<Long> productIds = new HashSet<>();
+        for (Placement p : batch) productIds.addAll(p.getItems().keySet());
+        Map<Long, Product> products = new HashMap<>();
+        try {
+            for (Product product : productRepository.findAllById(productIds)) products.put(product.getId(), product);
+        } catch (RuntimeException e) {
+            log.error("Pricing {} orders failed", batch.size(), e);
+            batch.forEach(p -> fail(p, "pricing failed"));
+            return;
+        }
+
+        for (Placement p : batch) {
+            List<OrderLine> lines = new ArrayList<>();
+            BigDecimal total = BigDecimal.ZERO;
+            for (var item : p.getItems().entrySet()) {
+                Product product = products.get(item.getKey());
+                if (product == null) {
+                    lines = null;
+                    break;
+                }
+                lines.add(new OrderLine()
+                        .setOrderId(p.getOrderId())
+                        .setProductId(product.getId())
+                        .setProductName(product.getName())
+                        .setUnitPrice(product.getPrice())
+                        .setQuantity(item.getValue()));
+                total = total.add(product.getPrice().multiply(BigDecimal.valueOf(item.getValue())));
+            }
+            if (lines == null) {
+                fail(p, "unknown product");
+                continue;
+            }
+            p.setLines(lines).setTotal(total);
+            handOff(reservation, p);
+        }
+    }
+
+    void reserve(List<Placement> batch) {
+        for (Placement p : batch) {
+            List<Long> held = new ArrayList<>();
+            boolean outOfStock = false;
+            try {
+                for (OrderLine line : p.getLines()) {
+                    var r = inventoryService.reserve(line.getProductId(), line.getQuantity());
+                    if (r == null) {
+                        outOfStock = true;
+                        break;
+                    }
+                    held.add(r.id());
+                }
+            } catch (RuntimeException e) {
+                // loading a product's stock hit the database
+                log.error("Reserving stock for order {} failed", p.getOrderId(), e);
+                fail(p.setReservations(held), "reservation failed");
+                continue;
+            }
+            if (outOfStock) {
+                fail(p.setReservations(held), "insufficient stock");
+                continue;
+            }
+            p.setReservations(held);
+            handOff(persistence, p);
+        }
+    }
+
+    void persist(List<Placement> batch) {
+        Set<Long> confirmed;
+        try {
+            confirmed = orderPersistence.persistPlaced(batch);
+        } catch (RuntimeException e) {
+            // isolate the bad placement instead of failing the whole batch
+            log.warn("Persisting {} orders failed, retrying one by one: {}", batch.size(), e.getMessage());
+            for (Placement p : batch) {
+                try {
+                    confirmed = orderPersistence.persistPlaced(List.of(p));
+                } catch (RuntimeException single) {
+                    log.error("Persisting order {} failed", p.getOrderId(), single);
+                    fail(p, "persistence failed");
+                    continue;
+                }
+                placedIfConfirmed(p, confirmed);
+            }
+            return;
+        }
+        for (Placement p : batch) placedIfConfirmed(p, confirmed);
+    }
+
+    private void placedIfConfirmed(Placement p, Set<Long> confirmed) {
+        if (confirmed.contains(p.getOrderId())) {
+            placed(p);
+            return;
+        }
+        // the order left PROCESSING while it was in the pipeline; it keeps its new status
+        p.getReservations().forEach(inventoryService::release);
+        p.setReservations(List.of());
+        log.info("Order {} was no longer processing; stock released", p.getOrderId());
+    }
+
+    private void placed(Placement p) {
+        p.getReservations().forEach(inventoryService::commit);
+        p.setReservations(List.of());
+        cartService.removeOrdered(p.getUserId(), p.getItems());
+        handOff(sideEffects, p);
+    }
+
+    void runSideEffects(List<Placement> batch) {
+        for (Placement p : batch) {
+            try {
+                paymentInitiator.initiate(p);
+            } catch (RuntimeException e) {
+                log.error("Payment initiation failed for order {}", p.getOrderId(), e);
+            }
+        }
+    }
+
+    private void handOff(PipelineStage<Placement> next, Placement p) {
+        if (next.offer(p, handoffTimeoutMillis, TimeUnit.MILLISECONDS)) return;
+        log.error("Stage {} stayed full for {} ms", next.getName(), handoffTimeoutMillis);
+        if (next != sideEffects) fail(p, "pipeline saturated");
+    }
+
+    private void fail(Placement p, String reason) {
+        p.getReservations().forEach(inventoryService::release);
+        p.setReservations(List.of());
+        log.info("Order {} failed: {}", p.getOrderId(), reason);
+        try {
+            orderPersistence.transition(p.getOrderId(), OrderStatus.PROCESSING, OrderStatus.FAILED);
+        } catch (RuntimeException e) {
+            // keep failing the rest of the batch
+            log.error("Marking order {} failed did not commit", p.getOrderId(), e);
+        }
+    }
+
+    private PipelineStage<Placement> stage(String name, int workers, Consumer<List<Placement>> handler) {
+        PipelineStage<Placement> stage = new PipelineStage<>(name, queueCapacity, workers, batchSize, handler);
+        stages.add(stage);
+        return stage;
+    }
+}
@@ -0,0 +1,99 @@
+package com.simon.service;
+
+import com.simon.model.Order;
+import com.simon.model.OrderLine;
+import com.simon.model.OrderStatus;
+import com.simon.model.PaymentMethod;
+import com.simon.repository.OrderLineRepository;
+import com.simon.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+public class OrderService {
+    private final OrderRepository orderRepository;
+    private final OrderLineRepository orderLineRepository;
+    private final OrderPersistence orderPersistence;
+    private final OrderPipeline orderPipeline;
+    private final CartService cartService;
+    private final InventoryService inventoryService;
+    private final OrderStats orderStats;
+
+    /**
+     * Inserts the order header and hands the rest of placement to {@link OrderPipeline}.
+     *
+     * @return the new order, in {@code PROCESSING} or, if the pipeline is saturated, {@code FAILED};
+     * {@code null} if the cart is empty
+     */
+    public Order place(Long userId, PaymentMethod paymentMethod) {
+        Map<Long, Integer> items = cartService.getItems(userId);
+        if (items.isEmpty()) return null;
+        Order order = orderPersistence.create(userId, paymentMethod);
+        var placement = new OrderPipeline.Placement()
+                .setOrderId(order.getId())
+                .setUserId(userId)
+                .setPaymentMethod(paymentMethod)
+                .setItems(items);
+        if (!orderPipeline.submit(placement)) {
+            orderPersistence.transition(order.getId(), OrderStatus.PROCESSING, OrderStatus.FAILED);
+            order.setStatus(OrderStatus.FAILED);
+        }
+        return order;
+    }
+
+    public Order findForUser(Long userId, Long orderId) {
+        return orderRepository.findById(orderId)
+                .filter(o -> o.getUserId().equals(userId))
+                .orElse(null);
+    }
+
+    public List<OrderLine> lines(Long orderId) {
+        return orderLineRepository.findAllByOrderId(orderId);
+    }
+
+    public Page<Order> history(Long userId, int page, int size) {
+        return orderRepository.findAllByUserId(userId, PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "id")));
+    }
+
+    public Page<Order> listAll(int page, int size) {
+        return orderRepository.findAll(PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "id")));
+    }
+
+    /**
+     * Moves an order to {@code to} if its current status allows it. Cancelling puts the ordered
+     * quantities back into stock.
+     *
+     * @return {@code false} if the order does not exist, the transition is not allowed, or the
+     * status changed concurrently
+     */
+    public boolean transition(Long orderId, OrderStatus to) {
+        Order order = orderRepository.findById(orderId).orElse(null);
+        if (order == null || !order.getStatus().canTransitionTo(to)) return false;
+        if (!orderPersistence.transition(order, to)) return false;
+        if (to == OrderStatus.CANCELLED) {
+            for (OrderLine line : orderLineRepository.findAllByOrderId(orderId)) {
+                inventoryService.restock(line.getProductId(), line.getQuantity());
+            }
+        }
+        return true;
+    }
+
+    public boolean cancel(Long userId, Long orderId) {
+        return findForUser(userId, orderId) != null && transition(orderId, OrderStatus.CANCELLED);
+    }
+
+    public Map<String, Object> stats(int days) {
+        return orderStats.view(days);
+    }
+
+    public Map<String, Object> pipelineStats() {
+        return orderPipeline.stats();
+    }
+}
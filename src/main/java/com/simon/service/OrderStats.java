@@ -0,0 +1,229 @@
+package com.simon.service;
+
+import com.simon.model.OrderStatus;
+import com.simon.model.PaymentMethod;
+import com.simon.model.StatsCheckpoint;
+import com.simon.repository.OrderRepository;
+import com.simon.repository.StatsCheckpointRepository;
+import com.simon.system.AfterCommit;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.ObjectMapper;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Dashboard aggregates kept up to date on every order state change instead of recomputed with
+ * {@code GROUP BY}: orders per status, paid orders and revenue per payment method, and orders
+ * placed plus their paid revenue per day. Updates are applied after the surrounding transaction
+ * commits, so rolled-back changes are never counted.
+ * <p>
+ * The counters are checkpointed to {@code StatsCheckpoints} periodically and at shutdown. On
+ * startup the checkpoint is trusted only if no order has been touched since it was taken;
+ * otherwise the aggregates are rebuilt from the orders table once.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class OrderStats {
+    static final String CHECKPOINT = "order-stats";
+    private static final List<OrderStatus> PAID = Arrays.stream(OrderStatus.values()).filter(OrderStatus::isPaid).toList();
+
+    private final OrderRepository orderRepository;
+    private final StatsCheckpointRepository statsCheckpointRepository;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Value("${app.orders.stats.day-retention:90}")
+    private int dayRetention = 90;
+
+    private final EnumMap<OrderStatus, LongAdder> byStatus = new EnumMap<>(OrderStatus.class);
+    private final EnumMap<PaymentMethod, Totals> byPaymentMethod = new EnumMap<>(PaymentMethod.class);
+    private final ConcurrentHashMap<LocalDate, Totals> byDay = new ConcurrentHashMap<>();
+
+    {
+        for (OrderStatus s : OrderStatus.values()) byStatus.put(s, new LongAdder());
+        for (PaymentMethod m : PaymentMethod.values()) byPaymentMethod.put(m, new Totals());
+    }
+
+    public record Counts(long orders, long revenueCents) {
+    }
+
+    public record Snapshot(Map<OrderStatus, Long> byStatus, Map<PaymentMethod, Counts> byPaymentMethod,
+                           Map<String, Counts> byDay) {
+    }
+
+    private static final class Totals {
+        final LongAdder orders = new LongAdder();
+        final LongAdder revenueCents = new LongAdder();
+
+        Counts counts() {
+            return new Counts(orders.sum(), revenueCents.sum());
+        }
+
+        void reset() {
+            orders.reset();
+            revenueCents.reset();
+        }
+    }
+
+    public void recordCreated(LocalDate day) {
+        AfterCommit.run(() -> {
+            byStatus.get(OrderStatus.PROCESSING).increment();
+            Totals totals = day(day);
+            if (totals != null) totals.orders.increment();
+        });
+    }
+
+    /**
+     * @param placedOn      the day the order was placed; may be {@code null} unless the change moves
+     *                      the order into or out of a paid status, as may the other order facts
+     */
+    public void recordTransition(OrderStatus from, OrderStatus to, LocalDate placedOn, PaymentMethod method,
+                                 BigDecimal amount) {
+        AfterCommit.run(() -> {
+            byStatus.get(from).decrement();
+            byStatus.get(to).increment();
+            if (from.isPaid() == to.isPaid()) return;
+            int sign = to.isPaid() ? 1 : -1;
+            long cents = sign * cents(amount);
+            if (method != null) {
+                Totals totals = byPaymentMethod.get(method);
+                totals.orders.add(sign);
+                totals.revenueCents.add(cents);
+            }
+            Totals totals = placedOn == null ? null : day(placedOn);
+            if (totals != null) totals.revenueCents.add(cents);
+        });
+    }
+
+    public Snapshot snapshot() {
+        Map<OrderStatus, Long> status = new EnumMap<>(OrderStatus.class);
+        byStatus.forEach((s, adder) -> status.put(s, adder.sum()));
+        Map<PaymentMethod, Counts> methods = new EnumMap<>(PaymentMethod.class);
+        byPaymentMethod.forEach((m, totals) -> methods.put(m, totals.counts()));
+        Map<String, Counts> days = new TreeMap<>();
+        byDay.forEach((d, totals) -> days.put(d.toString(), totals.counts()));
+        return new Snapshot(status, methods, days);
+    }
+
+    /** Admin view: counts as-is, revenue in currency units, and only the last {@code days} days. */
+    public Map<String, Object> view(int days) {
+        Snapshot snapshot = snapshot();
+        Map<String, Object> methods = new LinkedHashMap<>();
+        snapshot.byPaymentMethod().forEach((m, c) -> methods.put(m.name(), totalsView(c)));
+        Map<String, Object> daily = new LinkedHashMap<>();
+        String from = LocalDate.now().minusDays(Math.max(days, 1) - 1L).toString();
+        snapshot.byDay().forEach((d, c) -> {
+            if (d.compareTo(from) >= 0) daily.put(d, totalsView(c));
+        });
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("byStatus", snapshot.byStatus());
+        view.put("byPaymentMethod", methods);
+        view.put("byDay", daily);
+        return view;
+    }
+
+    @PostConstruct
+    public void init() {
+        StatsCheckpoint checkpoint = statsCheckpointRepository.findById(CHECKPOINT).orElse(null);
+        if (checkpoint != null && !orderRepository.existsByUpdatedAtGreaterThanEqual(checkpoint.getTakenAt())) {
+            try {
+                restore(objectMapper.readValue(checkpoint.getPayload(), Snapshot.class));
+                log.info("Order stats restored from checkpoint taken at {}", checkpoint.getTakenAt());
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Unreadable order stats checkpoint, rebuilding", e);
+            }
+        }
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${app.orders.stats.checkpoint-interval-ms:60000}")
+    public void checkpoint() {
+        // back-date slightly so a change committing right now is seen as "after" the checkpoint
+        LocalDateTime takenAt = LocalDateTime.now().minusSeconds(2);
+        String payload = objectMapper.writeValueAsString(snapshot());
+        statsCheckpointRepository.save(new StatsCheckpoint(CHECKPOINT, payload, takenAt));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        checkpoint();
+    }
+
+    @Scheduled(cron = "${app.orders.stats.prune-cron:0 5 0 * * *}")
+    public void pruneDays() {
+        LocalDate cutoff = LocalDate.now().minusDays(dayRetention);
+        byDay.keySet().removeIf(d -> d.isBefore(cutoff));
+    }
+
+    /** Recomputes everything from the orders table: three queries, run once at startup at most. */
+    public void rebuild() {
+        byStatus.values().forEach(LongAdder::reset);
+        byPaymentMethod.values().forEach(Totals::reset);
+        byDay.clear();
+        for (Object[] row : orderRepository.countByStatus()) {
+            byStatus.get((OrderStatus) row[0]).add((Long) row[1]);
+        }
+        for (Object[] row : orderRepository.revenueByPaymentMethod(PAID)) {
+            if (row[0] == null) continue;
+            Totals totals = byPaymentMethod.get((PaymentMethod) row[0]);
+            totals.orders.add((Long) row[1]);
+            totals.revenueCents.add(cents((BigDecimal) row[2]));
+        }
+        LocalDateTime since = LocalDate.now().minusDays(dayRetention).atStartOfDay();
+        for (Object[] row : orderRepository.findDailyFactsSince(since)) {
+            Totals totals = day(((LocalDateTime) row[0]).toLocalDate());
+            if (totals == null) continue;
+            totals.orders.increment();
+            if (((OrderStatus) row[1]).isPaid()) totals.revenueCents.add(cents((BigDecimal) row[2]));
+        }
+        log.info("Order stats rebuilt from the orders table");
+    }
+
+    private void restore(Snapshot snapshot) {
+        byStatus.values().forEach(LongAdder::reset);
+        byPaymentMethod.values().forEach(Totals::reset);
+        byDay.clear();
+        snapshot.byStatus().forEach((s, n) -> byStatus.get(s).add(n));
+        snapshot.byPaymentMethod().forEach((m, c) -> {
+            byPaymentMethod.get(m).orders.add(c.orders());
+            byPaymentMethod.get(m).revenueCents.add(c.revenueCents());
+        });
+        snapshot.byDay().forEach((d, c) -> {
+            Totals totals = day(LocalDate.parse(d));
+            if (totals == null) return;
+            totals.orders.add(c.orders());
+            totals.revenueCents.add(c.revenueCents());
+        });
+    }
+
+    private Totals day(LocalDate day) {
+        if (day.isBefore(LocalDate.now().minusDays(dayRetention))) return null;
+        return byDay.computeIfAbsent(day, _ -> new Totals());
+    }
+
+    private static Map<String, Object> totalsView(Counts c) {
+        return Map.of("orders", c.orders(), "revenue", BigDecimal.valueOf(c.revenueCents(), 2));
+    }
+
+    private static long cents(BigDecimal amount) {
+        return amount == null ? 0 : amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+}
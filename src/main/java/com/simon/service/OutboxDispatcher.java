@@ -0,0 +1,65 @@
+package com.simon.service;
+
+import com.simon.model.OutboxMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Background drain of the outbox. Each run claims batches until the table has nothing due or the
+ * per-run cap is reached; sending happens outside any transaction so SMTP latency never holds
+ * row locks.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class OutboxDispatcher {
+    private final OutboxService outboxService;
+    private final MailTransport mailTransport;
+
+    @Value("${app.outbox.batch-size:50}")
+    private int batchSize = 50;
+
+    @Value("${app.outbox.max-batches-per-run:20}")
+    private int maxBatchesPerRun = 20;
+
+    @Value("${app.outbox.dead-retention-days:14}")
+    private long deadRetentionDays = 14;
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:1000}")
+    public void dispatch() {
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            List<OutboxMessage> batch = outboxService.claim(batchSize);
+            if (batch.isEmpty()) return;
+            List<Long> delivered = new ArrayList<>(batch.size());
+            List<OutboxMessage> failed = new ArrayList<>();
+            Map<Long, String> errors = new HashMap<>();
+            for (OutboxMessage m : batch) {
+                try {
+                    mailTransport.send(m);
+                    delivered.add(m.getId());
+                } catch (RuntimeException e) {
+                    log.warn("Mail {} to {} failed (attempt {})", m.getId(), m.getRecipient(), m.getAttempts(), e);
+                    failed.add(m);
+                    errors.put(m.getId(), String.valueOf(e.getMessage()));
+                }
+            }
+            if (!delivered.isEmpty()) outboxService.delivered(delivered);
+            if (!failed.isEmpty()) outboxService.failed(failed, errors);
+            if (batch.size() < batchSize) return;
+        }
+    }
+
+    @Scheduled(cron = "${app.outbox.purge-cron:0 0 3 * * *}")
+    public void purgeDead() {
+        int purged = outboxService.purgeDead(deadRetentionDays);
+        if (purged > 0) log.info("Purged {} dead outbox messages", purged);
+    }
+}
@@ -0,0 +1,117 @@
+package com.simon.service;
+
+import com.simon.model.OutboxMessage;
+import com.simon.model.OutboxStatus;
+import com.simon.repository.OutboxMessageRepository;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Transactional outbox for outgoing email.
+ * <p>
+ * {@link #enqueue} joins the caller's transaction, so a message exists if and only if the business
+ * write that produced it committed. {@link OutboxDispatcher} drains the table: {@link #claim} takes
+ * a lease on a batch of due rows, delivered rows are deleted, and failed ones are rescheduled with
+ * exponential backoff until they run out of attempts and are parked as {@link OutboxStatus#DEAD}.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+    public static final String PASSWORD_RESET = "PASSWORD_RESET";
+    public static final String ORDER_CONFIRMATION = "ORDER_CONFIRMATION";
+
+    private final OutboxMessageRepository outboxMessageRepository;
+
+    @Value("${app.outbox.lease-seconds:60}")
+    private long leaseSeconds = 60;
+
+    @Value("${app.outbox.max-attempts:8}")
+    private int maxAttempts = 8;
+
+    @Value("${app.outbox.backoff-base-ms:1000}")
+    private long backoffBaseMillis = 1000;
+
+    @Value("${app.outbox.backoff-max-ms:600000}")
+    private long backoffMaxMillis = 600_000;
+
+    @Transactional
+    public OutboxMessage enqueue(String kind, String recipient, String subject, String body) {
+        return outboxMessageRepository.save(message(kind, recipient, subject, body));
+    }
+
+    @Transactional
+    public void enqueueAll(List<OutboxMessage> messages) {
+        outboxMessageRepository.saveAll(messages);
+    }
+
+    public OutboxMessage message(String kind, String recipient, String subject, String body) {
+        LocalDateTime now = LocalDateTime.now();
+        return new OutboxMessage()
+                .setKind(kind)
+                .setRecipient(recipient)
+                .setSubject(subject)
+                .setBody(body)
+                .setStatus(OutboxStatus.PENDING)
+                .setNextAttemptAt(now)
+                .setCreatedAt(now)
+                .setUpdatedAt(now);
+    }
+
+    /**
+     * Locks up to {@code limit} due rows (skipping rows another dispatcher holds) and pushes their
+     * next attempt past the lease, so a crashed dispatcher's batch is picked up again later.
+     */
+    @Transactional
+    public List<OutboxMessage> claim(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxMessage> due = outboxMessageRepository.findDueForUpdate(OutboxStatus.PENDING, now,
+                PageRequest.of(0, limit));
+        for (OutboxMessage m : due) {
+            m.setAttempts(m.getAttempts() + 1)
+                    .setNextAttemptAt(now.plusSeconds(leaseSeconds))
+                    .setUpdatedAt(now);
+        }
+        return due;
+    }
+
+    @Transactional
+    public void delivered(List<Long> ids) {
+        outboxMessageRepository.deleteAllByIdInBatch(ids);
+    }
+
+    @Transactional
+    public void failed(List<OutboxMessage> messages, Map<Long, String> errors) {
+        LocalDateTime now = LocalDateTime.now();
+        for (OutboxMessage m : messages) {
+            String error = errors.getOrDefault(m.getId(), "unknown error");
+            m.setLastError(error.length() > 500 ? error.substring(0, 500) : error).setUpdatedAt(now);
+            if (m.getAttempts() >= maxAttempts) {
+                m.setStatus(OutboxStatus.DEAD);
+            } else {
+                m.setNextAttemptAt(now.plus(backoffMillis(m.getAttempts()), ChronoUnit.MILLIS));
+            }
+        }
+        outboxMessageRepository.saveAll(messages);
+    }
+
+    @Transactional
+    public int purgeDead(long retentionDays) {
+        return outboxMessageRepository.purge(OutboxStatus.DEAD, LocalDateTime.now().minusDays(retentionDays));
+    }
+
+    long backoffMillis(int attempts) {
+        long delay = backoffBaseMillis << Math.min(attempts - 1, 30);
+        delay = Math.min(delay, backoffMaxMillis);
+        // +-20% jitter so a burst of failures does not retry in lockstep
+        return delay + ThreadLocalRandom.current().nextLong(-delay / 5, delay / 5 + 1);
+    }
+}
@@ -0,0 +1,77 @@
+package com.simon.service;
+
+import com.simon.model.PasswordResetToken;
+import com.simon.model.User;
+import com.simon.repository.PasswordResetTokenRepository;
+import com.simon.repository.UserRepository;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Password reset on top of {@link ResetTokenCodec}. Requesting a reset writes nothing but the
+ * outgoing mail, and only when the address belongs to a user; confirming checks signature, expiry
+ * and {@link UsedResetTokens} before reading the user, and records the token as consumed in the
+ * same transaction as the password change.
+ */
+@Service
+@RequiredArgsConstructor
+public class PasswordResetService {
+    private final UserRepository userRepository;
+    private final PasswordResetTokenRepository passwordResetTokenRepository;
+    private final ResetTokenCodec resetTokenCodec;
+    private final UsedResetTokens usedResetTokens;
+    private final UserService userService;
+    private final OutboxService outboxService;
+    private final TokenService tokenService;
+
+    @Value("${app.password-reset.ttl-minutes:30}")
+    private long ttlMinutes = 30;
+
+    @Value("${app.password-reset.url:http://localhost:8080/reset-password?token=}")
+    private String resetUrl = "http://localhost:8080/reset-password?token=";
+
+    /** Queues the reset mail. Unknown emails are a silent no-op. */
+    @Transactional
+    public void requestReset(String email) {
+        User user = userRepository.findByEmail(email).orElse(null);
+        if (user == null) return;
+        String token = resetTokenCodec.issue(user, Instant.now().plus(ttlMinutes, ChronoUnit.MINUTES));
+        outboxService.enqueue(OutboxService.PASSWORD_RESET, user.getEmail(), "Reset your Andrea password",
+                "Hi " + user.getUsername() + ",\n\nUse the link below to choose a new password. It expires in "
+                        + ttlMinutes + " minutes.\n\n" + resetUrl + token + "\n\nIf you did not ask for this, ignore this email.");
+    }
+
+    /** @return {@code false} if the token is forged, expired, already used or issued for an older password */
+    @Transactional
+    public boolean confirmReset(String token, String newPassword) {
+        var claims = resetTokenCodec.decode(token, Instant.now());
+        if (claims == null || usedResetTokens.isUsed(claims.tokenId(), claims.expiresAt())) return false;
+        User user = userRepository.findById(claims.userId()).orElse(null);
+        if (user == null || !Boolean.TRUE.equals(user.getIsActive())
+                || resetTokenCodec.fingerprint(user.getPasswordHash()) != claims.fingerprint()) {
+            return false;
+        }
+        if (!usedResetTokens.markUsed(claims.tokenId(), claims.expiresAt())) return false;
+        try {
+            passwordResetTokenRepository.save(new PasswordResetToken()
+                    .setUser(user)
+                    .setTokenHash(Long.toHexString(claims.tokenId()))
+                    .setCreatedAt(LocalDateTime.now())
+                    .setExpiresAt(LocalDateTime.ofInstant(claims.expiresAt(), ZoneId.systemDefault()))
+                    .setUsed(true));
+            userService.updatePassword(user, newPassword);
+            tokenService.revokeAllSessions(user.getId());
+        } catch (RuntimeException e) {
+            usedResetTokens.unmark(claims.tokenId(), claims.expiresAt());
+            throw e;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,118 @@
+package com.simon.service;
+
+import com.simon.model.Order;
+import com.simon.model.OrderStatus;
+import com.simon.model.PaymentCallbackResult;
+import com.simon.model.PaymentOutcome;
+import com.simon.repository.OrderRepository;
+import com.simon.repository.PaymentCallbackRepository;
+import com.simon.system.AfterCommit;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Applies a batch of payment callbacks in one transaction: the orders involved are locked with a
+ * single ordered {@code SELECT ... FOR UPDATE}, all payable orders move to {@link OrderStatus#PAID}
+ * with one {@code UPDATE ... WHERE id IN}, and the callbacks are recorded with a JDBC batch.
+ */
+@Component
+@RequiredArgsConstructor
+public class PaymentCallbackPersistence {
+    private static final String INSERT_CALLBACK = "insert into payment_callbacks (gateway_txn_id, order_id, "
+            + "payment_method, outcome, amount, result, received_at, processed_at) values (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final OrderRepository orderRepository;
+    private final PaymentCallbackRepository paymentCallbackRepository;
+    private final OrderStats orderStats;
+    private final ChangeFeed changeFeed;
+
+    @Value("${app.orders.jdbc-batch-size:200}")
+    private int jdbcBatchSize = 200;
+
+    /**
+     * @return the result per gateway transaction id; callbacks already recorded by an earlier batch
+     * (or another node) are left out
+     */
+    @Transactional
+    public Map<String, PaymentCallbackResult> apply(List<PaymentCallbackService.Callback> batch) {
+        Set<String> txnIds = new HashSet<>();
+        for (var c : batch) txnIds.add(c.transactionId());
+        Set<String> known = new HashSet<>(paymentCallbackRepository.findExistingTxnIds(txnIds));
+
+        List<PaymentCallbackService.Callback> fresh = new ArrayList<>();
+        Set<Long> orderIds = new HashSet<>();
+        for (var c : batch) {
+            if (!known.add(c.transactionId())) continue;
+            fresh.add(c);
+            orderIds.add(c.orderId());
+        }
+        Map<String, PaymentCallbackResult> results = new LinkedHashMap<>();
+        if (fresh.isEmpty()) return results;
+
+        Map<Long, Order> orders = new HashMap<>();
+        for (Order o : orderRepository.findAllForUpdate(orderIds)) orders.put(o.getId(), o);
+
+        List<Order> paid = new ArrayList<>();
+        Set<Long> paidIds = new HashSet<>();
+        for (var c : fresh) {
+            Order order = orders.get(c.orderId());
+            PaymentCallbackResult result = decide(c, order);
+            if (result == PaymentCallbackResult.APPLIED) {
+                // a second success for the same order in this batch must not count twice
+                if (paidIds.add(order.getId())) paid.add(order);
+                else result = PaymentCallbackResult.ALREADY_PAID;
+            }
+            results.put(c.transactionId(), result);
+        }
+
+        if (!paid.isEmpty()) {
+            orderRepository.transitionAll(paidIds, OrderStatus.AWAITING_PAYMENT, OrderStatus.PAID, LocalDateTime.now());
+            for (Order o : paid) {
+                orderStats.recordTransition(OrderStatus.AWAITING_PAYMENT, OrderStatus.PAID,
+                        o.getCreatedAt().toLocalDate(), o.getPaymentMethod(), o.getTotalAmount());
+            }
+            AfterCommit.run(() -> paidIds.forEach(id -> changeFeed.orderStatus(id, OrderStatus.PAID)));
+        }
+
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate(INSERT_CALLBACK, fresh, jdbcBatchSize, (ps, c) -> {
+            ps.setString(1, c.transactionId());
+            ps.setLong(2, c.orderId());
+            ps.setString(3, c.method().name());
+            ps.setString(4, c.outcome().name());
+            ps.setBigDecimal(5, c.amount());
+            ps.setString(6, results.get(c.transactionId()).name());
+            ps.setTimestamp(7, new Timestamp(c.receivedAtMillis()));
+            ps.setTimestamp(8, now);
+        });
+        return results;
+    }
+
+    static PaymentCallbackResult decide(PaymentCallbackService.Callback c, Order order) {
+        if (order == null) return PaymentCallbackResult.ORDER_NOT_FOUND;
+        if (order.getPaymentMethod() != c.method()) return PaymentCallbackResult.METHOD_MISMATCH;
+        if (c.outcome() == PaymentOutcome.FAILED) return PaymentCallbackResult.PAYMENT_FAILED;
+        if (order.getStatus().isPaid()) return PaymentCallbackResult.ALREADY_PAID;
+        if (order.getStatus() != OrderStatus.AWAITING_PAYMENT) return PaymentCallbackResult.NOT_AWAITING_PAYMENT;
+        if (c.amount() == null || order.getTotalAmount() == null
+                || c.amount().compareTo(order.getTotalAmount()) != 0) {
+            return PaymentCallbackResult.AMOUNT_MISMATCH;
+        }
+        return PaymentCallbackResult.APPLIED;
+    }
+}
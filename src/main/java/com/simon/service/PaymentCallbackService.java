@@ -0,0 +1,224 @@
+package com.simon.service;
+
+import com.simon.model.PaymentCallbackResult;
+import com.simon.model.PaymentMethod;
+import com.simon.model.PaymentOutcome;
+import com.simon.system.PipelineStage;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Front door for gateway payment callbacks. {@link #accept} answers on the request thread after a
+ * map lookup and a queue offer; a single worker drains the queue and hands whole batches to
+ * {@link PaymentCallbackPersistence}.
+ * <p>
+ * Deduplication is two-level: transaction ids seen within {@code app.payments.dedupe-window-minutes}
+ * are answered from memory, and the unique column on {@code PaymentCallbacks} catches anything
+ * older or seen by another node.
+ * <p>
+ * The gateway has been told SUCCESS by the time a callback is persisted and will not send it again,
+ * so a callback that still fails when retried on its own is parked in memory and re-offered with
+ * exponential backoff, starting at {@code app.payments.retry-backoff-ms}, up to
+ * {@code app.payments.retry-max-attempts} times. Only then is it dropped, logged in full for a
+ * manual replay, and its id forgotten. Parked callbacks do not survive a restart.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class PaymentCallbackService {
+    private final PaymentCallbackPersistence paymentCallbackPersistence;
+
+    // deliberately no fallback to app.jwt.secret: the gateway must never hold a key that can mint access tokens
+    @Value("${app.payments.callback-secret:}")
+    private String callbackSecret;
+
+    @Value("${app.payments.queue-capacity:10000}")
+    private int queueCapacity = 10_000;
+
+    @Value("${app.payments.batch-size:200}")
+    private int batchSize = 200;
+
+    @Value("${app.payments.dedupe-window-minutes:60}")
+    private long dedupeWindowMinutes = 60;
+
+    @Value("${app.payments.retry-max-attempts:10}")
+    private int retryMaxAttempts = 10;
+
+    @Value("${app.payments.retry-backoff-ms:1000}")
+    private long retryBackoffMillis = 1000;
+
+    @Value("${app.payments.retry-max-backoff-ms:300000}")
+    private long retryMaxBackoffMillis = 300_000;
+
+    private final ConcurrentHashMap<String, Long> seen = new ConcurrentHashMap<>();
+    /** Failed attempts per transaction id, for callbacks that are parked or being retried. */
+    private final ConcurrentHashMap<String, Integer> attempts = new ConcurrentHashMap<>();
+    private LinkedBlockingQueue<Retry> retries;
+    private final Map<PaymentCallbackResult, LongAdder> results = new EnumMap<>(PaymentCallbackResult.class);
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder abandoned = new LongAdder();
+    private PipelineStage<Callback> stage;
+
+    public enum Ack {ACCEPTED, DUPLICATE, REJECTED}
+
+    public record Callback(String transactionId, Long orderId, PaymentMethod method, PaymentOutcome outcome,
+                           BigDecimal amount, long receivedAtMillis) {
+    }
+
+    private record Retry(Callback callback, long dueAtMillis) {
+    }
+
+    @PostConstruct
+    public void start() {
+        if (callbackSecret == null || callbackSecret.isBlank()) {
+            throw new IllegalStateException("app.payments.callback-secret must be set");
+        }
+        for (PaymentCallbackResult r : PaymentCallbackResult.values()) results.put(r, new LongAdder());
+        retries = new LinkedBlockingQueue<>(queueCapacity);
+        stage = new PipelineStage<>("payment-callbacks", queueCapacity, 1, batchSize, this::process);
+        stage.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        stage.stop(5_000);
+        for (Retry r : retries) log.error("Payment callback dropped at shutdown: {}", r.callback());
+    }
+
+    /** Never blocks on the database; {@link Ack#REJECTED} means the queue is full and the gateway should retry. */
+    public Ack accept(Callback callback) {
+        if (seen.putIfAbsent(callback.transactionId(), System.currentTimeMillis()) != null) {
+            duplicates.increment();
+            return Ack.DUPLICATE;
+        }
+        if (!stage.offer(callback, 0, TimeUnit.MILLISECONDS)) {
+            seen.remove(callback.transactionId());
+            rejected.increment();
+            return Ack.REJECTED;
+        }
+        accepted.increment();
+        return Ack.ACCEPTED;
+    }
+
+    void process(List<Callback> batch) {
+        try {
+            count(paymentCallbackPersistence.apply(batch));
+            if (!attempts.isEmpty()) batch.forEach(c -> attempts.remove(c.transactionId()));
+        } catch (RuntimeException e) {
+            // isolate the bad callback instead of failing the whole burst
+            log.warn("Payment callback batch of {} failed, retrying one by one: {}", batch.size(), e.getMessage());
+            for (Callback c : batch) {
+                try {
+                    count(paymentCallbackPersistence.apply(List.of(c)));
+                    attempts.remove(c.transactionId());
+                } catch (RuntimeException single) {
+                    retryLater(c, single);
+                }
+            }
+        }
+    }
+
+    private void retryLater(Callback c, RuntimeException e) {
+        int attempt = attempts.merge(c.transactionId(), 1, Integer::sum);
+        if (attempt < retryMaxAttempts) {
+            long backoff = Math.min(retryBackoffMillis << Math.min(attempt - 1, 30), retryMaxBackoffMillis);
+            if (retries.offer(new Retry(c, System.currentTimeMillis() + backoff))) {
+                log.warn("Payment callback {} for order {} failed (attempt {}), retrying in {} ms: {}",
+                        c.transactionId(), c.orderId(), attempt, backoff, e.getMessage());
+                return;
+            }
+        }
+        abandon(c);
+        log.error("Payment callback {} for order {} abandoned after {} attempts: {}", c.transactionId(), c.orderId(),
+                attempt, c, e);
+    }
+
+    private void abandon(Callback c) {
+        attempts.remove(c.transactionId());
+        seen.remove(c.transactionId());
+        abandoned.increment();
+    }
+
+    /** Re-offers the parked callbacks whose backoff has passed. */
+    @Scheduled(fixedDelayString = "${app.payments.retry-ms:1000}")
+    public void retryFailed() {
+        long now = System.currentTimeMillis();
+        for (int n = retries.size(); n > 0; n--) {
+            Retry r = retries.poll();
+            if (r == null) break;
+            if (r.dueAtMillis() <= now && stage.offer(r.callback(), 0, TimeUnit.MILLISECONDS)) continue;
+            if (!retries.offer(r)) {
+                abandon(r.callback());
+                log.error("Payment callback abandoned, retry queue full: {}", r.callback());
+            }
+        }
+    }
+
+    private void count(Map<String, PaymentCallbackResult> applied) {
+        for (PaymentCallbackResult r : applied.values()) results.get(r).increment();
+    }
+
+    public String sign(String body) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(callbackSecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return HexFormat.of().formatHex(mac.doFinal(body.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public boolean verify(String body, String signature) {
+        if (signature == null) return false;
+        return MessageDigest.isEqual(sign(body).getBytes(StandardCharsets.US_ASCII),
+                signature.toLowerCase().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Scheduled(fixedDelayString = "${app.payments.dedupe-prune-ms:60000}")
+    public void pruneSeen() {
+        long cutoff = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(dedupeWindowMinutes);
+        seen.values().removeIf(at -> at < cutoff);
+    }
+
+    public int queueDepth() {
+        return stage.depth();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("accepted", accepted.sum());
+        stats.put("duplicates", duplicates.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("retrying", retries.size());
+        stats.put("abandoned", abandoned.sum());
+        stats.put("dedupeEntries", seen.size());
+        Map<String, Long> byResult = new LinkedHashMap<>();
+        results.forEach((r, n) -> byResult.put(r.name(), n.sum()));
+        stats.put("results", byResult);
+        stats.put("stage", stage.stats());
+        return stats;
+    }
+}
@@ -0,0 +1,74 @@
+package com.simon.service;
+
+import com.simon.model.Order;
+import com.simon.model.PaymentOutcome;
+import com.simon.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local stand-in for a payment gateway under load: for every order it fires one successful
+ * payment, delivered {@code deliveries} times in shuffled order from {@code threads} concurrent
+ * senders, the way gateways retry before they see an ack. Only present with
+ * {@code app.payments.simulator.enabled=true}.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.payments.simulator.enabled", havingValue = "true")
+public class PaymentCallbackSimulator {
+    private final PaymentCallbackService paymentCallbackService;
+    private final OrderRepository orderRepository;
+
+    public record StormResult(long deliveries, long accepted, long duplicates, long rejected, long elapsedMillis,
+                              double deliveriesPerSecond) {
+    }
+
+    public StormResult storm(List<Long> orderIds, int deliveries, int threads) {
+        List<PaymentCallbackService.Callback> payments = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (Order o : orderRepository.findAllById(orderIds)) {
+            payments.add(new PaymentCallbackService.Callback("SIM-" + o.getId() + "-" + now, o.getId(),
+                    o.getPaymentMethod(), PaymentOutcome.SUCCESS, o.getTotalAmount(), now));
+        }
+        return fire(paymentCallbackService, payments, deliveries, threads);
+    }
+
+    static StormResult fire(PaymentCallbackService service, List<PaymentCallbackService.Callback> payments,
+                            int deliveries, int threads) {
+        List<PaymentCallbackService.Callback> traffic = new ArrayList<>(payments.size() * deliveries);
+        for (int i = 0; i < deliveries; i++) traffic.addAll(payments);
+        Collections.shuffle(traffic, ThreadLocalRandom.current());
+
+        LongAdder accepted = new LongAdder();
+        LongAdder duplicates = new LongAdder();
+        LongAdder rejected = new LongAdder();
+        long start = System.nanoTime();
+        try (ExecutorService senders = Executors.newFixedThreadPool(threads)) {
+            int chunk = (traffic.size() + threads - 1) / threads;
+            for (int from = 0; from < traffic.size(); from += chunk) {
+                List<PaymentCallbackService.Callback> slice = traffic.subList(from, Math.min(traffic.size(), from + chunk));
+                senders.submit(() -> {
+                    for (var c : slice) {
+                        switch (service.accept(c)) {
+                            case ACCEPTED -> accepted.increment();
+                            case DUPLICATE -> duplicates.increment();
+                            case REJECTED -> rejected.increment();
+                        }
+                    }
+                });
+            }
+        }
+        long elapsedNanos = Math.max(1, System.nanoTime() - start);
+        return new StormResult(traffic.size(), accepted.sum(), duplicates.sum(), rejected.sum(),
+                elapsedNanos / 1_000_000, traffic.size() * 1e9 / elapsedNanos);
+    }
+}
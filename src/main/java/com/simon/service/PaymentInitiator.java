@@ -0,0 +1,9 @@
+package com.simon.service;
+
+/**
+ * Starts payment for an order once it has been persisted. Called off the request thread by the
+ * last stage of {@link OrderPipeline}.
+ */
+public interface PaymentInitiator {
+    void initiate(OrderPipeline.Placement placement);
+}
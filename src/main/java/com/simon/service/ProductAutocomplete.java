@@ -0,0 +1,288 @@
+package com.simon.service;
+
+import com.simon.model.OrderStatus;
+import com.simon.repository.OrderLineRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Search-box completions over product names and popular searches, served from a
+ * {@link CompletionIndex} so each keystroke is an in-memory trie walk instead of a query.
+ * <p>
+ * Products are ranked by {@code app.autocomplete.sales-weight} times the units sold over the last
+ * {@code app.autocomplete.sales-days} days, plus their number of ratings. Searches that signed-in
+ * users report through {@link #recordSearch(Long, String)} are ranked by their count times
+ * {@code app.autocomplete.query-weight}. A user counts once per query between two rescores, only
+ * queries made of words from product names and categories are counted, and counts are halved at
+ * every rescore, so old spikes fade.
+ * <p>
+ * The index follows {@link CatalogReadModel}. A renamed, new or deleted product is held in a small
+ * overlay that lookups apply on top of the index straight away. The next refresh, every
+ * {@code app.autocomplete.refresh-ms}, rebuilds the index from memory and empties the overlay. Once
+ * the overlay holds more than {@code app.autocomplete.max-pending} products, as after a bulk import,
+ * the rebuild starts at once instead, so lookups never scan a large overlay for long.
+ * Scores are re-read from the database every {@code app.autocomplete.rescore-ms}.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ProductAutocomplete implements CatalogReadModel.Listener {
+    private static final List<OrderStatus> PAID = Arrays.stream(OrderStatus.values()).filter(OrderStatus::isPaid).toList();
+
+    private final CatalogReadModel catalogReadModel;
+    private final RatingAggregates ratingAggregates;
+    private final OrderLineRepository orderLineRepository;
+
+    @Value("${app.autocomplete.top-k:10}")
+    private int topK = 10;
+
+    @Value("${app.autocomplete.sales-days:30}")
+    private int salesDays = 30;
+
+    @Value("${app.autocomplete.sales-weight:10}")
+    private long salesWeight = 10;
+
+    @Value("${app.autocomplete.query-weight:1}")
+    private long queryWeight = 1;
+
+    @Value("${app.autocomplete.min-query-count:3}")
+    private int minQueryCount = 3;
+
+    @Value("${app.autocomplete.max-queries:1000}")
+    private int maxQueries = 1000;
+
+    @Value("${app.autocomplete.max-tracked-queries:10000}")
+    private int maxTrackedQueries = 10_000;
+
+    @Value("${app.autocomplete.max-pending:256}")
+    private int maxPending = 256;
+
+    @Value("${app.autocomplete.max-tracked-searches:100000}")
+    private int maxTrackedSearches = 100_000;
+
+    private volatile CompletionIndex index = CompletionIndex.EMPTY;
+    private volatile Map<Long, Long> unitsSold = Map.of();
+    private volatile Map<String, Long> popularQueries = Map.of();
+    private volatile Set<String> catalogTerms = Set.of();
+    private final ConcurrentHashMap<Long, Pending> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean rebuildStarted = new AtomicBoolean();
+    private final ConcurrentHashMap<String, LongAdder> searches = new ConcurrentHashMap<>();
+    /** "userId:query" pairs already counted since the last rescore. */
+    private final Set<String> counted = ConcurrentHashMap.newKeySet();
+    private volatile Stats stats = new Stats(0, 0, 0, 0, 0, null);
+
+    /**
+     * A product changed since the index was built, with its {@link CompletionIndex#keys} worked out
+     * once; {@code item} is {@code null} once it is deleted.
+     */
+    private record Pending(CatalogReadModel.Item item, List<String> keys) {
+        static Pending of(CatalogReadModel.Item item) {
+            if (item == null || item.name() == null) return new Pending(item, List.of());
+            return new Pending(item, CompletionIndex.keys(item.name()));
+        }
+    }
+
+    public record Stats(int entries, int keys, int nodes, int pending, long buildMillis, LocalDateTime builtAt) {
+    }
+
+    @PostConstruct
+    public void register() {
+        catalogReadModel.addListener(this);
+    }
+
+    /** Up to {@code limit} completions of {@code prefix}, best first; at most {@code app.autocomplete.top-k}. */
+    public List<CompletionIndex.Suggestion> complete(String prefix, int limit) {
+        int n = Math.clamp(limit, 1, topK);
+        CompletionIndex current = index;
+        if (pending.isEmpty()) return current.complete(prefix, n);
+        return withPending(current, prefix, n);
+    }
+
+    /**
+     * Counts a search a user actually ran, so frequent ones are offered as completions. Repeats by
+     * the same user before the next rescore and queries with words the catalog does not use are ignored.
+     */
+    public void recordSearch(Long userId, String query) {
+        if (userId == null || query == null) return;
+        String key = CompletionIndex.normalize(query, CompletionIndex.MAX_KEY_CHARS).strip();
+        if (key.length() < 2 || !matchesCatalog(key)) return;
+        if (counted.size() >= maxTrackedSearches || !counted.add(userId + ":" + key)) return;
+        LongAdder count = searches.get(key);
+        if (count == null) {
+            // one-off queries make room for new ones, so a flood cannot lock real searches out
+            if (searches.size() >= maxTrackedQueries) searches.values().removeIf(a -> a.sum() <= 1);
+            if (searches.size() >= maxTrackedQueries) return;
+            count = searches.computeIfAbsent(key, _ -> new LongAdder());
+        }
+        count.increment();
+    }
+
+    @Override
+    public void changed(CatalogReadModel.Item before, CatalogReadModel.Item after) {
+        // stock and price move all the time and do not affect completions
+        if (before != null && after != null && Objects.equals(before.name(), after.name())) return;
+        pending.put(after != null ? after.id() : before.id(), Pending.of(after));
+        if (pending.size() > maxPending && rebuildStarted.compareAndSet(false, true)) {
+            // the catalog listener must stay quick, so the rebuild runs on its own thread
+            Thread.ofVirtual().name("autocomplete-rebuild").start(this::rebuildOverflow);
+        }
+    }
+
+    @Override
+    public void reloaded() {
+        rescore();
+    }
+
+    @Scheduled(fixedDelayString = "${app.autocomplete.refresh-ms:30000}")
+    public void refresh() {
+        if (!pending.isEmpty()) rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${app.autocomplete.rescore-ms:600000}",
+            initialDelayString = "${app.autocomplete.rescore-ms:600000}")
+    @Transactional(readOnly = true)
+    public void rescore() {
+        Map<Long, Long> sold = new HashMap<>();
+        for (Object[] row : orderLineRepository.unitsSoldSince(PAID, LocalDateTime.now().minusDays(salesDays))) {
+            sold.put((Long) row[0], ((Number) row[1]).longValue());
+        }
+        unitsSold = sold;
+        popularQueries = takePopularQueries();
+        rebuild();
+    }
+
+    private void rebuildOverflow() {
+        try {
+            do {
+                rebuild();
+            } while (pending.size() > maxPending);
+        } catch (RuntimeException e) {
+            log.warn("Autocomplete rebuild failed; the next refresh retries", e);
+        } finally {
+            rebuildStarted.set(false);
+        }
+    }
+
+    public Stats stats() {
+        Stats s = stats;
+        return new Stats(s.entries(), s.keys(), s.nodes(), pending.size(), s.buildMillis(), s.builtAt());
+    }
+
+    private synchronized void rebuild() {
+        long start = System.nanoTime();
+        Map<Long, Pending> applied = Map.copyOf(pending);
+        Map<Long, Long> sold = unitsSold;
+        Map<String, Long> queries = popularQueries;
+        List<CompletionIndex.Entry> entries = new ArrayList<>(catalogReadModel.size() + queries.size());
+        Set<String> names = new HashSet<>();
+        Set<String> terms = new HashSet<>();
+        for (CatalogReadModel.Item item : catalogReadModel.items()) {
+            addTerms(terms, item.category());
+            if (item.name() == null || item.name().isBlank()) continue;
+            entries.add(new CompletionIndex.Entry(item.name(), item.id(), score(item.id(), sold)));
+            addTerms(terms, item.name());
+            if (!queries.isEmpty()) names.add(CompletionIndex.normalize(item.name(), CompletionIndex.MAX_KEY_CHARS));
+        }
+        queries.forEach((query, count) -> {
+            // a search for an exact product name is already covered by the product itself, and one
+            // whose words left the catalog since it was counted no longer finds anything
+            if (!names.contains(query) && matchesCatalog(query, terms)) {
+                entries.add(new CompletionIndex.Entry(query, null, count * queryWeight));
+            }
+        });
+        CompletionIndex built = CompletionIndex.build(entries, topK);
+        index = built;
+        catalogTerms = terms;
+        // changes that arrived while building stay pending for the next round
+        applied.forEach(pending::remove);
+        stats = new Stats(built.entries(), built.keys(), built.nodes(), 0,
+                (System.nanoTime() - start) / 1_000_000, LocalDateTime.now());
+        log.debug("Autocomplete index rebuilt: {}", stats);
+    }
+
+    private static void addTerms(Set<String> terms, String text) {
+        if (text == null) return;
+        for (String word : CompletionIndex.normalize(text, Integer.MAX_VALUE).split(" ")) {
+            if (!word.isEmpty()) terms.add(word);
+        }
+    }
+
+    private boolean matchesCatalog(String query) {
+        return matchesCatalog(query, catalogTerms);
+    }
+
+    private static boolean matchesCatalog(String query, Set<String> terms) {
+        for (String word : query.split(" ")) {
+            if (!terms.contains(word)) return false;
+        }
+        return true;
+    }
+
+    private long score(Long productId, Map<Long, Long> sold) {
+        return salesWeight * sold.getOrDefault(productId, 0L) + ratingAggregates.get(productId).count();
+    }
+
+    /**
+     * The searches counted often enough since the last call, most frequent first; counts then decay
+     * by half and every user may count each query once more.
+     */
+    private Map<String, Long> takePopularQueries() {
+        counted.clear();
+        Map<String, Long> counts = new HashMap<>();
+        searches.forEach((query, adder) -> {
+            long count = adder.sumThenReset();
+            if (count >= minQueryCount) counts.put(query, count);
+            if (count / 2 > 0) adder.add(count / 2);
+            else searches.remove(query, adder);
+        });
+        Map<String, Long> popular = new HashMap<>();
+        counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(maxQueries)
+                .forEach(e -> popular.put(e.getKey(), e.getValue()));
+        return popular;
+    }
+
+    /**
+     * Lookup while some products changed since the build: changed or deleted products are dropped
+     * from the indexed completions, and changed products that match are appended after them.
+     */
+    private List<CompletionIndex.Suggestion> withPending(CompletionIndex current, String prefix, int n) {
+        List<CompletionIndex.Suggestion> result = new ArrayList<>(n);
+        for (CompletionIndex.Suggestion s : current.complete(prefix, topK)) {
+            if (s.productId() != null && pending.containsKey(s.productId())) continue;
+            result.add(s);
+            if (result.size() == n) return result;
+        }
+        String normal = CompletionIndex.normalize(prefix, CompletionIndex.MAX_KEY_CHARS);
+        for (Pending p : pending.values()) {
+            CatalogReadModel.Item item = p.item();
+            for (String key : p.keys()) {
+                if (key.startsWith(normal)) {
+                    result.add(new CompletionIndex.Suggestion(item.name(), item.id()));
+                    break;
+                }
+            }
+            if (result.size() == n) break;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,181 @@
+package com.simon.service;
+
+import com.simon.dto.ProductRequests;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Record splitting and row validation for catalog feeds. Splitting is sequential and cheap: it only
+ * finds record boundaries, including CSV fields quoted across lines. Parsing and validation work on
+ * one raw record at a time and keep no state, so {@link ProductImportService} runs them in parallel.
+ */
+public class ProductImportParser {
+    public enum Format {CSV, NDJSON}
+
+    public record RawRecord(long line, String text) {
+    }
+
+    /** Either {@code row} or {@code error} is set. */
+    public record Parsed(long line, ProductRequests.ImportRow row, String error) {
+        static Parsed ok(long line, ProductRequests.ImportRow row) {
+            return new Parsed(line, row, null);
+        }
+
+        static Parsed error(long line, String error) {
+            return new Parsed(line, null, error);
+        }
+    }
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    // an unterminated quote must not pull the rest of the file into one record
+    private static final int MAX_RECORD_CHARS = 64 * 1024;
+
+    private final Format format;
+    private final BufferedReader reader;
+    private Map<String, Integer> columns;
+    private long line;
+
+    public ProductImportParser(Format format, BufferedReader reader) throws IOException {
+        this.format = format;
+        this.reader = reader;
+        if (format == Format.CSV) readHeader();
+    }
+
+    /** Reads up to {@code max} records; an empty list means the input is exhausted. */
+    public List<RawRecord> next(int max) throws IOException {
+        List<RawRecord> records = new ArrayList<>(max);
+        String text;
+        while (records.size() < max && (text = reader.readLine()) != null) {
+            long start = ++line;
+            if (format == Format.CSV) {
+                // a quoted field may span lines; keep reading until the quotes balance
+                StringBuilder sb = null;
+                while (!balanced(sb == null ? text : sb) && (sb == null || sb.length() < MAX_RECORD_CHARS)) {
+                    String more = reader.readLine();
+                    if (more == null) break;
+                    line++;
+                    if (sb == null) sb = new StringBuilder(text);
+                    sb.append('\n').append(more);
+                }
+                if (sb != null) text = sb.toString();
+            }
+            if (text.isBlank()) continue;
+            records.add(new RawRecord(start, text));
+        }
+        return records;
+    }
+
+    public Parsed parse(RawRecord raw) {
+        ProductRequests.ImportRow row;
+        try {
+            row = format == Format.CSV ? fromCsv(raw.text()) : JSON.readValue(raw.text(), ProductRequests.ImportRow.class);
+        } catch (RuntimeException e) {
+            return Parsed.error(raw.line(), "unreadable record: " + e.getMessage());
+        }
+        // an NDJSON line of "null" reads as no row at all
+        if (row == null) return Parsed.error(raw.line(), "record is not an object");
+        String error = validate(row);
+        return error == null ? Parsed.ok(raw.line(), normalize(row)) : Parsed.error(raw.line(), error);
+    }
+
+    static String validate(ProductRequests.ImportRow row) {
+        if (row.getSku() == null || row.getSku().isBlank()) return "sku is required";
+        if (row.getSku().strip().length() > 64) return "sku longer than 64 characters";
+        if (row.getName() == null || row.getName().isBlank()) return "name is required";
+        if (row.getName().strip().length() > 200) return "name longer than 200 characters";
+        if (row.getDescription() != null && row.getDescription().length() > 2000) return "description longer than 2000 characters";
+        if (row.getCategory() != null && row.getCategory().strip().length() > 100) return "category longer than 100 characters";
+        if (row.getPrice() == null) return "price is required";
+        if (row.getPrice().signum() < 0) return "price must not be negative";
+        if (row.getPrice().stripTrailingZeros().scale() > 2) return "price has more than 2 decimals";
+        if (row.getPrice().precision() - row.getPrice().scale() > 10) return "price too large";
+        if (row.getStock() != null && row.getStock() < 0) return "stock must not be negative";
+        return null;
+    }
+
+    private static ProductRequests.ImportRow normalize(ProductRequests.ImportRow row) {
+        String category = row.getCategory() == null || row.getCategory().isBlank() ? null : row.getCategory().strip();
+        String description = row.getDescription() == null || row.getDescription().isBlank() ? null : row.getDescription();
+        return row.setSku(row.getSku().strip())
+                .setName(row.getName().strip())
+                .setDescription(description)
+                .setCategory(category)
+                .setPrice(row.getPrice().setScale(2))
+                .setStock(row.getStock() == null ? 0 : row.getStock());
+    }
+
+    private void readHeader() throws IOException {
+        String header = reader.readLine();
+        if (header == null) throw new IllegalArgumentException("CSV input is empty");
+        line = 1;
+        if (header.startsWith("\uFEFF")) header = header.substring(1);
+        columns = new HashMap<>();
+        List<String> names = splitCsv(header);
+        for (int i = 0; i < names.size(); i++) columns.put(names.get(i).strip().toLowerCase(Locale.ROOT), i);
+        for (String required : List.of("sku", "name", "price")) {
+            if (!columns.containsKey(required)) throw new IllegalArgumentException("CSV header lacks column " + required);
+        }
+    }
+
+    private ProductRequests.ImportRow fromCsv(String text) {
+        List<String> fields = splitCsv(text);
+        String stock = field(fields, "stock");
+        String price = field(fields, "price");
+        try {
+            return new ProductRequests.ImportRow(field(fields, "sku"), field(fields, "name"),
+                    field(fields, "description"), field(fields, "category"),
+                    price == null || price.isBlank() ? null : new BigDecimal(price.strip()),
+                    stock == null || stock.isBlank() ? null : Integer.valueOf(stock.strip()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("price or stock is not a number");
+        }
+    }
+
+    private String field(List<String> fields, String name) {
+        Integer i = columns.get(name);
+        return i == null || i >= fields.size() ? null : fields.get(i);
+    }
+
+    /** RFC 4180 fields: commas separate, quotes wrap, doubled quotes escape. */
+    static List<String> splitCsv(String text) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c != '\r') {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static boolean balanced(CharSequence text) {
+        int quotes = 0;
+        for (int i = 0; i < text.length(); i++) if (text.charAt(i) == '"') quotes++;
+        return quotes % 2 == 0;
+    }
+}
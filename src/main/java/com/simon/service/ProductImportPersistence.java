@@ -0,0 +1,117 @@
+package com.simon.service;
+
+import com.simon.dto.ProductRequests;
+import com.simon.repository.ProductRepository;
+import com.simon.system.AfterCommit;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Upserts one batch of validated catalog rows keyed by sku, in a single transaction. It reads the
+ * existing rows with one query and skips rows whose details are unchanged. Inserts and updates then
+ * go out as JDBC batches. Stock is written only for new products: for existing ones it belongs to
+ * {@link InventoryService}.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductImportPersistence {
+    private static final String INSERT = "insert into products (sku, name, description, category, price, stock, "
+            + "created_at, updated_at) values (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE = "update products set name = ?, description = ?, category = ?, price = ?, "
+            + "updated_at = ? where id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductRepository productRepository;
+    private final ProductService productService;
+    private final ChangeFeed changeFeed;
+
+    @Value("${app.products.import.jdbc-batch-size:500}")
+    private int jdbcBatchSize = 500;
+
+    public record BatchResult(int inserted, int updated, int unchanged) {
+    }
+
+    private record Update(Long id, ProductRequests.ImportRow row) {
+    }
+
+    /** @param rows validated rows with distinct skus */
+    @Transactional
+    public BatchResult upsert(List<ProductRequests.ImportRow> rows) {
+        List<String> skus = new ArrayList<>(rows.size());
+        for (var r : rows) skus.add(r.getSku());
+        Map<String, Object[]> existing = new HashMap<>();
+        for (Object[] state : productRepository.findImportStateBySkus(skus)) existing.put((String) state[1], state);
+
+        List<ProductRequests.ImportRow> inserts = new ArrayList<>();
+        List<Update> updates = new ArrayList<>();
+        int unchanged = 0;
+        for (var r : rows) {
+            Object[] state = existing.get(r.getSku());
+            if (state == null) inserts.add(r);
+            else if (differs(r, state)) updates.add(new Update((Long) state[0], r));
+            else unchanged++;
+        }
+
+        Timestamp now = Timestamp.from(Instant.now());
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT, inserts, jdbcBatchSize, (ps, r) -> {
+                ps.setString(1, r.getSku());
+                ps.setString(2, r.getName());
+                setNullable(ps, 3, r.getDescription());
+                setNullable(ps, 4, r.getCategory());
+                ps.setBigDecimal(5, r.getPrice());
+                ps.setInt(6, r.getStock());
+                ps.setTimestamp(7, now);
+                ps.setTimestamp(8, now);
+            });
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE, updates, jdbcBatchSize, (ps, u) -> {
+                ps.setString(1, u.row().getName());
+                setNullable(ps, 2, u.row().getDescription());
+                setNullable(ps, 3, u.row().getCategory());
+                ps.setBigDecimal(4, u.row().getPrice());
+                ps.setTimestamp(5, now);
+                ps.setLong(6, u.id());
+            });
+        }
+        if (!inserts.isEmpty() || !updates.isEmpty()) {
+            // one invalidation for the whole batch instead of one per row
+            productService.evictAll(updates.stream().map(Update::id).toList());
+        }
+        List<Update> repriced = updates.stream()
+                .filter(u -> ((BigDecimal) existing.get(u.row().getSku())[5]).compareTo(u.row().getPrice()) != 0)
+                .toList();
+        if (!repriced.isEmpty()) {
+            AfterCommit.run(() -> repriced.forEach(u -> changeFeed.price(u.id(), u.row().getPrice())));
+        }
+        return new BatchResult(inserts.size(), updates.size(), unchanged);
+    }
+
+    static boolean differs(ProductRequests.ImportRow row, Object[] state) {
+        return !Objects.equals(row.getName(), state[2])
+                || !Objects.equals(row.getDescription(), state[3])
+                || !Objects.equals(row.getCategory(), state[4])
+                || ((BigDecimal) state[5]).compareTo(row.getPrice()) != 0;
+    }
+
+    private static void setNullable(PreparedStatement ps, int index, String value) throws SQLException {
+        if (value == null) ps.setNull(index, Types.VARCHAR);
+        else ps.setString(index, value);
+    }
+}
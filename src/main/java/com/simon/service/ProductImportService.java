@@ -0,0 +1,243 @@
+package com.simon.service;
+
+import com.simon.dto.ProductRequests;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Asynchronous catalog imports from CSV or NDJSON feeds.
+ * <p>
+ * The upload is spooled to a temp file so the request returns right away with a job id. One job
+ * runs at a time, as three overlapping steps with at most two batches in memory:
+ * <ol>
+ *     <li>the job thread reads the next {@code app.products.import.batch-size} raw records</li>
+ *     <li>a dedicated fork-join pool parses and validates them in parallel</li>
+ *     <li>meanwhile the job thread upserts the previous batch through
+ *     {@link ProductImportPersistence}</li>
+ * </ol>
+ * A batch that fails to persist is retried row by row, so one bad row costs only itself. Progress
+ * and the first {@code app.products.import.max-errors} row errors are reported by {@link #status}.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ProductImportService {
+    private final ProductImportPersistence productImportPersistence;
+
+    @Value("${app.products.import.batch-size:1000}")
+    private int batchSize = 1000;
+
+    @Value("${app.products.import.parallelism:0}")
+    private int parallelism = 0;
+
+    @Value("${app.products.import.max-errors:1000}")
+    private int maxErrors = 1000;
+
+    @Value("${app.products.import.retained-jobs:50}")
+    private int retainedJobs = 50;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private ExecutorService runner;
+    private ForkJoinPool parsers;
+
+    public enum State {QUEUED, RUNNING, COMPLETED, FAILED}
+
+    public record RowError(long line, String message) {
+    }
+
+    public record Status(String id, ProductImportParser.Format format, State state, long read, long inserted,
+                         long updated, long unchanged, long failed, long rowsPerSecond, List<RowError> errors,
+                         boolean errorsTruncated, String failure, Instant createdAt, Instant startedAt,
+                         Instant finishedAt) {
+    }
+
+    private class Job {
+        final String id = UUID.randomUUID().toString();
+        final ProductImportParser.Format format;
+        final Instant createdAt = Instant.now();
+        final LongAdder read = new LongAdder();
+        final LongAdder inserted = new LongAdder();
+        final LongAdder updated = new LongAdder();
+        final LongAdder unchanged = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final List<RowError> errors = new ArrayList<>();
+        volatile State state = State.QUEUED;
+        volatile Instant startedAt;
+        volatile Instant finishedAt;
+        volatile String failure;
+
+        Job(ProductImportParser.Format format) {
+            this.format = format;
+        }
+
+        void error(long line, String message) {
+            failed.increment();
+            synchronized (errors) {
+                if (errors.size() < maxErrors) errors.add(new RowError(line, message));
+            }
+        }
+
+        Status status() {
+            List<RowError> snapshot;
+            synchronized (errors) {
+                snapshot = List.copyOf(errors);
+            }
+            Instant end = finishedAt != null ? finishedAt : Instant.now();
+            long millis = startedAt == null ? 0 : Math.max(1, Duration.between(startedAt, end).toMillis());
+            return new Status(id, format, state, read.sum(), inserted.sum(), updated.sum(), unchanged.sum(),
+                    failed.sum(), millis == 0 ? 0 : read.sum() * 1000 / millis, snapshot,
+                    failed.sum() > snapshot.size(), failure, createdAt, startedAt, finishedAt);
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        runner = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "product-import");
+            t.setDaemon(true);
+            return t;
+        });
+        parsers = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    public void stop() {
+        runner.shutdownNow();
+        parsers.shutdownNow();
+    }
+
+    /** Spools {@code body} to disk and queues the import; the returned status carries the job id. */
+    public Status submit(InputStream body, ProductImportParser.Format format) throws IOException {
+        Path spool = Files.createTempFile("product-import-", "." + format.name().toLowerCase());
+        try (body) {
+            Files.copy(body, spool, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(spool);
+            throw e;
+        }
+        Job job = new Job(format);
+        jobs.put(job.id, job);
+        forgetOldJobs();
+        runner.execute(() -> run(job, spool));
+        return job.status();
+    }
+
+    /** @return the job's status, or {@code null} if it is unknown or has been forgotten */
+    public Status status(String jobId) {
+        Job job = jobs.get(jobId);
+        return job == null ? null : job.status();
+    }
+
+    public List<Status> recent() {
+        return jobs.values().stream()
+                .sorted(Comparator.comparing((Job j) -> j.createdAt).reversed())
+                .map(Job::status)
+                .toList();
+    }
+
+    private void run(Job job, Path spool) {
+        job.startedAt = Instant.now();
+        job.state = State.RUNNING;
+        try (BufferedReader reader = Files.newBufferedReader(spool, StandardCharsets.UTF_8)) {
+            ProductImportParser parser = new ProductImportParser(job.format, reader);
+            CompletableFuture<List<ProductImportParser.Parsed>> pending = parse(parser, parser.next(batchSize));
+            while (true) {
+                List<ProductImportParser.Parsed> batch = pending.join();
+                if (batch.isEmpty()) break;
+                // parse the next batch while this one is written
+                pending = parse(parser, parser.next(batchSize));
+                write(job, batch);
+            }
+            job.state = State.COMPLETED;
+        } catch (Exception e) {
+            log.error("Product import {} failed", job.id, e);
+            job.failure = e.getMessage();
+            job.state = State.FAILED;
+        } finally {
+            job.finishedAt = Instant.now();
+            try {
+                Files.deleteIfExists(spool);
+            } catch (IOException e) {
+                log.warn("Could not delete import spool {}", spool);
+            }
+        }
+        log.info("Product import {} {}: {}", job.id, job.state, job.status());
+    }
+
+    private CompletableFuture<List<ProductImportParser.Parsed>> parse(ProductImportParser parser,
+                                                                     List<ProductImportParser.RawRecord> raw) {
+        if (raw.isEmpty()) return CompletableFuture.completedFuture(List.of());
+        return CompletableFuture.supplyAsync(() -> raw.parallelStream().map(parser::parse).toList(), parsers);
+    }
+
+    private void write(Job job, List<ProductImportParser.Parsed> batch) {
+        job.read.add(batch.size());
+        // the last row of a batch wins for a repeated sku
+        Map<String, ProductImportParser.Parsed> bySku = new LinkedHashMap<>();
+        for (var p : batch) {
+            if (p.error() != null) {
+                job.error(p.line(), p.error());
+                continue;
+            }
+            var superseded = bySku.put(p.row().getSku(), p);
+            if (superseded != null) job.error(superseded.line(), "sku repeated on line " + p.line());
+        }
+        if (bySku.isEmpty()) return;
+
+        List<ProductRequests.ImportRow> rows = new ArrayList<>(bySku.size());
+        for (var p : bySku.values()) rows.add(p.row());
+        try {
+            count(job, productImportPersistence.upsert(rows));
+        } catch (RuntimeException e) {
+            log.warn("Import batch of {} rows failed, retrying one by one: {}", rows.size(), e.getMessage());
+            for (var p : bySku.values()) {
+                try {
+                    count(job, productImportPersistence.upsert(List.of(p.row())));
+                } catch (RuntimeException single) {
+                    job.error(p.line(), "not saved: " + single.getMessage());
+                }
+            }
+        }
+    }
+
+    private static void count(Job job, ProductImportPersistence.BatchResult r) {
+        job.inserted.add(r.inserted());
+        job.updated.add(r.updated());
+        job.unchanged.add(r.unchanged());
+    }
+
+    private void forgetOldJobs() {
+        if (jobs.size() <= retainedJobs) return;
+        jobs.values().stream()
+                .filter(j -> j.state == State.COMPLETED || j.state == State.FAILED)
+                .sorted(Comparator.comparing((Job j) -> j.createdAt))
+                .limit(jobs.size() - retainedJobs)
+                .forEach(j -> jobs.remove(j.id));
+    }
+}
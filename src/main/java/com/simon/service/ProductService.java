@@ -0,0 +1,116 @@
+package com.simon.service;
+
+import com.simon.dto.ProductRequests;
+import com.simon.dto.ProductResponses;
+import com.simon.model.Product;
+import com.simon.repository.ProductRepository;
+import com.simon.system.AfterCommit;
+import com.simon.system.CatalogCacheFilter;
+import com.simon.system.ResponseCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Catalog reads and admin edits. Every edit drops the cached catalog responses tagged with the
+ * product (and the listings) once its transaction commits; price changes are also pushed to
+ * {@link ChangeFeed} subscribers.
+ */
+@Service
+@RequiredArgsConstructor
+public class ProductService {
+    private final ProductRepository productRepository;
+    private final RatingAggregates ratingAggregates;
+    private final InventoryService inventoryService;
+    private final ResponseCache responseCache;
+    private final ChangeFeed changeFeed;
+    private final CatalogReadModel catalogReadModel;
+
+    @Transactional(readOnly = true)
+    public Page<ProductResponses.ProductView> list(int page, int size) {
+        return productRepository.findAll(PageRequest.of(page, size, Sort.by("id")))
+                .map(p -> ProductResponses.ProductView.of(p, ratingAggregates.get(p.getId())));
+    }
+
+    @Transactional(readOnly = true)
+    public ProductResponses.ProductView get(Long id) {
+        return productRepository.findById(id)
+                .map(p -> ProductResponses.ProductView.of(p, ratingAggregates.get(p.getId())))
+                .orElse(null);
+    }
+
+    @Transactional
+    public Product create(ProductRequests.Create req) {
+        LocalDateTime now = LocalDateTime.now();
+        Product product = productRepository.save(new Product()
+                .setSku(req.getSku())
+                .setName(req.getName())
+                .setDescription(req.getDescription())
+                .setCategory(req.getCategory())
+                .setPrice(req.getPrice())
+                .setStock(req.getStock())
+                .setCreatedAt(now)
+                .setUpdatedAt(now));
+        evict(product.getId());
+        return product;
+    }
+
+    /** @return the updated product, or {@code null} if it does not exist */
+    @Transactional
+    public Product update(Long id, ProductRequests.Update req) {
+        Product product = productRepository.findById(id).orElse(null);
+        if (product == null) return null;
+        // written with a targeted UPDATE rather than by dirtying the entity, which would also write
+        // back the stock column read above
+        productRepository.updateDetails(id,
+                req.getName() != null ? req.getName() : product.getName(),
+                req.getDescription() != null ? req.getDescription() : product.getDescription(),
+                req.getCategory() != null ? req.getCategory() : product.getCategory(),
+                req.getPrice() != null ? req.getPrice() : product.getPrice(),
+                LocalDateTime.now());
+        evict(id);
+        if (req.getPrice() != null && req.getPrice().compareTo(product.getPrice()) != 0) {
+            AfterCommit.run(() -> changeFeed.price(id, req.getPrice()));
+        }
+        return productRepository.findById(id).orElse(null);
+    }
+
+    @Transactional
+    public boolean delete(Long id) {
+        if (!productRepository.existsById(id)) return false;
+        productRepository.deleteById(id);
+        evict(id);
+        AfterCommit.run(() -> catalogReadModel.remove(id));
+        return true;
+    }
+
+    public boolean restock(Long id, int delta) {
+        if (!inventoryService.restock(id, delta)) return false;
+        evict(id);
+        return true;
+    }
+
+    /**
+     * Drops cached catalog responses for a whole batch of products with one invalidation after the
+     * current transaction commits.
+     */
+    public void evictAll(Collection<Long> productIds) {
+        String[] tags = new String[productIds.size() + 1];
+        int i = 0;
+        for (Long id : productIds) tags[i++] = CatalogCacheFilter.productTag(id);
+        tags[i] = CatalogCacheFilter.TAG_LISTINGS;
+        AfterCommit.run(() -> responseCache.invalidate(tags));
+    }
+
+    /** Drops cached catalog responses for the product after the current transaction commits. */
+    public void evict(Long productId) {
+        AfterCommit.run(() -> responseCache.invalidate(CatalogCacheFilter.productTag(productId),
+                CatalogCacheFilter.TAG_LISTINGS));
+    }
+}
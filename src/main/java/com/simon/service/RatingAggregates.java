@@ -0,0 +1,170 @@
+package com.simon.service;
+
+import com.simon.model.ProductRating;
+import com.simon.repository.ProductRatingRepository;
+import com.simon.repository.ReviewRepository;
+import com.simon.system.AfterCommit;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Per-product rating aggregates served from memory with product listings.
+ * <p>
+ * {@link ReviewService} updates the persisted {@link ProductRating} row through
+ * {@link RatingPersistence} under a row lock in the same transaction as the review, and calls
+ * {@link #apply} so the in-memory copy follows once that transaction commits. {@link #verify()} streams the reviews table, compares the result with the
+ * stored aggregates and repairs any drift.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class RatingAggregates {
+    public static final Summary EMPTY = new Summary(0, 0, new long[5]);
+
+    private final ProductRatingRepository productRatingRepository;
+    private final ReviewRepository reviewRepository;
+    private final RatingPersistence ratingPersistence;
+
+    private final ConcurrentHashMap<Long, Summary> summaries = new ConcurrentHashMap<>();
+
+    public record Summary(long count, long sum, long[] histogram) {
+        public double average() {
+            return count == 0 ? 0 : Math.round(sum * 100.0 / count) / 100.0;
+        }
+
+        Summary apply(int removed, int added) {
+            long[] h = histogram.clone();
+            long c = count;
+            long s = sum;
+            if (removed > 0) {
+                c--;
+                s -= removed;
+                h[removed - 1]--;
+            }
+            if (added > 0) {
+                c++;
+                s += added;
+                h[added - 1]++;
+            }
+            return new Summary(c, s, h);
+        }
+
+        static Summary of(ProductRating r) {
+            return new Summary(r.getRatingCount(), r.getRatingSum(), r.histogram());
+        }
+
+        boolean sameAs(Summary other) {
+            return count == other.count && sum == other.sum && Arrays.equals(histogram, other.histogram);
+        }
+    }
+
+    public record VerifyResult(long productsChecked, long productsRepaired) {
+    }
+
+    /** Reads every aggregate; {@link CatalogReadModel} calls this at startup when it has no snapshot. */
+    public void load() {
+        for (ProductRating r : productRatingRepository.findAll()) summaries.put(r.getProductId(), Summary.of(r));
+        log.info("Loaded rating aggregates for {} products", summaries.size());
+    }
+
+    /**
+     * Starts from the aggregates of a snapshot and re-reads those written since it was taken.
+     *
+     * @return the number of aggregates re-read
+     */
+    public int restore(Map<Long, Summary> snapshot, LocalDateTime changedSince) {
+        summaries.clear();
+        summaries.putAll(snapshot);
+        int replayed = 0;
+        for (ProductRating r : productRatingRepository.findChangedSince(changedSince)) {
+            summaries.put(r.getProductId(), Summary.of(r));
+            replayed++;
+        }
+        return replayed;
+    }
+
+    /** A copy of every aggregate, for {@link CatalogSnapshot}. */
+    public Map<Long, Summary> snapshot() {
+        return new HashMap<>(summaries);
+    }
+
+    public Summary get(Long productId) {
+        return summaries.getOrDefault(productId, EMPTY);
+    }
+
+    /** Mirrors a review change into memory after commit; {@code 0} stands for "no review". */
+    public void apply(Long productId, int removedRating, int addedRating) {
+        AfterCommit.run(() -> summaries.compute(productId,
+                (id, s) -> (s == null ? EMPTY : s).apply(removedRating, addedRating)));
+    }
+
+    /**
+     * Recomputes every product's aggregate from a single ordered pass over the reviews table,
+     * holding one product's counts at a time. The scan's own transaction only reads. Mismatches are
+     * re-counted for that product under its row lock in a separate short transaction, so a review
+     * committed mid-scan is not overwritten and review writes are blocked for one product at a time.
+     */
+    @Transactional
+    public VerifyResult verify() {
+        Map<Long, Summary> stored = new HashMap<>();
+        for (ProductRating r : productRatingRepository.findAll()) stored.put(r.getProductId(), Summary.of(r));
+
+        long checked = 0;
+        long repaired = 0;
+        try (Stream<Object[]> rows = reviewRepository.streamRatingsByProduct()) {
+            Iterator<Object[]> it = rows.iterator();
+            Long current = null;
+            Summary acc = EMPTY;
+            while (it.hasNext()) {
+                Object[] row = it.next();
+                Long productId = (Long) row[0];
+                if (!Objects.equals(productId, current)) {
+                    if (current != null && reconcile(current, acc, stored.remove(current))) repaired++;
+                    if (current != null) checked++;
+                    current = productId;
+                    acc = EMPTY;
+                }
+                acc = acc.apply(0, (Integer) row[1]);
+            }
+            if (current != null) {
+                if (reconcile(current, acc, stored.remove(current))) repaired++;
+                checked++;
+            }
+        }
+        // aggregates left over belong to products that no longer have any review
+        for (var e : stored.entrySet()) {
+            if (reconcile(e.getKey(), EMPTY, e.getValue())) repaired++;
+            checked++;
+        }
+        log.info("Rating aggregates verified: {} products checked, {} repaired", checked, repaired);
+        return new VerifyResult(checked, repaired);
+    }
+
+    @Transactional
+    @Scheduled(cron = "${app.reviews.verify-cron:0 15 4 * * *}")
+    public void scheduledVerify() {
+        verify();
+    }
+
+    private boolean reconcile(Long productId, Summary computed, Summary stored) {
+        if (stored != null && computed.sameAs(stored)) {
+            if (!get(productId).sameAs(stored)) summaries.put(productId, stored);
+            return false;
+        }
+        // committed in its own transaction, so the in-memory copy can follow immediately
+        summaries.put(productId, ratingPersistence.recount(productId));
+        return true;
+    }
+}
@@ -0,0 +1,56 @@
+package com.simon.service;
+
+import com.simon.model.ProductRating;
+import com.simon.repository.ProductRatingRepository;
+import com.simon.repository.ReviewRepository;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Writes to the {@link ProductRating} rows. Review writes adjust a row inside their own
+ * transaction; {@link RatingAggregates#verify()} repairs one product per short transaction, so a
+ * repaired row is never locked for the length of the scan.
+ */
+@Component
+@RequiredArgsConstructor
+public class RatingPersistence {
+    private final ProductRatingRepository productRatingRepository;
+    private final ReviewRepository reviewRepository;
+
+    /** Takes one review of {@code removed} stars out and puts one of {@code added} in, in the caller's transaction. */
+    public ProductRating adjust(Long productId, int removed, int added) {
+        return productRatingRepository.save(lockRow(productId).apply(removed, added));
+    }
+
+    /** Re-counts the product's reviews under its row lock and commits the result straight away. */
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    public RatingAggregates.Summary recount(Long productId) {
+        ProductRating row = lockRow(productId);
+        long[] h = new long[5];
+        for (Object[] r : reviewRepository.countByRating(productId)) h[(Integer) r[0] - 1] = (Long) r[1];
+        long count = 0;
+        long sum = 0;
+        for (int i = 0; i < 5; i++) {
+            count += h[i];
+            sum += h[i] * (i + 1);
+        }
+        productRatingRepository.save(row.setRatingCount(count).setRatingSum(sum).setHistogram(h));
+        return new RatingAggregates.Summary(count, sum, h);
+    }
+
+    /** The product's row under a row lock, creating an empty one first if the product has never been reviewed. */
+    private ProductRating lockRow(Long productId) {
+        Optional<ProductRating> row = productRatingRepository.findForUpdate(productId);
+        if (row.isPresent()) return row.get();
+        try {
+            productRatingRepository.insertEmpty(productId);
+        } catch (DataIntegrityViolationException e) {
+            // a concurrent writer created it first; the locked read below waits for that writer
+        }
+        return productRatingRepository.findForUpdate(productId).orElseThrow();
+    }
+}
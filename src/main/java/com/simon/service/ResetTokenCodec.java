@@ -0,0 +1,89 @@
+package com.simon.service;
+
+import com.simon.model.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Self-describing password-reset tokens: {@code base64url(payload) "." base64url(hmac)} where the
+ * payload is the user id, the expiry and a fingerprint of the user's current password hash.
+ * Signature and expiry are checked without touching the database, and because the fingerprint
+ * changes with the password, a token stops working as soon as any reset succeeds.
+ */
+@Component
+public class ResetTokenCodec {
+    private static final int PAYLOAD_BYTES = 3 * Long.BYTES;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+
+    public ResetTokenCodec(@Value("${app.password-reset.secret:${app.jwt.secret}}") String secret) {
+        // derive a dedicated key so a reset token can never double as anything signed with the JWT secret
+        byte[] derived = hmac(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"),
+                "andrea-password-reset".getBytes(StandardCharsets.UTF_8));
+        this.key = new SecretKeySpec(derived, "HmacSHA256");
+    }
+
+    public record ResetClaims(long userId, Instant expiresAt, long fingerprint, long tokenId) {
+    }
+
+    public String issue(User user, Instant expiresAt) {
+        byte[] payload = ByteBuffer.allocate(PAYLOAD_BYTES)
+                .putLong(user.getId())
+                .putLong(expiresAt.getEpochSecond())
+                .putLong(fingerprint(user.getPasswordHash()))
+                .array();
+        return ENCODER.encodeToString(payload) + "." + ENCODER.encodeToString(hmac(key, payload));
+    }
+
+    /** @return the claims, or {@code null} if the token is malformed, forged or expired */
+    public ResetClaims decode(String token, Instant now) {
+        int dot = token.indexOf('.');
+        if (dot <= 0) return null;
+        byte[] payload;
+        byte[] signature;
+        try {
+            payload = DECODER.decode(token.substring(0, dot));
+            signature = DECODER.decode(token.substring(dot + 1));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (payload.length != PAYLOAD_BYTES || !MessageDigest.isEqual(hmac(key, payload), signature)) return null;
+        ByteBuffer buf = ByteBuffer.wrap(payload);
+        long userId = buf.getLong();
+        Instant expiresAt = Instant.ofEpochSecond(buf.getLong());
+        long fingerprint = buf.getLong();
+        if (!expiresAt.isAfter(now)) return null;
+        return new ResetClaims(userId, expiresAt, fingerprint, ByteBuffer.wrap(signature).getLong());
+    }
+
+    public long fingerprint(String passwordHash) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(passwordHash.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(Arrays.copyOf(digest, Long.BYTES)).getLong();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] hmac(SecretKeySpec key, byte[] data) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return mac.doFinal(data);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.simon.service;
+
+import com.simon.model.OrderStatus;
+import com.simon.model.ProductRating;
+import com.simon.model.Review;
+import com.simon.repository.OrderRepository;
+import com.simon.repository.ReviewRepository;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Review writes. Every create, update and delete adjusts the product's {@link ProductRating} row
+ * under a row lock in the same transaction, then hands the same delta to {@link RatingAggregates}.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReviewService {
+    private static final List<OrderStatus> PURCHASED = Arrays.stream(OrderStatus.values())
+            .filter(OrderStatus::isPaid).toList();
+
+    private final ReviewRepository reviewRepository;
+    private final RatingPersistence ratingPersistence;
+    private final OrderRepository orderRepository;
+    private final RatingAggregates ratingAggregates;
+    private final ProductService productService;
+
+    public boolean hasPurchased(Long userId, Long productId) {
+        return orderRepository.countPurchases(userId, productId, PURCHASED) > 0;
+    }
+
+    public Review findMine(Long userId, Long productId) {
+        return reviewRepository.findByProductIdAndUserId(productId, userId).orElse(null);
+    }
+
+    public Page<Review> list(Long productId, int page, int size) {
+        return reviewRepository.findAllByProductId(productId, PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "id")));
+    }
+
+    @Transactional
+    public Review create(Long userId, Long productId, int rating, String comment) {
+        LocalDateTime now = LocalDateTime.now();
+        Review review = reviewRepository.save(new Review()
+                .setProductId(productId)
+                .setUserId(userId)
+                .setRating(rating)
+                .setComment(comment)
+                .setCreatedAt(now)
+                .setUpdatedAt(now));
+        adjust(productId, 0, rating);
+        return review;
+    }
+
+    @Transactional
+    public Review update(Review review, int rating, String comment) {
+        int previous = review.getRating();
+        review.setRating(rating).setComment(comment).setUpdatedAt(LocalDateTime.now());
+        Review saved = reviewRepository.save(review);
+        if (previous != rating) adjust(review.getProductId(), previous, rating);
+        else productService.evict(review.getProductId());
+        return saved;
+    }
+
+    @Transactional
+    public void delete(Review review) {
+        reviewRepository.delete(review);
+        adjust(review.getProductId(), review.getRating(), 0);
+    }
+
+    private void adjust(Long productId, int removed, int added) {
+        ratingPersistence.adjust(productId, removed, added);
+        ratingAggregates.apply(productId, removed, added);
+        productService.evict(productId);
+    }
+}
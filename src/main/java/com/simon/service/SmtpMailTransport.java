@@ -0,0 +1,29 @@
+package com.simon.service;
+
+import com.simon.model.OutboxMessage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(name = "app.mail.transport", havingValue = "smtp")
+@RequiredArgsConstructor
+public class SmtpMailTransport implements MailTransport {
+    private final JavaMailSender mailSender;
+
+    @Value("${app.mail.from:no-reply@andrea.local}")
+    private String from;
+
+    @Override
+    public void send(OutboxMessage message) {
+        SimpleMailMessage mail = new SimpleMailMessage();
+        mail.setFrom(from);
+        mail.setTo(message.getRecipient());
+        mail.setSubject(message.getSubject());
+        mail.setText(message.getBody());
+        mailSender.send(mail);
+    }
+}
@@ -3,11 +3,21 @@ package com.simon.service;
 import com.simon.model.RefreshToken;
 import com.simon.model.User;
 import com.simon.repository.RefreshTokenRepository;
+import com.simon.security.AccessTokenRevocations;
+import com.simon.security.JwtUtil;
+import com.simon.system.AfterCommit;
+import com.simon.system.Trace;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.security.Key;
@@ -21,6 +31,7 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class TokenService {
     private final RefreshTokenRepository refreshTokenRepository;
+    private final AccessTokenRevocations accessTokenRevocations;
 
     @Value("${app.jwt.secret}")
     private String jwtSecret;
@@ -36,33 +47,50 @@ public class TokenService {
     }
 
     public String generateAccessToken(User user) {
-        Instant now = Instant.now();
-        return Jwts.builder()
-                .setSubject(user.getId().toString())
-                .claim("username", user.getUsername())
-                .claim("role", user.getRole().name())
-                .setIssuedAt(Date.from(now))
-                .setExpiration(Date.from(now.plusSeconds(accessTokenSeconds)))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
-                .compact();
+        try (var _ = Trace.span("token")) {
+            Instant now = Instant.now();
+            return Jwts.builder()
+                    .setId(UUID.randomUUID().toString())
+                    .setSubject(user.getId().toString())
+                    .claim("username", user.getUsername())
+                    .claim("role", user.getRole().name())
+                    .setIssuedAt(Date.from(now))
+                    .claim(JwtUtil.ISSUED_AT_MILLIS, now.toEpochMilli())
+                    .setExpiration(Date.from(now.plusSeconds(accessTokenSeconds)))
+                    .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                    .compact();
+        }
     }
 
     public long getAccessExpiresIn() {
         return accessTokenSeconds;
     }
 
+    /** Revokes a still-valid access token by its {@code jti}; invalid or expired tokens are ignored. */
+    public void revokeAccessToken(String accessToken) {
+        try {
+            Claims claims = Jwts.parserBuilder().setSigningKey(getSigningKey()).build()
+                    .parseClaimsJws(accessToken).getBody();
+            accessTokenRevocations.revoke(claims.getId(), claims.getExpiration().toInstant().getEpochSecond());
+        } catch (JwtException | IllegalArgumentException e) {
+            // nothing to revoke
+        }
+    }
+
     public RefreshToken createRefreshToken(User user) {
-        String token = UUID.randomUUID().toString();
-        String tokenHash = hash(token);
-        RefreshToken rt = new RefreshToken()
-                .setUser(user)
-                .setTokenHash(tokenHash)
-                .setIssuedAt(LocalDateTime.now())
-                .setExpiresAt(LocalDateTime.now().plusDays(refreshExpDays))
-                .setRevoked(false);
-        refreshTokenRepository.save(rt);
-        rt.setReplacedByToken(token);
-        return rt;
+        try (var _ = Trace.span("refresh-token")) {
+            String token = UUID.randomUUID().toString();
+            String tokenHash = hash(token);
+            RefreshToken rt = new RefreshToken()
+                    .setUser(user)
+                    .setTokenHash(tokenHash)
+                    .setIssuedAt(LocalDateTime.now())
+                    .setExpiresAt(LocalDateTime.now().plusDays(refreshExpDays))
+                    .setRevoked(false);
+            refreshTokenRepository.save(rt);
+            rt.setReplacedByToken(token);
+            return rt;
+        }
     }
 
     private String hash(String input) {
@@ -77,5 +105,23 @@ public class TokenService {
         token.setRevoked(true);
         refreshTokenRepository.save(token);
     }
+
+    public Page<RefreshToken> activeSessions(Long userId, int page, int size) {
+        return refreshTokenRepository.findAllByUserIdAndRevokedFalseAndExpiresAtAfter(userId, LocalDateTime.now(),
+                PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "issuedAt")));
+    }
+
+    /**
+     * Logs the user out everywhere: one UPDATE revokes every refresh token, and the user's access
+     * tokens issued so far are revoked on all nodes once the transaction commits.
+     *
+     * @return the number of refresh tokens revoked
+     */
+    @Transactional
+    public int revokeAllSessions(Long userId) {
+        int revoked = refreshTokenRepository.revokeAllByUserId(userId);
+        AfterCommit.run(() -> accessTokenRevocations.revokeSubject(userId.toString()));
+        return revoked;
+    }
 }
 
@@ -0,0 +1,81 @@
+package com.simon.service;
+
+import com.simon.model.PasswordResetToken;
+import com.simon.repository.PasswordResetTokenRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Ids of reset tokens that have already been consumed, grouped into one-minute buckets by token
+ * expiry. A token can only be replayed until it expires, so whole buckets are dropped once their
+ * minute has passed and memory stays proportional to the resets done within one token lifetime.
+ * Only consumed tokens are ever written to {@code PasswordResetTokens}; the set is reloaded from
+ * there on startup.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class UsedResetTokens {
+    private final PasswordResetTokenRepository passwordResetTokenRepository;
+
+    private final ConcurrentSkipListMap<Long, Set<Long>> buckets = new ConcurrentSkipListMap<>();
+
+    @PostConstruct
+    public void load() {
+        int loaded = 0;
+        for (PasswordResetToken t : passwordResetTokenRepository.findAllByUsedTrueAndExpiresAtAfter(LocalDateTime.now())) {
+            try {
+                markUsed(Long.parseUnsignedLong(t.getTokenHash(), 16), t.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant());
+                loaded++;
+            } catch (NumberFormatException e) {
+                // row written by the old table-backed reset flow; its token can no longer be presented
+            }
+        }
+        log.info("Loaded {} consumed password-reset tokens", loaded);
+    }
+
+    public boolean isUsed(long tokenId, Instant expiresAt) {
+        Set<Long> bucket = buckets.get(bucket(expiresAt));
+        return bucket != null && bucket.contains(tokenId);
+    }
+
+    /** @return {@code false} if the token had already been marked */
+    public boolean markUsed(long tokenId, Instant expiresAt) {
+        return buckets.computeIfAbsent(bucket(expiresAt), _ -> ConcurrentHashMap.newKeySet()).add(tokenId);
+    }
+
+    public void unmark(long tokenId, Instant expiresAt) {
+        Set<Long> bucket = buckets.get(bucket(expiresAt));
+        if (bucket != null) bucket.remove(tokenId);
+    }
+
+    public int size() {
+        int size = 0;
+        for (Set<Long> bucket : buckets.values()) size += bucket.size();
+        return size;
+    }
+
+    @Scheduled(fixedDelayString = "${app.password-reset.prune-interval-ms:60000}")
+    public void prune() {
+        buckets.headMap(bucket(Instant.now())).clear();
+    }
+
+    @Scheduled(cron = "${app.password-reset.purge-cron:0 30 3 * * *}")
+    public void purgeExpiredRows() {
+        passwordResetTokenRepository.purgeExpired(LocalDateTime.now());
+    }
+
+    private static long bucket(Instant expiresAt) {
+        return expiresAt.getEpochSecond() / 60;
+    }
+}
@@ -0,0 +1,72 @@
+package com.simon.service;
+
+import com.simon.model.Role;
+import com.simon.repository.RefreshTokenRepository;
+import com.simon.repository.UserRepository;
+import com.simon.security.AccessTokenRevocations;
+import com.simon.system.AfterCommit;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Applies one chunk of a bulk user change in a single transaction. It reads the current state of
+ * the chunk, updates all changed rows with one UPDATE, and revokes their refresh tokens with a second
+ * UPDATE. Access-token revocation and search-index eviction follow after commit.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserModerationPersistence {
+    private final UserRepository userRepository;
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final AccessTokenRevocations accessTokenRevocations;
+    private final UserSearchIndex userSearchIndex;
+
+    @Transactional
+    public Map<Long, UserModerationService.Outcome> applyChunk(List<Long> ids, UserModerationService.Change change,
+                                                               Long actorId) {
+        Map<Long, UserModerationService.Outcome> outcomes = new LinkedHashMap<>();
+        for (Long id : ids) outcomes.put(id, UserModerationService.Outcome.NOT_FOUND);
+
+        List<Long> changed = new ArrayList<>();
+        for (Object[] row : userRepository.findModerationState(ids)) {
+            Long id = (Long) row[0];
+            UserModerationService.Outcome outcome = decide(change, (Role) row[1], (Boolean) row[2],
+                    (LocalDateTime) row[3], id.equals(actorId));
+            outcomes.put(id, outcome);
+            if (outcome == UserModerationService.Outcome.UPDATED) changed.add(id);
+        }
+        if (changed.isEmpty()) return outcomes;
+
+        LocalDateTime now = LocalDateTime.now();
+        userRepository.moderateAll(changed, change.role(), change.active(), change.delete() ? now : null, now);
+        if (change.locksOut()) refreshTokenRepository.revokeAllByUserIdIn(changed);
+        AfterCommit.run(() -> {
+            // role is a token claim, so any change needs fresh access tokens
+            for (Long id : changed) accessTokenRevocations.revokeSubject(id.toString());
+            if (change.delete()) changed.forEach(userSearchIndex::remove);
+        });
+        return outcomes;
+    }
+
+    static UserModerationService.Outcome decide(UserModerationService.Change change, Role role, Boolean active,
+                                                LocalDateTime deletedAt, boolean self) {
+        if (deletedAt != null) {
+            return change.delete() ? UserModerationService.Outcome.UNCHANGED : UserModerationService.Outcome.DELETED;
+        }
+        boolean differs = change.delete()
+                || (change.role() != null && change.role() != role)
+                || (change.active() != null && !Objects.equals(change.active(), active));
+        if (!differs) return UserModerationService.Outcome.UNCHANGED;
+        // an admin must not lock themselves out halfway through a moderation wave
+        if (self) return UserModerationService.Outcome.SKIPPED_SELF;
+        return UserModerationService.Outcome.UPDATED;
+    }
+}
@@ -0,0 +1,132 @@
+package com.simon.service;
+
+import com.simon.dto.AdminUserRequests;
+import com.simon.model.Role;
+import com.simon.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Role, activation and soft-delete changes for many users at once. Targets are resolved to ids,
+ * then applied in chunks of {@code app.admin.bulk.chunk-size}. Each chunk runs in its own
+ * transaction through {@link UserModerationPersistence}, so a failed chunk costs only that chunk.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class UserModerationService {
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final UserRepository userRepository;
+    private final UserSearchIndex userSearchIndex;
+    private final UserModerationPersistence userModerationPersistence;
+
+    @Value("${app.admin.bulk.chunk-size:500}")
+    private int chunkSize = 500;
+
+    @Value("${app.admin.bulk.max-users:10000}")
+    private int maxUsers = 10_000;
+
+    public enum Outcome {UPDATED, UNCHANGED, NOT_FOUND, DELETED, SKIPPED_SELF, FAILED}
+
+    /** {@code null} fields are left alone; a delete also deactivates. */
+    public record Change(Role role, Boolean active, boolean delete) {
+        static Change of(Role role, Boolean active, boolean delete) {
+            return new Change(role, delete ? Boolean.FALSE : active, delete);
+        }
+
+        boolean isEmpty() {
+            return role == null && active == null && !delete;
+        }
+
+        /** Deactivated and deleted accounts also lose their refresh tokens. */
+        boolean locksOut() {
+            return delete || Boolean.FALSE.equals(active);
+        }
+    }
+
+    public record Item(Long id, Outcome outcome) {
+    }
+
+    public record Result(int matched, Map<Outcome, Integer> totals, List<Item> items) {
+    }
+
+    /**
+     * @throws IllegalArgumentException if the request changes nothing, has no or ambiguous targets,
+     *                                  or matches more than {@code app.admin.bulk.max-users} users
+     */
+    public Result apply(AdminUserRequests.Bulk req, Long actorId) {
+        Change change = Change.of(req.getRole(), req.getIsActive(), req.isDelete());
+        if (change.isEmpty()) throw new IllegalArgumentException("Nothing to change");
+        return apply(resolve(req), change, actorId);
+    }
+
+    public Outcome applyOne(Long id, Change change, Long actorId) {
+        return apply(List.of(id), change, actorId).items().getFirst().outcome();
+    }
+
+    Result apply(List<Long> ids, Change change, Long actorId) {
+        Map<Outcome, Integer> totals = new EnumMap<>(Outcome.class);
+        List<Item> items = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + chunkSize));
+            Map<Long, Outcome> outcomes;
+            try {
+                outcomes = userModerationPersistence.applyChunk(chunk, change, actorId);
+            } catch (RuntimeException e) {
+                log.error("Bulk user change failed for a chunk of {} starting at id {}", chunk.size(), chunk.getFirst(), e);
+                outcomes = null;
+            }
+            for (Long id : chunk) {
+                Outcome outcome = outcomes == null ? Outcome.FAILED : outcomes.get(id);
+                totals.merge(outcome, 1, Integer::sum);
+                items.add(new Item(id, outcome));
+            }
+        }
+        return new Result(ids.size(), totals, items);
+    }
+
+    List<Long> resolve(AdminUserRequests.Bulk req) {
+        if (req.getIds() != null && !req.getIds().isEmpty()) {
+            if (req.getFilter() != null) throw new IllegalArgumentException("Give either ids or a filter, not both");
+            List<Long> ids = new ArrayList<>(new LinkedHashSet<>(req.getIds()));
+            if (ids.size() > maxUsers) throw new IllegalArgumentException("More than " + maxUsers + " users given");
+            return ids;
+        }
+        AdminUserRequests.Filter f = req.getFilter();
+        if (f == null) throw new IllegalArgumentException("Give either ids or a filter");
+        List<Role> roles = f.getRole() == null ? List.of(Role.values()) : List.of(f.getRole());
+        LocalDateTime from = f.getCreatedFrom() == null ? EPOCH : f.getCreatedFrom();
+        LocalDateTime to = f.getCreatedTo() == null ? LocalDateTime.now().plusDays(1) : f.getCreatedTo();
+        List<Long> ids;
+        if (f.getPrefix() != null && !f.getPrefix().isBlank()) {
+            // the prefix index narrows the candidates, the database applies the rest chunk by chunk,
+            // and only what is left counts against the cap
+            List<Long> prefixed = userSearchIndex.search(f.getPrefix(), Integer.MAX_VALUE);
+            ids = new ArrayList<>();
+            for (int i = 0; i < prefixed.size(); i += chunkSize) {
+                List<Long> candidates = prefixed.subList(i, Math.min(prefixed.size(), i + chunkSize));
+                ids.addAll(userRepository.findIdsByFilterAmong(candidates, roles, from, to));
+                if (ids.size() > maxUsers) throw tooMany();
+            }
+        } else {
+            ids = userRepository.findIdsByFilter(roles, from, to, PageRequest.of(0, maxUsers + 1));
+            if (ids.size() > maxUsers) throw tooMany();
+        }
+        return ids;
+    }
+
+    private IllegalArgumentException tooMany() {
+        return new IllegalArgumentException("Filter matches more than " + maxUsers + " users; narrow it down");
+    }
+}
@@ -0,0 +1,117 @@
+package com.simon.service;
+
+import com.simon.model.User;
+import com.simon.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+/**
+ * In-memory prefix index over usernames and emails for admin search.
+ * <p>
+ * Every user contributes two keys, the lower-cased username and email, each suffixed with
+ * {@code '\0' + id} so equal terms stay distinct. Keys live in a sorted skip list, so a prefix
+ * query is one {@code O(log n)} seek followed by an in-order walk that stops after {@code limit}
+ * distinct ids. The index is filled once by streaming the users table when the application is
+ * ready and then kept current by {@link UserService} after each commit.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class UserSearchIndex {
+    private static final char ID_SEPARATOR = '\0';
+
+    private final UserRepository userRepository;
+
+    private final ConcurrentSkipListMap<String, Long> keys = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<Long, Terms> terms = new ConcurrentHashMap<>();
+
+    private record Terms(String username, String email) {
+    }
+
+    @Transactional(readOnly = true)
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        long start = System.nanoTime();
+        long rows = 0;
+        try (Stream<Object[]> stream = userRepository.streamSearchTerms()) {
+            Iterator<Object[]> it = stream.iterator();
+            while (it.hasNext()) {
+                Object[] row = it.next();
+                // a user indexed by a concurrent register/update is fresher than this scan
+                Long id = (Long) row[0];
+                Terms t = new Terms(normalize((String) row[1]), normalize((String) row[2]));
+                if (terms.putIfAbsent(id, t) == null) addKeys(id, t);
+                rows++;
+            }
+        }
+        log.info("User search index built from {} users in {} ms", rows, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /** Adds or re-keys a user; call once the user's row is committed. */
+    public void index(User user) {
+        if (user.getId() == null) return;
+        Terms next = new Terms(normalize(user.getUsername()), normalize(user.getEmail()));
+        Terms previous = terms.put(user.getId(), next);
+        if (next.equals(previous)) return;
+        if (previous != null) removeKeys(user.getId(), previous);
+        addKeys(user.getId(), next);
+    }
+
+    public void remove(Long userId) {
+        Terms previous = terms.remove(userId);
+        if (previous != null) removeKeys(userId, previous);
+    }
+
+    /** Ids of users whose username or email starts with {@code prefix}, in key order, at most {@code limit}. */
+    public List<Long> search(String prefix, int limit) {
+        String from = normalize(prefix);
+        if (from.isEmpty() || limit <= 0) return List.of();
+        Set<Long> ids = new LinkedHashSet<>();
+        for (var e : keys.tailMap(from).entrySet()) {
+            if (!e.getKey().startsWith(from)) break;
+            // a stale key can survive briefly while a user is being re-keyed
+            Terms current = terms.get(e.getValue());
+            String term = e.getKey().substring(0, e.getKey().lastIndexOf(ID_SEPARATOR));
+            if (current == null || !(term.equals(current.username()) || term.equals(current.email()))) continue;
+            ids.add(e.getValue());
+            if (ids.size() >= limit) break;
+        }
+        return new ArrayList<>(ids);
+    }
+
+    public int size() {
+        return terms.size();
+    }
+
+    static String normalize(String term) {
+        return term == null ? "" : term.strip().toLowerCase(Locale.ROOT);
+    }
+
+    private void addKeys(Long id, Terms t) {
+        if (!t.username().isEmpty()) keys.put(key(t.username(), id), id);
+        if (!t.email().isEmpty()) keys.put(key(t.email(), id), id);
+    }
+
+    private void removeKeys(Long id, Terms t) {
+        keys.remove(key(t.username(), id), id);
+        keys.remove(key(t.email(), id), id);
+    }
+
+    private static String key(String term, Long id) {
+        return term + ID_SEPARATOR + id;
+    }
+}
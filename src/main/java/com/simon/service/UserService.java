@@ -3,6 +3,8 @@ package com.simon.service;
 import com.simon.dto.AuthRequests;
 import com.simon.model.User;
 import com.simon.repository.UserRepository;
+import com.simon.system.AfterCommit;
+import com.simon.system.ReadYourWrites;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -15,6 +17,8 @@ import java.time.LocalDateTime;
 public class UserService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ReadYourWrites readYourWrites;
+    private final UserSearchIndex userSearchIndex;
 
     public User register(AuthRequests.RegisterRequest req) {
         User u = new User()
@@ -24,7 +28,11 @@ public class UserService {
                 .setCreatedAt(LocalDateTime.now())
                 .setUpdatedAt(LocalDateTime.now())
                 .setIsActive(true);
-        return userRepository.save(u);
+        User saved = userRepository.save(u);
+        // the new user is not authenticated yet, so pin them to the primary explicitly
+        if (saved.getId() != null) AfterCommit.run(() -> readYourWrites.mark(saved.getId().toString()));
+        AfterCommit.run(() -> userSearchIndex.index(saved));
+        return saved;
     }
 
     public User findByUsername(String username) {
@@ -39,7 +47,9 @@ public class UserService {
     public User updatePassword(User user, String newPassword) {
         user.setPasswordHash(passwordEncoder.encode(newPassword));
         user.setUpdatedAt(LocalDateTime.now());
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        AfterCommit.run(() -> userSearchIndex.index(saved));
+        return saved;
     }
 }
 
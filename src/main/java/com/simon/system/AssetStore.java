@@ -0,0 +1,125 @@
+package com.simon.system;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed file store for product images and media. An asset id is the SHA-256 of its
+ * bytes plus an extension from a fixed allow-list, and it lives at {@code <root>/<first two hex
+ * chars>/<id>}. Ids never change meaning, so they double as strong ETags and can be cached forever.
+ * <p>
+ * Uploads are streamed to a temp file while hashing and then moved into place. Nothing is ever
+ * held in memory in full, and storing the same content twice keeps a single copy.
+ */
+@Component
+@Slf4j
+public class AssetStore {
+    public static final Map<String, String> CONTENT_TYPES = Map.of(
+            "png", "image/png",
+            "jpg", "image/jpeg",
+            "webp", "image/webp",
+            "gif", "image/gif",
+            "mp4", "video/mp4",
+            "webm", "video/webm",
+            "pdf", "application/pdf");
+    private static final Pattern ID = Pattern.compile("[0-9a-f]{64}\\.[a-z0-9]{2,4}");
+
+    @Value("${app.assets.root:data/assets}")
+    private String root = "data/assets";
+
+    @Value("${app.assets.max-bytes:209715200}")
+    private long maxBytes = 200L * 1024 * 1024;
+
+    public record Asset(String id, String contentType, long size, Path path) {
+        public String etag() {
+            return "\"" + id.substring(0, id.indexOf('.')) + "\"";
+        }
+    }
+
+    /** @return the stored asset, or {@code null} if the id is malformed or unknown */
+    public Asset find(String id) {
+        if (id == null || !ID.matcher(id).matches()) return null;
+        String contentType = CONTENT_TYPES.get(id.substring(id.indexOf('.') + 1));
+        if (contentType == null) return null;
+        Path path = pathOf(id);
+        try {
+            return Files.isRegularFile(path) ? new Asset(id, contentType, Files.size(path), path) : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the extension is not allowed or the content exceeds
+     *                                  {@code app.assets.max-bytes}
+     */
+    public Asset store(InputStream in, String extension) throws IOException {
+        String contentType = CONTENT_TYPES.get(extension);
+        if (contentType == null) throw new IllegalArgumentException("Unsupported asset type: " + extension);
+        Path tmpDir = Files.createDirectories(Path.of(root, "tmp"));
+        Path tmp = Files.createTempFile(tmpDir, "upload-", ".part");
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            long size = 0;
+            byte[] buf = new byte[64 * 1024];
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                int n;
+                while ((n = in.read(buf)) != -1) {
+                    size += n;
+                    if (size > maxBytes) throw new IllegalArgumentException("Asset exceeds " + maxBytes + " bytes");
+                    sha256.update(buf, 0, n);
+                    out.write(buf, 0, n);
+                }
+            }
+            String id = HexFormat.of().formatHex(sha256.digest()) + "." + extension;
+            Path target = pathOf(id);
+            if (!Files.exists(target)) {
+                Files.createDirectories(target.getParent());
+                try {
+                    Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            return new Asset(id, contentType, size, target);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Copies {@code count} bytes starting at {@code position} with {@link FileChannel#transferTo},
+     * which the JDK turns into {@code sendfile} when the target is a socket.
+     */
+    public static void transfer(FileChannel file, long position, long count, WritableByteChannel target)
+            throws IOException {
+        long end = position + count;
+        while (position < end) {
+            long sent = file.transferTo(position, end - position, target);
+            if (sent <= 0 && position >= file.size()) throw new IOException("Asset truncated at " + position);
+            position += sent;
+        }
+    }
+
+    private Path pathOf(String id) {
+        return Path.of(root, id.substring(0, 2), id);
+    }
+}
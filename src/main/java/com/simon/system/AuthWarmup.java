@@ -0,0 +1,162 @@
+package com.simon.system;
+
+import com.simon.dto.AuthResponses;
+import com.simon.model.Role;
+import com.simon.model.User;
+import com.simon.security.JwtFilter;
+import com.simon.security.JwtUtil;
+import com.simon.service.TokenService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.ObjectMapper;
+
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Exercises the authentication hot paths before the instance reports ready, so the first real
+ * requests after a deploy do not run interpreted code. Spring Boot only switches readiness to
+ * {@code ACCEPTING_TRAFFIC} after every {@link ApplicationRunner} has returned, so
+ * {@code /api/health/ready} answers 503 for as long as this runs.
+ * <p>
+ * Work is repeated in rounds over synthetic users and tokens only. Nothing touches the database
+ * or the revocation state. Rounds stop when the JIT has compiled less than
+ * {@code app.warmup.settle-compile-ms} per round for three rounds in a row, or when
+ * {@code app.warmup.budget-ms} is spent.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.warmup.enabled", havingValue = "true")
+public class AuthWarmup implements ApplicationRunner {
+    private static final int SETTLED_ROUNDS = 3;
+
+    private final TokenService tokenService;
+    private final JwtUtil jwtUtil;
+    private final JwtFilter jwtFilter;
+    private final PasswordEncoder passwordEncoder;
+    private final ObjectProvider<ObjectMapper> objectMapper;
+
+    @Value("${app.warmup.budget-ms:15000}")
+    private long budgetMillis = 15_000;
+
+    @Value("${app.warmup.min-rounds:5}")
+    private int minRounds = 5;
+
+    @Value("${app.warmup.settle-compile-ms:5}")
+    private long settleCompileMillis = 5;
+
+    private volatile Report report = Report.PENDING;
+
+    public enum Stop {PENDING, SETTLED, BUDGET, FAILED}
+
+    public record PathStats(long iterations, long firstRoundAvgMicros, long lastRoundAvgMicros) {
+    }
+
+    public record Report(Stop stop, long durationMillis, int rounds, long compileMillis,
+                         Map<String, PathStats> paths) {
+        static final Report PENDING = new Report(Stop.PENDING, 0, 0, 0, Map.of());
+    }
+
+    private record Path(String name, int perRound, Runnable body) {
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        try {
+            report = warm(start);
+        } catch (RuntimeException e) {
+            // a failed warmup must not keep the instance out of rotation
+            log.warn("Auth warmup aborted: {}", e.toString());
+            report = new Report(Stop.FAILED, (System.nanoTime() - start) / 1_000_000, 0, 0, Map.of());
+        }
+        log.info("Auth warmup finished: {} after {} rounds in {} ms ({} ms JIT compilation)",
+                report.stop(), report.rounds(), report.durationMillis(), report.compileMillis());
+    }
+
+    public Report report() {
+        return report;
+    }
+
+    private Report warm(long start) {
+        List<Path> paths = paths();
+        long[] iterations = new long[paths.size()];
+        long[] firstNanos = new long[paths.size()];
+        long[] lastNanos = new long[paths.size()];
+
+        CompilationMXBean jit = ManagementFactory.getCompilationMXBean();
+        boolean canMeasure = jit != null && jit.isCompilationTimeMonitoringSupported();
+        long compileStart = canMeasure ? jit.getTotalCompilationTime() : 0;
+        long compiled = compileStart;
+        long deadline = start + budgetMillis * 1_000_000;
+        int rounds = 0;
+        int quietRounds = 0;
+        Stop stop = Stop.BUDGET;
+
+        while (System.nanoTime() < deadline) {
+            for (int i = 0; i < paths.size(); i++) {
+                Path p = paths.get(i);
+                long t0 = System.nanoTime();
+                for (int n = 0; n < p.perRound(); n++) p.body().run();
+                long elapsed = (System.nanoTime() - t0) / p.perRound();
+                if (rounds == 0) firstNanos[i] = elapsed;
+                lastNanos[i] = elapsed;
+                iterations[i] += p.perRound();
+            }
+            rounds++;
+            if (!canMeasure) continue;
+            long now = jit.getTotalCompilationTime();
+            quietRounds = now - compiled < settleCompileMillis ? quietRounds + 1 : 0;
+            compiled = now;
+            if (rounds >= minRounds && quietRounds >= SETTLED_ROUNDS) {
+                stop = Stop.SETTLED;
+                break;
+            }
+        }
+
+        Map<String, PathStats> stats = new LinkedHashMap<>();
+        for (int i = 0; i < paths.size(); i++) {
+            stats.put(paths.get(i).name(), new PathStats(iterations[i], firstNanos[i] / 1000, lastNanos[i] / 1000));
+        }
+        return new Report(stop, (System.nanoTime() - start) / 1_000_000, rounds, compiled - compileStart, stats);
+    }
+
+    private List<Path> paths() {
+        // negative ids never match a real user, and nothing below is persisted
+        User user = new User().setId(-1L).setUsername("warmup").setEmail("warmup@invalid").setRole(Role.USER);
+        User admin = new User().setId(-2L).setUsername("warmup-admin").setEmail("admin@invalid").setRole(Role.ADMIN);
+        String password = UUID.randomUUID().toString();
+        String passwordHash = passwordEncoder.encode(password);
+        ObjectMapper mapper = objectMapper.getIfAvailable(ObjectMapper::new);
+        String token = tokenService.generateAccessToken(user);
+
+        List<Path> paths = new ArrayList<>();
+        paths.add(new Path("token.generate", 500, () -> {
+            tokenService.generateAccessToken(user);
+            tokenService.generateAccessToken(admin);
+        }));
+        paths.add(new Path("jwt.parse", 500, () -> jwtUtil.parse(token)));
+        paths.add(new Path("jwt.filter", 500, () -> {
+            if (jwtFilter.authenticate("Bearer " + token) == null) throw new IllegalStateException("warmup token rejected");
+            jwtFilter.authenticate("Bearer not-a-token");
+        }));
+        paths.add(new Path("json.auth-response", 500, () -> mapper.writeValueAsBytes(
+                new AuthResponses(token, tokenService.getAccessExpiresIn(), "Bearer"))));
+        // bcrypt is slow by design; a couple of hashes per round is enough to compile its rounds
+        paths.add(new Path("password.matches", 2, () -> passwordEncoder.matches(password, passwordHash)));
+        return paths;
+    }
+}
@@ -0,0 +1,121 @@
+package com.simon.system;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.jspecify.annotations.NonNull;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Serves anonymous catalog GETs ({@code /api/products/**}) from {@link ResponseCache}, answers
+ * {@code If-None-Match} with 304 and marks responses cacheable for intermediaries. Requests that
+ * carry credentials bypass the cache so user-specific data is never stored.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogCacheFilter extends OncePerRequestFilter {
+    public static final String PREFIX = "/api/products";
+    public static final String TAG_LISTINGS = "products";
+    // answered from memory already; caching every typed prefix would only churn the cache
+    private static final String SUGGEST = PREFIX + "/suggest";
+
+    private final ResponseCache responseCache;
+
+    public static String productTag(Long productId) {
+        return "product:" + productId;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !"GET".equals(request.getMethod())
+                || !(path.equals(PREFIX) || path.startsWith(PREFIX + "/"))
+                || path.startsWith(SUGGEST)
+                || request.getHeader(HttpHeaders.AUTHORIZATION) != null;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String key = key(path, request.getParameterMap());
+        ResponseCache.Entry hit = responseCache.get(key);
+        if (hit != null) {
+            write(request, response, hit);
+            return;
+        }
+
+        long generation = responseCache.generation();
+        ContentCachingResponseWrapper wrapped = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(request, wrapped);
+        if (wrapped.getStatus() != HttpServletResponse.SC_OK) {
+            wrapped.copyBodyToResponse();
+            return;
+        }
+        ResponseCache.Entry stored = responseCache.put(key, wrapped.getContentAsByteArray(),
+                wrapped.getContentType(), tags(path), generation);
+        wrapped.resetBuffer();
+        write(request, wrapped, stored);
+        wrapped.copyBodyToResponse();
+    }
+
+    private void write(HttpServletRequest request, HttpServletResponse response, ResponseCache.Entry entry)
+            throws IOException {
+        response.setHeader(HttpHeaders.ETAG, entry.etag());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=" + responseCache.ttlSeconds());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.AUTHORIZATION);
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), entry.etag())) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            response.setContentLength(0);
+            return;
+        }
+        response.setStatus(HttpServletResponse.SC_OK);
+        if (entry.contentType() != null) response.setContentType(entry.contentType());
+        response.setContentLength(entry.body().length);
+        response.getOutputStream().write(entry.body());
+    }
+
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String c = candidate.trim();
+            if (c.startsWith("W/")) c = c.substring(2);
+            if (c.equals("*") || c.equals(etag)) return true;
+        }
+        return false;
+    }
+
+    /** Path plus parameters sorted by name, so {@code ?size=5&page=1} and {@code ?page=1&size=5} share an entry. */
+    static String key(String path, Map<String, String[]> params) {
+        if (params.isEmpty()) return path;
+        StringBuilder sb = new StringBuilder(path).append('?');
+        for (var e : new TreeMap<>(params).entrySet()) {
+            for (String v : e.getValue()) sb.append(e.getKey()).append('=').append(v).append('&');
+        }
+        sb.setLength(sb.length() - 1);
+        return sb.toString();
+    }
+
+    /** {@code /api/products/42/...} belongs to {@code product:42}; everything else is a listing. */
+    static Set<String> tags(String path) {
+        Set<String> tags = new LinkedHashSet<>();
+        String rest = path.length() > PREFIX.length() ? path.substring(PREFIX.length() + 1) : "";
+        int slash = rest.indexOf('/');
+        String id = slash < 0 ? rest : rest.substring(0, slash);
+        if (!id.isEmpty() && id.chars().allMatch(Character::isDigit)) tags.add(productTag(Long.parseLong(id)));
+        else tags.add(TAG_LISTINGS);
+        return tags;
+    }
+}
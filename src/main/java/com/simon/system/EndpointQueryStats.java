@@ -0,0 +1,57 @@
+package com.simon.system;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/** Running SQL totals per endpoint ({@code METHOD /pattern}), filled by {@link QueryBudgetFilter}. */
+@Component
+public class EndpointQueryStats {
+    private static final int MAX_ENDPOINTS = 500;
+
+    private final ConcurrentHashMap<String, Totals> endpoints = new ConcurrentHashMap<>();
+
+    public record Summary(long requests, long statements, double avgStatements, long maxStatements,
+                          double avgJdbcMillis) {
+    }
+
+    private static final class Totals {
+        final LongAdder requests = new LongAdder();
+        final LongAdder statements = new LongAdder();
+        final LongAdder jdbcNanos = new LongAdder();
+        final LongAccumulator maxStatements = new LongAccumulator(Math::max, 0);
+    }
+
+    public void record(String endpoint, int statements, long jdbcNanos) {
+        Totals t = endpoints.get(endpoint);
+        if (t == null) {
+            // unmatched URIs (404s, scanners) must not grow the map without bound
+            if (endpoints.size() >= MAX_ENDPOINTS) return;
+            t = endpoints.computeIfAbsent(endpoint, _ -> new Totals());
+        }
+        t.requests.increment();
+        t.statements.add(statements);
+        t.jdbcNanos.add(jdbcNanos);
+        t.maxStatements.accumulate(statements);
+    }
+
+    public Map<String, Summary> snapshot() {
+        Map<String, Summary> out = new TreeMap<>();
+        endpoints.forEach((endpoint, t) -> {
+            long requests = t.requests.sum();
+            if (requests == 0) return;
+            long statements = t.statements.sum();
+            out.put(endpoint, new Summary(requests, statements, (double) statements / requests,
+                    t.maxStatements.get(), t.jdbcNanos.sum() / 1_000_000.0 / requests));
+        });
+        return out;
+    }
+
+    public void reset() {
+        endpoints.clear();
+    }
+}
@@ -19,6 +19,16 @@ import java.nio.charset.Charset;
 public class LogFilter extends OncePerRequestFilter {
     private final ObjectMapper objectMapper = new ObjectMapper();
 
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        // asset and catalog feed bodies are streamed straight to or from disk; capturing them would copy every byte,
+        // an event stream never ends, so its capture would only grow, and autocomplete fires on every keystroke
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return path.startsWith("/api/assets/") || path.startsWith("/api/admin/assets")
+                || path.equals("/api/admin/products/import") || path.startsWith("/api/stream/")
+                || path.startsWith("/api/products/suggest");
+    }
+
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request,
                                     @NonNull HttpServletResponse response,
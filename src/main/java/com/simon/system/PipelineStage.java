@@ -0,0 +1,139 @@
+package com.simon.system;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * One stage of an in-process pipeline: a bounded queue drained by a fixed set of worker threads.
+ * <p>
+ * Workers take up to {@code maxBatch} queued items at a time and hand them to the handler as one
+ * list, which lets a stage amortize a database round trip over a burst. A full queue pushes back
+ * on the producer instead of growing. Queue depth, throughput and enqueue-to-completion latency
+ * are tracked for {@link #stats()}.
+ */
+@Slf4j
+public class PipelineStage<T> {
+    private final String name;
+    private final BlockingQueue<Envelope<T>> queue;
+    private final int maxBatch;
+    private final Consumer<List<T>> handler;
+    private final List<Thread> workers = new ArrayList<>();
+    private final int workerCount;
+
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder latencyNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    private volatile boolean running;
+
+    public PipelineStage(String name, int capacity, int workerCount, int maxBatch, Consumer<List<T>> handler) {
+        this.name = name;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.workerCount = workerCount;
+        this.maxBatch = maxBatch;
+        this.handler = handler;
+    }
+
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            Thread t = new Thread(this::runLoop, name + "-" + (i + 1));
+            t.setDaemon(true);
+            t.start();
+            workers.add(t);
+        }
+    }
+
+    /** Lets the workers drain what is already queued, waiting up to {@code timeoutMillis}. */
+    public synchronized void stop(long timeoutMillis) {
+        running = false;
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        for (Thread t : workers) {
+            try {
+                t.join(Math.max(1, deadline - System.currentTimeMillis()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (t.isAlive()) t.interrupt();
+        }
+        workers.clear();
+    }
+
+    /** @return {@code false} if the stage stayed full for the whole timeout */
+    public boolean offer(T item, long timeout, TimeUnit unit) {
+        try {
+            return queue.offer(new Envelope<>(item, System.nanoTime()), timeout, unit);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int depth() {
+        return queue.size();
+    }
+
+    public Map<String, Object> stats() {
+        long done = processed.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queueDepth", queue.size());
+        stats.put("queueCapacity", queue.size() + queue.remainingCapacity());
+        stats.put("processed", done);
+        stats.put("failed", failed.sum());
+        stats.put("avgLatencyMicros", done == 0 ? 0 : latencyNanos.sum() / done / 1000);
+        stats.put("maxLatencyMicros", maxLatencyNanos.get() / 1000);
+        return stats;
+    }
+
+    private void runLoop() {
+        List<Envelope<T>> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            Envelope<T> first;
+            try {
+                first = queue.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                if (!running) return;
+                continue;
+            }
+            if (first == null) continue;
+            batch.add(first);
+            queue.drainTo(batch, maxBatch - 1);
+            List<T> items = new ArrayList<>(batch.size());
+            for (Envelope<T> e : batch) items.add(e.item());
+            try {
+                handler.accept(items);
+            } catch (RuntimeException e) {
+                failed.add(batch.size());
+                log.error("Pipeline stage {} failed on a batch of {}", name, batch.size(), e);
+            }
+            long now = System.nanoTime();
+            for (Envelope<T> e : batch) {
+                long latency = now - e.enqueuedAt();
+                latencyNanos.add(latency);
+                maxLatencyNanos.accumulateAndGet(latency, Math::max);
+            }
+            processed.add(batch.size());
+            batch.clear();
+        }
+    }
+
+    private record Envelope<T>(T item, long enqueuedAt) {
+    }
+}
@@ -0,0 +1,64 @@
+package com.simon.system;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.NonNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Counts the SQL each request issues, adds it to the per-endpoint totals in {@link EndpointQueryStats}
+ * and warns when a request goes over {@code app.queries.budget} statements or repeats one statement
+ * {@code app.queries.repeat-threshold} times (likely an N+1).
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class QueryBudgetFilter extends OncePerRequestFilter {
+    private final EndpointQueryStats endpointQueryStats;
+
+    @Value("${app.queries.budget:10}")
+    private int budget = 10;
+
+    @Value("${app.queries.repeat-threshold:5}")
+    private int repeatThreshold = 5;
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        QueryStats.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            QueryStats stats = QueryStats.end();
+            String endpoint = endpoint(request);
+            endpointQueryStats.record(endpoint, stats.statements(), stats.jdbcNanos());
+            if (stats.statements() > budget) {
+                log.warn("{} issued {} SQL statements (budget {}), {} ms in JDBC", endpoint, stats.statements(),
+                        budget, stats.jdbcNanos() / 1_000_000);
+            }
+            var repeated = stats.mostRepeated();
+            if (repeated != null && repeated.getValue() >= repeatThreshold) {
+                log.warn("{} ran the same statement {} times, possible N+1: {}", endpoint, repeated.getValue(),
+                        repeated.getKey());
+            }
+        }
+    }
+
+    static String endpoint(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+    }
+}
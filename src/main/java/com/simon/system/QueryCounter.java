@@ -0,0 +1,49 @@
+package com.simon.system;
+
+import org.hibernate.SessionEventListener;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Hibernate hooks behind {@link QueryStats}, registered in {@code application-dev.yml} through
+ * {@code hibernate.session_factory.statement_inspector} and {@code hibernate.session.events.auto}.
+ * Hibernate instantiates both itself; they hold no state beyond the current JDBC call.
+ */
+public class QueryCounter implements StatementInspector {
+    @Override
+    public String inspect(String sql) {
+        QueryStats.onStatement(sql);
+        return sql;
+    }
+
+    /** One instance per session, so the start timestamp is never shared between threads. */
+    public static class Listener implements SessionEventListener {
+        private long start;
+
+        @Override
+        public void jdbcExecuteStatementStart() {
+            start = System.nanoTime();
+        }
+
+        @Override
+        public void jdbcExecuteStatementEnd() {
+            record();
+        }
+
+        @Override
+        public void jdbcExecuteBatchStart() {
+            start = System.nanoTime();
+        }
+
+        @Override
+        public void jdbcExecuteBatchEnd() {
+            record();
+        }
+
+        private void record() {
+            long nanos = System.nanoTime() - start;
+            QueryStats.onExecution(nanos);
+            Trace t = Trace.current();
+            if (t != null) t.record("sql", nanos);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.simon.system;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * SQL issued on the current thread between {@link #begin()} and {@link #end()}. Fed by
+ * {@link QueryCounter} (statements prepared by Hibernate) and {@link QueryCounter.Listener} (JDBC
+ * execution time); nothing is recorded on threads that have not begun.
+ */
+public final class QueryStats {
+    private static final int MAX_DISTINCT_SQL = 256;
+    private static final ThreadLocal<QueryStats> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private int executions;
+    private long jdbcNanos;
+    private final Map<String, Integer> bySql = new HashMap<>();
+
+    public static QueryStats begin() {
+        QueryStats s = new QueryStats();
+        CURRENT.set(s);
+        return s;
+    }
+
+    public static QueryStats end() {
+        QueryStats s = CURRENT.get();
+        CURRENT.remove();
+        return s;
+    }
+
+    public static QueryStats current() {
+        return CURRENT.get();
+    }
+
+    static void onStatement(String sql) {
+        QueryStats s = CURRENT.get();
+        if (s == null) return;
+        s.statements++;
+        if (s.bySql.size() < MAX_DISTINCT_SQL || s.bySql.containsKey(sql)) s.bySql.merge(sql, 1, Integer::sum);
+    }
+
+    static void onExecution(long nanos) {
+        QueryStats s = CURRENT.get();
+        if (s == null) return;
+        s.executions++;
+        s.jdbcNanos += nanos;
+    }
+
+    /** Statements prepared, i.e. round trips issued by Hibernate. */
+    public int statements() {
+        return statements;
+    }
+
+    public int executions() {
+        return executions;
+    }
+
+    public long jdbcNanos() {
+        return jdbcNanos;
+    }
+
+    /** The statement issued most often, the usual signature of an N+1; {@code null} if none. */
+    public Map.Entry<String, Integer> mostRepeated() {
+        Map.Entry<String, Integer> best = null;
+        for (var e : bySql.entrySet()) {
+            if (best == null || e.getValue() > best.getValue()) best = e;
+        }
+        return best;
+    }
+}
@@ -0,0 +1,54 @@
+package com.simon.system;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers which users wrote recently so their reads stay on the primary until the replica has
+ * had time to catch up. Users are identified by the authenticated principal name (the user id).
+ */
+@Component
+public class ReadYourWrites {
+    @Value("${app.datasource.replica.stickiness-ms:2000}")
+    private long stickinessMillis = 2000;
+
+    private final ConcurrentHashMap<String, Long> stickyUntil = new ConcurrentHashMap<>();
+
+    /** Pins the current user, if any, to the primary. */
+    public void markCurrentUser() {
+        String user = currentUser();
+        if (user != null) mark(user);
+    }
+
+    public void mark(String user) {
+        stickyUntil.put(user, System.currentTimeMillis() + stickinessMillis);
+    }
+
+    public boolean isCurrentUserSticky() {
+        if (stickyUntil.isEmpty()) return false;
+        String user = currentUser();
+        if (user == null) return false;
+        Long until = stickyUntil.get(user);
+        return until != null && until > System.currentTimeMillis();
+    }
+
+    public int size() {
+        return stickyUntil.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.stickiness-ms:2000}")
+    public void prune() {
+        long now = System.currentTimeMillis();
+        stickyUntil.values().removeIf(until -> until <= now);
+    }
+
+    private static String currentUser() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth == null || !auth.isAuthenticated() ? null : auth.getName();
+    }
+}
@@ -0,0 +1,62 @@
+package com.simon.system;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+
+/**
+ * Estimates replica lag from a heartbeat row: {@link #check()} stamps the row on the primary and
+ * reads it back from the replica, and the difference to the current time is the lag (including
+ * up to one check interval). An unreadable replica counts as infinitely behind.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+    static final String CREATE = "CREATE TABLE IF NOT EXISTS replication_heartbeat (id INT PRIMARY KEY, beat_at BIGINT NOT NULL)";
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final long maxLagMillis;
+
+    private volatile long lagMillis = Long.MAX_VALUE;
+
+    public ReplicaLagMonitor(DataSource primary, DataSource replica, long maxLagMillis) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.maxLagMillis = maxLagMillis;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.check-interval-ms:500}")
+    public void check() {
+        long now = System.currentTimeMillis();
+        try {
+            primary.execute(CREATE);
+            if (primary.update("UPDATE replication_heartbeat SET beat_at = ? WHERE id = 1", now) == 0) {
+                primary.update("INSERT INTO replication_heartbeat (id, beat_at) VALUES (1, ?)", now);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not write replication heartbeat: {}", e.getMessage());
+        }
+        long previous = lagMillis;
+        try {
+            Long beat = replica.queryForObject("SELECT beat_at FROM replication_heartbeat WHERE id = 1", Long.class);
+            lagMillis = beat == null ? Long.MAX_VALUE : Math.max(0, now - beat);
+        } catch (DataAccessException e) {
+            lagMillis = Long.MAX_VALUE;
+        }
+        if ((previous <= maxLagMillis) != (lagMillis <= maxLagMillis)) {
+            log.info("Replica {} (lag {} ms, tolerance {} ms)", lagMillis <= maxLagMillis ? "in use" : "bypassed",
+                    lagMillis == Long.MAX_VALUE ? "unknown" : lagMillis, maxLagMillis);
+        }
+    }
+
+    public boolean replicaUsable() {
+        return lagMillis <= maxLagMillis;
+    }
+
+    public long lagMillis() {
+        return lagMillis;
+    }
+}
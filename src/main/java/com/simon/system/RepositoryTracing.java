@@ -0,0 +1,26 @@
+package com.simon.system;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.stereotype.Component;
+
+/** Wraps every Spring Data repository so each call is recorded as a {@link Trace} span. */
+@Component
+public class RepositoryTracing implements BeanPostProcessor {
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factory) {
+            factory.addRepositoryFactoryCustomizer(f -> f.addRepositoryProxyPostProcessor((proxyFactory, info) -> {
+                String prefix = info.getRepositoryInterface().getSimpleName() + ".";
+                proxyFactory.addAdvice((MethodInterceptor) invocation -> {
+                    if (!Trace.active()) return invocation.proceed();
+                    try (var _ = Trace.span(prefix + invocation.getMethod().getName())) {
+                        return invocation.proceed();
+                    }
+                });
+            }));
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,125 @@
+package com.simon.system;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Server-side cache of fully serialized GET responses. Entries carry tags (e.g. {@code product:42})
+ * so writes can drop exactly the responses they affect; a hit is served straight from the stored
+ * bytes without touching controllers or the JSON mapper.
+ */
+@Component
+public class ResponseCache {
+    @Value("${app.http-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    @Value("${app.http-cache.max-entries:10000}")
+    private int maxEntries;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Set<String>> keysByTag = new ConcurrentHashMap<>();
+    // bumped on every invalidation; a response rendered across a bump is not stored
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public record Entry(byte[] body, String contentType, String etag, Set<String> tags, long expiresAtMillis) {
+    }
+
+    public record Stats(int entries, long hits, long misses) {
+    }
+
+    public Entry get(String key) {
+        Entry e = entries.get(key);
+        if (e == null || e.expiresAtMillis() <= System.currentTimeMillis()) {
+            if (e != null) remove(key, e);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return e;
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    /** Stores a response rendered while {@link #generation()} was {@code seenGeneration}. */
+    public Entry put(String key, byte[] body, String contentType, Set<String> tags, long seenGeneration) {
+        Entry e = new Entry(body, contentType, etag(body), Set.copyOf(tags),
+                System.currentTimeMillis() + ttlSeconds * 1000);
+        if (generation.get() != seenGeneration) return e;
+        if (entries.size() >= maxEntries) evictOne();
+        for (String tag : e.tags()) keysByTag.computeIfAbsent(tag, _ -> ConcurrentHashMap.newKeySet()).add(key);
+        entries.put(key, e);
+        // an invalidation may have run between the check and the index update above
+        if (generation.get() != seenGeneration) remove(key, e);
+        return e;
+    }
+
+    public void invalidate(String... tags) {
+        generation.incrementAndGet();
+        for (String tag : tags) {
+            Set<String> keys = keysByTag.remove(tag);
+            if (keys != null) keys.forEach(entries::remove);
+        }
+    }
+
+    public void clear() {
+        generation.incrementAndGet();
+        entries.clear();
+        keysByTag.clear();
+    }
+
+    public long ttlSeconds() {
+        return ttlSeconds;
+    }
+
+    public Stats stats() {
+        return new Stats(entries.size(), hits.sum(), misses.sum());
+    }
+
+    private void remove(String key, Entry e) {
+        if (!entries.remove(key, e)) return;
+        for (String tag : e.tags()) {
+            Set<String> keys = keysByTag.get(tag);
+            if (keys != null) keys.remove(key);
+        }
+    }
+
+    private void evictOne() {
+        long now = System.currentTimeMillis();
+        String victim = null;
+        int scanned = 0;
+        // prefer an expired entry among the first few, otherwise drop the first one seen
+        for (var entry : entries.entrySet()) {
+            if (++scanned > 16) break;
+            if (entry.getValue().expiresAtMillis() <= now) {
+                victim = entry.getKey();
+                break;
+            }
+            if (victim == null) victim = entry.getKey();
+        }
+        if (victim != null) {
+            Entry e = entries.get(victim);
+            if (e != null) remove(victim, e);
+        }
+    }
+
+    static String etag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest).substring(0, 27) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
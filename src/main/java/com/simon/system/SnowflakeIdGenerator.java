@@ -0,0 +1,15 @@
+package com.simon.system;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+
+/**
+ * Hibernate side of {@link SnowflakeId}: the id is assigned before the insert, so Hibernate can
+ * batch the inserts, and the entity has its id as soon as it is persisted.
+ */
+public class SnowflakeIdGenerator implements IdentifierGenerator {
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner) {
+        return SnowflakeIds.shared().next();
+    }
+}
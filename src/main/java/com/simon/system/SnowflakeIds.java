@@ -0,0 +1,123 @@
+package com.simon.system;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * Snowflake-style 64-bit ids, assigned without a database round trip or any coordination between
+ * nodes. From the top: one zero sign bit, 41 bits of milliseconds since {@link #EPOCH_MILLIS} (good
+ * until 2094), 10 bits of {@code app.ids.node-id} and a 12-bit sequence within the millisecond. Ids
+ * from one node strictly increase, and ids from different nodes sort by time to within clock skew,
+ * which keeps inserts at the right-hand edge of the primary key index.
+ * <p>
+ * The last timestamp and sequence live in one {@link AtomicLong} and every id is a single CAS on it.
+ * When a millisecond's 4096 ids are used up, callers spin until the clock moves on. If the clock
+ * steps back by up to {@code app.ids.max-clock-skew-ms}, callers wait it out. A bigger step fails
+ * generation rather than risk handing out an id twice.
+ * <p>
+ * Every node must have its own node id. Node ids must not be reused while an old process could
+ * still be running.
+ */
+@Component
+@Slf4j
+public class SnowflakeIds {
+    /** 2025-01-01T00:00:00Z */
+    public static final long EPOCH_MILLIS = 1_735_689_600_000L;
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final int MAX_NODE = (1 << NODE_BITS) - 1;
+    static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static volatile SnowflakeIds shared;
+
+    @Value("${app.ids.node-id:0}")
+    private int nodeId = 0;
+
+    @Value("${app.ids.max-clock-skew-ms:100}")
+    private long maxClockSkewMillis = 100;
+
+    private final LongSupplier clock;
+    // (milliseconds since EPOCH_MILLIS << SEQUENCE_BITS) | sequence, of the last id handed out
+    private final AtomicLong last = new AtomicLong();
+
+    public SnowflakeIds() {
+        this.clock = System::currentTimeMillis;
+    }
+
+    SnowflakeIds(int nodeId, long maxClockSkewMillis, LongSupplier clock) {
+        this.nodeId = nodeId;
+        this.maxClockSkewMillis = maxClockSkewMillis;
+        this.clock = clock;
+        checkNodeId();
+    }
+
+    @PostConstruct
+    public void register() {
+        checkNodeId();
+        shared = this;
+        log.info("Snowflake ids for node {}", nodeId);
+    }
+
+    /** The node's generator, for callers Spring does not create, such as {@link SnowflakeIdGenerator}. */
+    public static SnowflakeIds shared() {
+        SnowflakeIds ids = shared;
+        if (ids == null) throw new IllegalStateException("SnowflakeIds has not been initialised yet");
+        return ids;
+    }
+
+    /** @throws IllegalStateException if the clock stepped back by more than {@code app.ids.max-clock-skew-ms} */
+    public long next() {
+        while (true) {
+            long prev = last.get();
+            long prevMillis = prev >>> SEQUENCE_BITS;
+            long now = clock.getAsLong() - EPOCH_MILLIS;
+            long state;
+            if (now > prevMillis) {
+                state = now << SEQUENCE_BITS;
+            } else if (now == prevMillis && (prev & SEQUENCE_MASK) < SEQUENCE_MASK) {
+                state = prev + 1;
+            } else if (now == prevMillis) {
+                // sequence exhausted: the next millisecond is at most one tick away
+                Thread.onSpinWait();
+                continue;
+            } else {
+                waitForClock(prevMillis - now);
+                continue;
+            }
+            if (last.compareAndSet(prev, state)) {
+                return (state >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS)
+                        | (long) nodeId << SEQUENCE_BITS
+                        | (state & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    public static Instant timestamp(long id) {
+        return Instant.ofEpochMilli((id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS);
+    }
+
+    public static int node(long id) {
+        return (int) ((id >>> SEQUENCE_BITS) & MAX_NODE);
+    }
+
+    private void waitForClock(long behindMillis) {
+        if (behindMillis > maxClockSkewMillis) {
+            throw new IllegalStateException("Clock moved back by " + behindMillis + " ms; refusing to generate ids");
+        }
+        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(Math.min(behindMillis, 10)));
+    }
+
+    private void checkNodeId() {
+        if (nodeId < 0 || nodeId > MAX_NODE) {
+            throw new IllegalStateException("app.ids.node-id must be between 0 and " + MAX_NODE + ", was " + nodeId);
+        }
+    }
+}
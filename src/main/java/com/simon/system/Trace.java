@@ -0,0 +1,119 @@
+package com.simon.system;
+
+import java.util.Arrays;
+
+/**
+ * Per-request timing context bound to the request thread by {@link TraceFilter}.
+ * <p>
+ * Spans are aggregated by name (total time and call count) in small arrays, so a request that
+ * runs the same repository method fifty times costs fifty {@code nanoTime} pairs and no map. All
+ * static entry points are no-ops on threads without a trace, e.g. pipeline workers.
+ */
+public final class Trace {
+    static final int MAX_NAMES = 24;
+    private static final ThreadLocal<Trace> CURRENT = new ThreadLocal<>();
+
+    private final String id;
+    private final long startNanos = System.nanoTime();
+    private final String[] names = new String[MAX_NAMES];
+    private final long[] nanos = new long[MAX_NAMES];
+    private final int[] counts = new int[MAX_NAMES];
+    private int size;
+    long writeStartNanos;
+
+    private Trace(String id) {
+        this.id = id;
+    }
+
+    public static Trace begin(String id) {
+        Trace t = new Trace(id);
+        CURRENT.set(t);
+        return t;
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    public static Trace current() {
+        return CURRENT.get();
+    }
+
+    public static boolean active() {
+        return CURRENT.get() != null;
+    }
+
+    public static Span span(String name) {
+        Trace t = CURRENT.get();
+        return t == null ? Span.NOOP : new Span(t, name, System.nanoTime());
+    }
+
+    public String id() {
+        return id;
+    }
+
+    public long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    void record(String name, long durationNanos) {
+        int i = 0;
+        while (i < size && !names[i].equals(name)) i++;
+        if (i == size) {
+            if (size == MAX_NAMES) {
+                i = MAX_NAMES - 1;
+                names[i] = "other";
+            } else {
+                names[i] = name;
+                size++;
+            }
+        }
+        nanos[i] += durationNanos;
+        counts[i]++;
+    }
+
+    /** Formats the spans as a {@code Server-Timing} header value, durations in milliseconds. */
+    public String serverTiming() {
+        StringBuilder sb = new StringBuilder(32 + size * 32);
+        for (int i = 0; i < size; i++) {
+            sb.append(names[i]).append(";dur=").append(millis(nanos[i]));
+            if (counts[i] > 1) sb.append(";desc=\"").append(counts[i]).append(" calls\"");
+            sb.append(", ");
+        }
+        return sb.append("total;dur=").append(millis(elapsedNanos())).toString();
+    }
+
+    public long totalNanos(String name) {
+        int i = Arrays.asList(names).subList(0, size).indexOf(name);
+        return i < 0 ? 0 : nanos[i];
+    }
+
+    public int count(String name) {
+        int i = Arrays.asList(names).subList(0, size).indexOf(name);
+        return i < 0 ? 0 : counts[i];
+    }
+
+    private static String millis(long nanos) {
+        long hundredths = nanos / 10_000;
+        return hundredths / 100 + "." + (hundredths % 100 < 10 ? "0" : "") + hundredths % 100;
+    }
+
+    public static final class Span implements AutoCloseable {
+        static final Span NOOP = new Span(null, null, 0);
+
+        private final Trace trace;
+        private final String name;
+        private final long start;
+
+        private Span(Trace trace, String name, long start) {
+            this.trace = trace;
+            this.name = name;
+            this.start = start;
+        }
+
+        @Override
+        public void close() {
+            if (trace != null) trace.record(name, System.nanoTime() - start);
+        }
+    }
+}
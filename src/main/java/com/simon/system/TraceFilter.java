@@ -0,0 +1,178 @@
+package com.simon.system;
+
+import com.simon.model.Role;
+import com.simon.security.JwtAuthentication;
+import com.simon.security.JwtPrincipal;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.NonNull;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Outermost filter: binds a {@link Trace} and its id (propagated from {@code traceparent} or
+ * {@code X-Request-Id}, otherwise generated) to the request thread and the log MDC, and emits the
+ * span breakdown as a {@code Server-Timing} header just before the response body goes out.
+ * <p>
+ * {@code app.trace.server-timing}: {@code admin} (default) sends the header to admins only, or to
+ * everyone while this logger is at DEBUG; {@code always} and {@code off} do what they say.
+ */
+@Component
+@Slf4j
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class TraceFilter extends OncePerRequestFilter {
+    public static final String MDC_KEY = "traceId";
+    public static final String WRITE_SPAN = "write";
+
+    @Value("${app.trace.server-timing:admin}")
+    private String serverTiming = "admin";
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        Trace trace = Trace.begin(traceId(request));
+        MDC.put(MDC_KEY, trace.id());
+        response.setHeader("X-Trace-Id", trace.id());
+        TimingResponse timed = new TimingResponse(response, trace);
+        try {
+            filterChain.doFilter(request, timed);
+        } finally {
+            if (!response.isCommitted()) timed.emit();
+            if (log.isDebugEnabled()) {
+                log.debug("{} {} -> {} [{}]", request.getMethod(), request.getRequestURI(), response.getStatus(),
+                        trace.serverTiming());
+            }
+            MDC.remove(MDC_KEY);
+            Trace.end();
+        }
+    }
+
+    /** Called when the response body is about to be serialized; that phase ends when the header is emitted. */
+    public static void markWriteStart() {
+        Trace t = Trace.current();
+        if (t != null) t.writeStartNanos = System.nanoTime();
+    }
+
+    static String traceId(HttpServletRequest request) {
+        String parent = request.getHeader("traceparent");
+        // W3C: version-traceid(32 hex)-parentid(16 hex)-flags
+        if (parent != null && parent.length() >= 55 && parent.charAt(2) == '-' && isHex(parent, 3, 35)) {
+            return parent.substring(3, 35);
+        }
+        String requestId = request.getHeader("X-Request-Id");
+        if (requestId != null && !requestId.isBlank() && requestId.length() <= 64 && isSafe(requestId)) {
+            return requestId;
+        }
+        ThreadLocalRandom r = ThreadLocalRandom.current();
+        return hex(r.nextLong()) + hex(r.nextLong());
+    }
+
+    private static String hex(long v) {
+        String s = Long.toHexString(v);
+        return "0".repeat(16 - s.length()) + s;
+    }
+
+    private static boolean isHex(String s, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (Character.digit(s.charAt(i), 16) < 0) return false;
+        }
+        return true;
+    }
+
+    private static boolean isSafe(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (!(Character.isLetterOrDigit(c) || c == '-' || c == '_' || c == '.')) return false;
+        }
+        return true;
+    }
+
+    private boolean shouldEmit() {
+        return switch (serverTiming) {
+            case "always" -> true;
+            case "off" -> false;
+            default -> log.isDebugEnabled() || isAdmin();
+        };
+    }
+
+    private static boolean isAdmin() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null) return false;
+        JwtPrincipal principal = JwtAuthentication.principal(auth);
+        if (principal != null) return principal.role() == Role.ADMIN;
+        for (var a : auth.getAuthorities()) {
+            if ("ROLE_ADMIN".equals(a.getAuthority())) return true;
+        }
+        return false;
+    }
+
+    /** Adds the header at the first point the body or status can be committed. */
+    private class TimingResponse extends HttpServletResponseWrapper {
+        private final Trace trace;
+        private boolean emitted;
+
+        TimingResponse(HttpServletResponse response, Trace trace) {
+            super(response);
+            this.trace = trace;
+        }
+
+        void emit() {
+            if (emitted) return;
+            emitted = true;
+            if (trace.writeStartNanos != 0) trace.record(WRITE_SPAN, System.nanoTime() - trace.writeStartNanos);
+            if (shouldEmit()) setHeader("Server-Timing", trace.serverTiming());
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            emit();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            emit();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            emit();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            emit();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            emit();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            emit();
+            super.sendRedirect(location);
+        }
+    }
+}
@@ -2,11 +2,16 @@ package com.simon.controller;
 
 import com.simon.model.User;
 import com.simon.repository.UserRepository;
+import com.simon.dto.AdminUserRequests;
+import com.simon.service.TokenService;
+import com.simon.service.UserModerationService;
+import com.simon.service.UserSearchIndex;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
@@ -15,6 +20,8 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
@@ -26,6 +33,12 @@ public class AdminControllerTest {
 
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private TokenService tokenService;
+    @Mock
+    private UserSearchIndex userSearchIndex;
+    @Mock
+    private UserModerationService userModerationService;
 
     private AdminController adminController;
     private AutoCloseable mocks;
@@ -33,7 +46,8 @@ public class AdminControllerTest {
     @BeforeMethod
     public void setUp() {
         mocks = MockitoAnnotations.openMocks(this);
-        adminController = new AdminController(userRepository);
+        adminController = new AdminController(userRepository, tokenService, userSearchIndex,
+                userModerationService);
     }
 
     @AfterMethod
@@ -82,5 +96,53 @@ public class AdminControllerTest {
         assertEquals(resp.getStatusCode().value(), 404);
         assertNull(resp.getBody());
     }
-}
 
+    @Test(description = "Search hydrates index hits in one batch and keeps index order",
+            groups = {"unit", "controller"},
+            priority = 4)
+    public void search_hydratesInIndexOrder() {
+        User u3 = new User().setId(3L).setUsername("chen");
+        User u8 = new User().setId(8L).setUsername("chenxi");
+        when(userSearchIndex.search("chen", 20)).thenReturn(List.of(8L, 3L));
+        when(userRepository.findAllById(List.of(8L, 3L))).thenReturn(List.of(u3, u8));
+
+        ResponseEntity<?> resp = adminController.search("chen", 20);
+        assertEquals(resp.getStatusCode().value(), 200);
+        assertEquals(resp.getBody(), List.of(u8, u3));
+    }
+
+    @Test(description = "Search with a blank query returns 400",
+            groups = {"unit", "controller"},
+            priority = 5)
+    public void search_whenBlank_returns400() {
+        ResponseEntity<?> resp = adminController.search("  ", 20);
+        assertEquals(resp.getStatusCode().value(), 400);
+    }
+
+    @Test(description = "Soft-deleting your own account is refused with 409",
+            groups = {"unit", "controller"},
+            priority = 6)
+    public void delete_whenSelf_returns409() {
+        Authentication auth = mock(Authentication.class);
+        when(auth.getName()).thenReturn("1");
+        when(userModerationService.applyOne(eq(1L), any(UserModerationService.Change.class), eq(1L)))
+                .thenReturn(UserModerationService.Outcome.SKIPPED_SELF);
+
+        ResponseEntity<?> resp = adminController.delete(1L, auth);
+        assertEquals(resp.getStatusCode().value(), 409);
+    }
+
+    @Test(description = "Bulk change rejected by the service returns 400 with the reason",
+            groups = {"unit", "controller"},
+            priority = 7)
+    public void bulk_whenInvalid_returns400() {
+        Authentication auth = mock(Authentication.class);
+        when(auth.getName()).thenReturn("1");
+        AdminUserRequests.Bulk req = new AdminUserRequests.Bulk().setIds(List.of(2L, 3L));
+        when(userModerationService.apply(req, 1L)).thenThrow(new IllegalArgumentException("Nothing to change"));
+
+        ResponseEntity<?> resp = adminController.bulk(req, auth);
+        assertEquals(resp.getStatusCode().value(), 400);
+        assertEquals(resp.getBody(), "Nothing to change");
+    }
+}
@@ -0,0 +1,127 @@
+package com.simon.controller;
+
+import com.simon.system.AssetStore;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class AssetControllerTest {
+    private static final byte[] CONTENT = "0123456789abcdefghij".getBytes(StandardCharsets.US_ASCII);
+
+    private Path root;
+    private AssetStore assetStore;
+    private AssetController assetController;
+    private AssetStore.Asset asset;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        root = Files.createTempDirectory("assets");
+        assetStore = new AssetStore();
+        ReflectionTestUtils.setField(assetStore, "root", root.toString());
+        assetController = new AssetController(assetStore);
+        asset = assetStore.store(new ByteArrayInputStream(CONTENT), "png");
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        try (Stream<Path> files = Files.walk(root)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    private MockHttpServletResponse get(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assetController.serve(asset.id(), request, response);
+        return response;
+    }
+
+    @Test(description = "Storing identical content twice yields one content-addressed asset",
+            groups = {"unit", "controller"},
+            priority = 1)
+    public void store_isContentAddressed() throws Exception {
+        AssetStore.Asset again = assetStore.store(new ByteArrayInputStream(CONTENT), "png");
+        assertEquals(again.id(), asset.id());
+        assertEquals(assetStore.find(asset.id()).size(), CONTENT.length);
+        assertNull(assetStore.find("../../etc/passwd"));
+        assertNull(assetStore.find(asset.id().replace(".png", ".exe")));
+    }
+
+    @Test(description = "A full GET returns the bytes with immutable cache headers and a strong ETag",
+            groups = {"unit", "controller"},
+            priority = 2)
+    public void serve_fullFile() throws Exception {
+        MockHttpServletResponse resp = get(new MockHttpServletRequest("GET", "/api/assets/" + asset.id()));
+
+        assertEquals(resp.getStatus(), 200);
+        assertEquals(resp.getContentAsByteArray(), CONTENT);
+        assertEquals(resp.getContentType(), "image/png");
+        assertEquals(resp.getHeader("Cache-Control"), AssetController.CACHE_CONTROL);
+        assertEquals(resp.getHeader("ETag"), asset.etag());
+        assertEquals(resp.getHeader("Accept-Ranges"), "bytes");
+    }
+
+    @Test(description = "Byte ranges return 206 with Content-Range; out-of-bounds ranges return 416",
+            groups = {"unit", "controller"},
+            priority = 3)
+    public void serve_ranges() throws Exception {
+        MockHttpServletRequest req = new MockHttpServletRequest("GET", "/api/assets/" + asset.id());
+        req.addHeader("Range", "bytes=5-9");
+        MockHttpServletResponse resp = get(req);
+        assertEquals(resp.getStatus(), 206);
+        assertEquals(resp.getHeader("Content-Range"), "bytes 5-9/20");
+        assertEquals(resp.getContentAsByteArray(), Arrays.copyOfRange(CONTENT, 5, 10));
+
+        req = new MockHttpServletRequest("GET", "/api/assets/" + asset.id());
+        req.addHeader("Range", "bytes=-3");
+        assertEquals(get(req).getContentAsByteArray(), Arrays.copyOfRange(CONTENT, 17, 20));
+
+        req = new MockHttpServletRequest("GET", "/api/assets/" + asset.id());
+        req.addHeader("Range", "bytes=20-");
+        resp = get(req);
+        assertEquals(resp.getStatus(), 416);
+        assertEquals(resp.getHeader("Content-Range"), "bytes */20");
+    }
+
+    @Test(description = "A matching If-None-Match returns 304 without a body",
+            groups = {"unit", "controller"},
+            priority = 4)
+    public void serve_notModified() throws Exception {
+        MockHttpServletRequest req = new MockHttpServletRequest("GET", "/api/assets/" + asset.id());
+        req.addHeader("If-None-Match", asset.etag());
+        MockHttpServletResponse resp = get(req);
+        assertEquals(resp.getStatus(), 304);
+        assertEquals(resp.getContentAsByteArray().length, 0);
+    }
+
+    @Test(description = "When the connector supports sendfile the body is delegated through request attributes",
+            groups = {"unit", "controller"},
+            priority = 5)
+    public void serve_delegatesToSendfile() throws Exception {
+        ReflectionTestUtils.setField(assetController, "sendfileMinBytes", 1L);
+        MockHttpServletRequest req = new MockHttpServletRequest("GET", "/api/assets/" + asset.id());
+        req.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        req.addHeader("Range", "bytes=2-");
+        MockHttpServletResponse resp = get(req);
+
+        assertEquals(resp.getStatus(), 206);
+        assertEquals(resp.getContentAsByteArray().length, 0);
+        assertEquals(req.getAttribute("org.apache.tomcat.sendfile.start"), 2L);
+        assertEquals(req.getAttribute("org.apache.tomcat.sendfile.end"), 20L);
+        assertTrue(((String) req.getAttribute("org.apache.tomcat.sendfile.filename")).endsWith(asset.id()));
+    }
+}
@@ -0,0 +1,77 @@
+package com.simon.controller;
+
+import com.simon.model.RefreshToken;
+import com.simon.model.User;
+import com.simon.repository.RefreshTokenRepository;
+import com.simon.repository.UserRepository;
+import com.simon.security.AccessTokenRevocations;
+import com.simon.service.PasswordResetService;
+import com.simon.service.TokenService;
+import com.simon.service.UserService;
+import com.simon.system.QueryAssertions;
+import jakarta.persistence.EntityManager;
+import jakarta.servlet.http.Cookie;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.testng.AbstractTransactionalTestNGSpringContextTests;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.mockito.Mockito.mock;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Statement counts of the auth endpoints against a real H2 persistence context. The Hibernate
+ * hooks are registered here as well, since only {@code application-dev.yml} registers them otherwise.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.simon.system.QueryCounter",
+        "spring.jpa.properties.hibernate.session.events.auto=com.simon.system.QueryCounter$Listener"
+})
+public class AuthControllerQueriesTest extends AbstractTransactionalTestNGSpringContextTests {
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+    @Autowired
+    private EntityManager entityManager;
+
+    private TokenService tokenService;
+    private AuthController authController;
+
+    @BeforeMethod
+    public void setUp() {
+        tokenService = new TokenService(refreshTokenRepository, mock(AccessTokenRevocations.class));
+        ReflectionTestUtils.setField(tokenService, "jwtSecret", "0123456789abcdef0123456789abcdef0123456789abcdef");
+        ReflectionTestUtils.setField(tokenService, "accessTokenSeconds", 900L);
+        authController = new AuthController(mock(UserService.class), tokenService, mock(PasswordResetService.class));
+    }
+
+    @Test(description = "POST /api/auth/refresh reads the token and its user in one statement",
+            groups = {"integration", "controller"},
+            priority = 1)
+    public void refresh_loadsTokenAndUserInOneStatement() {
+        User user = userRepository.save(new User()
+                .setUsername("refresher")
+                .setEmail("refresher@example.com")
+                .setPasswordHash("{noop}secret"));
+        RefreshToken rt = tokenService.createRefreshToken(user);
+        entityManager.flush();
+        // start from an empty persistence context, as a fresh request would
+        entityManager.clear();
+
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/refresh");
+        request.setCookies(new Cookie("refreshToken", rt.getReplacedByToken()));
+        AtomicReference<ResponseEntity<?>> response = new AtomicReference<>();
+
+        QueryAssertions.assertStatements(1, () -> response.set(authController.refresh(request)));
+
+        assertEquals(response.get().getStatusCode().value(), 200);
+    }
+}
@@ -4,6 +4,7 @@ import com.simon.dto.AuthRequests;
 import com.simon.dto.AuthResponses;
 import com.simon.model.RefreshToken;
 import com.simon.model.User;
+import com.simon.service.PasswordResetService;
 import com.simon.service.TokenService;
 import com.simon.service.UserService;
 import jakarta.servlet.http.Cookie;
@@ -34,6 +35,9 @@ public class AuthControllerTest {
     @Mock
     private TokenService tokenService;
 
+    @Mock
+    private PasswordResetService passwordResetService;
+
     @Mock
     private HttpServletRequest request;
 
@@ -46,7 +50,7 @@ public class AuthControllerTest {
     @BeforeMethod
     public void setUp() {
         mocks = MockitoAnnotations.openMocks(this);
-        authController = new AuthController(userService, tokenService);
+        authController = new AuthController(userService, tokenService, passwordResetService);
     }
 
     @AfterMethod
@@ -166,5 +170,30 @@ public class AuthControllerTest {
         verify(response, times(1)).addHeader(eq("Set-Cookie"), contains("refreshToken="));
         verify(response, times(1)).addHeader(eq("Set-Cookie"), contains("Max-Age=0"));
     }
-}
 
+    @Test(description = "Logout with a bearer token also revokes the access token", groups = {"unit", "controller"}, priority = 9)
+    public void logout_withBearer_revokesAccessToken() {
+        when(request.getHeader("Authorization")).thenReturn("Bearer access.jwt");
+
+        var resp = authController.logout(request, response);
+        assertEquals(resp.getStatusCode().value(), 204);
+        verify(tokenService, times(1)).revokeAccessToken("access.jwt");
+    }
+
+    @Test(description = "Password reset request always answers 200 and delegates to the reset service", groups = {"unit", "controller"}, priority = 10)
+    public void requestPasswordReset_delegatesAndReturnsGenericMessage() {
+        AuthRequests.PasswordResetRequest req = new AuthRequests.PasswordResetRequest("nobody@example.com");
+
+        var resp = authController.requestPasswordReset(req);
+        assertEquals(resp.getStatusCode().value(), 200);
+        verify(passwordResetService, times(1)).requestReset("nobody@example.com");
+    }
+
+    @Test(description = "Password reset confirm returns 400 for an invalid token", groups = {"unit", "controller"}, priority = 11)
+    public void confirmPasswordReset_withInvalidToken_returns400() {
+        when(passwordResetService.confirmReset("bad", "newPassword1")).thenReturn(false);
+
+        var resp = authController.confirmPasswordReset(new AuthRequests.PasswordResetConfirm("bad", "newPassword1"));
+        assertEquals(resp.getStatusCode().value(), 400);
+    }
+}
@@ -1,7 +1,13 @@
 package com.simon.controller;
 
+import com.simon.dto.SessionResponses;
+import com.simon.dto.UserResponses;
+import com.simon.model.Role;
 import com.simon.model.User;
 import com.simon.repository.UserRepository;
+import com.simon.security.JwtAuthentication;
+import com.simon.security.JwtPrincipal;
+import com.simon.service.TokenService;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.ResponseEntity;
@@ -19,6 +25,8 @@ public class UserControllerTest {
 
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private TokenService tokenService;
 
     private UserController userController;
     private AutoCloseable mocks;
@@ -26,7 +34,7 @@ public class UserControllerTest {
     @BeforeMethod
     public void setUp() {
         mocks = MockitoAnnotations.openMocks(this);
-        userController = new UserController(userRepository);
+        userController = new UserController(userRepository, tokenService);
     }
 
     @AfterMethod
@@ -74,4 +82,37 @@ public class UserControllerTest {
         assertEquals(resp.getStatusCode().value(), 200);
         assertSame(resp.getBody(), u);
     }
+
+    @Test(description = "POST /api/users/me/sessions/revoke-all revokes every session of the caller",
+          groups = {"unit", "controller"},
+          priority = 4)
+    public void revokeAllSessions_delegatesToTokenService() {
+        Authentication auth = mock(Authentication.class);
+        when(auth.getName()).thenReturn("7");
+        when(tokenService.revokeAllSessions(7L)).thenReturn(3);
+
+        ResponseEntity<?> resp = userController.revokeAllSessions(auth);
+        assertEquals(resp.getStatusCode().value(), 200);
+        assertEquals(((SessionResponses.Revoked) resp.getBody()).getRevoked(), 3);
+    }
+
+    @Test(description = "GET /api/users/me/identity answers from the token principal without a lookup",
+          groups = {"unit", "controller"},
+          priority = 5)
+    public void identity_answersFromPrincipal() {
+        var auth = new JwtAuthentication(new JwtPrincipal(7L, "7", "tester", Role.USER));
+
+        ResponseEntity<?> resp = userController.identity(auth);
+        assertEquals(resp.getStatusCode().value(), 200);
+        assertEquals(resp.getBody(), new UserResponses.Identity(7L, "tester", Role.USER));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test(description = "GET /api/users/me/identity without a token principal returns 401",
+          groups = {"unit", "controller"},
+          priority = 6)
+    public void identity_whenNoPrincipal_returns401() {
+        ResponseEntity<?> resp = userController.identity(null);
+        assertEquals(resp.getStatusCode().value(), 401);
+    }
 }
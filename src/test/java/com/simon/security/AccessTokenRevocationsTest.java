@@ -0,0 +1,84 @@
+package com.simon.security;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class AccessTokenRevocationsTest {
+
+    private InProcessRevocationChannel channel;
+    private AccessTokenRevocations nodeA;
+    private AccessTokenRevocations nodeB;
+    private long now;
+    private long nowMillisPart;
+
+    @BeforeMethod
+    public void setUp() {
+        channel = new InProcessRevocationChannel();
+        now = 1_000_000;
+        nowMillisPart = 0;
+        nodeA = node();
+        nodeB = node();
+    }
+
+    private AccessTokenRevocations node() {
+        AccessTokenRevocations node = new AccessTokenRevocations(channel) {
+            @Override
+            long nowMillis() {
+                return now * 1000 + nowMillisPart;
+            }
+        };
+        node.subscribe();
+        return node;
+    }
+
+    @Test(description = "A revocation published on one node is visible on every subscribed node",
+            groups = {"unit", "security"},
+            priority = 1)
+    public void revoke_propagatesThroughChannel() {
+        nodeA.revoke("jti-1", now + 900);
+
+        assertTrue(nodeA.isRevoked("jti-1", now + 900));
+        assertTrue(nodeB.isRevoked("jti-1", now + 900));
+        assertFalse(nodeB.isRevoked("jti-2", now + 900));
+        assertFalse(nodeB.isRevoked(null, now + 900));
+    }
+
+    @Test(description = "Buckets are dropped once every token in them has expired",
+            groups = {"unit", "security"},
+            priority = 2)
+    public void prune_dropsExpiredBuckets() {
+        nodeA.revoke("soon", now + 30);
+        nodeA.revoke("later", now + 900);
+        nodeA.revoke("already-expired", now - 1);
+        assertEquals(nodeA.size(), 2);
+
+        now += 200;
+        nodeA.prune();
+
+        assertEquals(nodeA.size(), 1);
+        assertEquals(nodeA.bucketCount(), 1);
+        assertTrue(nodeA.isRevoked("later", now + 700));
+    }
+
+    @Test(description = "Log out everywhere revokes earlier tokens but not one issued later in the same second",
+            groups = {"unit", "security"},
+            priority = 3)
+    public void revokeSubject_comparesIssueTimeInMillis() {
+        long before = now * 1000 + 100;
+        nowMillisPart = 200;
+        nodeA.revokeSubject("42");
+        long after = now * 1000 + 300;
+
+        assertTrue(nodeB.isRevoked("jti-1", "42", before, now + 900));
+        assertFalse(nodeB.isRevoked("jti-2", "42", after, now + 900));
+        assertFalse(nodeB.isRevoked("jti-3", "7", before, now + 900));
+
+        now += 901;
+        nodeA.prune();
+        assertEquals(nodeA.size(), 0);
+    }
+}
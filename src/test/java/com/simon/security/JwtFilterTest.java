@@ -0,0 +1,79 @@
+package com.simon.security;
+
+import com.simon.model.Role;
+import com.simon.model.User;
+import com.simon.repository.RefreshTokenRepository;
+import com.simon.repository.StatsCheckpointRepository;
+import com.simon.service.ActiveUsers;
+import com.simon.service.TokenService;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertThrows;
+
+public class JwtFilterTest {
+    private static final String SECRET = "jwt-filter-test-secret-jwt-filter-test-secret-01";
+
+    private TokenService tokenService;
+    private AccessTokenRevocations revocations;
+    private JwtFilter jwtFilter;
+
+    @BeforeMethod
+    public void setUp() {
+        revocations = new AccessTokenRevocations(new InProcessRevocationChannel());
+        tokenService = new TokenService(mock(RefreshTokenRepository.class), revocations);
+        ReflectionTestUtils.setField(tokenService, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(tokenService, "accessTokenSeconds", 900L);
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "jwtSecret", SECRET);
+        jwtFilter = new JwtFilter(jwtUtil, revocations, new ActiveUsers(mock(StatsCheckpointRepository.class)));
+    }
+
+    private String bearer(long id, String username, Role role) {
+        return "Bearer " + tokenService.generateAccessToken(new User().setId(id).setUsername(username).setRole(role));
+    }
+
+    @Test(description = "The principal carries id, username and role from the token claims",
+            groups = {"unit", "security"},
+            priority = 1)
+    public void authenticate_buildsPrincipalFromClaims() {
+        JwtAuthentication auth = jwtFilter.authenticate(bearer(42L, "alice", Role.ADMIN));
+
+        assertNotNull(auth);
+        assertEquals(auth.getName(), "42");
+        assertEquals(auth.getPrincipal(), new JwtPrincipal(42L, "42", "alice", Role.ADMIN));
+        assertEquals(JwtAuthentication.principal(auth).role(), Role.ADMIN);
+        assertEquals(auth.getAuthorities().iterator().next().getAuthority(), "ROLE_ADMIN");
+    }
+
+    @Test(description = "Authority lists are shared per role instead of allocated per request",
+            groups = {"unit", "security"},
+            priority = 2)
+    public void authenticate_sharesAuthorityLists() {
+        JwtAuthentication a = jwtFilter.authenticate(bearer(1L, "a", Role.USER));
+        JwtAuthentication b = jwtFilter.authenticate(bearer(2L, "b", Role.USER));
+
+        assertSame(a.getAuthorities(), b.getAuthorities());
+        assertSame(a.getAuthorities(), JwtAuthentication.authorities(Role.USER));
+        assertThrows(IllegalArgumentException.class, () -> a.setAuthenticated(false));
+    }
+
+    @Test(description = "Missing, malformed and revoked tokens yield no authentication",
+            groups = {"unit", "security"},
+            priority = 3)
+    public void authenticate_rejectsInvalidTokens() {
+        assertNull(jwtFilter.authenticate(null));
+        assertNull(jwtFilter.authenticate("Basic abc"));
+        assertNull(jwtFilter.authenticate("Bearer not-a-token"));
+
+        String header = bearer(7L, "bob", Role.USER);
+        tokenService.revokeAccessToken(header.substring(7));
+        assertNull(jwtFilter.authenticate(header));
+    }
+}
@@ -0,0 +1,186 @@
+package com.simon.service;
+
+import com.simon.model.StatsCheckpoint;
+import com.simon.repository.StatsCheckpointRepository;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class ActiveUsersTest {
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 1);
+
+    @Mock
+    private StatsCheckpointRepository statsCheckpointRepository;
+
+    private ActiveUsers activeUsers;
+    private AutoCloseable mocks;
+
+    @BeforeMethod
+    public void setUp() {
+        mocks = MockitoAnnotations.openMocks(this);
+        activeUsers = new ActiveUsers(statsCheckpointRepository);
+        at(DAY);
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        mocks.close();
+    }
+
+    private void at(LocalDate day) {
+        Instant noon = day.atTime(12, 0).toInstant(ZoneOffset.UTC);
+        ReflectionTestUtils.setField(activeUsers, "clock", Clock.fixed(noon, ZoneOffset.UTC));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<StatsCheckpoint> checkpointed() {
+        ArgumentCaptor<List<StatsCheckpoint>> saved = ArgumentCaptor.forClass(List.class);
+        verify(statsCheckpointRepository).saveAll(saved.capture());
+        return saved.getValue();
+    }
+
+    @Test(description = "Users active on several days count once in the weekly and monthly figures",
+            groups = {"unit", "service"},
+            priority = 1)
+    public void summary_mergesDaysIntoWindows() {
+        for (int d = 0; d < 10; d++) {
+            at(DAY.plusDays(d));
+            // the same 1000 users every day, plus 100 new ones
+            for (long id = 1; id <= 1_000; id++) activeUsers.record(id);
+            for (long id = 0; id < 100; id++) activeUsers.record(10_000 + d * 100L + id);
+        }
+
+        ActiveUsers.Summary summary = activeUsers.summary(3);
+
+        assertEquals(summary.dau(), 1_100, 20);
+        assertEquals(summary.wau(), 1_700, 35);
+        assertEquals(summary.mau(), 2_000, 40);
+        assertEquals(summary.daily().stream().map(ActiveUsers.Count::day).toList(),
+                List.of(DAY.plusDays(7), DAY.plusDays(8), DAY.plusDays(9)));
+    }
+
+    @Test(description = "Only days that changed are checkpointed, and a restart restores them",
+            groups = {"unit", "service"},
+            priority = 2)
+    public void checkpoint_writesChangedDaysAndRestores() {
+        for (long id = 1; id <= 500; id++) activeUsers.record(id);
+
+        activeUsers.checkpoint();
+        List<StatsCheckpoint> saved = checkpointed();
+        assertEquals(saved.size(), 1);
+        assertEquals(saved.getFirst().getName(), ActiveUsers.CHECKPOINT_PREFIX + DAY + ":0");
+
+        // nothing new since: no write
+        activeUsers.checkpoint();
+        verify(statsCheckpointRepository).saveAll(any());
+
+        when(statsCheckpointRepository.findAllByNameStartingWith(ActiveUsers.CHECKPOINT_PREFIX)).thenReturn(saved);
+        ActiveUsers restarted = new ActiveUsers(statsCheckpointRepository);
+        ReflectionTestUtils.setField(restarted, "clock", ReflectionTestUtils.getField(activeUsers, "clock"));
+        restarted.init();
+
+        assertEquals(restarted.summary(1).dau(), activeUsers.summary(1).dau());
+        assertEquals(restarted.distinct(DAY, 1), 500, 10);
+    }
+
+    @Test(description = "A corrupt checkpoint row is skipped instead of failing startup",
+            groups = {"unit", "service"},
+            priority = 3)
+    public void init_skipsUnreadableCheckpoint() {
+        HyperLogLog good = new HyperLogLog();
+        good.add(7L);
+        when(statsCheckpointRepository.findAllByNameStartingWith(any())).thenReturn(List.of(
+                new StatsCheckpoint(ActiveUsers.CHECKPOINT_PREFIX + DAY, "not base64!", LocalDateTime.now()),
+                new StatsCheckpoint(ActiveUsers.CHECKPOINT_PREFIX + DAY.minusDays(1),
+                        Base64.getEncoder().encodeToString(good.toBytes()), LocalDateTime.now())));
+
+        activeUsers.init();
+
+        assertEquals(activeUsers.distinct(DAY, 1), 0);
+        assertEquals(activeUsers.distinct(DAY, 2), 1);
+        verify(statsCheckpointRepository, never()).saveAll(any());
+    }
+
+    @Test(description = "Days past the retention window are dropped at checkpoint time",
+            groups = {"unit", "service"},
+            priority = 4)
+    public void checkpoint_prunesExpiredDays() {
+        ReflectionTestUtils.setField(activeUsers, "retentionDays", 3);
+        activeUsers.record(1L);
+        at(DAY.plusDays(5));
+        activeUsers.record(2L);
+
+        activeUsers.checkpoint();
+
+        assertEquals(activeUsers.distinct(DAY.plusDays(5), 30), 1);
+        assertTrue(activeUsers.view(30).containsKey("relativeError"));
+    }
+
+    @Test(description = "Each node writes only its own row per day and reads merge the other nodes' rows",
+            groups = {"unit", "service"},
+            priority = 5)
+    public void checkpoint_mergesOtherNodesRowsOnRead() {
+        when(statsCheckpointRepository.findAllByNameStartingWith(ActiveUsers.CHECKPOINT_PREFIX))
+                .thenReturn(List.of(row(DAY + ":2", 1_001, 1_300)));
+        ReflectionTestUtils.setField(activeUsers, "nodeId", 1);
+        for (long id = 1; id <= 1_200; id++) activeUsers.record(id);
+
+        activeUsers.checkpoint();
+
+        List<StatsCheckpoint> saved = checkpointed();
+        assertEquals(saved.getFirst().getName(), ActiveUsers.CHECKPOINT_PREFIX + DAY + ":1");
+        HyperLogLog written = HyperLogLog.fromBytes(Base64.getDecoder().decode(saved.getFirst().getPayload()));
+        assertEquals(written.estimate(), 1_200, 30);
+        assertEquals(activeUsers.distinct(DAY, 1), 1_300, 30);
+    }
+
+    @Test(description = "A node without traffic still reports the other nodes' users, and expired rows are deleted",
+            groups = {"unit", "service"},
+            priority = 6)
+    @SuppressWarnings("unchecked")
+    public void init_readsOtherNodesAndDeletesExpiredRows() {
+        ReflectionTestUtils.setField(activeUsers, "retentionDays", 3);
+        ReflectionTestUtils.setField(activeUsers, "nodeId", 1);
+        when(statsCheckpointRepository.findAllByNameStartingWith(ActiveUsers.CHECKPOINT_PREFIX)).thenReturn(List.of(
+                row(DAY + ":2", 1, 300),
+                row(DAY.minusDays(1) + ":3", 201, 400),
+                row(DAY.minusDays(5) + ":2", 1, 50)));
+
+        activeUsers.init();
+
+        ActiveUsers.Summary summary = activeUsers.summary(2);
+        assertEquals(summary.dau(), 300, 10);
+        assertEquals(summary.wau(), 400, 10);
+        assertEquals(summary.daily().getFirst().users(), 200, 10);
+        ArgumentCaptor<Iterable<String>> deleted = ArgumentCaptor.forClass(Iterable.class);
+        verify(statsCheckpointRepository).deleteAllById(deleted.capture());
+        assertEquals(deleted.getValue(), List.of(ActiveUsers.CHECKPOINT_PREFIX + DAY.minusDays(5) + ":2"));
+    }
+
+    /** A stored row named {@code active-users:<suffix>} holding the users {@code from..to}. */
+    private static StatsCheckpoint row(String suffix, long from, long to) {
+        HyperLogLog sketch = new HyperLogLog();
+        for (long id = from; id <= to; id++) sketch.add(id);
+        return new StatsCheckpoint(ActiveUsers.CHECKPOINT_PREFIX + suffix,
+                Base64.getEncoder().encodeToString(sketch.toBytes()), LocalDateTime.now());
+    }
+}
@@ -0,0 +1,199 @@
+package com.simon.service;
+
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class CartServiceTest {
+
+    @Mock
+    private CartPersistence cartPersistence;
+
+    private CartService cartService;
+    private AutoCloseable mocks;
+
+    @BeforeMethod
+    public void setUp() {
+        mocks = MockitoAnnotations.openMocks(this);
+        when(cartPersistence.load(any())).thenReturn(new HashMap<>());
+        cartService = new CartService(cartPersistence);
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        mocks.close();
+    }
+
+    @Test(description = "Cart is loaded lazily once and then served from memory",
+            groups = {"unit", "service"},
+            priority = 1)
+    public void getItems_loadsOnceOnFirstAccess() {
+        when(cartPersistence.load(1L)).thenReturn(new HashMap<>(Map.of(10L, 2)));
+
+        assertEquals(cartService.getItems(1L), Map.of(10L, 2));
+        cartService.addItem(1L, 10L, 1);
+        assertEquals(cartService.getItems(1L), Map.of(10L, 3));
+        verify(cartPersistence, times(1)).load(1L);
+    }
+
+    @Test(description = "Many edits to one cart are coalesced into a single write",
+            groups = {"unit", "service"},
+            priority = 2)
+    @SuppressWarnings("unchecked")
+    public void flush_coalescesEditsPerCart() {
+        cartService.addItem(1L, 10L, 1);
+        cartService.addItem(1L, 11L, 1);
+        cartService.updateQuantity(1L, 10L, 5);
+        cartService.removeItem(1L, 11L);
+        cartService.addItem(2L, 20L, 1);
+
+        cartService.flush();
+
+        ArgumentCaptor<Map<Long, Map<Long, Integer>>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(cartPersistence, times(1)).persist(captor.capture());
+        assertEquals(captor.getValue(), Map.of(1L, Map.of(10L, 5), 2L, Map.of(20L, 1)));
+        assertEquals(cartService.dirtyCount(), 0);
+
+        cartService.flush();
+        verify(cartPersistence, times(1)).persist(anyMap());
+    }
+
+    @Test(description = "Updating or removing an absent product returns null and writes nothing",
+            groups = {"unit", "service"},
+            priority = 3)
+    public void updateQuantity_whenAbsent_returnsNull() {
+        assertNull(cartService.updateQuantity(1L, 99L, 3));
+        assertNull(cartService.removeItem(1L, 99L));
+        assertEquals(cartService.dirtyCount(), 0);
+    }
+
+    @Test(description = "Failed flush keeps carts dirty and they are not evicted",
+            groups = {"unit", "service"},
+            priority = 4)
+    public void flush_whenPersistFails_retainsDirtyCarts() {
+        cartService.addItem(1L, 10L, 1);
+        doThrow(new RuntimeException("db down")).when(cartPersistence).persist(anyMap());
+
+        cartService.flush();
+        assertEquals(cartService.dirtyCount(), 1);
+
+        cartService.evictIdle();
+        assertEquals(cartService.residentCount(), 1);
+    }
+
+    @Test(description = "Admin listing pages at the database and overlays resident carts",
+            groups = {"unit", "service"},
+            priority = 5)
+    public void snapshotPage_prefersLiveState() {
+        var pageable = PageRequest.of(0, 2);
+        when(cartPersistence.userIds(pageable)).thenReturn(new PageImpl<>(List.of(1L, 3L), pageable, 5));
+        when(cartPersistence.loadAll(List.of(1L, 3L))).thenReturn(new HashMap<>(Map.of(
+                1L, Map.of(10L, 7),
+                3L, Map.of(30L, 4))));
+        cartService.addItem(1L, 10L, 1);
+
+        var views = cartService.snapshotPage(pageable);
+        assertEquals(views.getTotalElements(), 5);
+        assertEquals(views.getContent().size(), 2);
+        assertEquals(views.getContent().get(0).getUserId(), 1L);
+        assertEquals(views.getContent().get(0).getTotalQuantity(), 1);
+        assertEquals(views.getContent().get(1).getItems().get(0).getQuantity(), 4);
+        verify(cartPersistence, never()).persist(anyMap());
+    }
+
+    @Test(description = "Concurrent adds across users lose no updates",
+            groups = {"unit", "service"},
+            priority = 6)
+    public void addItem_concurrently_isLinearizablePerUser() throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 8_000; i++) {
+            long userId = i % 16;
+            pool.execute(() -> cartService.addItem(userId, 1L, 1));
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        for (long userId = 0; userId < 16; userId++) {
+            assertEquals(cartService.getItems(userId).get(1L), Integer.valueOf(500));
+        }
+        assertEquals(cartService.dirtyCount(), 16);
+    }
+
+    @Test(description = "Removing an order's lines keeps items added after the order snapshot",
+            groups = {"unit", "service"},
+            priority = 7)
+    public void removeOrdered_keepsLaterAdditions() {
+        cartService.addItem(1L, 10L, 2);
+        cartService.addItem(1L, 11L, 1);
+        Map<Long, Integer> ordered = Map.copyOf(cartService.getItems(1L));
+        cartService.addItem(1L, 10L, 3);
+        cartService.addItem(1L, 12L, 1);
+
+        assertEquals(cartService.removeOrdered(1L, ordered), Map.of(10L, 3, 12L, 1));
+        assertNull(cartService.removeOrdered(1L, Map.of(11L, 1)));
+    }
+
+    @Test(description = "Repeated adds are clamped to the per-line quantity cap",
+            groups = {"unit", "service"},
+            priority = 8)
+    public void addItem_clampsToMaxQuantity() {
+        cartService.addItem(1L, 10L, 998);
+        assertEquals(cartService.addItem(1L, 10L, 5).get(10L), Integer.valueOf(CartService.MAX_QUANTITY));
+        assertEquals(cartService.addItem(1L, 10L, Integer.MAX_VALUE).get(10L), Integer.valueOf(CartService.MAX_QUANTITY));
+    }
+
+    @Test(description = "A slow cold-cart read does not hold up other users on the same stripe",
+            groups = {"unit", "service"},
+            priority = 9)
+    public void load_doesNotHoldStripeLock() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(cartPersistence.load(1L)).thenAnswer(inv -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return new HashMap<>(Map.of(10L, 2));
+        });
+        long neighbour = 2;
+        while (CartService.stripeIndex(neighbour) != CartService.stripeIndex(1L)) neighbour++;
+        long sameStripe = neighbour;
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<Map<Long, Integer>> slow = pool.submit(() -> cartService.getItems(1L));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            Future<Map<Long, Integer>> other = pool.submit(() -> cartService.addItem(sameStripe, 11L, 1));
+
+            assertEquals(other.get(2, TimeUnit.SECONDS), Map.of(11L, 1));
+            release.countDown();
+            assertEquals(slow.get(5, TimeUnit.SECONDS), Map.of(10L, 2));
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.simon.service;
+
+import com.simon.model.ProductRating;
+import com.simon.repository.ProductRatingRepository;
+import com.simon.repository.ProductRepository;
+import com.simon.repository.ReviewRepository;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+public class CatalogReadModelTest {
+
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private ProductRatingRepository productRatingRepository;
+    @Mock
+    private ReviewRepository reviewRepository;
+
+    private RatingAggregates ratingAggregates;
+    private CatalogReadModel model;
+    private Path snapshot;
+    private AutoCloseable mocks;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        mocks = MockitoAnnotations.openMocks(this);
+        ratingAggregates = new RatingAggregates(productRatingRepository, reviewRepository,
+                new RatingPersistence(productRatingRepository, reviewRepository));
+        model = new CatalogReadModel(productRepository, ratingAggregates);
+        snapshot = Files.createTempFile("catalog", ".snapshot");
+        Files.delete(snapshot);
+        ReflectionTestUtils.setField(model, "snapshotPath", snapshot.toString());
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(snapshot);
+        mocks.close();
+    }
+
+    private static Object[] row(long id, String name, String price, int stock) {
+        return new Object[]{id, "SKU-" + id, name, "Misc", new BigDecimal(price), stock};
+    }
+
+    @Test(description = "Without a snapshot the whole catalog is streamed from the database",
+            groups = {"unit", "service"},
+            priority = 1)
+    public void load_rebuildsWithoutSnapshot() {
+        when(productRepository.streamCatalog()).thenReturn(Stream.of(row(1, "Mug", "9.50", 3), row(2, "Pen", "1.00", 7)));
+        when(productRatingRepository.findAll()).thenReturn(List.of(new ProductRating().setProductId(1L)
+                .setRatingCount(1).setRatingSum(5).setStars5(1)));
+
+        model.load();
+
+        assertEquals(model.report().source(), CatalogReadModel.Source.REBUILD);
+        assertEquals(model.size(), 2);
+        assertEquals(model.get(2L).stock(), 7);
+        assertEquals(ratingAggregates.get(1L).average(), 5.0);
+    }
+
+    @Test(description = "A snapshot is loaded, then changes since it are replayed and deleted products dropped",
+            groups = {"unit", "service"},
+            priority = 2)
+    public void load_replaysChangesOnTopOfSnapshot() throws IOException {
+        CatalogSnapshot.write(snapshot, new CatalogSnapshot.Contents(System.currentTimeMillis(),
+                List.of(new CatalogReadModel.Item(1L, "SKU-1", "Mug", "Misc", new BigDecimal("9.50"), 3),
+                        new CatalogReadModel.Item(2L, "SKU-2", "Pen", "Misc", new BigDecimal("1.00"), 7),
+                        new CatalogReadModel.Item(3L, "SKU-3", "Gone", "Misc", new BigDecimal("2.00"), 1)),
+                Map.of(1L, new RatingAggregates.Summary(1, 4, new long[]{0, 0, 0, 1, 0}))));
+        when(productRepository.findCatalogChangedSince(any(LocalDateTime.class)))
+                .thenReturn(List.<Object[]>of(row(2, "Pen", "1.20", 6), row(4, "Ink", "3.00", 2)));
+        when(productRatingRepository.findChangedSince(any(LocalDateTime.class))).thenReturn(List.of());
+        when(productRepository.findAllIds()).thenReturn(List.of(1L, 2L, 4L));
+
+        model.load();
+
+        assertEquals(model.report().source(), CatalogReadModel.Source.SNAPSHOT);
+        assertEquals(model.report().replayed(), 2);
+        assertEquals(model.size(), 3);
+        assertEquals(model.get(2L).price(), new BigDecimal("1.20"));
+        assertEquals(model.get(4L).name(), "Ink");
+        assertNull(model.get(3L));
+        assertEquals(ratingAggregates.get(1L).average(), 4.0);
+        verify(productRepository, never()).streamCatalog();
+        verify(productRatingRepository, never()).findAll();
+    }
+
+    @Test(description = "A damaged snapshot is ignored in favour of a full rebuild",
+            groups = {"unit", "service"},
+            priority = 3)
+    public void load_fallsBackOnDamagedSnapshot() throws IOException {
+        Files.write(snapshot, new byte[]{1, 2, 3});
+        when(productRepository.streamCatalog()).thenReturn(Stream.<Object[]>of(row(1, "Mug", "9.50", 3)));
+        when(productRatingRepository.findAll()).thenReturn(List.of());
+
+        model.load();
+
+        assertEquals(model.report().source(), CatalogReadModel.Source.REBUILD);
+        assertEquals(model.size(), 1);
+    }
+
+    @Test(description = "The snapshot written on shutdown restores the same model",
+            groups = {"unit", "service"},
+            priority = 4)
+    public void writeSnapshot_roundTripsThroughLoad() {
+        when(productRepository.streamCatalog()).thenReturn(Stream.<Object[]>of(row(1, "Mug", "9.50", 3)));
+        when(productRatingRepository.findAll()).thenReturn(List.of());
+        model.load();
+        model.writeSnapshot();
+
+        CatalogReadModel restarted = new CatalogReadModel(productRepository, ratingAggregates);
+        ReflectionTestUtils.setField(restarted, "snapshotPath", snapshot.toString());
+        when(productRepository.findCatalogChangedSince(any(LocalDateTime.class))).thenReturn(List.of());
+        when(productRatingRepository.findChangedSince(any(LocalDateTime.class))).thenReturn(List.of());
+        when(productRepository.findAllIds()).thenReturn(List.of(1L));
+        restarted.load();
+
+        assertEquals(restarted.report().source(), CatalogReadModel.Source.SNAPSHOT);
+        assertEquals(restarted.get(1L), model.get(1L));
+    }
+
+    @Test(description = "Listeners hear about real changes and deletes, not rows the replay margin reads again",
+            groups = {"unit", "service"},
+            priority = 5)
+    public void refresh_notifiesListenersOfChangesOnly() {
+        when(productRepository.streamCatalog()).thenReturn(Stream.<Object[]>of(row(1, "Mug", "9.50", 3), row(2, "Pen", "1.00", 7)));
+        when(productRatingRepository.findAll()).thenReturn(List.of());
+        List<String> heard = new ArrayList<>();
+        model.addListener(new CatalogReadModel.Listener() {
+            @Override
+            public void changed(CatalogReadModel.Item before, CatalogReadModel.Item after) {
+                heard.add((before == null ? "-" : before.name()) + ">" + (after == null ? "-" : after.name()));
+            }
+
+            @Override
+            public void reloaded() {
+                heard.add("reloaded");
+            }
+        });
+        model.load();
+        when(productRepository.findCatalogChangedSince(any(LocalDateTime.class)))
+                .thenReturn(List.<Object[]>of(row(1, "Mug", "9.50", 3), row(2, "Pencil", "1.00", 7), row(3, "Ink", "3.00", 2)));
+        when(productRepository.count()).thenReturn(2L);
+        when(productRepository.findAllIds()).thenReturn(List.of(2L, 3L));
+
+        model.refresh();
+
+        assertEquals(heard, List.of("reloaded", "Pen>Pencil", "->Ink", "Mug>-"));
+    }
+}
@@ -0,0 +1,117 @@
+package com.simon.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Catalog read model startup: a full rebuild that reads every product and rating row from an
+ * in-memory H2 database, against mapping the snapshot file and replaying the 1% of products changed
+ * since. H2 in memory is far faster than a real database over the network, so the rebuild figures
+ * are a lower bound. Excluded from the default build; run with {@code mvn test -Pbenchmark}.
+ */
+public class CatalogSnapshotBenchmark {
+    private static final int ROUNDS = 5;
+    private static final String SELECT = "select id, sku, name, category, price, stock from products";
+
+    @Test(description = "Startup time of a snapshot load plus replay versus a full rebuild",
+            groups = {"benchmark"})
+    public void snapshotLoadVersusRebuild() throws Exception {
+        for (int products : new int[]{50_000, 250_000}) {
+            SingleConnectionDataSource ds = new SingleConnectionDataSource(
+                    "jdbc:h2:mem:catalog-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "", true);
+            Path file = Files.createTempFile("catalog-bench", ".snapshot");
+            try {
+                JdbcTemplate jdbc = new JdbcTemplate(ds);
+                long takenAt = seed(jdbc, products);
+                CatalogSnapshot.write(file, new CatalogSnapshot.Contents(takenAt, rebuildItems(jdbc), rebuildRatings(jdbc)));
+                // what changed after the snapshot was taken
+                jdbc.update("update products set price = price + 1, updated_at = ? where mod(id, 100) = 0",
+                        new Timestamp(takenAt + 1000));
+
+                long rebuild = Long.MAX_VALUE;
+                long snapshot = Long.MAX_VALUE;
+                for (int round = 0; round < ROUNDS; round++) {
+                    long t0 = System.nanoTime();
+                    Map<Long, CatalogReadModel.Item> rebuilt = new HashMap<>();
+                    for (var item : rebuildItems(jdbc)) rebuilt.put(item.id(), item);
+                    Map<Long, RatingAggregates.Summary> ratings = rebuildRatings(jdbc);
+                    rebuild = Math.min(rebuild, System.nanoTime() - t0);
+
+                    t0 = System.nanoTime();
+                    CatalogSnapshot.Contents contents = CatalogSnapshot.read(file);
+                    Map<Long, CatalogReadModel.Item> loaded = HashMap.newHashMap(contents.items().size());
+                    for (var item : contents.items()) loaded.put(item.id(), item);
+                    jdbc.query(SELECT + " where updated_at >= ?", rs -> {
+                        var item = CatalogReadModel.Item.of(new Object[]{rs.getLong(1), rs.getString(2),
+                                rs.getString(3), rs.getString(4), rs.getBigDecimal(5), rs.getInt(6)});
+                        loaded.put(item.id(), item);
+                    }, new Timestamp(takenAt));
+                    snapshot = Math.min(snapshot, System.nanoTime() - t0);
+
+                    assertEquals(loaded, rebuilt);
+                    assertEquals(contents.ratings().size(), ratings.size());
+                }
+                System.out.printf("catalog.startup products=%,d snapshot=%,d bytes rebuild=%d ms snapshot+replay=%d ms%n",
+                        products, Files.size(file), rebuild / 1_000_000, snapshot / 1_000_000);
+            } finally {
+                Files.deleteIfExists(file);
+                ds.destroy();
+            }
+        }
+    }
+
+    private static long seed(JdbcTemplate jdbc, int products) {
+        jdbc.execute("create table products (id bigint primary key, sku varchar(64), name varchar(200), "
+                + "category varchar(100), price decimal(12, 2), stock int, updated_at timestamp)");
+        jdbc.execute("create index idx_products_updated on products (updated_at)");
+        jdbc.execute("create table product_ratings (product_id bigint primary key, rating_count bigint, "
+                + "rating_sum bigint, stars1 bigint, stars2 bigint, stars3 bigint, stars4 bigint, stars5 bigint)");
+        long takenAt = System.currentTimeMillis();
+        Timestamp before = new Timestamp(takenAt - 60_000);
+        List<Integer> ids = IntStream.rangeClosed(1, products).boxed().toList();
+        jdbc.batchUpdate("insert into products values (?, ?, ?, ?, ?, ?, ?)", ids, 1000, (ps, id) -> {
+            ps.setLong(1, id);
+            ps.setString(2, "SKU-" + id);
+            ps.setString(3, "Product number " + id);
+            ps.setString(4, "Category " + id % 50);
+            ps.setBigDecimal(5, BigDecimal.valueOf(id % 10_000, 2));
+            ps.setInt(6, id % 100);
+            ps.setTimestamp(7, before);
+        });
+        jdbc.batchUpdate("insert into product_ratings values (?, 4, 14, 0, 1, 0, 1, 2)",
+                ids.subList(0, products / 2), 1000, (ps, id) -> ps.setLong(1, id));
+        return takenAt;
+    }
+
+    private static List<CatalogReadModel.Item> rebuildItems(JdbcTemplate jdbc) {
+        List<CatalogReadModel.Item> items = new ArrayList<>();
+        jdbc.query(SELECT, rs -> {
+            items.add(CatalogReadModel.Item.of(new Object[]{rs.getLong(1), rs.getString(2), rs.getString(3),
+                    rs.getString(4), rs.getBigDecimal(5), rs.getInt(6)}));
+        });
+        return items;
+    }
+
+    private static Map<Long, RatingAggregates.Summary> rebuildRatings(JdbcTemplate jdbc) {
+        Map<Long, RatingAggregates.Summary> ratings = new HashMap<>();
+        jdbc.query("select * from product_ratings", rs -> {
+            ratings.put(rs.getLong(1), new RatingAggregates.Summary(rs.getLong(2), rs.getLong(3), new long[]{
+                    rs.getLong(4), rs.getLong(5), rs.getLong(6), rs.getLong(7), rs.getLong(8)}));
+        });
+        return ratings;
+    }
+}
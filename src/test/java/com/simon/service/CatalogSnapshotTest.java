@@ -0,0 +1,95 @@
+package com.simon.service;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.expectThrows;
+
+public class CatalogSnapshotTest {
+
+    private Path dir;
+    private Path file;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("catalog-snapshot");
+        file = dir.resolve("catalog.snapshot");
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path p : paths.sorted(Comparator.reverseOrder()).toList()) Files.deleteIfExists(p);
+        }
+    }
+
+    private static CatalogSnapshot.Contents sample() {
+        return new CatalogSnapshot.Contents(1_760_000_000_000L,
+                List.of(new CatalogReadModel.Item(1L, "MUG-1", "Mug", "Kitchen", new BigDecimal("9.50"), 3),
+                        new CatalogReadModel.Item(2L, null, "Thé vert 緑茶", null, new BigDecimal("0.00"), 0)),
+                Map.of(1L, new RatingAggregates.Summary(3, 11, new long[]{0, 0, 1, 2, 0})));
+    }
+
+    @Test(description = "A written snapshot reads back with the same products, aggregates and timestamp",
+            groups = {"unit", "service"},
+            priority = 1)
+    public void writeThenRead_roundTrips() throws IOException {
+        CatalogSnapshot.write(file, sample());
+
+        CatalogSnapshot.Contents read = CatalogSnapshot.read(file);
+
+        assertEquals(read.takenAtMillis(), 1_760_000_000_000L);
+        assertEquals(read.items(), sample().items());
+        RatingAggregates.Summary s = read.ratings().get(1L);
+        assertEquals(s.count(), 3);
+        assertEquals(s.sum(), 11);
+        assertEquals(s.histogram(), new long[]{0, 0, 1, 2, 0});
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(files.count(), 1, "no temp file left behind");
+        }
+    }
+
+    @Test(description = "A flipped body byte, a truncated file or another version is rejected",
+            groups = {"unit", "service"},
+            priority = 2)
+    public void read_rejectsDamagedFiles() throws IOException {
+        CatalogSnapshot.write(file, sample());
+        long size = Files.size(file);
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer b = ByteBuffer.allocate(1);
+            ch.read(b, size - 3);
+            b.put(0, (byte) (b.get(0) ^ 0x55));
+            ch.write(b.rewind(), size - 3);
+        }
+        IOException checksum = expectThrows(IOException.class, () -> CatalogSnapshot.read(file));
+        assertTrue(checksum.getMessage().contains("checksum"));
+
+        CatalogSnapshot.write(file, sample());
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ch.truncate(size - 8);
+        }
+        expectThrows(IOException.class, () -> CatalogSnapshot.read(file));
+
+        CatalogSnapshot.write(file, sample());
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ch.write(ByteBuffer.allocate(4).putInt(0, CatalogSnapshot.VERSION + 1), 4);
+        }
+        IOException version = expectThrows(IOException.class, () -> CatalogSnapshot.read(file));
+        assertTrue(version.getMessage().contains("version"));
+    }
+}
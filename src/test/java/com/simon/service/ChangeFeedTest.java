@@ -0,0 +1,160 @@
+package com.simon.service;
+
+import com.simon.model.OrderStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class ChangeFeedTest {
+
+    private ChangeFeed feed;
+
+    private record Sent(String event, Object data) {
+    }
+
+    /** Records what a subscription writes; {@code gate} holds every send until it is opened. */
+    private static class RecordingSink implements ChangeFeed.Sink {
+        final BlockingQueue<Sent> sent = new LinkedBlockingQueue<>();
+        final CountDownLatch gate;
+        final CountDownLatch blocked = new CountDownLatch(1);
+        volatile boolean closed;
+
+        RecordingSink(CountDownLatch gate) {
+            this.gate = gate;
+        }
+
+        @Override
+        public void send(String event, Object data) {
+            blocked.countDown();
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            sent.add(new Sent(event, data));
+        }
+
+        @Override
+        public void heartbeat() {
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        Sent next() throws InterruptedException {
+            return sent.poll(2, TimeUnit.SECONDS);
+        }
+    }
+
+    @BeforeMethod
+    public void setUp() {
+        feed = new ChangeFeed();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        feed.shutdown();
+    }
+
+    @Test(description = "Rapid changes to one key reach a subscriber as the latest value only",
+            groups = {"unit", "service"},
+            priority = 1)
+    public void flush_coalescesPerKey() throws Exception {
+        RecordingSink sink = new RecordingSink(new CountDownLatch(0));
+        assertNotNull(feed.subscribe(List.of(ChangeFeed.productChannel(1L)), sink));
+
+        feed.stock(1L, 5);
+        feed.stock(1L, 4);
+        feed.price(1L, new BigDecimal("9.99"));
+        feed.stock(1L, 3);
+        feed.stock(2L, 7);
+        feed.flush();
+
+        List<Sent> received = new ArrayList<>();
+        received.add(sink.next());
+        received.add(sink.next());
+        assertTrue(received.contains(new Sent(ChangeFeed.STOCK, new ChangeFeed.StockLevel(1L, 3))));
+        assertTrue(received.contains(new Sent(ChangeFeed.PRICE, new ChangeFeed.Price(1L, new BigDecimal("9.99")))));
+        assertNull(sink.sent.poll(100, TimeUnit.MILLISECONDS));
+        // product 2 has no subscriber, so its change was never recorded
+        assertEquals(feed.stats().published(), 4);
+    }
+
+    @Test(description = "A subscriber too far behind loses its buffer and gets one resync event",
+            groups = {"unit", "service"},
+            priority = 2)
+    public void offer_overflowTurnsIntoResync() throws Exception {
+        ReflectionTestUtils.setField(feed, "bufferSize", 2);
+        CountDownLatch gate = new CountDownLatch(1);
+        RecordingSink slow = new RecordingSink(gate);
+        feed.subscribe(List.of(ChangeFeed.orderChannel(1L), ChangeFeed.orderChannel(2L),
+                ChangeFeed.orderChannel(3L), ChangeFeed.orderChannel(4L)), slow);
+
+        feed.orderStatus(1L, OrderStatus.PAID);
+        feed.flush();
+        // the writer is now stuck sending the first event
+        assertTrue(slow.blocked.await(2, TimeUnit.SECONDS));
+        feed.orderStatus(2L, OrderStatus.PAID);
+        feed.orderStatus(3L, OrderStatus.PAID);
+        feed.flush();
+        feed.orderStatus(4L, OrderStatus.SHIPPED);
+        feed.flush();
+        gate.countDown();
+
+        assertEquals(slow.next().event(), ChangeFeed.ORDER_STATUS);
+        assertEquals(slow.next().event(), ChangeFeed.RESYNC);
+        assertEquals(slow.next(), new Sent(ChangeFeed.ORDER_STATUS, new ChangeFeed.OrderState(4L, OrderStatus.SHIPPED)));
+        assertEquals(feed.stats().resyncs(), 1);
+    }
+
+    @Test(description = "Closing a subscription releases its channels and connection slot",
+            groups = {"unit", "service"},
+            priority = 3)
+    public void close_unsubscribes() {
+        ReflectionTestUtils.setField(feed, "maxConnections", 1);
+        RecordingSink sink = new RecordingSink(new CountDownLatch(0));
+        ChangeFeed.Subscription s = feed.subscribe(List.of(ChangeFeed.productChannel(1L)), sink);
+        assertNull(feed.subscribe(List.of(ChangeFeed.productChannel(2L)), new RecordingSink(new CountDownLatch(0))));
+
+        s.close();
+        s.close();
+
+        assertTrue(sink.closed);
+        assertEquals(feed.stats().connections(), 0);
+        assertEquals(feed.stats().channels(), 0);
+        feed.stock(1L, 1);
+        assertEquals(feed.stats().published(), 0);
+    }
+
+    @Test(description = "A live stock change is read when fanned out, so the last event is the current figure",
+            groups = {"unit", "service"},
+            priority = 4)
+    public void flush_readsLiveStockCounter() throws Exception {
+        RecordingSink sink = new RecordingSink(new CountDownLatch(0));
+        feed.subscribe(List.of(ChangeFeed.productChannel(1L)), sink);
+        AtomicInteger counter = new AtomicInteger(10);
+
+        feed.stock(1L, counter::get);
+        counter.addAndGet(-3);
+        feed.flush();
+
+        assertEquals(sink.next(), new Sent(ChangeFeed.STOCK, new ChangeFeed.StockLevel(1L, 7)));
+    }
+}
@@ -0,0 +1,63 @@
+package com.simon.service;
+
+import org.testng.annotations.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Autocomplete over a synthetic catalog: index build time and size, then the latency and heap
+ * allocation of one lookup per keystroke of typed product names. Excluded from the default build;
+ * run with {@code mvn test -Pbenchmark}.
+ */
+public class CompletionIndexBenchmark {
+    private static final String[] WORDS = {"red", "blue", "black", "trail", "road", "running", "shoes", "socks",
+            "jacket", "rain", "wool", "cotton", "mug", "ceramic", "travel", "kettle", "steel", "lamp", "desk", "led",
+            "cable", "usb", "charger", "phone", "case", "leather", "wallet", "bag", "canvas", "tote", "kids", "pro"};
+    private static final int LOOKUPS = 2_000_000;
+
+    @Test(description = "Build time, index size and per-keystroke lookup cost",
+            groups = {"benchmark"})
+    public void keystrokeLookups() {
+        for (int products : new int[]{50_000, 250_000}) {
+            SplittableRandom random = new SplittableRandom(products);
+            List<CompletionIndex.Entry> entries = new ArrayList<>(products);
+            for (int id = 1; id <= products; id++) {
+                StringBuilder name = new StringBuilder();
+                int words = 2 + random.nextInt(4);
+                for (int w = 0; w < words; w++) name.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+                name.append(id);
+                entries.add(new CompletionIndex.Entry(name.toString(), (long) id, random.nextInt(1000)));
+            }
+
+            long t0 = System.nanoTime();
+            CompletionIndex index = CompletionIndex.build(entries, 10);
+            long buildMillis = (System.nanoTime() - t0) / 1_000_000;
+
+            // every prefix of 200 names, as someone typing them would send
+            List<String> prefixes = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                String name = entries.get(random.nextInt(products)).text();
+                for (int len = 1; len <= Math.min(name.length(), 20); len++) prefixes.add(name.substring(0, len));
+            }
+            long sink = 0;
+            for (int i = 0; i < LOOKUPS; i++) sink += index.complete(prefixes.get(i % prefixes.size()), 8).size();
+
+            var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            long thread = Thread.currentThread().threadId();
+            long allocated = threads.getThreadAllocatedBytes(thread);
+            t0 = System.nanoTime();
+            for (int i = 0; i < LOOKUPS; i++) sink += index.complete(prefixes.get(i % prefixes.size()), 8).size();
+            long nanos = System.nanoTime() - t0;
+            allocated = threads.getThreadAllocatedBytes(thread) - allocated;
+
+            assertTrue(sink > 0);
+            System.out.printf("autocomplete products=%,d keys=%,d nodes=%,d build=%d ms lookup=%d ns alloc=%d bytes/lookup%n",
+                    products, index.keys(), index.nodes(), buildMillis, nanos / LOOKUPS, allocated / LOOKUPS);
+        }
+    }
+}
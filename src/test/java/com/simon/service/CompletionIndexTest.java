@@ -0,0 +1,104 @@
+package com.simon.service;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class CompletionIndexTest {
+
+    private static CompletionIndex.Entry product(long id, String name, long score) {
+        return new CompletionIndex.Entry(name, id, score);
+    }
+
+    private static List<String> texts(List<CompletionIndex.Suggestion> suggestions) {
+        return suggestions.stream().map(CompletionIndex.Suggestion::text).toList();
+    }
+
+    private final CompletionIndex index = CompletionIndex.build(List.of(
+            product(1, "Trail Running Shoes", 50),
+            product(2, "Road Running Shoes", 80),
+            product(3, "Running Socks", 10),
+            product(4, "Rain Jacket", 30),
+            product(5, "Red   Mug", 5),
+            new CompletionIndex.Entry("running shoes sale", null, 60)), 3);
+
+    @Test(description = "Completions come best first and are capped at the index's top-k",
+            groups = {"unit", "service"},
+            priority = 1)
+    public void complete_ranksByScore() {
+        assertEquals(texts(index.complete("r", 10)), List.of("Road Running Shoes", "running shoes sale", "Trail Running Shoes"));
+        assertEquals(texts(index.complete("ru", 2)), List.of("Road Running Shoes", "running shoes sale"));
+        assertEquals(index.complete("ra", 5).getFirst(), new CompletionIndex.Suggestion("Rain Jacket", 4L));
+    }
+
+    @Test(description = "A prefix matches the start of any word, and each product is offered once",
+            groups = {"unit", "service"},
+            priority = 2)
+    public void complete_matchesLaterWordsOnce() {
+        assertEquals(texts(index.complete("shoes", 5)), List.of("Road Running Shoes", "running shoes sale",
+                "Trail Running Shoes"));
+        assertEquals(texts(index.complete("jack", 5)), List.of("Rain Jacket"));
+        assertEquals(texts(index.complete("running s", 5)), List.of("Road Running Shoes", "running shoes sale",
+                "Trail Running Shoes"));
+        assertEquals(texts(index.complete("soc", 5)), List.of("Running Socks"));
+    }
+
+    @Test(description = "Case and runs of whitespace do not matter, in the prefix or in the text",
+            groups = {"unit", "service"},
+            priority = 3)
+    public void complete_normalizesInput() {
+        assertEquals(texts(index.complete("  RED mug", 5)), List.of("Red   Mug"));
+        assertEquals(texts(index.complete("red\t m", 5)), List.of("Red   Mug"));
+        assertEquals(index.complete("rund", 5), List.of());
+        assertEquals(index.complete("r", 0), List.of());
+    }
+
+    @Test(description = "An empty prefix offers the best entries overall; an empty index offers nothing",
+            groups = {"unit", "service"},
+            priority = 4)
+    public void complete_emptyPrefixAndEmptyIndex() {
+        assertEquals(texts(index.complete("", 3)), List.of("Road Running Shoes", "running shoes sale", "Trail Running Shoes"));
+        assertEquals(CompletionIndex.EMPTY.complete("a", 5), List.of());
+        assertEquals(CompletionIndex.EMPTY.complete("", 5), List.of());
+    }
+
+    @Test(description = "Prefixes longer than the indexed key length still find the text",
+            groups = {"unit", "service"},
+            priority = 5)
+    public void complete_longTextsAreCut() {
+        String name = "Extra long product name that goes on and on well past the key limit";
+        CompletionIndex longIndex = CompletionIndex.build(List.of(product(1, name, 1)), 5);
+
+        assertEquals(texts(longIndex.complete(name, 5)), List.of(name));
+        assertEquals(texts(longIndex.complete("goes on and on", 5)), List.of(name));
+        assertTrue(CompletionIndex.keys(name).stream().allMatch(k -> k.length() <= CompletionIndex.MAX_KEY_CHARS));
+        assertEquals(CompletionIndex.keys(name).size(), CompletionIndex.MAX_WORDS);
+    }
+
+    @Test(description = "Every node's top-k matches a brute-force scan over all entries",
+            groups = {"unit", "service"},
+            priority = 6)
+    public void complete_matchesBruteForce() {
+        String[] words = {"alpha", "alps", "beta", "bet", "gamma", "gam", "delta", "al"};
+        List<CompletionIndex.Entry> entries = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            String name = words[i % words.length] + " " + words[(i * 7 + 3) % words.length] + " " + i;
+            entries.add(product(i, name, (i * 31L) % 97));
+        }
+        CompletionIndex built = CompletionIndex.build(entries, 5);
+
+        for (String prefix : List.of("a", "al", "alp", "be", "bet ", "gam", "delta g", "1", "29", "x")) {
+            List<String> expected = entries.stream()
+                    .filter(e -> CompletionIndex.keys(e.text()).stream().anyMatch(k -> k.startsWith(prefix)))
+                    .sorted((a, b) -> a.score() != b.score() ? Long.compare(b.score(), a.score()) : a.text().compareTo(b.text()))
+                    .limit(5)
+                    .map(CompletionIndex.Entry::text)
+                    .toList();
+            assertEquals(texts(built.complete(prefix, 5)), expected, prefix);
+        }
+    }
+}
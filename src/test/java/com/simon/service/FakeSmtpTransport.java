@@ -0,0 +1,34 @@
+package com.simon.service;
+
+import com.simon.model.OutboxMessage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * In-memory stand-in for an SMTP server: records what was sent and can be told to reject
+ * particular recipients.
+ */
+public class FakeSmtpTransport implements MailTransport {
+    private final List<OutboxMessage> sent = Collections.synchronizedList(new ArrayList<>());
+    private final Set<String> rejecting = Collections.synchronizedSet(new HashSet<>());
+
+    public void reject(String recipient) {
+        rejecting.add(recipient);
+    }
+
+    public List<OutboxMessage> sent() {
+        return List.copyOf(sent);
+    }
+
+    @Override
+    public void send(OutboxMessage message) {
+        if (rejecting.contains(message.getRecipient())) {
+            throw new IllegalStateException("550 mailbox unavailable: " + message.getRecipient());
+        }
+        sent.add(message);
+    }
+}
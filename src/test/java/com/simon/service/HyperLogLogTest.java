@@ -0,0 +1,93 @@
+package com.simon.service;
+
+import org.testng.annotations.Test;
+
+import java.util.stream.LongStream;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertThrows;
+import static org.testng.Assert.assertTrue;
+
+public class HyperLogLogTest {
+
+    private static void assertWithin(long estimate, long actual, double tolerance) {
+        double error = Math.abs(estimate - actual) / (double) actual;
+        assertTrue(error <= tolerance, "estimate " + estimate + " for " + actual + " is off by " + error);
+    }
+
+    @Test(description = "Estimates stay within a few standard errors from tens to millions of users",
+            groups = {"unit", "service"},
+            priority = 1)
+    public void estimate_isAccurateAcrossCardinalities() {
+        for (long n : new long[]{10, 1_000, 50_000, 1_000_000}) {
+            HyperLogLog sketch = new HyperLogLog();
+            for (long id = 1; id <= n; id++) sketch.add(id);
+            // 3 standard errors of 0.8%
+            assertWithin(sketch.estimate(), n, 0.025);
+        }
+    }
+
+    @Test(description = "Adding the same users again does not change the estimate",
+            groups = {"unit", "service"},
+            priority = 2)
+    public void add_isIdempotent() {
+        HyperLogLog sketch = new HyperLogLog();
+        LongStream.rangeClosed(1, 20_000).forEach(sketch::add);
+        long once = sketch.estimate();
+        LongStream.rangeClosed(1, 20_000).forEach(sketch::add);
+
+        assertEquals(sketch.estimate(), once);
+    }
+
+    @Test(description = "Merging overlapping sketches estimates the union, not the sum",
+            groups = {"unit", "service"},
+            priority = 3)
+    public void merge_estimatesUnion() {
+        HyperLogLog monday = new HyperLogLog();
+        HyperLogLog tuesday = new HyperLogLog();
+        LongStream.rangeClosed(1, 60_000).forEach(monday::add);
+        LongStream.rangeClosed(40_001, 100_000).forEach(tuesday::add);
+
+        HyperLogLog week = new HyperLogLog();
+        week.merge(monday);
+        week.merge(tuesday);
+
+        assertWithin(week.estimate(), 100_000, 0.025);
+        for (int i = 0; i < HyperLogLog.REGISTERS; i++) {
+            assertEquals(week.register(i), Math.max(monday.register(i), tuesday.register(i)));
+        }
+    }
+
+    @Test(description = "Concurrent adds lose no register updates",
+            groups = {"unit", "service"},
+            priority = 4)
+    public void add_concurrentlyMatchesSequential() throws Exception {
+        HyperLogLog concurrent = new HyperLogLog();
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            long from = t * 25_000L;
+            threads[t] = Thread.ofPlatform().start(() -> {
+                for (long id = from; id < from + 25_000; id++) concurrent.add(id);
+            });
+        }
+        for (Thread thread : threads) thread.join();
+        HyperLogLog sequential = new HyperLogLog();
+        LongStream.range(0, 200_000).forEach(sequential::add);
+
+        for (int i = 0; i < HyperLogLog.REGISTERS; i++) assertEquals(concurrent.register(i), sequential.register(i));
+    }
+
+    @Test(description = "Sketches survive a round trip through bytes and reject foreign input",
+            groups = {"unit", "service"},
+            priority = 5)
+    public void toBytes_roundTrips() {
+        HyperLogLog sketch = new HyperLogLog();
+        LongStream.rangeClosed(1, 5_000).forEach(sketch::add);
+
+        HyperLogLog restored = HyperLogLog.fromBytes(sketch.toBytes());
+
+        assertEquals(restored.estimate(), sketch.estimate());
+        assertTrue(new HyperLogLog().isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[10]));
+    }
+}
@@ -0,0 +1,67 @@
+package com.simon.service;
+
+import org.testng.annotations.Test;
+
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Reservations per second on a single hot SKU. Excluded from the default build;
+ * run with {@code mvn test -Pbenchmark}.
+ */
+public class InventoryServiceBenchmark {
+    private static final long WARMUP_MILLIS = 2_000;
+    private static final long MEASURE_MILLIS = 5_000;
+
+    @Test(description = "Reserve+commit throughput on one product across thread counts",
+            groups = {"benchmark"})
+    public void hotSku_reservationsPerSecond() throws InterruptedException {
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int threads : new int[]{1, 2, 4, cores, cores * 2}) {
+            InventoryPersistence persistence = mock(InventoryPersistence.class);
+            when(persistence.loadStock(1L)).thenReturn(Optional.of(Integer.MAX_VALUE));
+            InventoryService service = new InventoryService(persistence, new ChangeFeed());
+
+            run(service, threads, WARMUP_MILLIS);
+            double perSecond = run(service, threads, MEASURE_MILLIS) * 1000.0 / MEASURE_MILLIS;
+            System.out.printf("inventory.reserve threads=%d reservations/sec=%,.0f%n", threads, perSecond);
+            assertTrue(perSecond > 0);
+        }
+    }
+
+    private long run(InventoryService service, int threads, long millis) throws InterruptedException {
+        LongAdder ops = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis) + TimeUnit.MILLISECONDS.toNanos(50);
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                    long n = 0;
+                    while (System.nanoTime() < deadline) {
+                        var r = service.reserve(1L, 1);
+                        service.commit(r.id());
+                        n++;
+                    }
+                    ops.add(n);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+            worker.start();
+        }
+        Thread.sleep(50);
+        start.countDown();
+        done.await();
+        return ops.sum();
+    }
+}
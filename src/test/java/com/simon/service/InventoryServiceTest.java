@@ -0,0 +1,173 @@
+package com.simon.service;
+
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class InventoryServiceTest {
+
+    @Mock
+    private InventoryPersistence inventoryPersistence;
+
+    private InventoryService inventoryService;
+    private AutoCloseable mocks;
+
+    @BeforeMethod
+    public void setUp() {
+        mocks = MockitoAnnotations.openMocks(this);
+        when(inventoryPersistence.loadStock(1L)).thenReturn(Optional.of(10));
+        when(inventoryPersistence.loadStock(99L)).thenReturn(Optional.empty());
+        inventoryService = new InventoryService(inventoryPersistence, new ChangeFeed());
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        mocks.close();
+    }
+
+    @Test(description = "Reserve decrements available stock and refuses to go below zero",
+            groups = {"unit", "service"},
+            priority = 1)
+    public void reserve_refusesWhenInsufficient() {
+        assertNotNull(inventoryService.reserve(1L, 7));
+        assertNull(inventoryService.reserve(1L, 4));
+        assertNotNull(inventoryService.reserve(1L, 3));
+        assertEquals(inventoryService.available(1L), 0);
+        assertNull(inventoryService.reserve(99L, 1));
+        verify(inventoryPersistence, times(1)).loadStock(1L);
+    }
+
+    @Test(description = "Release returns stock once; commit is reconciled as a single net delta",
+            groups = {"unit", "service"},
+            priority = 2)
+    @SuppressWarnings("unchecked")
+    public void releaseAndCommit_reconcileNetDelta() {
+        var a = inventoryService.reserve(1L, 2);
+        var b = inventoryService.reserve(1L, 3);
+        var c = inventoryService.reserve(1L, 1);
+
+        assertTrue(inventoryService.release(a.id()));
+        assertFalse(inventoryService.release(a.id()));
+        assertTrue(inventoryService.commit(b.id()));
+        assertTrue(inventoryService.commit(c.id()));
+        assertFalse(inventoryService.release(b.id()));
+        assertEquals(inventoryService.available(1L), 6);
+
+        inventoryService.reconcile();
+        ArgumentCaptor<Map<Long, Integer>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(inventoryPersistence, times(1)).applyDeltas(captor.capture());
+        assertEquals(captor.getValue(), Map.of(1L, -4));
+
+        inventoryService.reconcile();
+        verify(inventoryPersistence, times(1)).applyDeltas(anyMap());
+    }
+
+    @Test(description = "Expired reservations are released by the sweep",
+            groups = {"unit", "service"},
+            priority = 3)
+    public void releaseExpired_returnsStock() throws InterruptedException {
+        inventoryService.reserve(1L, 4, 1);
+        inventoryService.reserve(1L, 1, 60_000);
+        Thread.sleep(5);
+
+        inventoryService.releaseExpired();
+        assertEquals(inventoryService.available(1L), 9);
+        assertEquals(inventoryService.activeReservations(), 1);
+    }
+
+    @Test(description = "Failed reconciliation keeps the deltas for the next run",
+            groups = {"unit", "service"},
+            priority = 4)
+    public void reconcile_whenPersistFails_retainsDeltas() {
+        inventoryService.commit(inventoryService.reserve(1L, 2).id());
+        doThrow(new RuntimeException("db down")).when(inventoryPersistence).applyDeltas(anyMap());
+        inventoryService.reconcile();
+
+        doNothing().when(inventoryPersistence).applyDeltas(anyMap());
+        inventoryService.commit(inventoryService.reserve(1L, 1).id());
+        inventoryService.reconcile();
+        verify(inventoryPersistence, times(1)).applyDeltas(Map.of(1L, -3));
+    }
+
+    @Test(description = "Hammering one SKU from many threads never oversells",
+            groups = {"unit", "service", "stress"},
+            priority = 5)
+    public void reserve_concurrently_neverOversells() throws InterruptedException {
+        final int stock = 5_000;
+        when(inventoryPersistence.loadStock(7L)).thenReturn(Optional.of(stock));
+        int threads = Math.max(8, Runtime.getRuntime().availableProcessors() * 2);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger negativeSeen = new AtomicInteger();
+        ConcurrentLinkedQueue<Long> toRelease = new ConcurrentLinkedQueue<>();
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                for (int i = 0; i < 5_000; i++) {
+                    int qty = 1 + rnd.nextInt(3);
+                    var r = inventoryService.reserve(7L, qty);
+                    if (inventoryService.available(7L) < 0) negativeSeen.incrementAndGet();
+                    if (r == null) continue;
+                    if (rnd.nextInt(4) == 0) {
+                        toRelease.add(r.id());
+                    } else if (inventoryService.commit(r.id())) {
+                        sold.addAndGet(qty);
+                    }
+                    Long id = toRelease.poll();
+                    if (id != null) inventoryService.release(id);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (var f : futures) {
+            try {
+                f.get(60, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                throw new AssertionError(e);
+            }
+        }
+        pool.shutdown();
+        for (Long id : toRelease) inventoryService.release(id);
+
+        assertEquals(negativeSeen.get(), 0);
+        assertTrue(sold.get() <= stock);
+        assertEquals(inventoryService.available(7L) + sold.get(), stock);
+        assertEquals(inventoryService.activeReservations(), 0);
+
+        inventoryService.reconcile();
+        verify(inventoryPersistence).applyDeltas(Map.of(7L, -sold.get()));
+    }
+}
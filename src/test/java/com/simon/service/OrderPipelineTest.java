@@ -0,0 +1,195 @@
+package com.simon.service;
+
+import com.simon.model.OrderStatus;
+import com.simon.model.PaymentMethod;
+import com.simon.model.Product;
+import com.simon.repository.ProductRepository;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class OrderPipelineTest {
+
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private InventoryService inventoryService;
+    @Mock
+    private OrderPersistence orderPersistence;
+    @Mock
+    private CartService cartService;
+    @Mock
+    private PaymentInitiator paymentInitiator;
+
+    private OrderPipeline pipeline;
+    private AutoCloseable mocks;
+
+    @BeforeMethod
+    public void setUp() {
+        mocks = MockitoAnnotations.openMocks(this);
+        when(productRepository.findAllById(any())).thenReturn(List.of(
+                new Product().setId(1L).setName("Tea").setPrice(new BigDecimal("3.50")),
+                new Product().setId(2L).setName("Cup").setPrice(new BigDecimal("10.00"))));
+        when(inventoryService.reserve(any(), anyInt()))
+                .thenAnswer(inv -> new InventoryService.Reservation(inv.getArgument(0, Long.class), inv.getArgument(0), inv.getArgument(1), 0));
+        when(orderPersistence.persistPlaced(anyList())).thenAnswer(inv -> {
+            List<OrderPipeline.Placement> placements = inv.getArgument(0);
+            return placements.stream().map(OrderPipeline.Placement::getOrderId).collect(Collectors.toSet());
+        });
+        pipeline = new OrderPipeline(productRepository, inventoryService, orderPersistence, cartService,
+                paymentInitiator);
+        pipeline.start();
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        pipeline.stop();
+        mocks.close();
+    }
+
+    private OrderPipeline.Placement placement(Map<Long, Integer> items) {
+        return new OrderPipeline.Placement()
+                .setOrderId(100L)
+                .setUserId(7L)
+                .setPaymentMethod(PaymentMethod.ALIPAY)
+                .setItems(items);
+    }
+
+    @Test(description = "A placement flows through all stages with priced lines and committed stock",
+            groups = {"unit", "service"},
+            priority = 1)
+    public void submit_runsAllStages() {
+        assertTrue(pipeline.submit(placement(Map.of(1L, 2, 2L, 1))));
+
+        ArgumentCaptor<OrderPipeline.Placement> captor = ArgumentCaptor.forClass(OrderPipeline.Placement.class);
+        verify(paymentInitiator, timeout(5_000)).initiate(captor.capture());
+        verify(orderPersistence).persistPlaced(anyList());
+        verify(inventoryService).commit(1L);
+        verify(inventoryService).commit(2L);
+        verify(cartService).removeOrdered(7L, Map.of(1L, 2, 2L, 1));
+
+        OrderPipeline.Placement placed = captor.getValue();
+        assertEquals(placed.getTotal(), new BigDecimal("17.00"));
+        assertEquals(placed.getLines().size(), 2);
+        assertEquals(pipeline.stats().keySet(),
+                Set.of("order-pricing", "order-reservation", "order-persistence", "order-side-effects"));
+    }
+
+    @Test(description = "Insufficient stock releases held reservations and fails the order",
+            groups = {"unit", "service"},
+            priority = 2)
+    public void reserve_whenOutOfStock_failsOrder() {
+        when(inventoryService.reserve(eq(2L), anyInt())).thenReturn(null);
+
+        pipeline.submit(placement(Map.of(1L, 1, 2L, 1)));
+
+        verify(orderPersistence, timeout(5_000)).transition(100L, OrderStatus.PROCESSING, OrderStatus.FAILED);
+        verify(orderPersistence, never()).persistPlaced(anyList());
+        verify(inventoryService, never()).commit(anyLong());
+    }
+
+    @Test(description = "A failed batch insert releases stock and fails the order",
+            groups = {"unit", "service"},
+            priority = 3)
+    public void persist_whenInsertFails_releasesStock() {
+        doThrow(new RuntimeException("db down")).when(orderPersistence).persistPlaced(anyList());
+
+        pipeline.submit(placement(Map.of(1L, 1)));
+
+        verify(orderPersistence, timeout(5_000)).transition(100L, OrderStatus.PROCESSING, OrderStatus.FAILED);
+        verify(inventoryService).release(1L);
+        verify(paymentInitiator, never()).initiate(any());
+    }
+
+    @Test(description = "A failing placement in a persistence batch fails only itself",
+            groups = {"unit", "service"},
+            priority = 4)
+    public void persist_whenOnePlacementFails_retriesOthersOneByOne() {
+        OrderPipeline.Placement good = placement(Map.of(1L, 1)).setReservations(List.of(1L));
+        OrderPipeline.Placement bad = placement(Map.of(2L, 1)).setOrderId(101L).setReservations(List.of(2L));
+        doThrow(new RuntimeException("too long")).when(orderPersistence).persistPlaced(List.of(good, bad));
+        doThrow(new RuntimeException("too long")).when(orderPersistence).persistPlaced(List.of(bad));
+
+        pipeline.persist(List.of(good, bad));
+
+        verify(inventoryService).commit(1L);
+        verify(inventoryService).release(2L);
+        verify(orderPersistence).transition(101L, OrderStatus.PROCESSING, OrderStatus.FAILED);
+        verify(orderPersistence, never()).transition(100L, OrderStatus.PROCESSING, OrderStatus.FAILED);
+        verify(paymentInitiator, timeout(5_000)).initiate(good);
+    }
+
+    @Test(description = "A database error while pricing fails the order instead of leaving it processing",
+            groups = {"unit", "service"},
+            priority = 5)
+    public void price_whenLookupFails_failsOrder() {
+        when(productRepository.findAllById(any())).thenThrow(new RuntimeException("db down"));
+
+        pipeline.submit(placement(Map.of(1L, 1)));
+
+        verify(orderPersistence, timeout(5_000)).transition(100L, OrderStatus.PROCESSING, OrderStatus.FAILED);
+        verify(inventoryService, never()).reserve(any(), anyInt());
+    }
+
+    @Test(description = "A database error while reserving releases the stock already held and fails the order",
+            groups = {"unit", "service"},
+            priority = 6)
+    public void reserve_whenStockLoadFails_releasesHeldAndFailsOrder() {
+        when(inventoryService.reserve(eq(2L), anyInt())).thenThrow(new RuntimeException("db down"));
+
+        pipeline.submit(placement(orderedItems()));
+
+        verify(orderPersistence, timeout(5_000)).transition(100L, OrderStatus.PROCESSING, OrderStatus.FAILED);
+        verify(inventoryService).release(1L);
+        verify(orderPersistence, never()).persistPlaced(anyList());
+    }
+
+    @Test(description = "An order that left processing meanwhile gets its stock back and no side effects",
+            groups = {"unit", "service"},
+            priority = 7)
+    public void persist_whenOrderNoLongerProcessing_releasesStock() {
+        OrderPipeline.Placement placed = placement(Map.of(1L, 1)).setReservations(List.of(1L));
+        OrderPipeline.Placement failed = placement(Map.of(2L, 1)).setOrderId(101L).setReservations(List.of(2L));
+        when(orderPersistence.persistPlaced(List.of(placed, failed))).thenReturn(Set.of(100L));
+
+        pipeline.persist(List.of(placed, failed));
+
+        verify(inventoryService).commit(1L);
+        verify(inventoryService).release(2L);
+        verify(inventoryService, never()).commit(2L);
+        verify(cartService, never()).removeOrdered(7L, Map.of(2L, 1));
+        verify(paymentInitiator, timeout(5_000)).initiate(placed);
+        verify(paymentInitiator, never()).initiate(failed);
+        verify(orderPersistence, never()).transition(101L, OrderStatus.PROCESSING, OrderStatus.FAILED);
+    }
+
+    private static Map<Long, Integer> orderedItems() {
+        Map<Long, Integer> items = new LinkedHashMap<>();
+        items.put(1L, 1);
+        items.put(2L, 1);
+        return items;
+    }
+}
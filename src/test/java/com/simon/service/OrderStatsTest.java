@@ -0,0 +1,132 @@
+package com.simon.service;
+
+import com.simon.model.OrderStatus;
+import com.simon.model.PaymentMethod;
+import com.simon.model.StatsCheckpoint;
+import com.simon.repository.OrderRepository;
+import com.simon.repository.StatsCheckpointRepository;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+
+public class OrderStatsTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+    @Mock
+    private StatsCheckpointRepository statsCheckpointRepository;
+
+    private OrderStats stats;
+    private AutoCloseable mocks;
+
+    @BeforeMethod
+    public void setUp() {
+        mocks = MockitoAnnotations.openMocks(this);
+        stats = new OrderStats(orderRepository, statsCheckpointRepository);
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        mocks.close();
+    }
+
+    @Test(description = "Status counters and revenue follow order transitions",
+            groups = {"unit", "service"},
+            priority = 1)
+    public void recordTransition_updatesStatusAndRevenue() {
+        LocalDate today = LocalDate.now();
+        BigDecimal amount = new BigDecimal("19.99");
+        stats.recordCreated(today);
+        stats.recordCreated(today);
+        stats.recordTransition(OrderStatus.PROCESSING, OrderStatus.AWAITING_PAYMENT, null, null, null);
+        stats.recordTransition(OrderStatus.PROCESSING, OrderStatus.FAILED, null, null, null);
+        stats.recordTransition(OrderStatus.AWAITING_PAYMENT, OrderStatus.PAID, today, PaymentMethod.ALIPAY, amount);
+        stats.recordTransition(OrderStatus.PAID, OrderStatus.SHIPPED, today, PaymentMethod.ALIPAY, amount);
+
+        var snapshot = stats.snapshot();
+        assertEquals(snapshot.byStatus().get(OrderStatus.PROCESSING), Long.valueOf(0));
+        assertEquals(snapshot.byStatus().get(OrderStatus.SHIPPED), Long.valueOf(1));
+        assertEquals(snapshot.byStatus().get(OrderStatus.FAILED), Long.valueOf(1));
+        assertEquals(snapshot.byPaymentMethod().get(PaymentMethod.ALIPAY), new OrderStats.Counts(1, 1999));
+        assertEquals(snapshot.byDay().get(today.toString()), new OrderStats.Counts(2, 1999));
+
+        stats.recordTransition(OrderStatus.SHIPPED, OrderStatus.DELIVERED, today, PaymentMethod.ALIPAY, amount);
+        assertEquals(stats.snapshot().byPaymentMethod().get(PaymentMethod.ALIPAY), new OrderStats.Counts(1, 1999));
+    }
+
+    @Test(description = "Cancelling a paid order takes its revenue back out",
+            groups = {"unit", "service"},
+            priority = 2)
+    public void recordTransition_cancelAfterPayment_subtractsRevenue() {
+        LocalDate today = LocalDate.now();
+        stats.recordCreated(today);
+        stats.recordTransition(OrderStatus.PROCESSING, OrderStatus.AWAITING_PAYMENT, null, null, null);
+        stats.recordTransition(OrderStatus.AWAITING_PAYMENT, OrderStatus.PAID, today, PaymentMethod.WECHAT_PAY, BigDecimal.TEN);
+        stats.recordTransition(OrderStatus.PAID, OrderStatus.CANCELLED, today, PaymentMethod.WECHAT_PAY, BigDecimal.TEN);
+
+        var snapshot = stats.snapshot();
+        assertEquals(snapshot.byPaymentMethod().get(PaymentMethod.WECHAT_PAY), new OrderStats.Counts(0, 0));
+        assertEquals(snapshot.byDay().get(today.toString()), new OrderStats.Counts(1, 0));
+        assertEquals(snapshot.byStatus().get(OrderStatus.CANCELLED), Long.valueOf(1));
+    }
+
+    @Test(description = "Rebuild reproduces the same aggregates from the orders table",
+            groups = {"unit", "service"},
+            priority = 3)
+    public void init_withoutCheckpoint_rebuildsFromOrders() {
+        LocalDateTime now = LocalDateTime.now();
+        when(statsCheckpointRepository.findById(OrderStats.CHECKPOINT)).thenReturn(Optional.empty());
+        when(orderRepository.countByStatus()).thenReturn(List.<Object[]>of(
+                new Object[]{OrderStatus.PAID, 2L},
+                new Object[]{OrderStatus.AWAITING_PAYMENT, 1L}));
+        when(orderRepository.revenueByPaymentMethod(any())).thenReturn(List.<Object[]>of(
+                new Object[]{PaymentMethod.ALIPAY, 2L, new BigDecimal("30.00")}));
+        when(orderRepository.findDailyFactsSince(any())).thenReturn(List.of(
+                new Object[]{now, OrderStatus.PAID, new BigDecimal("10.00")},
+                new Object[]{now, OrderStatus.PAID, new BigDecimal("20.00")},
+                new Object[]{now, OrderStatus.AWAITING_PAYMENT, new BigDecimal("5.00")}));
+
+        stats.init();
+
+        var snapshot = stats.snapshot();
+        assertEquals(snapshot.byStatus().get(OrderStatus.PAID), Long.valueOf(2));
+        assertEquals(snapshot.byPaymentMethod().get(PaymentMethod.ALIPAY), new OrderStats.Counts(2, 3000));
+        assertEquals(snapshot.byDay().get(now.toLocalDate().toString()), new OrderStats.Counts(3, 3000));
+    }
+
+    @Test(description = "A checkpoint with no later order changes is restored without querying orders",
+            groups = {"unit", "service"},
+            priority = 4)
+    public void init_withFreshCheckpoint_restoresIt() {
+        stats.recordCreated(LocalDate.now());
+        stats.recordTransition(OrderStatus.PROCESSING, OrderStatus.AWAITING_PAYMENT, null, null, null);
+        stats.recordTransition(OrderStatus.AWAITING_PAYMENT, OrderStatus.PAID, LocalDate.now(), PaymentMethod.ALIPAY,
+                new BigDecimal("7.50"));
+        stats.checkpoint();
+        ArgumentCaptor<StatsCheckpoint> saved = ArgumentCaptor.forClass(StatsCheckpoint.class);
+        verify(statsCheckpointRepository).save(saved.capture());
+
+        OrderStats restarted = new OrderStats(orderRepository, statsCheckpointRepository);
+        when(statsCheckpointRepository.findById(OrderStats.CHECKPOINT)).thenReturn(Optional.of(saved.getValue()));
+        when(orderRepository.existsByUpdatedAtGreaterThanEqual(saved.getValue().getTakenAt())).thenReturn(false);
+        restarted.init();
+
+        assertEquals(restarted.snapshot(), stats.snapshot());
+        verify(orderRepository, never()).countByStatus();
+    }
+}
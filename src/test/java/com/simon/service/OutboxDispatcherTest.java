@@ -0,0 +1,110 @@
+package com.simon.service;
+
+import com.simon.model.OutboxMessage;
+import com.simon.model.OutboxStatus;
+import com.simon.repository.OutboxMessageRepository;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class OutboxDispatcherTest {
+
+    @Mock
+    private OutboxService outboxService;
+
+    private FakeSmtpTransport smtp;
+    private OutboxDispatcher dispatcher;
+    private AutoCloseable mocks;
+
+    @BeforeMethod
+    public void setUp() {
+        mocks = MockitoAnnotations.openMocks(this);
+        smtp = new FakeSmtpTransport();
+        dispatcher = new OutboxDispatcher(outboxService, smtp);
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        mocks.close();
+    }
+
+    private OutboxMessage message(long id, String to) {
+        return new OutboxMessage().setId(id).setKind(OutboxService.PASSWORD_RESET).setRecipient(to)
+                .setSubject("s").setBody("b").setAttempts(1);
+    }
+
+    @Test(description = "Delivered messages are deleted, rejected ones are rescheduled",
+            groups = {"unit", "service"},
+            priority = 1)
+    @SuppressWarnings("unchecked")
+    public void dispatch_deletesDeliveredAndRetriesFailed() {
+        smtp.reject("bounce@example.com");
+        when(outboxService.claim(anyInt())).thenReturn(List.of(
+                message(1, "a@example.com"),
+                message(2, "bounce@example.com"),
+                message(3, "c@example.com")));
+
+        dispatcher.dispatch();
+
+        assertEquals(smtp.sent().size(), 2);
+        verify(outboxService).delivered(List.of(1L, 3L));
+        ArgumentCaptor<List<OutboxMessage>> failed = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<Map<Long, String>> errors = ArgumentCaptor.forClass(Map.class);
+        verify(outboxService).failed(failed.capture(), errors.capture());
+        assertEquals(failed.getValue().get(0).getId(), 2L);
+        assertTrue(errors.getValue().get(2L).startsWith("550"));
+    }
+
+    @Test(description = "An empty outbox ends the run after a single claim",
+            groups = {"unit", "service"},
+            priority = 2)
+    public void dispatch_whenNothingDue_stops() {
+        when(outboxService.claim(anyInt())).thenReturn(List.of());
+
+        dispatcher.dispatch();
+
+        verify(outboxService, times(1)).claim(anyInt());
+        verify(outboxService, never()).delivered(anyList());
+    }
+
+    @Test(description = "Retries back off exponentially and park the message after max attempts",
+            groups = {"unit", "service"},
+            priority = 3)
+    public void failed_backsOffThenParksAsDead() {
+        OutboxMessageRepository repository = mock(OutboxMessageRepository.class);
+        OutboxService service = new OutboxService(repository);
+
+        long first = service.backoffMillis(1);
+        long fifth = service.backoffMillis(5);
+        assertTrue(first >= 800 && first <= 1200);
+        assertTrue(fifth >= 12_800 && fifth <= 19_200);
+
+        OutboxMessage retry = message(1, "a@example.com").setAttempts(3);
+        OutboxMessage dead = message(2, "b@example.com").setAttempts(8);
+        LocalDateTime before = LocalDateTime.now();
+        service.failed(List.of(retry, dead), Map.of(1L, "timeout", 2L, "550"));
+
+        assertEquals(retry.getStatus(), OutboxStatus.PENDING);
+        assertTrue(retry.getNextAttemptAt().isAfter(before));
+        assertEquals(retry.getLastError(), "timeout");
+        assertEquals(dead.getStatus(), OutboxStatus.DEAD);
+        verify(repository).saveAll(List.of(retry, dead));
+    }
+}
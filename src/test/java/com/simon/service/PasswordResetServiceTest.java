@@ -0,0 +1,149 @@
+package com.simon.service;
+
+import com.simon.model.PasswordResetToken;
+import com.simon.model.User;
+import com.simon.repository.PasswordResetTokenRepository;
+import com.simon.repository.UserRepository;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class PasswordResetServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private PasswordResetTokenRepository passwordResetTokenRepository;
+    @Mock
+    private UserService userService;
+    @Mock
+    private OutboxService outboxService;
+    @Mock
+    private TokenService tokenService;
+
+    private final ResetTokenCodec codec = new ResetTokenCodec("test-secret-test-secret-test-secret-test-secret");
+    private UsedResetTokens usedResetTokens;
+    private PasswordResetService service;
+    private AutoCloseable mocks;
+    private User user;
+
+    @BeforeMethod
+    public void setUp() {
+        mocks = MockitoAnnotations.openMocks(this);
+        usedResetTokens = new UsedResetTokens(passwordResetTokenRepository);
+        service = new PasswordResetService(userRepository, passwordResetTokenRepository, codec, usedResetTokens,
+                userService, outboxService, tokenService);
+        user = new User().setId(42L).setUsername("alice").setEmail("alice@example.com")
+                .setPasswordHash("{bcrypt}old").setIsActive(true);
+        when(userRepository.findById(42L)).thenReturn(Optional.of(user));
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        mocks.close();
+    }
+
+    private String token() {
+        return codec.issue(user, Instant.now().plus(30, ChronoUnit.MINUTES));
+    }
+
+    @Test(description = "Requesting a reset for an unknown email writes nothing",
+            groups = {"unit", "service"},
+            priority = 1)
+    public void requestReset_unknownEmail_isNoop() {
+        when(userRepository.findByEmail("ghost@example.com")).thenReturn(Optional.empty());
+
+        service.requestReset("ghost@example.com");
+
+        verifyNoInteractions(outboxService, passwordResetTokenRepository);
+    }
+
+    @Test(description = "Requesting a reset queues a mail but stores no token row",
+            groups = {"unit", "service"},
+            priority = 2)
+    public void requestReset_knownEmail_onlyQueuesMail() {
+        when(userRepository.findByEmail("alice@example.com")).thenReturn(Optional.of(user));
+
+        service.requestReset("alice@example.com");
+
+        ArgumentCaptor<String> body = ArgumentCaptor.forClass(String.class);
+        verify(outboxService).enqueue(eq(OutboxService.PASSWORD_RESET), eq("alice@example.com"), anyString(), body.capture());
+        assertTrue(body.getValue().contains("token="));
+        verifyNoInteractions(passwordResetTokenRepository);
+    }
+
+    @Test(description = "A valid token resets the password exactly once",
+            groups = {"unit", "service"},
+            priority = 3)
+    public void confirmReset_isSingleUse() {
+        String token = token();
+
+        assertTrue(service.confirmReset(token, "newPassword1"));
+        assertFalse(service.confirmReset(token, "newPassword2"));
+
+        verify(userService, times(1)).updatePassword(user, "newPassword1");
+        verify(tokenService, times(1)).revokeAllSessions(user.getId());
+        verify(passwordResetTokenRepository, times(1)).save(any(PasswordResetToken.class));
+        assertEquals(usedResetTokens.size(), 1);
+    }
+
+    @Test(description = "Tampered and expired tokens are rejected without a user lookup",
+            groups = {"unit", "service"},
+            priority = 4)
+    public void confirmReset_rejectsForgedAndExpired() {
+        String token = token();
+        String tampered = (token.charAt(0) == 'A' ? 'B' : 'A') + token.substring(1);
+        String expired = codec.issue(user, Instant.now().minusSeconds(1));
+        String foreign = new ResetTokenCodec("another-secret-another-secret-another-secret").issue(user,
+                Instant.now().plus(30, ChronoUnit.MINUTES));
+
+        assertFalse(service.confirmReset(tampered, "newPassword1"));
+        assertFalse(service.confirmReset(expired, "newPassword1"));
+        assertFalse(service.confirmReset(foreign, "newPassword1"));
+        assertFalse(service.confirmReset("garbage", "newPassword1"));
+        verify(userRepository, never()).findById(any());
+    }
+
+    @Test(description = "A token issued before the password changed no longer works",
+            groups = {"unit", "service"},
+            priority = 5)
+    public void confirmReset_afterPasswordChange_isRejected() {
+        String token = token();
+        user.setPasswordHash("{bcrypt}changed");
+
+        assertFalse(service.confirmReset(token, "newPassword1"));
+        verify(userService, never()).updatePassword(any(), anyString());
+    }
+
+    @Test(description = "Used-token buckets are dropped once their tokens have expired",
+            groups = {"unit", "service"},
+            priority = 6)
+    public void prune_dropsExpiredBuckets() {
+        usedResetTokens.markUsed(1L, Instant.now().minus(5, ChronoUnit.MINUTES));
+        usedResetTokens.markUsed(2L, Instant.now().plus(5, ChronoUnit.MINUTES));
+
+        usedResetTokens.prune();
+
+        assertEquals(usedResetTokens.size(), 1);
+        assertTrue(usedResetTokens.isUsed(2L, Instant.now().plus(5, ChronoUnit.MINUTES)));
+    }
+}
@@ -0,0 +1,64 @@
+package com.simon.service;
+
+import com.simon.model.PaymentCallbackResult;
+import com.simon.model.PaymentMethod;
+import com.simon.model.PaymentOutcome;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Callback storms through {@link PaymentCallbackSimulator} against a persistence stub that takes
+ * 2 ms per batch. Excluded from the default build; run with {@code mvn test -Pbenchmark}.
+ */
+public class PaymentCallbackBenchmark {
+
+    @Test(description = "Callback acks per second and batching under duplicate-heavy storms",
+            groups = {"benchmark"})
+    public void callbackStorm() throws InterruptedException {
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int deliveries : new int[]{1, 5, 20}) {
+            PaymentCallbackPersistence persistence = mock(PaymentCallbackPersistence.class);
+            LongAdder batches = new LongAdder();
+            LongAdder applied = new LongAdder();
+            when(persistence.apply(anyList())).thenAnswer(inv -> {
+                List<PaymentCallbackService.Callback> batch = inv.getArgument(0);
+                batches.increment();
+                applied.add(batch.size());
+                Thread.sleep(2);
+                Map<String, PaymentCallbackResult> out = new HashMap<>();
+                for (var c : batch) out.put(c.transactionId(), PaymentCallbackResult.APPLIED);
+                return out;
+            });
+            PaymentCallbackService service = new PaymentCallbackService(persistence);
+            ReflectionTestUtils.setField(service, "queueCapacity", 100_000);
+            service.start();
+
+            List<PaymentCallbackService.Callback> payments = new ArrayList<>();
+            for (long i = 0; i < 20_000; i++) {
+                payments.add(new PaymentCallbackService.Callback("TXN-" + i, i, PaymentMethod.WECHAT_PAY,
+                        PaymentOutcome.SUCCESS, new BigDecimal("9.90"), System.currentTimeMillis()));
+            }
+            var result = PaymentCallbackSimulator.fire(service, payments, deliveries, cores * 2);
+            while (service.queueDepth() > 0) Thread.sleep(10);
+            service.stop();
+
+            System.out.printf("payments.callbacks deliveries=%d acks/sec=%,.0f accepted=%d duplicates=%d "
+                            + "rejected=%d batches=%d avgBatch=%.1f%n", deliveries, result.deliveriesPerSecond(),
+                    result.accepted(), result.duplicates(), result.rejected(), batches.sum(),
+                    (double) applied.sum() / Math.max(1, batches.sum()));
+            assertEquals(result.accepted() + result.duplicates() + result.rejected(), result.deliveries());
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.simon.service;
+
+import com.simon.model.Order;
+import com.simon.model.OrderStatus;
+import com.simon.model.PaymentCallbackResult;
+import com.simon.model.PaymentMethod;
+import com.simon.model.PaymentOutcome;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class PaymentCallbackServiceTest {
+
+    @Mock
+    private PaymentCallbackPersistence persistence;
+
+    private PaymentCallbackService service;
+    private AutoCloseable mocks;
+
+    @BeforeMethod
+    public void setUp() {
+        mocks = MockitoAnnotations.openMocks(this);
+        service = new PaymentCallbackService(persistence);
+        ReflectionTestUtils.setField(service, "callbackSecret", "test-secret");
+        service.start();
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        service.stop();
+        mocks.close();
+    }
+
+    private static PaymentCallbackService.Callback callback(String txn, long orderId) {
+        return new PaymentCallbackService.Callback(txn, orderId, PaymentMethod.ALIPAY, PaymentOutcome.SUCCESS,
+                new BigDecimal("10.00"), System.currentTimeMillis());
+    }
+
+    @Test(description = "Duplicate deliveries of one gateway transaction are acked but processed once",
+            groups = {"unit", "service"},
+            priority = 1)
+    public void accept_deduplicatesByTransactionId() {
+        when(persistence.apply(anyList())).thenReturn(Map.of("T1", PaymentCallbackResult.APPLIED));
+
+        assertEquals(service.accept(callback("T1", 1L)), PaymentCallbackService.Ack.ACCEPTED);
+        assertEquals(service.accept(callback("T1", 1L)), PaymentCallbackService.Ack.DUPLICATE);
+        assertEquals(service.accept(callback("T1", 1L)), PaymentCallbackService.Ack.DUPLICATE);
+
+        verify(persistence, timeout(2_000).times(1)).apply(argThat(batch -> batch.size() == 1));
+        assertEquals(service.stats().get("duplicates"), 2L);
+    }
+
+    @Test(description = "A failing batch is retried one by one and only the failing callback is parked",
+            groups = {"unit", "service"},
+            priority = 2)
+    public void process_isolatesFailingCallback() {
+        var good = callback("GOOD", 1L);
+        var bad = callback("BAD", 2L);
+        when(persistence.apply(List.of(good, bad))).thenThrow(new IllegalStateException("boom"));
+        when(persistence.apply(List.of(good))).thenReturn(Map.of("GOOD", PaymentCallbackResult.APPLIED));
+        when(persistence.apply(List.of(bad))).thenThrow(new IllegalStateException("boom"));
+        service.stop();
+        service.accept(good);
+        service.accept(bad);
+
+        service.process(List.of(good, bad));
+
+        verify(persistence, times(1)).apply(List.of(good));
+        assertEquals(service.stats().get("retrying"), 1);
+        assertEquals(service.accept(good), PaymentCallbackService.Ack.DUPLICATE);
+        assertEquals(service.accept(bad), PaymentCallbackService.Ack.DUPLICATE);
+    }
+
+    @Test(description = "Callback signatures are HMAC-SHA256 over the raw body",
+            groups = {"unit", "service"},
+            priority = 3)
+    public void verify_checksSignature() {
+        String body = "{\"transactionId\":\"T9\",\"orderId\":9,\"outcome\":\"SUCCESS\",\"amount\":\"10.00\"}";
+        String signature = service.sign(body);
+
+        assertTrue(service.verify(body, signature));
+        assertTrue(service.verify(body, signature.toUpperCase()));
+        assertFalse(service.verify(body.replace("10.00", "0.01"), signature));
+        assertFalse(service.verify(body, null));
+    }
+
+    @Test(description = "Only awaiting-payment orders with matching method and amount are marked paid",
+            groups = {"unit", "service"},
+            priority = 4)
+    public void decide_validatesOrder() {
+        Order order = new Order().setId(1L).setStatus(OrderStatus.AWAITING_PAYMENT)
+                .setPaymentMethod(PaymentMethod.ALIPAY).setTotalAmount(new BigDecimal("10.0"))
+                .setCreatedAt(LocalDateTime.now());
+
+        assertEquals(PaymentCallbackPersistence.decide(callback("A", 1L), order), PaymentCallbackResult.APPLIED);
+        assertEquals(PaymentCallbackPersistence.decide(callback("A", 1L), null), PaymentCallbackResult.ORDER_NOT_FOUND);
+        assertEquals(PaymentCallbackPersistence.decide(new PaymentCallbackService.Callback("A", 1L,
+                        PaymentMethod.WECHAT_PAY, PaymentOutcome.SUCCESS, new BigDecimal("10.00"), 0), order),
+                PaymentCallbackResult.METHOD_MISMATCH);
+        assertEquals(PaymentCallbackPersistence.decide(new PaymentCallbackService.Callback("A", 1L,
+                        PaymentMethod.ALIPAY, PaymentOutcome.SUCCESS, new BigDecimal("9.99"), 0), order),
+                PaymentCallbackResult.AMOUNT_MISMATCH);
+        order.setStatus(OrderStatus.PAID);
+        assertEquals(PaymentCallbackPersistence.decide(callback("A", 1L), order), PaymentCallbackResult.ALREADY_PAID);
+    }
+
+    @Test(description = "Startup fails without a dedicated callback secret",
+            groups = {"unit", "service"},
+            priority = 5,
+            expectedExceptions = IllegalStateException.class)
+    public void start_requiresCallbackSecret() {
+        PaymentCallbackService unconfigured = new PaymentCallbackService(persistence);
+        ReflectionTestUtils.setField(unconfigured, "callbackSecret", "");
+        unconfigured.start();
+    }
+
+    @Test(description = "An acknowledged callback that fails to persist is retried until it succeeds",
+            groups = {"unit", "service"},
+            priority = 6)
+    public void retryFailed_reoffersParkedCallback() {
+        var bad = callback("LATER", 3L);
+        // the batch and its one-by-one retry both fail, the parked retry succeeds
+        when(persistence.apply(List.of(bad))).thenThrow(new IllegalStateException("db down"))
+                .thenThrow(new IllegalStateException("db down"))
+                .thenReturn(Map.of("LATER", PaymentCallbackResult.APPLIED));
+        ReflectionTestUtils.setField(service, "retryBackoffMillis", 0L);
+        assertEquals(service.accept(bad), PaymentCallbackService.Ack.ACCEPTED);
+        long deadline = System.currentTimeMillis() + 2_000;
+        while (!Integer.valueOf(1).equals(service.stats().get("retrying")) && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+
+        service.retryFailed();
+
+        verify(persistence, timeout(2_000).times(3)).apply(List.of(bad));
+        assertEquals(service.stats().get("retrying"), 0);
+        assertEquals(service.stats().get("abandoned"), 0L);
+    }
+
+    @Test(description = "A callback still failing after the last attempt is dropped and its id forgotten",
+            groups = {"unit", "service"},
+            priority = 7)
+    public void process_afterMaxAttempts_abandonsCallback() {
+        var bad = callback("BAD", 2L);
+        when(persistence.apply(List.of(bad))).thenThrow(new IllegalStateException("boom"));
+        ReflectionTestUtils.setField(service, "retryMaxAttempts", 2);
+        service.stop();
+        service.accept(bad);
+
+        service.process(List.of(bad));
+        service.process(List.of(bad));
+
+        assertEquals(service.stats().get("abandoned"), 1L);
+        assertEquals(service.accept(bad), PaymentCallbackService.Ack.ACCEPTED, "a later gateway retry must be processed");
+    }
+}
@@ -0,0 +1,159 @@
+package com.simon.service;
+
+import com.simon.repository.OrderLineRepository;
+import com.simon.repository.ProductRatingRepository;
+import com.simon.repository.ProductRepository;
+import com.simon.repository.ReviewRepository;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+
+public class ProductAutocompleteTest {
+
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private ProductRatingRepository productRatingRepository;
+    @Mock
+    private ReviewRepository reviewRepository;
+    @Mock
+    private OrderLineRepository orderLineRepository;
+
+    private CatalogReadModel catalog;
+    private ProductAutocomplete autocomplete;
+    private AutoCloseable mocks;
+
+    @BeforeMethod
+    public void setUp() {
+        mocks = MockitoAnnotations.openMocks(this);
+        RatingAggregates ratings = new RatingAggregates(productRatingRepository, reviewRepository,
+                new RatingPersistence(productRatingRepository, reviewRepository));
+        catalog = new CatalogReadModel(productRepository, ratings);
+        ReflectionTestUtils.setField(catalog, "snapshotPath", Path.of("target", "no-such-dir", "catalog.snapshot").toString());
+        autocomplete = new ProductAutocomplete(catalog, ratings, orderLineRepository);
+        autocomplete.register();
+
+        when(productRepository.streamCatalog()).thenReturn(Stream.<Object[]>of(row(1, "Blue Mug"), row(2, "Black Mug"),
+                row(3, "Mug Warmer")));
+        when(productRatingRepository.findAll()).thenReturn(List.of());
+        // units sold in the last 30 days: the warmer outsells the black mug, which outsells the blue one
+        when(orderLineRepository.unitsSoldSince(anyCollection(), any(LocalDateTime.class)))
+                .thenReturn(List.<Object[]>of(new Object[]{3L, 9L}, new Object[]{2L, 4L}));
+        catalog.load();
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        mocks.close();
+    }
+
+    private static Object[] row(long id, String name) {
+        return new Object[]{id, "SKU-" + id, name, "Kitchen", new BigDecimal("5.00"), 10};
+    }
+
+    private List<String> complete(String prefix) {
+        return autocomplete.complete(prefix, 10).stream().map(CompletionIndex.Suggestion::text).toList();
+    }
+
+    @Test(description = "The catalog load builds the index, ranked by recent sales",
+            groups = {"unit", "service"},
+            priority = 1)
+    public void reloaded_buildsIndexRankedBySales() {
+        assertEquals(complete("mu"), List.of("Mug Warmer", "Black Mug", "Blue Mug"));
+        assertEquals(complete("bl"), List.of("Black Mug", "Blue Mug"));
+        assertEquals(autocomplete.stats().entries(), 3);
+    }
+
+    @Test(description = "Renames and deletes show up before the next rebuild, which then absorbs them",
+            groups = {"unit", "service"},
+            priority = 2)
+    public void changed_appliesPendingUntilRebuild() {
+        when(productRepository.findCatalogChangedSince(any(LocalDateTime.class)))
+                .thenReturn(List.<Object[]>of(row(1, "Blue Teapot"), row(4, "Mug Tree"),
+                        new Object[]{3L, "SKU-3", "Mug Warmer", "Kitchen", new BigDecimal("4.00"), 2}));
+        when(productRepository.count()).thenReturn(3L);
+        when(productRepository.findAllIds()).thenReturn(List.of(1L, 3L, 4L));
+        catalog.refresh();
+
+        // renamed 1, new 4, deleted 2; the warmer's price and stock change does not count
+        assertEquals(autocomplete.stats().pending(), 3);
+        assertEquals(complete("mu"), List.of("Mug Warmer", "Mug Tree"));
+        assertEquals(complete("tea"), List.of("Blue Teapot"));
+
+        autocomplete.refresh();
+
+        assertEquals(autocomplete.stats().pending(), 0);
+        assertEquals(complete("mu"), List.of("Mug Warmer", "Mug Tree"));
+        assertEquals(complete("blue"), List.of("Blue Teapot"));
+    }
+
+    @Test(description = "Searches reported often enough become completions at the next rescore",
+            groups = {"unit", "service"},
+            priority = 3)
+    public void recordSearch_addsPopularQueries() {
+        for (long user = 1; user <= 5; user++) {
+            autocomplete.recordSearch(user, "  Mug   BLUE ");
+            // "rack" is not a word any product uses
+            autocomplete.recordSearch(user, "mug rack");
+            autocomplete.recordSearch(user, "black mug");
+        }
+
+        autocomplete.rescore();
+
+        assertEquals(complete("mug b"), List.of("mug blue"));
+        assertEquals(complete("mug r"), List.of());
+        // already a product name: not offered twice
+        assertEquals(complete("black"), List.of("Black Mug"));
+    }
+
+    @Test(description = "A user counts once per query per rescore, and one-off queries cannot crowd out real ones",
+            groups = {"unit", "service"},
+            priority = 4)
+    public void recordSearch_countsUsersOnce() {
+        ReflectionTestUtils.setField(autocomplete, "maxTrackedQueries", 2);
+        for (int i = 0; i < 5; i++) autocomplete.recordSearch(9L, "blue warmer");
+        autocomplete.recordSearch(9L, "black warmer");
+        for (int i = 0; i < 5; i++) autocomplete.recordSearch(1L, "kitchen mug");
+        autocomplete.recordSearch(2L, "kitchen mug");
+        autocomplete.recordSearch(3L, "kitchen mug");
+
+        autocomplete.rescore();
+
+        assertEquals(complete("kitchen"), List.of("kitchen mug"));
+        assertEquals(complete("blue w"), List.of());
+        assertEquals(complete("black w"), List.of());
+    }
+
+    @Test(description = "An overlay past max-pending triggers a rebuild without waiting for the next refresh",
+            groups = {"unit", "service"},
+            priority = 5)
+    public void changed_pastMaxPending_rebuildsAtOnce() throws InterruptedException {
+        ReflectionTestUtils.setField(autocomplete, "maxPending", 2);
+        when(productRepository.findCatalogChangedSince(any(LocalDateTime.class)))
+                .thenReturn(List.<Object[]>of(row(1, "Blue Teapot"), row(4, "Mug Tree")));
+        when(productRepository.count()).thenReturn(3L);
+        when(productRepository.findAllIds()).thenReturn(List.of(1L, 3L, 4L));
+        catalog.refresh();
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (autocomplete.stats().pending() > 0 && System.currentTimeMillis() < deadline) Thread.sleep(10);
+
+        assertEquals(autocomplete.stats().pending(), 0);
+        assertEquals(complete("mu"), List.of("Mug Warmer", "Mug Tree"));
+        assertEquals(complete("tea"), List.of("Blue Teapot"));
+    }
+}
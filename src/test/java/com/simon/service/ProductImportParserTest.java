@@ -0,0 +1,108 @@
+package com.simon.service;
+
+import org.testng.annotations.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.expectThrows;
+
+public class ProductImportParserTest {
+
+    private static List<ProductImportParser.Parsed> parseAll(ProductImportParser.Format format, String input)
+            throws Exception {
+        ProductImportParser parser = new ProductImportParser(format, new BufferedReader(new StringReader(input)));
+        return parser.next(100).stream().map(parser::parse).toList();
+    }
+
+    @Test(description = "CSV columns are matched by header name; quoted fields may hold commas, quotes and newlines",
+            groups = {"unit", "service"},
+            priority = 1)
+    public void csv_handlesQuotingAndMultilineRecords() throws Exception {
+        String csv = "\uFEFFName,SKU,price,description,stock\r\n"
+                + "Mug,M-1,9.5,\"Large, \"\"blue\"\"\",3\r\n"
+                + "Lamp,L-1,20,\"line one\nline two\",\r\n";
+        List<ProductImportParser.Parsed> parsed = parseAll(ProductImportParser.Format.CSV, csv);
+
+        assertEquals(parsed.size(), 2);
+        var mug = parsed.get(0);
+        assertNull(mug.error());
+        assertEquals(mug.line(), 2);
+        assertEquals(mug.row().getSku(), "M-1");
+        assertEquals(mug.row().getDescription(), "Large, \"blue\"");
+        assertEquals(mug.row().getPrice(), new BigDecimal("9.50"));
+        assertEquals(mug.row().getStock(), Integer.valueOf(3));
+
+        var lamp = parsed.get(1);
+        assertNull(lamp.error());
+        assertEquals(lamp.line(), 3);
+        assertEquals(lamp.row().getDescription(), "line one\nline two");
+        assertEquals(lamp.row().getStock(), Integer.valueOf(0));
+    }
+
+    @Test(description = "Invalid rows carry an error with their line number instead of failing the feed",
+            groups = {"unit", "service"},
+            priority = 2)
+    public void csv_reportsRowErrors() throws Exception {
+        String csv = "sku,name,price\n"
+                + ",Nameless,1\n"
+                + "A-1,Cheap,-1\n"
+                + "A-2,Precise,1.005\n"
+                + "A-3,Word,ten\n"
+                + "A-4,Fine,2\n";
+        List<ProductImportParser.Parsed> parsed = parseAll(ProductImportParser.Format.CSV, csv);
+
+        assertEquals(parsed.stream().map(ProductImportParser.Parsed::error).toList(), Arrays.asList(
+                "sku is required", "price must not be negative", "price has more than 2 decimals",
+                "unreadable record: price or stock is not a number", null));
+        assertEquals(parsed.get(1).line(), 3);
+        assertNotNull(parsed.get(4).row());
+    }
+
+    @Test(description = "A CSV header without the required columns rejects the whole feed",
+            groups = {"unit", "service"},
+            priority = 3)
+    public void csv_requiresHeaderColumns() {
+        expectThrows(IllegalArgumentException.class, () -> parseAll(ProductImportParser.Format.CSV, "sku,name\nA,B\n"));
+        expectThrows(IllegalArgumentException.class, () -> parseAll(ProductImportParser.Format.CSV, ""));
+    }
+
+    @Test(description = "NDJSON rows are read one per line, ignoring blank lines and unknown fields",
+            groups = {"unit", "service"},
+            priority = 4)
+    public void ndjson_parsesRowsAndReportsMalformedOnes() throws Exception {
+        String ndjson = "{\"sku\":\" N-1 \",\"name\":\"Pen\",\"price\":1.2,\"color\":\"red\"}\n"
+                + "\n"
+                + "{\"sku\":\"N-2\",\"name\":\n"
+                + "{\"sku\":\"N-3\",\"name\":\"Ink\",\"price\":3,\"category\":\"  \"}\n";
+        List<ProductImportParser.Parsed> parsed = parseAll(ProductImportParser.Format.NDJSON, ndjson);
+
+        assertEquals(parsed.size(), 3);
+        assertEquals(parsed.get(0).row().getSku(), "N-1");
+        assertEquals(parsed.get(0).row().getPrice(), new BigDecimal("1.20"));
+        assertEquals(parsed.get(1).line(), 3);
+        assertTrue(parsed.get(1).error().startsWith("unreadable record"));
+        assertNull(parsed.get(2).row().getCategory());
+        assertEquals(parsed.get(2).line(), 4);
+    }
+
+    @Test(description = "An NDJSON null line is reported as a row error rather than failing the feed",
+            groups = {"unit", "service"},
+            priority = 5)
+    public void ndjson_nullLineIsRowError() throws Exception {
+        String ndjson = "null\n{\"sku\":\"N-1\",\"name\":\"Pen\",\"price\":1}\n";
+        List<ProductImportParser.Parsed> parsed = parseAll(ProductImportParser.Format.NDJSON, ndjson);
+
+        assertEquals(parsed.size(), 2);
+        assertEquals(parsed.get(0).line(), 1);
+        assertEquals(parsed.get(0).error(), "record is not an object");
+        assertEquals(parsed.get(1).row().getSku(), "N-1");
+    }
+}
@@ -0,0 +1,102 @@
+package com.simon.service;
+
+import com.simon.dto.ProductRequests;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+
+public class ProductImportServiceTest {
+
+    @Mock
+    private ProductImportPersistence productImportPersistence;
+
+    private ProductImportService service;
+    private AutoCloseable mocks;
+
+    @BeforeMethod
+    public void setUp() {
+        mocks = MockitoAnnotations.openMocks(this);
+        service = new ProductImportService(productImportPersistence);
+        service.start();
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        service.stop();
+        mocks.close();
+    }
+
+    private ProductImportService.Status runToEnd(String csv) throws Exception {
+        var submitted = service.submit(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)),
+                ProductImportParser.Format.CSV);
+        for (int i = 0; i < 500; i++) {
+            var status = service.status(submitted.id());
+            if (status.finishedAt() != null) return status;
+            Thread.sleep(10);
+        }
+        throw new AssertionError("import did not finish");
+    }
+
+    @Test(description = "A repeated sku keeps its last row and the earlier one is reported",
+            groups = {"unit", "service"},
+            priority = 1)
+    public void submit_lastRowWinsForRepeatedSku() throws Exception {
+        when(productImportPersistence.upsert(anyList())).thenAnswer(inv -> {
+            List<ProductRequests.ImportRow> rows = inv.getArgument(0);
+            assertEquals(rows.size(), 2);
+            assertEquals(rows.getFirst().getName(), "Second");
+            return new ProductImportPersistence.BatchResult(1, 1, 0);
+        });
+
+        var status = runToEnd("sku,name,price\nA,First,1\nB,Other,2\nA,Second,3\n");
+
+        assertEquals(status.state(), ProductImportService.State.COMPLETED);
+        assertEquals(status.read(), 3);
+        assertEquals(status.inserted(), 1);
+        assertEquals(status.updated(), 1);
+        assertEquals(status.failed(), 1);
+        assertEquals(status.errors().getFirst(), new ProductImportService.RowError(2, "sku repeated on line 4"));
+    }
+
+    @Test(description = "A batch that fails to persist is retried row by row so only the bad row is lost",
+            groups = {"unit", "service"},
+            priority = 2)
+    public void submit_fallsBackToSingleRows() throws Exception {
+        when(productImportPersistence.upsert(anyList())).thenAnswer(inv -> {
+            List<ProductRequests.ImportRow> rows = inv.getArgument(0);
+            if (rows.stream().anyMatch(r -> r.getSku().equals("BAD"))) {
+                throw new IllegalStateException("constraint violated");
+            }
+            return new ProductImportPersistence.BatchResult(rows.size(), 0, 0);
+        });
+
+        var status = runToEnd("sku,name,price\nA,Fine,1\nBAD,Broken,2\nC,Fine,3\n");
+
+        assertEquals(status.state(), ProductImportService.State.COMPLETED);
+        assertEquals(status.inserted(), 2);
+        assertEquals(status.failed(), 1);
+        assertEquals(status.errors().getFirst(), new ProductImportService.RowError(3, "not saved: constraint violated"));
+    }
+
+    @Test(description = "A feed without the required header fails the job, not the request",
+            groups = {"unit", "service"},
+            priority = 3)
+    public void submit_badHeaderFailsJob() throws Exception {
+        var status = runToEnd("id,title\n1,x\n");
+
+        assertEquals(status.state(), ProductImportService.State.FAILED);
+        assertNotNull(status.failure());
+        assertEquals(service.recent().size(), 1);
+    }
+}
@@ -0,0 +1,153 @@
+package com.simon.service;
+
+import com.simon.model.ProductRating;
+import com.simon.model.Review;
+import com.simon.repository.OrderRepository;
+import com.simon.repository.ProductRatingRepository;
+import com.simon.repository.ReviewRepository;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+
+public class ReviewServiceTest {
+
+    @Mock
+    private ReviewRepository reviewRepository;
+    @Mock
+    private ProductRatingRepository productRatingRepository;
+    @Mock
+    private OrderRepository orderRepository;
+    @Mock
+    private ProductService productService;
+
+    private RatingAggregates ratingAggregates;
+    private ReviewService reviewService;
+    private AutoCloseable mocks;
+
+    @BeforeMethod
+    public void setUp() {
+        mocks = MockitoAnnotations.openMocks(this);
+        RatingPersistence ratingPersistence = new RatingPersistence(productRatingRepository, reviewRepository);
+        ratingAggregates = new RatingAggregates(productRatingRepository, reviewRepository, ratingPersistence);
+        reviewService = new ReviewService(reviewRepository, ratingPersistence, orderRepository, ratingAggregates,
+                productService);
+        when(reviewRepository.save(any(Review.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(productRatingRepository.save(any(ProductRating.class))).thenAnswer(inv -> inv.getArgument(0));
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        mocks.close();
+    }
+
+    @Test(description = "Creating, editing and deleting reviews keeps the stored and in-memory aggregates in step",
+            groups = {"unit", "service"},
+            priority = 1)
+    public void reviewWrites_adjustAggregates() {
+        ProductRating row = new ProductRating().setProductId(7L);
+        when(productRatingRepository.findForUpdate(7L)).thenReturn(Optional.empty(), Optional.of(row));
+
+        reviewService.create(1L, 7L, 4, "good");
+        ArgumentCaptor<ProductRating> saved = ArgumentCaptor.forClass(ProductRating.class);
+        verify(productRatingRepository).save(saved.capture());
+        row = saved.getValue();
+        when(productRatingRepository.findForUpdate(7L)).thenReturn(Optional.of(row));
+
+        Review mine = reviewService.create(2L, 7L, 2, null);
+        reviewService.update(mine, 5, "changed my mind");
+
+        assertEquals(row.getRatingCount(), 2);
+        assertEquals(row.getRatingSum(), 9);
+        assertEquals(row.histogram(), new long[]{0, 0, 0, 1, 1});
+        RatingAggregates.Summary summary = ratingAggregates.get(7L);
+        assertEquals(summary.count(), 2);
+        assertEquals(summary.average(), 4.5);
+
+        reviewService.delete(mine);
+        assertEquals(row.getRatingCount(), 1);
+        assertEquals(ratingAggregates.get(7L).histogram(), new long[]{0, 0, 0, 1, 0});
+        verify(productService, times(4)).evict(7L);
+        verify(productRatingRepository, times(1)).insertEmpty(7L);
+    }
+
+    @Test(description = "Verification repairs a drifted aggregate from the reviews table",
+            groups = {"unit", "service"},
+            priority = 2)
+    public void verify_repairsDrift() {
+        ProductRating drifted = new ProductRating().setProductId(3L).setRatingCount(5).setRatingSum(5)
+                .setHistogram(new long[]{5, 0, 0, 0, 0});
+        ProductRating healthy = new ProductRating().setProductId(4L).setRatingCount(1).setRatingSum(3)
+                .setHistogram(new long[]{0, 0, 1, 0, 0});
+        when(productRatingRepository.findAll()).thenReturn(List.of(drifted, healthy));
+        when(reviewRepository.streamRatingsByProduct()).thenReturn(Stream.of(
+                new Object[]{3L, 5}, new Object[]{3L, 4}, new Object[]{4L, 3}));
+        when(reviewRepository.countByRating(3L)).thenReturn(List.of(new Object[]{4, 1L}, new Object[]{5, 1L}));
+        when(productRatingRepository.findForUpdate(3L)).thenReturn(Optional.of(drifted));
+
+        RatingAggregates.VerifyResult result = ratingAggregates.verify();
+
+        assertEquals(result.productsChecked(), 2);
+        assertEquals(result.productsRepaired(), 1);
+        assertEquals(drifted.getRatingCount(), 2);
+        assertEquals(drifted.getRatingSum(), 9);
+        assertEquals(ratingAggregates.get(3L).average(), 4.5);
+        assertEquals(ratingAggregates.get(4L).count(), 1);
+        verify(productRatingRepository, never()).findForUpdate(4L);
+    }
+
+    @Test(description = "Two concurrent first reviews of a product both succeed when one loses the aggregate insert",
+            groups = {"unit", "service"},
+            priority = 3)
+    public void create_concurrentFirstReviews_bothSucceed() throws Exception {
+        ProductRating row = new ProductRating().setProductId(9L);
+        CountDownLatch bothLooked = new CountDownLatch(2);
+        AtomicInteger lookups = new AtomicInteger();
+        when(productRatingRepository.findForUpdate(9L)).thenAnswer(inv -> {
+            if (lookups.incrementAndGet() > 2) return Optional.of(row);
+            bothLooked.countDown();
+            bothLooked.await(5, TimeUnit.SECONDS);
+            return Optional.empty();
+        });
+        AtomicBoolean inserted = new AtomicBoolean();
+        when(productRatingRepository.insertEmpty(9L)).thenAnswer(inv -> {
+            if (inserted.compareAndSet(false, true)) return 1;
+            throw new DataIntegrityViolationException("duplicate key");
+        });
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<Review>> reviews = List.of(
+                    pool.submit(() -> reviewService.create(1L, 9L, 5, null)),
+                    pool.submit(() -> reviewService.create(2L, 9L, 3, null)));
+            for (Future<Review> review : reviews) review.get(5, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        verify(productRatingRepository, times(2)).insertEmpty(9L);
+        verify(productRatingRepository, times(2)).save(row);
+        assertEquals(ratingAggregates.get(9L).count(), 2);
+    }
+}
@@ -0,0 +1,138 @@
+package com.simon.service;
+
+import com.simon.dto.AdminUserRequests;
+import com.simon.model.Role;
+import com.simon.repository.UserRepository;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertThrows;
+
+public class UserModerationServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private UserSearchIndex userSearchIndex;
+    @Mock
+    private UserModerationPersistence persistence;
+
+    private UserModerationService service;
+    private AutoCloseable mocks;
+
+    @BeforeMethod
+    public void setUp() {
+        mocks = MockitoAnnotations.openMocks(this);
+        service = new UserModerationService(userRepository, userSearchIndex, persistence);
+        ReflectionTestUtils.setField(service, "chunkSize", 2);
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        mocks.close();
+    }
+
+    @Test(description = "Ids are deduplicated and applied chunk by chunk; a failed chunk is reported, not fatal",
+            groups = {"unit", "service"},
+            priority = 1)
+    public void apply_chunksAndReportsPerId() {
+        var change = new UserModerationService.Change(null, false, false);
+        when(persistence.applyChunk(List.of(1L, 2L), change, 9L)).thenReturn(Map.of(
+                1L, UserModerationService.Outcome.UPDATED, 2L, UserModerationService.Outcome.NOT_FOUND));
+        when(persistence.applyChunk(List.of(3L, 4L), change, 9L)).thenThrow(new IllegalStateException("deadlock"));
+        when(persistence.applyChunk(List.of(5L), change, 9L)).thenReturn(Map.of(
+                5L, UserModerationService.Outcome.UNCHANGED));
+
+        var result = service.apply(new AdminUserRequests.Bulk().setIds(List.of(1L, 2L, 2L, 3L, 4L, 5L))
+                .setIsActive(false), 9L);
+
+        assertEquals(result.matched(), 5);
+        assertEquals(result.items().stream().map(UserModerationService.Item::outcome).toList(), List.of(
+                UserModerationService.Outcome.UPDATED, UserModerationService.Outcome.NOT_FOUND,
+                UserModerationService.Outcome.FAILED, UserModerationService.Outcome.FAILED,
+                UserModerationService.Outcome.UNCHANGED));
+        assertEquals(result.totals().get(UserModerationService.Outcome.FAILED), 2);
+    }
+
+    @Test(description = "Requests without a change or without exactly one target kind are rejected",
+            groups = {"unit", "service"},
+            priority = 2)
+    public void apply_rejectsInvalidRequests() {
+        assertThrows(IllegalArgumentException.class,
+                () -> service.apply(new AdminUserRequests.Bulk().setIds(List.of(1L)), 9L));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.apply(new AdminUserRequests.Bulk().setDelete(true), 9L));
+        assertThrows(IllegalArgumentException.class, () -> service.apply(new AdminUserRequests.Bulk()
+                .setIds(List.of(1L)).setFilter(new AdminUserRequests.Filter()).setDelete(true), 9L));
+        verify(persistence, never()).applyChunk(anyList(), any(), any());
+    }
+
+    @Test(description = "A prefix filter is narrowed by the search index before querying the database",
+            groups = {"unit", "service"},
+            priority = 3)
+    public void resolve_prefixFilterUsesIndex() {
+        when(userSearchIndex.search("spam", Integer.MAX_VALUE)).thenReturn(List.of(4L, 7L));
+        when(userRepository.findIdsByFilterAmong(eq(List.of(4L, 7L)), eq(List.of(Role.USER)), any(), any()))
+                .thenReturn(List.of(7L));
+
+        var ids = service.resolve(new AdminUserRequests.Bulk().setDelete(true)
+                .setFilter(new AdminUserRequests.Filter().setPrefix("spam").setRole(Role.USER)));
+        assertEquals(ids, List.of(7L));
+    }
+
+    @Test(description = "Deleted accounts and the acting admin are never changed",
+            groups = {"unit", "service"},
+            priority = 4)
+    public void decide_outcomes() {
+        var demote = new UserModerationService.Change(Role.USER, null, false);
+        var delete = UserModerationService.Change.of(null, null, true);
+
+        assertEquals(UserModerationPersistence.decide(demote, Role.ADMIN, true, null, false),
+                UserModerationService.Outcome.UPDATED);
+        assertEquals(UserModerationPersistence.decide(demote, Role.USER, true, null, false),
+                UserModerationService.Outcome.UNCHANGED);
+        assertEquals(UserModerationPersistence.decide(demote, Role.ADMIN, true, null, true),
+                UserModerationService.Outcome.SKIPPED_SELF);
+        assertEquals(UserModerationPersistence.decide(demote, Role.ADMIN, true, LocalDateTime.now(), false),
+                UserModerationService.Outcome.DELETED);
+        assertEquals(UserModerationPersistence.decide(delete, Role.USER, false, LocalDateTime.now(), false),
+                UserModerationService.Outcome.UNCHANGED);
+        assertEquals(UserModerationPersistence.decide(delete, Role.USER, true, null, false),
+                UserModerationService.Outcome.UPDATED);
+    }
+
+    @Test(description = "The user cap applies to what the whole filter matches, and to explicit ids",
+            groups = {"unit", "service"},
+            priority = 5)
+    public void resolve_capsFilteredMatchesAndIds() {
+        ReflectionTestUtils.setField(service, "maxUsers", 2);
+        when(userSearchIndex.search("a", Integer.MAX_VALUE)).thenReturn(List.of(1L, 2L, 3L, 4L, 5L));
+        when(userRepository.findIdsByFilterAmong(eq(List.of(1L, 2L)), eq(List.of(Role.ADMIN)), any(), any()))
+                .thenReturn(List.of(2L));
+        when(userRepository.findIdsByFilterAmong(eq(List.of(3L, 4L)), eq(List.of(Role.ADMIN)), any(), any()))
+                .thenReturn(List.of());
+        when(userRepository.findIdsByFilterAmong(eq(List.of(5L)), eq(List.of(Role.ADMIN)), any(), any()))
+                .thenReturn(List.of(5L));
+
+        // five prefix matches, but only two admins among them
+        assertEquals(service.resolve(new AdminUserRequests.Bulk().setDelete(true)
+                .setFilter(new AdminUserRequests.Filter().setPrefix("a").setRole(Role.ADMIN))), List.of(2L, 5L));
+        assertThrows(IllegalArgumentException.class, () -> service.resolve(new AdminUserRequests.Bulk()
+                .setIds(List.of(1L, 2L, 3L)).setDelete(true)));
+    }
+}
@@ -0,0 +1,85 @@
+package com.simon.service;
+
+import com.simon.model.User;
+import com.simon.repository.UserRepository;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class UserSearchIndexTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserSearchIndex index;
+    private AutoCloseable mocks;
+
+    @BeforeMethod
+    public void setUp() {
+        mocks = MockitoAnnotations.openMocks(this);
+        index = new UserSearchIndex(userRepository);
+        when(userRepository.streamSearchTerms()).thenReturn(Stream.of(
+                new Object[]{1L, "Chen", "chen@example.com"},
+                new Object[]{2L, "chenxi", "x@example.com"},
+                new Object[]{3L, "alice", "chen.alice@example.com"},
+                new Object[]{4L, "bob", "bob@example.com"}));
+        index.build();
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        mocks.close();
+    }
+
+    @Test(description = "Prefix matches username or email case-insensitively, once per user, in key order",
+            groups = {"unit", "service"},
+            priority = 1)
+    public void search_matchesUsernameAndEmail() {
+        assertEquals(index.search("CHEN", 10), List.of(1L, 3L, 2L));
+        assertEquals(index.search("chen", 2), List.of(1L, 3L));
+        assertEquals(index.search("bob@", 10), List.of(4L));
+        assertTrue(index.search("zed", 10).isEmpty());
+        assertTrue(index.search("  ", 10).isEmpty());
+        assertEquals(index.size(), 4);
+    }
+
+    @Test(description = "Re-indexing a user drops the old keys and adds the new ones",
+            groups = {"unit", "service"},
+            priority = 2)
+    public void index_rekeysUpdatedUser() {
+        index.index(new User().setId(4L).setUsername("chenbob").setEmail("bob@example.com"));
+        index.index(new User().setId(5L).setUsername("newbie").setEmail("chen5@example.com"));
+
+        assertEquals(index.search("chen", 10), List.of(1L, 3L, 5L, 4L, 2L));
+        assertTrue(index.search("bob", 10).contains(4L));
+
+        index.index(new User().setId(4L).setUsername("robert").setEmail("robert@example.com"));
+        assertEquals(index.search("bob", 10), List.of());
+
+        index.remove(5L);
+        assertEquals(index.search("chen", 10), List.of(1L, 3L, 2L));
+    }
+
+    @Test(description = "Users indexed before the startup scan reaches them are not overwritten",
+            groups = {"unit", "service"},
+            priority = 3)
+    public void build_keepsFresherEntries() {
+        UserSearchIndex fresh = new UserSearchIndex(userRepository);
+        fresh.index(new User().setId(4L).setUsername("roberta").setEmail("roberta@example.com"));
+        when(userRepository.streamSearchTerms()).thenReturn(Stream.<Object[]>of(
+                new Object[]{4L, "bob", "bob@example.com"}));
+        fresh.build();
+
+        assertTrue(fresh.search("bob", 10).isEmpty());
+        assertEquals(fresh.search("rob", 10), List.of(4L));
+    }
+}
@@ -3,6 +3,7 @@ package com.simon.service;
 import com.simon.dto.AuthRequests;
 import com.simon.model.User;
 import com.simon.repository.UserRepository;
+import com.simon.system.ReadYourWrites;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
@@ -39,7 +40,8 @@ public class UserServiceTest {
     public void setUp() {
         mocks = MockitoAnnotations.openMocks(this);
         // instantiate service with mocked repository so mocks are used
-        userService = new UserService(userRepository, passwordEncoder);
+        userService = new UserService(userRepository, passwordEncoder, new ReadYourWrites(),
+                new UserSearchIndex(userRepository));
         // Ensure the service uses a matching password encoder; UserService creates its own encoder
     }
 
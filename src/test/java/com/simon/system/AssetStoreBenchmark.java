@@ -0,0 +1,95 @@
+package com.simon.system;
+
+import org.testng.annotations.Test;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Large-file throughput over a loopback socket: {@link AssetStore#transfer} ({@code sendfile})
+ * against copying through a heap buffer, which is what serving a {@code byte[]} through MVC and a
+ * body-capturing wrapper amounts to. Excluded from the default build; run with
+ * {@code mvn test -Pbenchmark}.
+ */
+public class AssetStoreBenchmark {
+    private static final int ROUNDS = 5;
+
+    @Test(description = "Loopback MB/s for transferTo versus heap copies on large files",
+            groups = {"benchmark"})
+    public void largeFileThroughput() throws Exception {
+        for (int mb : new int[]{16, 256}) {
+            Path file = Files.createTempFile("asset-bench", ".bin");
+            try {
+                byte[] chunk = new byte[1024 * 1024];
+                ThreadLocalRandom.current().nextBytes(chunk);
+                try (OutputStream out = Files.newOutputStream(file)) {
+                    for (int i = 0; i < mb; i++) out.write(chunk);
+                }
+                long size = Files.size(file);
+                measure("transferTo", mb, size, target -> {
+                    try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+                        AssetStore.transfer(ch, 0, size, target);
+                    }
+                });
+                measure("heap-copy", mb, size, target -> {
+                    // read everything, then write it: the buffered byte[] response path
+                    byte[] body;
+                    try (InputStream in = Files.newInputStream(file)) {
+                        body = in.readAllBytes();
+                    }
+                    Channels.newOutputStream(target).write(body);
+                });
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private interface Sender {
+        void send(SocketChannel target) throws Exception;
+    }
+
+    private void measure(String name, int mb, long size, Sender sender) throws Exception {
+        try (ServerSocketChannel server = ServerSocketChannel.open().bind(new InetSocketAddress("127.0.0.1", 0))) {
+            long best = Long.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) {
+                try (SocketChannel client = SocketChannel.open(server.getLocalAddress());
+                     SocketChannel peer = server.accept()) {
+                    AtomicLong received = new AtomicLong();
+                    Thread drain = Thread.ofPlatform().start(() -> {
+                        ByteBuffer buf = ByteBuffer.allocateDirect(1024 * 1024);
+                        try {
+                            while (received.get() < size) {
+                                int n = peer.read(buf.clear());
+                                if (n < 0) break;
+                                received.addAndGet(n);
+                            }
+                        } catch (Exception ignored) {
+                            // connection closed
+                        }
+                    });
+                    long start = System.nanoTime();
+                    sender.send(client);
+                    drain.join();
+                    best = Math.min(best, System.nanoTime() - start);
+                    assertEquals(received.get(), size);
+                }
+            }
+            System.out.printf("assets.serve mode=%s size=%dMB best=%.1fms throughput=%,.0f MB/s%n",
+                    name, mb, best / 1e6, size / 1048576.0 / (best / 1e9));
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.simon.system;
+
+import com.simon.repository.RefreshTokenRepository;
+import com.simon.repository.StatsCheckpointRepository;
+import com.simon.security.AccessTokenRevocations;
+import com.simon.security.InProcessRevocationChannel;
+import com.simon.security.JwtFilter;
+import com.simon.security.JwtUtil;
+import com.simon.service.ActiveUsers;
+import com.simon.service.TokenService;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testng.annotations.Test;
+import tools.jackson.databind.ObjectMapper;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
+
+public class AuthWarmupTest {
+    private static final String SECRET = "warmup-test-secret-warmup-test-secret-0123456789";
+
+    @Test(description = "Warmup exercises every auth path without touching repositories or revocations",
+            groups = {"unit", "system"},
+            priority = 1)
+    public void run_exercisesPathsWithoutSideEffects() {
+        RefreshTokenRepository refreshTokens = mock(RefreshTokenRepository.class);
+        AccessTokenRevocations revocations = new AccessTokenRevocations(new InProcessRevocationChannel());
+        TokenService tokenService = new TokenService(refreshTokens, revocations);
+        ReflectionTestUtils.setField(tokenService, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(tokenService, "accessTokenSeconds", 900L);
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "jwtSecret", SECRET);
+        JwtFilter jwtFilter = new JwtFilter(jwtUtil, revocations, new ActiveUsers(mock(StatsCheckpointRepository.class)));
+
+        AuthWarmup warmup = new AuthWarmup(tokenService, jwtUtil, jwtFilter,
+                new BCryptPasswordEncoder(4), new StaticListableBeanFactory().getBeanProvider(ObjectMapper.class));
+        ReflectionTestUtils.setField(warmup, "budgetMillis", 3_000L);
+        ReflectionTestUtils.setField(warmup, "minRounds", 2);
+
+        assertEquals(warmup.report().stop(), AuthWarmup.Stop.PENDING);
+        warmup.run(null);
+
+        AuthWarmup.Report report = warmup.report();
+        assertNotEquals(report.stop(), AuthWarmup.Stop.FAILED);
+        assertTrue(report.rounds() >= 1);
+        assertEquals(report.paths().keySet().size(), 5);
+        report.paths().values().forEach(p -> assertTrue(p.iterations() > 0));
+        assertEquals(revocations.size(), 0);
+        verifyNoInteractions(refreshTokens);
+    }
+}
@@ -0,0 +1,121 @@
+package com.simon.system;
+
+import jakarta.servlet.FilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+
+public class CatalogCacheFilterTest {
+
+    private ResponseCache responseCache;
+    private CatalogCacheFilter filter;
+    private AtomicInteger renders;
+    private FilterChain chain;
+
+    @BeforeMethod
+    public void setUp() {
+        responseCache = new ResponseCache();
+        ReflectionTestUtils.setField(responseCache, "ttlSeconds", 60L);
+        ReflectionTestUtils.setField(responseCache, "maxEntries", 100);
+        filter = new CatalogCacheFilter(responseCache);
+        renders = new AtomicInteger();
+        chain = (req, res) -> {
+            int n = renders.incrementAndGet();
+            res.setContentType("application/json");
+            res.getOutputStream().write(("{\"render\":" + n + "}").getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    private MockHttpServletResponse get(String uri, String ifNoneMatch) throws Exception {
+        String[] parts = uri.split("\\?", 2);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", parts[0]);
+        if (parts.length > 1) {
+            for (String pair : parts[1].split("&")) {
+                String[] kv = pair.split("=", 2);
+                request.addParameter(kv[0], kv[1]);
+            }
+        }
+        if (ifNoneMatch != null) request.addHeader("If-None-Match", ifNoneMatch);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    @Test(description = "Second anonymous GET is served from the cache with the same body and ETag",
+            groups = {"unit", "system"},
+            priority = 1)
+    public void get_secondRequestIsCacheHit() throws Exception {
+        MockHttpServletResponse first = get("/api/products/5", null);
+        MockHttpServletResponse second = get("/api/products/5", null);
+
+        assertEquals(renders.get(), 1);
+        assertEquals(second.getContentAsString(), first.getContentAsString());
+        assertNotNull(first.getHeader("ETag"));
+        assertEquals(second.getHeader("ETag"), first.getHeader("ETag"));
+        assertEquals(second.getHeader("Cache-Control"), "public, max-age=60");
+    }
+
+    @Test(description = "Matching If-None-Match returns 304 without a body",
+            groups = {"unit", "system"},
+            priority = 2)
+    public void get_matchingEtagReturns304() throws Exception {
+        String etag = get("/api/products", null).getHeader("ETag");
+
+        MockHttpServletResponse response = get("/api/products", etag);
+
+        assertEquals(response.getStatus(), 304);
+        assertEquals(response.getContentAsByteArray().length, 0);
+    }
+
+    @Test(description = "Invalidating a product tag drops its responses and the listings but not other products",
+            groups = {"unit", "system"},
+            priority = 3)
+    public void invalidate_dropsTaggedEntries() throws Exception {
+        get("/api/products/5", null);
+        get("/api/products/6", null);
+        get("/api/products?page=0", null);
+        get("/api/products?page=0", null);
+        assertEquals(renders.get(), 3);
+
+        responseCache.invalidate(CatalogCacheFilter.productTag(5L), CatalogCacheFilter.TAG_LISTINGS);
+        get("/api/products/5", null);
+        get("/api/products/6", null);
+        get("/api/products?page=0", null);
+
+        assertEquals(renders.get(), 5);
+    }
+
+    @Test(description = "Requests with credentials bypass the cache",
+            groups = {"unit", "system"},
+            priority = 4)
+    public void get_withAuthorizationBypassesCache() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products/5");
+            request.addHeader("Authorization", "Bearer x");
+            filter.doFilter(request, new MockHttpServletResponse(), chain);
+        }
+        assertEquals(renders.get(), 2);
+    }
+
+    @Test(description = "Cache keys ignore parameter order and tags follow the product id in the path",
+            groups = {"unit", "system"},
+            priority = 5)
+    public void keyAndTags() {
+        assertEquals(CatalogCacheFilter.key("/api/products", Map.of("size", new String[]{"5"}, "page", new String[]{"1"})),
+                "/api/products?page=1&size=5");
+        assertEquals(CatalogCacheFilter.tags("/api/products/42/reviews"), Set.of("product:42"));
+        assertEquals(CatalogCacheFilter.tags("/api/products"), Set.of("products"));
+        assertTrue(CatalogCacheFilter.matches("W/\"a\", \"b\"", "\"b\""));
+    }
+}
@@ -0,0 +1,32 @@
+package com.simon.system;
+
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Pins the number of SQL statements a block issues, for tests that run against a real persistence
+ * context:
+ * <pre>{@code
+ * QueryAssertions.assertStatements(1, () -> authController.refresh(request));
+ * }</pre>
+ */
+public final class QueryAssertions {
+    private QueryAssertions() {
+    }
+
+    public static QueryStats capture(Runnable action) {
+        QueryStats stats = QueryStats.begin();
+        try {
+            action.run();
+            return stats;
+        } finally {
+            QueryStats.end();
+        }
+    }
+
+    public static void assertStatements(int expected, Runnable action) {
+        QueryStats stats = capture(action);
+        var repeated = stats.mostRepeated();
+        assertEquals(stats.statements(), expected, "SQL statements issued"
+                + (repeated == null ? "" : "; most repeated (" + repeated.getValue() + "x): " + repeated.getKey()));
+    }
+}
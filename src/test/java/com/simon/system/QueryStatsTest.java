@@ -0,0 +1,78 @@
+package com.simon.system;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class QueryStatsTest {
+
+    private final QueryCounter inspector = new QueryCounter();
+
+    @Test(description = "Statements seen by the inspector are counted and the most repeated one is reported",
+            groups = {"unit", "system"},
+            priority = 1)
+    public void capture_countsStatementsAndRepeats() {
+        QueryStats stats = QueryAssertions.capture(() -> {
+            inspector.inspect("select r from refresh_tokens r where r.token_hash=?");
+            for (int i = 0; i < 3; i++) inspector.inspect("select u from users u where u.id=?");
+        });
+
+        assertEquals(stats.statements(), 4);
+        assertEquals(stats.mostRepeated().getKey(), "select u from users u where u.id=?");
+        assertEquals((int) stats.mostRepeated().getValue(), 3);
+        assertNull(QueryStats.current());
+    }
+
+    @Test(description = "JDBC execution time is accumulated by the session listener",
+            groups = {"unit", "system"},
+            priority = 2)
+    public void listener_recordsExecutions() {
+        QueryCounter.Listener listener = new QueryCounter.Listener();
+        QueryStats stats = QueryAssertions.capture(() -> {
+            listener.jdbcExecuteStatementStart();
+            listener.jdbcExecuteStatementEnd();
+            listener.jdbcExecuteBatchStart();
+            listener.jdbcExecuteBatchEnd();
+        });
+
+        assertEquals(stats.executions(), 2);
+        assertTrue(stats.jdbcNanos() >= 0);
+    }
+
+    @Test(description = "The assertion helper pins an exact statement count",
+            groups = {"unit", "system"},
+            priority = 3)
+    public void assertStatements_pinsCount() {
+        QueryAssertions.assertStatements(0, () -> {
+        });
+        QueryAssertions.assertStatements(2, () -> {
+            inspector.inspect("select 1");
+            inspector.inspect("select 2");
+        });
+    }
+
+    @Test(description = "Nothing is recorded on a thread that has not begun",
+            groups = {"unit", "system"},
+            priority = 4)
+    public void noCapture_recordsNothing() {
+        inspector.inspect("select 1");
+        assertNull(QueryStats.current());
+    }
+
+    @Test(description = "Endpoint totals average statements per request",
+            groups = {"unit", "system"},
+            priority = 5)
+    public void endpointStats_aggregate() {
+        EndpointQueryStats endpoints = new EndpointQueryStats();
+        endpoints.record("POST /api/auth/refresh", 2, 1_000_000);
+        endpoints.record("POST /api/auth/refresh", 4, 3_000_000);
+
+        EndpointQueryStats.Summary s = endpoints.snapshot().get("POST /api/auth/refresh");
+        assertEquals(s.requests(), 2);
+        assertEquals(s.avgStatements(), 3.0);
+        assertEquals(s.maxStatements(), 4);
+        assertEquals(s.avgJdbcMillis(), 2.0);
+    }
+}
@@ -0,0 +1,119 @@
+package com.simon.system;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.UUID;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class ReadWriteRoutingDataSourceTest {
+
+    private DataSource primary;
+    private DataSource replica;
+    private ReplicaLagMonitor lagMonitor;
+    private ReadYourWrites readYourWrites;
+    private JdbcTemplate routed;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeMethod
+    public void setUp() {
+        String suffix = UUID.randomUUID().toString();
+        primary = new DriverManagerDataSource("jdbc:h2:mem:primary-" + suffix + ";DB_CLOSE_DELAY=-1", "sa", "");
+        replica = new DriverManagerDataSource("jdbc:h2:mem:replica-" + suffix + ";DB_CLOSE_DELAY=-1", "sa", "");
+        for (var ds : List.of(primary, replica)) {
+            new JdbcTemplate(ds).execute("CREATE TABLE whoami (name VARCHAR(20))");
+            new JdbcTemplate(ds).execute(ReplicaLagMonitor.CREATE);
+        }
+        new JdbcTemplate(primary).update("INSERT INTO whoami VALUES ('primary')");
+        new JdbcTemplate(replica).update("INSERT INTO whoami VALUES ('replica')");
+
+        lagMonitor = new ReplicaLagMonitor(primary, replica, 1000);
+        readYourWrites = new ReadYourWrites();
+        DataSource dataSource = new LazyConnectionDataSourceProxy(
+                new ReadWriteRoutingDataSource(primary, replica, lagMonitor, readYourWrites));
+        routed = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager txManager = new DataSourceTransactionManager(dataSource);
+        readOnly = new TransactionTemplate(txManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(txManager);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private void replicateHeartbeat() {
+        Long beat = new JdbcTemplate(primary).queryForObject("SELECT beat_at FROM replication_heartbeat WHERE id = 1", Long.class);
+        new JdbcTemplate(replica).update("MERGE INTO replication_heartbeat KEY(id) VALUES (1, ?)", beat);
+    }
+
+    private String readOnlyTarget() {
+        return readOnly.execute(_ -> routed.queryForObject("SELECT name FROM whoami", String.class));
+    }
+
+    private String readWriteTarget() {
+        return readWrite.execute(_ -> routed.queryForObject("SELECT name FROM whoami", String.class));
+    }
+
+    @Test(description = "Read-only transactions use the replica once it is known to be caught up",
+            groups = {"unit", "system"},
+            priority = 1)
+    public void readOnly_goesToReplicaWhenCaughtUp() {
+        assertEquals(readOnlyTarget(), "primary", "lag is unknown before the first check");
+
+        lagMonitor.check();
+        replicateHeartbeat();
+        lagMonitor.check();
+
+        assertTrue(lagMonitor.replicaUsable());
+        assertEquals(readOnlyTarget(), "replica");
+        assertEquals(readWriteTarget(), "primary");
+        assertEquals(routed.queryForObject("SELECT name FROM whoami", String.class), "primary");
+    }
+
+    @Test(description = "Reads fall back to the primary when the replica lags beyond tolerance",
+            groups = {"unit", "system"},
+            priority = 2)
+    public void readOnly_fallsBackWhenReplicaLags() {
+        new JdbcTemplate(replica).update("MERGE INTO replication_heartbeat KEY(id) VALUES (1, ?)",
+                System.currentTimeMillis() - 5000);
+        lagMonitor.check();
+
+        assertFalse(lagMonitor.replicaUsable());
+        assertEquals(readOnlyTarget(), "primary");
+    }
+
+    @Test(description = "A user's reads stick to the primary right after their own write",
+            groups = {"unit", "system"},
+            priority = 3)
+    public void readYourWrites_pinsWriterToPrimary() {
+        lagMonitor.check();
+        replicateHeartbeat();
+        lagMonitor.check();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("42", null, List.of()));
+
+        assertEquals(readOnlyTarget(), "replica");
+        readWriteTarget();
+        assertEquals(readOnlyTarget(), "primary");
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("43", null, List.of()));
+        assertEquals(readOnlyTarget(), "replica");
+    }
+}
@@ -0,0 +1,65 @@
+package com.simon.system;
+
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Ids per second from one node's generator across thread counts. The ceiling is the 4096 ids per
+ * millisecond the layout allows, so past a few threads the number shows contention on the CAS
+ * rather than raw speed. Excluded from the default build; run with {@code mvn test -Pbenchmark}.
+ */
+public class SnowflakeIdsBenchmark {
+    private static final long WARMUP_MILLIS = 2_000;
+    private static final long MEASURE_MILLIS = 5_000;
+
+    @Test(description = "Snowflake id generation throughput across thread counts",
+            groups = {"benchmark"})
+    public void next_idsPerSecond() throws InterruptedException {
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int threads : new int[]{1, 2, 4, cores, cores * 2}) {
+            SnowflakeIds ids = new SnowflakeIds(1, 100, System::currentTimeMillis);
+
+            run(ids, threads, WARMUP_MILLIS);
+            double perSecond = run(ids, threads, MEASURE_MILLIS) * 1000.0 / MEASURE_MILLIS;
+            System.out.printf("snowflake.next threads=%d ids/sec=%,.0f (layout limit %,d)%n",
+                    threads, perSecond, (SnowflakeIds.SEQUENCE_MASK + 1) * 1000);
+            assertTrue(perSecond > 0);
+        }
+    }
+
+    private long run(SnowflakeIds ids, int threads, long millis) throws InterruptedException {
+        LongAdder ops = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis) + TimeUnit.MILLISECONDS.toNanos(50);
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                    long n = 0;
+                    long sink = 0;
+                    while (System.nanoTime() < deadline) {
+                        sink ^= ids.next();
+                        n++;
+                    }
+                    ops.add(n);
+                    if (sink == 42) System.out.print("");
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+            worker.start();
+        }
+        Thread.sleep(50);
+        start.countDown();
+        done.await();
+        return ops.sum();
+    }
+}
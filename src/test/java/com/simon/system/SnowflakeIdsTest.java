@@ -0,0 +1,131 @@
+package com.simon.system;
+
+import com.simon.model.Order;
+import com.simon.model.OrderLine;
+import com.simon.model.OrderStatus;
+import com.simon.service.ChangeFeed;
+import org.testng.annotations.Test;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.expectThrows;
+
+public class SnowflakeIdsTest {
+    private static final long T0 = SnowflakeIds.EPOCH_MILLIS + 1_000_000;
+
+    @Test(description = "An id carries its timestamp, node and sequence in fixed bit ranges",
+            groups = {"unit", "system"},
+            priority = 1)
+    public void next_encodesTimestampNodeAndSequence() {
+        SnowflakeIds ids = new SnowflakeIds(37, 100, () -> T0);
+
+        long first = ids.next();
+        long second = ids.next();
+
+        assertEquals(SnowflakeIds.timestamp(first), Instant.ofEpochMilli(T0));
+        assertEquals(SnowflakeIds.node(first), 37);
+        assertEquals(first & SnowflakeIds.SEQUENCE_MASK, 0);
+        assertEquals(second, first + 1);
+        assertTrue(first > 0);
+        expectThrows(IllegalStateException.class, () -> new SnowflakeIds(1024, 100, () -> T0));
+    }
+
+    @Test(description = "When a millisecond's sequence is used up, generation moves on with the clock",
+            groups = {"unit", "system"},
+            priority = 2)
+    public void next_waitsForNextMillisecondWhenSequenceExhausted() {
+        AtomicInteger reads = new AtomicInteger();
+        // the clock ticks once the first millisecond's ids are gone
+        SnowflakeIds ids = new SnowflakeIds(1, 100, () -> reads.incrementAndGet() <= 4096 + 100 ? T0 : T0 + 1);
+
+        long prev = -1;
+        for (int i = 0; i < 4096; i++) {
+            long id = ids.next();
+            assertTrue(id > prev);
+            prev = id;
+        }
+        long next = ids.next();
+
+        assertEquals(SnowflakeIds.timestamp(prev), Instant.ofEpochMilli(T0));
+        assertEquals(SnowflakeIds.timestamp(next), Instant.ofEpochMilli(T0 + 1));
+        assertEquals(next & SnowflakeIds.SEQUENCE_MASK, 0);
+    }
+
+    @Test(description = "A small clock step back is waited out; a large one stops generation",
+            groups = {"unit", "system"},
+            priority = 3)
+    public void next_handlesClockMovingBack() {
+        AtomicLong now = new AtomicLong(T0);
+        AtomicInteger reads = new AtomicInteger();
+        SnowflakeIds ids = new SnowflakeIds(1, 100, () -> {
+            // after a few reads behind, the clock catches up again
+            if (now.get() < T0 && reads.incrementAndGet() > 3) now.set(T0 + 1);
+            return now.get();
+        });
+        long before = ids.next();
+
+        now.set(T0 - 20);
+        long after = ids.next();
+        assertTrue(after > before);
+
+        now.set(T0 - 10_000);
+        reads.set(Integer.MIN_VALUE);
+        expectThrows(IllegalStateException.class, ids::next);
+    }
+
+    @Test(description = "Ids from concurrent callers are unique and increase per thread",
+            groups = {"unit", "system"},
+            priority = 4)
+    public void next_uniqueAcrossThreads() throws Exception {
+        SnowflakeIds ids = new SnowflakeIds(3, 100, System::currentTimeMillis);
+        int threads = 8;
+        int perThread = 20_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            Callable<long[]> task = () -> {
+                long[] out = new long[perThread];
+                for (int i = 0; i < perThread; i++) out[i] = ids.next();
+                return out;
+            };
+            List<Future<long[]>> futures = pool.invokeAll(Collections.nCopies(threads, task));
+            Set<Long> all = new HashSet<>();
+            for (Future<long[]> f : futures) {
+                long[] out = f.get();
+                for (int i = 0; i < out.length; i++) {
+                    if (i > 0) assertTrue(out[i] > out[i - 1]);
+                    all.add(out[i]);
+                }
+            }
+            assertEquals(all.size(), threads * perThread);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test(description = "Order ids are written to JSON as strings so browsers do not round them",
+            groups = {"unit", "system"},
+            priority = 5)
+    public void orderIds_serializeAsStrings() {
+        long id = new SnowflakeIds(3, 100, () -> T0).next();
+        ObjectMapper mapper = new ObjectMapper();
+
+        assertTrue(mapper.writeValueAsString(new Order().setId(id)).contains("\"id\":\"" + id + "\""));
+        assertTrue(mapper.writeValueAsString(new OrderLine().setId(id).setOrderId(id))
+                .contains("\"orderId\":\"" + id + "\""));
+        assertTrue(mapper.writeValueAsString(new ChangeFeed.OrderState(id, OrderStatus.PAID))
+                .contains("\"orderId\":\"" + id + "\""));
+    }
+}
@@ -0,0 +1,89 @@
+package com.simon.system;
+
+import jakarta.servlet.FilterChain;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class TraceFilterTest {
+
+    private TraceFilter filter;
+    private AtomicReference<String> mdcInChain;
+    private FilterChain chain;
+
+    @BeforeMethod
+    public void setUp() {
+        filter = new TraceFilter();
+        mdcInChain = new AtomicReference<>();
+        chain = (req, res) -> {
+            mdcInChain.set(MDC.get(TraceFilter.MDC_KEY));
+            try (var _ = Trace.span("UserRepository.findById")) {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            try (var _ = Trace.span("UserRepository.findById")) {
+                // second call of the same method is aggregated
+            }
+            TraceFilter.markWriteStart();
+            res.getOutputStream().write("{}".getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    @Test(description = "A traceparent id is propagated to the MDC and the X-Trace-Id header, then cleared",
+            groups = {"unit", "system"},
+            priority = 1)
+    public void traceparent_isPropagated() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/me");
+        request.addHeader("traceparent", "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, chain);
+
+        assertEquals(mdcInChain.get(), "4bf92f3577b34da6a3ce929d0e0e4736");
+        assertEquals(response.getHeader("X-Trace-Id"), "4bf92f3577b34da6a3ce929d0e0e4736");
+        assertNull(MDC.get(TraceFilter.MDC_KEY));
+        assertFalse(Trace.active());
+    }
+
+    @Test(description = "Server-Timing lists aggregated spans, the write phase and the total",
+            groups = {"unit", "system"},
+            priority = 2)
+    public void serverTiming_whenAlways() throws Exception {
+        ReflectionTestUtils.setField(filter, "serverTiming", "always");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/users/me"), response, chain);
+
+        String header = response.getHeader("Server-Timing");
+        assertNotNull(header);
+        assertTrue(header.startsWith("UserRepository.findById;dur="), header);
+        assertTrue(header.contains(";desc=\"2 calls\""), header);
+        assertTrue(header.contains("write;dur="), header);
+        assertTrue(header.contains("total;dur="), header);
+        assertEquals(response.getHeader("X-Trace-Id").length(), 32);
+    }
+
+    @Test(description = "Server-Timing is withheld from non-admin callers by default",
+            groups = {"unit", "system"},
+            priority = 3)
+    public void serverTiming_hiddenFromAnonymous() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/users/me"), response, chain);
+
+        assertNull(response.getHeader("Server-Timing"));
+    }
+}